@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useRef, useState } from 'react';
 import { Modal, Button, Form, Alert, Spinner } from 'react-bootstrap';
 import { FaCreditCard, FaPaypal, FaMoneyBill, FaTimes, FaCheckCircle } from 'react-icons/fa';
 import PropTypes from 'prop-types';
@@ -13,6 +13,8 @@ const PaymentModal = ({ show, onHide, reservation, onPaymentSuccess }) => {
   const [expiryDate, setExpiryDate] = useState('');
   const [cvv, setCvv] = useState('');
   const [paypalEmail, setPaypalEmail] = useState('');
+  // Clave de idempotencia del intento actual: se reutiliza si el usuario reintenta
+  const idempotencyRef = useRef(null);
 
   if (!reservation) return null;
 
@@ -65,7 +67,12 @@ const PaymentModal = ({ show, onHide, reservation, onPaymentSuccess }) => {
     try {
       setProcessing(true);
 
-      await paymentService.processPayment(reservation.id, paymentMethod);
+      const attempt = `${reservation.id}:${paymentMethod}`;
+      if (!idempotencyRef.current || idempotencyRef.current.attempt !== attempt) {
+        idempotencyRef.current = { attempt, key: crypto.randomUUID() };
+      }
+
+      await paymentService.processPayment(reservation.id, paymentMethod, idempotencyRef.current.key);
 
       // Notificar éxito
       if (onPaymentSuccess) {
@@ -84,6 +91,7 @@ const PaymentModal = ({ show, onHide, reservation, onPaymentSuccess }) => {
 
   const handleClose = () => {
     // Limpiar formulario
+    idempotencyRef.current = null;
     setPaymentMethod('CREDIT_CARD');
     setCardNumber('');
     setCardName('');
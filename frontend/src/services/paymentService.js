@@ -28,13 +28,18 @@ const paymentService = {
    * Procesa un pago para una reserva
    * @param {number} reservationId - ID de la reserva
    * @param {string} paymentMethod - Método de pago (CREDIT_CARD, PAYPAL, CASH)
+   * @param {string} idempotencyKey - Clave única del intento de pago; reutilizarla en los
+   *                                  reintentos evita cobros duplicados
    * @returns {Promise} Pago procesado
    */
-  processPayment: async (reservationId, paymentMethod) => {
+  processPayment: async (reservationId, paymentMethod, idempotencyKey = crypto.randomUUID()) => {
     const response = await api.post('/payments', null, {
       params: {
         reservationId,
         paymentMethod
+      },
+      headers: {
+        'Idempotency-Key': idempotencyKey
       }
     });
     return response.data;
@@ -0,0 +1,11 @@
+package com.hotel.reservation.cache;
+
+/**
+ * Tablas cuyas modificaciones invalidan los reportes en caché
+ */
+public enum DataTable {
+    ROOMS,
+    CUSTOMERS,
+    RESERVATIONS,
+    PAYMENTS
+}
@@ -0,0 +1,40 @@
+package com.hotel.reservation.cache;
+
+import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.Room;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de las entidades de reportes: toda escritura por JPA incrementa la versión
+ * de su tabla. Las sentencias masivas (UPDATE JPQL) no pasan por aquí y registran el
+ * cambio explícitamente con DataVersions.
+ *
+ * Hibernate obtiene el listener del contexto de Spring (SpringBeanContainer).
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionListener {
+
+    private final DataVersions dataVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Room) {
+            dataVersions.changed(DataTable.ROOMS);
+        } else if (entity instanceof Customer) {
+            dataVersions.changed(DataTable.CUSTOMERS);
+        } else if (entity instanceof Reservation) {
+            dataVersions.changed(DataTable.RESERVATIONS);
+        } else if (entity instanceof Payment) {
+            dataVersions.changed(DataTable.PAYMENTS);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hotel.reservation.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de cambios por tabla.
+ *
+ * Cada escritura incrementa la versión de su tabla; un reporte en caché es válido mientras
+ * la suma de las versiones de las tablas que lee no cambie. Dentro de una transacción el
+ * incremento se aplica al confirmarla (una sola vez por tabla), para que ningún reporte
+ * generado con datos sin confirmar quede guardado con la versión nueva.
+ *
+ * Las versiones empiezan en 0 al iniciar la aplicación: el epoch distingue las ETags
+ * de ejecuciones anteriores.
+ */
+@Component
+public class DataVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<DataTable, AtomicLong> versions = new EnumMap<>(DataTable.class);
+    private final Map<DataTable, AtomicLong> lastModifiedMillis = new EnumMap<>(DataTable.class);
+
+    public DataVersions() {
+        for (DataTable table : DataTable.values()) {
+            versions.put(table, new AtomicLong());
+            lastModifiedMillis.put(table, new AtomicLong(epoch));
+        }
+    }
+
+    /**
+     * Registra cambios en las tablas indicadas (al confirmar la transacción actual, si hay una)
+     */
+    public void changed(DataTable... tables) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (DataTable table : tables) {
+                bump(table);
+            }
+            return;
+        }
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending) {
+                pending.add(tables);
+                return;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        pending.add(tables);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    /**
+     * Versión combinada de las tablas (crece con cada cambio en cualquiera de ellas)
+     */
+    public long version(Set<DataTable> tables) {
+        long sum = 0;
+        for (DataTable table : tables) {
+            sum += versions.get(table).get();
+        }
+        return sum;
+    }
+
+    /**
+     * Último cambio en cualquiera de las tablas
+     */
+    public Instant lastModified(Set<DataTable> tables) {
+        long latest = epoch;
+        for (DataTable table : tables) {
+            latest = Math.max(latest, lastModifiedMillis.get(table).get());
+        }
+        return Instant.ofEpochMilli(latest);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    private void bump(DataTable table) {
+        // Primero la fecha: quien lea la versión nueva ve también la fecha nueva
+        lastModifiedMillis.get(table).set(System.currentTimeMillis());
+        versions.get(table).incrementAndGet();
+    }
+
+    /**
+     * Tablas modificadas por la transacción actual
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Set<DataTable> tables = EnumSet.noneOf(DataTable.class);
+
+        void add(DataTable... changed) {
+            for (DataTable table : changed) {
+                tables.add(table);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            tables.forEach(DataVersions.this::bump);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hotel.reservation.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Caché de reportes por clave (tipo de reporte y parámetros) y versión de los datos.
+ *
+ * - Una entrada es válida mientras la versión de las tablas que lee el reporte no cambie
+ * - Una sola generación en curso por clave: las peticiones concurrentes esperan el mismo
+ *   resultado en lugar de generar el reporte otra vez
+ * - Cada resultado lleva una ETag derivada de la versión, para responder 304 a las
+ *   peticiones condicionales sin volver a enviar el cuerpo
+ *
+ * Las claves se limitan a max-entries (LRU), ya que incluyen parámetros como rangos de fechas.
+ */
+@Slf4j
+@Component
+public class ReportCache {
+
+    private final DataVersions dataVersions;
+    private final Map<String, Entry> entries;
+
+    public ReportCache(DataVersions dataVersions,
+                       @Value("${app.reports.cache.max-entries:200}") int maxEntries) {
+        this.dataVersions = dataVersions;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Reporte que depende de las tablas indicadas
+     */
+    public <T> CachedReport<T> get(String key, Set<DataTable> tables, Supplier<T> generator) {
+        long version = dataVersions.version(tables);
+        return get(key, version, dataVersions.lastModified(tables), generator);
+    }
+
+    /**
+     * Reporte con una versión propia (p. ej. contadores en memoria)
+     * @param version versión de los datos; debe crecer con cada cambio
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CachedReport<T> get(String key, long version, Instant lastModified, Supplier<T> generator) {
+        Entry mine = new Entry(version, new CompletableFuture<>());
+        // Se conserva la entrada existente si es de esta versión o de una posterior
+        Entry current = entries.compute(key, (k, existing) ->
+                existing != null && existing.version() >= version ? existing : mine);
+
+        if (current != mine) {
+            return (CachedReport<T>) await(current.result());
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            CachedReport<T> report = new CachedReport<>(generator.get(), etag(key, version), lastModified);
+            mine.result().complete(report);
+            log.debug("📊 Reporte '{}' generado (versión {}) en {} ms", key, version, System.currentTimeMillis() - start);
+            return report;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            entries.remove(key, mine);
+            throw e;
+        }
+    }
+
+    private String etag(String key, long version) {
+        return "\"" + Long.toHexString(dataVersions.getEpoch()) + "-"
+                + Integer.toHexString(key.hashCode()) + "-" + version + "\"";
+    }
+
+    private CachedReport<?> await(CompletableFuture<CachedReport<?>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Quien espera recibe el mismo error que la generación original
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resultado en caché con sus validadores HTTP
+     */
+    public record CachedReport<T>(T body, String etag, Instant lastModified) {
+    }
+
+    private record Entry(long version, CompletableFuture<CachedReport<?>> result) {
+    }
+}
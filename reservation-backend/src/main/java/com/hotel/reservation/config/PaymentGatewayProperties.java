@@ -0,0 +1,54 @@
+package com.hotel.reservation.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de las pasarelas de pago (prefijo app.payments).
+ *
+ * Cada pasarela (stripe, paypal, cash) tiene su propio límite de concurrencia,
+ * timeout y simulador de latencia/fallos para pruebas sin conexión.
+ * Las pasarelas sin configuración usan los valores por defecto de Gateway.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.payments")
+public class PaymentGatewayProperties {
+
+    private Map<String, Gateway> gateways = new HashMap<>();
+
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    /**
+     * Configuración de una pasarela, o la de por defecto si no está definida
+     */
+    public Gateway gateway(String name) {
+        return gateways.getOrDefault(name, new Gateway());
+    }
+
+    @Data
+    public static class Gateway {
+        // Llamadas simultáneas permitidas (bulkhead)
+        private int maxConcurrentCalls = 10;
+        // Tiempo máximo de espera por llamada
+        private long timeoutMs = 5000;
+
+        // Simulador: latencia base + jitter aleatorio y tasa de errores técnicos (0.0 - 1.0)
+        private long simulatedLatencyMs = 0;
+        private long simulatedJitterMs = 0;
+        private double simulatedFailureRate = 0.0;
+    }
+
+    @Data
+    public static class CircuitBreakerSettings {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 50;
+        private long openDurationMs = 30000;
+        private int halfOpenProbes = 3;
+    }
+}
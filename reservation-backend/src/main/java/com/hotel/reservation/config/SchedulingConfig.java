@@ -0,0 +1,12 @@
+package com.hotel.reservation.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled), p. ej. la reconciliación de pagos
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
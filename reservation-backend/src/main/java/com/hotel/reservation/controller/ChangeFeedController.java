@@ -0,0 +1,39 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.dto.ChangeFeedPageDTO;
+import com.hotel.reservation.service.ChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+
+/**
+ * Feed de cambios para consumidores externos (channel manager, BI)
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Cambios posteriores al cursor (long polling): si no hay, responde al llegar uno o al
+     * vencer waitMs con una página vacía. La siguiente consulta usa since=nextCursor.
+     */
+    @GetMapping
+    public DeferredResult<ChangeFeedPageDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "25000") long waitMs) {
+        return changeFeed.poll(since, limit, waitMs);
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(changeFeed.getMetrics());
+    }
+}
@@ -0,0 +1,60 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.dto.CommandLogDTO;
+import com.hotel.reservation.dto.ReservationDTO;
+import com.hotel.reservation.service.CommandExecutionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comandos con deshacer/rehacer por actor (header X-Actor)
+ */
+@RestController
+@RequestMapping("/api/commands")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class CommandController {
+
+    private static final String ACTOR_HEADER = "X-Actor";
+
+    private final CommandExecutionService commandExecutionService;
+
+    @PostMapping("/reservations")
+    public ResponseEntity<CommandLogDTO> createReservation(@RequestHeader(value = ACTOR_HEADER, required = false) String actor,
+                                                           @Valid @RequestBody ReservationDTO reservationDTO) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(commandExecutionService.createReservation(actor, reservationDTO));
+    }
+
+    @PostMapping("/reservations/{id}/cancel")
+    public ResponseEntity<CommandLogDTO> cancelReservation(@RequestHeader(value = ACTOR_HEADER, required = false) String actor,
+                                                           @PathVariable Long id) {
+        return ResponseEntity.ok(commandExecutionService.cancelReservation(actor, id));
+    }
+
+    @PostMapping("/undo")
+    public ResponseEntity<CommandLogDTO> undo(@RequestHeader(value = ACTOR_HEADER, required = false) String actor) {
+        return ResponseEntity.ok(commandExecutionService.undo(actor));
+    }
+
+    @PostMapping("/redo")
+    public ResponseEntity<CommandLogDTO> redo(@RequestHeader(value = ACTOR_HEADER, required = false) String actor) {
+        return ResponseEntity.ok(commandExecutionService.redo(actor));
+    }
+
+    @GetMapping("/log")
+    public ResponseEntity<List<CommandLogDTO>> getLog(@RequestHeader(value = ACTOR_HEADER, required = false) String actor) {
+        return ResponseEntity.ok(commandExecutionService.getLog(actor));
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(commandExecutionService.getMetrics());
+    }
+}
@@ -0,0 +1,28 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.events.RingBufferEventBus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controlador para monitorear el bus de eventos de dominio
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class EventBusController {
+
+    private final RingBufferEventBus eventBus;
+
+    /**
+     * Estado del bus: secuencia publicada y retraso de cada suscriptor
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(eventBus.getStatus());
+    }
+}
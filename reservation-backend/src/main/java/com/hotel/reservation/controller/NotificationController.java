@@ -1,12 +1,17 @@
 package com.hotel.reservation.controller;
 
+import com.hotel.reservation.dto.NotificationDeadLetterDTO;
 import com.hotel.reservation.dto.NotificationPreferenceDTO;
+import com.hotel.reservation.models.NotificationChannel;
 import com.hotel.reservation.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Controlador para gestionar las preferencias de notificación de los clientes
  */
@@ -35,4 +40,31 @@ public class NotificationController {
             @RequestBody NotificationPreferenceDTO dto) {
         return ResponseEntity.ok(notificationService.updatePreferences(customerId, dto));
     }
+
+    /**
+     * Lista las notificaciones que agotaron sus reintentos (dead-letter)
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<NotificationDeadLetterDTO>> getDeadLetters(
+            @RequestParam(required = false) NotificationChannel channel) {
+        return ResponseEntity.ok(notificationService.getDeadLetters(channel));
+    }
+
+    /**
+     * Reenvía en bloque las notificaciones fallidas (opcionalmente de un solo canal)
+     */
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(
+            @RequestParam(required = false) NotificationChannel channel) {
+        int replayed = notificationService.replayDeadLetters(channel);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("replayed", replayed));
+    }
+
+    /**
+     * Estado de los circuit breakers por canal
+     */
+    @GetMapping("/channels/status")
+    public ResponseEntity<Map<String, Object>> getChannelStatus() {
+        return ResponseEntity.ok(notificationService.getChannelStatus());
+    }
 }
@@ -0,0 +1,54 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.dto.PaymentCallbackDTO;
+import com.hotel.reservation.dto.PaymentDTO;
+import com.hotel.reservation.service.PaymentService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Callback de la pasarela local con el resultado de un pago asíncrono.
+ *
+ * Solo se registra con app.payments.async.local-gateway.enabled=true y exige
+ * app.payments.callback-token: sin token configurado la aplicación no arranca.
+ */
+@RestController
+@RequestMapping("/api/payments")
+@ConditionalOnProperty(name = "app.payments.async.local-gateway.enabled", havingValue = "true")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class PaymentCallbackController {
+
+    private final PaymentService paymentService;
+    private final byte[] callbackToken;
+
+    public PaymentCallbackController(PaymentService paymentService,
+                                     @Value("${app.payments.callback-token:}") String callbackToken) {
+        if (callbackToken == null || callbackToken.isBlank()) {
+            throw new IllegalStateException(
+                    "app.payments.callback-token es obligatorio cuando la pasarela local está habilitada");
+        }
+        this.paymentService = paymentService;
+        this.callbackToken = callbackToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Requiere el header X-Callback-Token; se compara en tiempo constante
+     */
+    @PostMapping("/{id}/callback")
+    public ResponseEntity<PaymentDTO> handleGatewayCallback(
+            @PathVariable Long id,
+            @RequestHeader(value = "X-Callback-Token", required = false) String token,
+            @Valid @RequestBody PaymentCallbackDTO callback) {
+        if (token == null || !MessageDigest.isEqual(callbackToken, token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(paymentService.handleGatewayCallback(id, callback));
+    }
+}
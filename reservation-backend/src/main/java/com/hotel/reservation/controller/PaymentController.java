@@ -2,13 +2,20 @@ package com.hotel.reservation.controller;
 
 import com.hotel.reservation.dto.PaymentDTO;
 import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.service.PaymentGatewayRegistry;
+import com.hotel.reservation.service.PaymentIdempotencyService;
+import com.hotel.reservation.service.PaymentIdempotencyService.IdempotentPayment;
+import com.hotel.reservation.service.PaymentReconciliationService;
 import com.hotel.reservation.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -17,6 +24,9 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final PaymentReconciliationService paymentReconciliationService;
 
     @GetMapping("/{id}")
     public ResponseEntity<PaymentDTO> getPaymentById(@PathVariable Long id) {
@@ -28,12 +38,59 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getPaymentsByReservation(reservationId));
     }
 
+    /**
+     * Procesa un pago. Con el header Idempotency-Key, los reintentos reciben la
+     * respuesta original sin volver a cobrar (header Idempotent-Replayed: true).
+     *
+     * Con async=true responde 202 con el pago PENDING; el estado se consulta en
+     * GET /api/payments/{id} y se resuelve en segundo plano o por callback. Un pago síncrono
+     * cuya pasarela no respondió a tiempo también responde 202 (lo resuelve la reconciliación).
+     */
     @PostMapping
     public ResponseEntity<PaymentDTO> processPayment(
             @RequestParam Long reservationId,
-            @RequestParam PaymentMethod paymentMethod) {
+            @RequestParam PaymentMethod paymentMethod,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        IdempotentPayment result = paymentIdempotencyService.processPayment(
+                idempotencyKey, reservationId, paymentMethod, async);
+
+        if (async || result.payment().getPaymentStatus() == PaymentStatus.PENDING) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/" + result.payment().getId()))
+                    .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                    .body(result.payment());
+        }
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(paymentService.processPayment(reservationId, paymentMethod));
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.payment());
+    }
+
+    /**
+     * Métricas por pasarela: estado del circuito, concurrencia, errores y latencia
+     */
+    @GetMapping("/gateways/metrics")
+    public ResponseEntity<Map<String, Object>> getGatewayMetrics() {
+        return ResponseEntity.ok(paymentGatewayRegistry.getMetrics());
+    }
+
+    /**
+     * Progreso y métricas de la reconciliación de pagos pendientes
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<Map<String, Object>> getReconciliationMetrics() {
+        return ResponseEntity.ok(paymentReconciliationService.getMetrics());
+    }
+
+    /**
+     * Lanza una reconciliación manual (409 si ya hay una en curso)
+     */
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<Map<String, Object>> runReconciliation() {
+        if (!paymentReconciliationService.trigger()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("started", false));
+        }
+        return ResponseEntity.accepted().body(Map.of("started", true));
     }
 
     @PostMapping("/{id}/refund")
@@ -0,0 +1,56 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.dto.BulkRefundRequestDTO;
+import com.hotel.reservation.dto.RefundJobDTO;
+import com.hotel.reservation.service.BulkRefundService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Reembolsos masivos (p. ej. cancelación de un evento o cierre de temporada)
+ */
+@RestController
+@RequestMapping("/api/refunds/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class RefundJobController {
+
+    private final BulkRefundService bulkRefundService;
+
+    /**
+     * Crea un trabajo de reembolso para los pagos completados que cumplen el filtro.
+     * Responde 202; el progreso se consulta en GET /api/refunds/jobs/{id}.
+     */
+    @PostMapping
+    public ResponseEntity<RefundJobDTO> createJob(@RequestBody BulkRefundRequestDTO request) {
+        RefundJobDTO job = bulkRefundService.createJob(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/refunds/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RefundJobDTO>> getJobs() {
+        return ResponseEntity.ok(bulkRefundService.getJobs());
+    }
+
+    /**
+     * Progreso del trabajo, con los pagos fallidos y los que requieren verificación manual
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RefundJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkRefundService.getJob(id));
+    }
+
+    /**
+     * Detiene el trabajo al terminar el bloque en curso
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<RefundJobDTO> cancelJob(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkRefundService.cancelJob(id));
+    }
+}
@@ -1,27 +1,50 @@
 package com.hotel.reservation.controller;
 
-import com.hotel.reservation.models.Customer;
-import com.hotel.reservation.models.Payment;
-import com.hotel.reservation.models.Reservation;
-import com.hotel.reservation.models.Room;
+import com.hotel.reservation.cache.DataTable;
+import com.hotel.reservation.cache.ReportCache;
+import com.hotel.reservation.cache.ReportCache.CachedReport;
+import com.hotel.reservation.dto.CubeSliceDTO;
+import com.hotel.reservation.dto.ExportManifestDTO;
+import com.hotel.reservation.dto.OccupancyTimeSeriesDTO;
+import com.hotel.reservation.dto.SketchExportDTO;
+import com.hotel.reservation.dto.SketchReportDTO;
+import com.hotel.reservation.export.ExportOptions;
+import com.hotel.reservation.export.ExportRange;
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.RoomType;
+import com.hotel.reservation.models.ViolationEntityType;
+import com.hotel.reservation.models.ViolationRule;
 import com.hotel.reservation.patterns.behavioral.template.OccupancyReport;
 import com.hotel.reservation.patterns.behavioral.template.ReservationReport;
 import com.hotel.reservation.patterns.behavioral.template.RevenueReport;
-import com.hotel.reservation.patterns.behavioral.visitor.ExportVisitor;
-import com.hotel.reservation.patterns.behavioral.visitor.StatisticsVisitor;
-import com.hotel.reservation.patterns.behavioral.visitor.ValidationVisitor;
-import com.hotel.reservation.repositories.CustomerRepository;
 import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.RevenueDailyRollupRepository;
 import com.hotel.reservation.repositories.ReservationRepository;
 import com.hotel.reservation.repositories.RoomRepository;
+import com.hotel.reservation.service.CsvExportService;
 import com.hotel.reservation.service.ExcelExportService;
+import com.hotel.reservation.service.OccupancyAnalyticsService;
+import com.hotel.reservation.service.ReservationCube;
+import com.hotel.reservation.service.RevenueRollupService;
+import com.hotel.reservation.service.SketchAggregate;
+import com.hotel.reservation.service.StatisticsAggregate;
+import com.hotel.reservation.service.ValidationEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,113 +62,288 @@ public class ReportController {
     private final ReservationRepository reservationRepository;
     private final RoomRepository roomRepository;
     private final PaymentRepository paymentRepository;
-    private final CustomerRepository customerRepository;
     private final ExcelExportService excelExportService;
+    private final CsvExportService csvExportService;
+    private final StatisticsAggregate statisticsAggregate;
+    private final ReportCache reportCache;
+    private final OccupancyAnalyticsService occupancyAnalyticsService;
+    private final RevenueDailyRollupRepository revenueRollupRepository;
+    private final RevenueRollupService revenueRollupService;
+    private final ReservationCube reservationCube;
+    private final SketchAggregate sketchAggregate;
+    private final ValidationEngine validationEngine;
+
+    // Margen que se resta al until por defecto de las exportaciones incrementales (ver ExportRange)
+    @Value("${app.reports.export.safety-lag-ms:60000}")
+    private long exportSafetyLagMillis;
 
     // ========== TEMPLATE METHOD PATTERN - Reportes ==========
 
+    /**
+     * Reporte de reservas con check-in en el rango [from, to].
+     * Con summary=true no carga reservas: solo los totales por estado.
+     */
     @GetMapping(value = "/reservations", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> getReservationReport() {
-        ReservationReport report = new ReservationReport(reservationRepository);
-        return ResponseEntity.ok(report.generateReport());
+    public ResponseEntity<String> getReservationReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        CachedReport<String> report = reportCache.get("reservations:" + from + ":" + to + ":" + summary,
+                EnumSet.of(DataTable.RESERVATIONS, DataTable.CUSTOMERS, DataTable.ROOMS),
+                () -> new ReservationReport(reservationRepository, from, to, !summary).generateReport());
+        return cachedResponse(report);
     }
 
+    /**
+     * Reporte de ocupación. Con summary=true omite el estado de cada habitación.
+     */
     @GetMapping(value = "/occupancy", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> getOccupancyReport() {
-        OccupancyReport report = new OccupancyReport(roomRepository);
-        return ResponseEntity.ok(report.generateReport());
+    public ResponseEntity<String> getOccupancyReport(@RequestParam(defaultValue = "false") boolean summary) {
+        CachedReport<String> report = reportCache.get("occupancy:" + summary, EnumSet.of(DataTable.ROOMS),
+                () -> new OccupancyReport(roomRepository, !summary).generateReport());
+        return cachedResponse(report);
     }
 
+    /**
+     * Ocupación diaria por tipo de habitación (noches vendidas, % ocupación, ADR y RevPAR)
+     * de las reservas confirmadas o completadas en el rango [from, to]
+     */
+    @GetMapping("/occupancy/daily")
+    public ResponseEntity<OccupancyTimeSeriesDTO> getDailyOccupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CachedReport<OccupancyTimeSeriesDTO> report = reportCache.get("occupancy-daily:" + from + ":" + to,
+                EnumSet.of(DataTable.RESERVATIONS, DataTable.ROOMS),
+                () -> occupancyAnalyticsService.getDailyOccupancy(from, to));
+        return cachedResponse(report);
+    }
+
+    /**
+     * Corte del cubo de reservas en memoria (no consulta la base de datos).
+     * Ejemplo: ?groupBy=MONTH,ROOM_TYPE&loyaltyLevel=GOLD,PLATINUM&status=CONFIRMED&from=2025-01&to=2025-12
+     * Las dimensiones que no están en groupBy se acumulan; los filtros vacíos no se aplican.
+     */
+    @GetMapping("/cube")
+    public ResponseEntity<CubeSliceDTO> getCubeSlice(
+            @RequestParam(required = false) List<ReservationCube.Dimension> groupBy,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) List<RoomType> roomType,
+            @RequestParam(required = false) List<LoyaltyLevel> loyaltyLevel,
+            @RequestParam(required = false) List<ReservationStatus> status) {
+        String key = "cube:" + groupBy + ":" + from + ":" + to + ":" + roomType + ":" + loyaltyLevel + ":" + status;
+        CachedReport<CubeSliceDTO> report = reportCache.get(key,
+                reservationCube.getVersion(), reservationCube.getLastModified(),
+                () -> reservationCube.slice(groupBy, from, to, roomType, loyaltyLevel, status));
+        return cachedResponse(report);
+    }
+
+    /**
+     * Métricas aproximadas por mes (sketches): clientes distintos y que regresan, y percentiles
+     * de los totales de reserva y de los montos de pago. No consulta la base de datos.
+     */
+    @GetMapping("/sketches")
+    public ResponseEntity<SketchReportDTO> getSketchReport(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        CachedReport<SketchReportDTO> report = reportCache.get("sketches:" + from + ":" + to,
+                sketchAggregate.getVersion(), sketchAggregate.getLastModified(),
+                () -> sketchAggregate.getReport(from, to));
+        return cachedResponse(report);
+    }
+
+    /**
+     * Sketches serializados por mes, para combinarlos con los de otro nodo
+     */
+    @GetMapping("/sketches/export")
+    public ResponseEntity<List<SketchExportDTO>> exportSketches(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(sketchAggregate.export(from, to));
+    }
+
+    /**
+     * Combina sketches exportados (de uno o varios nodos) y devuelve sus métricas
+     */
+    @PostMapping("/sketches/merge")
+    public ResponseEntity<SketchReportDTO> mergeSketches(@RequestBody List<SketchExportDTO> sketches) {
+        return ResponseEntity.ok(sketchAggregate.merge(sketches));
+    }
+
+    /**
+     * Reporte de ingresos de los pagos registrados en el rango [from, to]
+     */
     @GetMapping(value = "/revenue", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> getRevenueReport() {
-        RevenueReport report = new RevenueReport(paymentRepository);
-        return ResponseEntity.ok(report.generateReport());
+    public ResponseEntity<String> getRevenueReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CachedReport<String> report = reportCache.get("revenue:" + from + ":" + to, EnumSet.of(DataTable.PAYMENTS),
+                () -> new RevenueReport(revenueRollupRepository, paymentRepository, from, to).generateReport());
+        return cachedResponse(report);
+    }
+
+    /**
+     * Estado de la reconstrucción del rollup diario de ingresos
+     */
+    @GetMapping("/revenue/rollup")
+    public ResponseEntity<Map<String, Object>> getRevenueRollupStatus() {
+        return ResponseEntity.ok(revenueRollupService.getRebuildStatus());
+    }
+
+    /**
+     * Reconstruye el rollup diario de ingresos a partir de los pagos (409 si ya hay una reconstrucción en curso)
+     */
+    @PostMapping("/revenue/rollup/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRevenueRollup() {
+        if (!revenueRollupService.triggerRebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("started", false));
+        }
+        return ResponseEntity.accepted().body(Map.of("started", true));
     }
 
     // ========== VISITOR PATTERN - Estadísticas ==========
 
+    /**
+     * Estadísticas materializadas (StatisticsAggregate): no recorre las tablas
+     */
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics() {
-        StatisticsVisitor visitor = new StatisticsVisitor();
-
-        // Visitar todas las entidades
-        roomRepository.findAll().forEach(visitor::visit);
-        customerRepository.findAll().forEach(visitor::visit);
-        reservationRepository.findAll().forEach(visitor::visit);
-        paymentRepository.findAll().forEach(visitor::visit);
+        CachedReport<Map<String, Object>> report = reportCache.get("statistics",
+                statisticsAggregate.getVersion(), statisticsAggregate.getLastModified(), this::buildStatistics);
+        return cachedResponse(report);
+    }
 
+    private Map<String, Object> buildStatistics() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalRooms", visitor.getTotalRooms());
-        stats.put("availableRooms", visitor.getAvailableRooms());
-        stats.put("totalCustomers", visitor.getTotalCustomers());
-        stats.put("customersByLoyalty", visitor.getCustomersByLoyalty());
-        stats.put("totalReservations", visitor.getTotalReservations());
-        stats.put("reservationsByStatus", visitor.getReservationsByStatus());
-        stats.put("totalReservationValue", visitor.getTotalReservationValue());
-        stats.put("totalPayments", visitor.getTotalPayments());
-        stats.put("totalPaymentAmount", visitor.getTotalPaymentAmount());
-        stats.put("paymentsByMethod", visitor.getPaymentsByMethod());
-        stats.put("summary", visitor.generateReport());
+        stats.put("totalRooms", statisticsAggregate.getTotalRooms());
+        stats.put("availableRooms", statisticsAggregate.getAvailableRooms());
+        stats.put("totalCustomers", statisticsAggregate.getTotalCustomers());
+        stats.put("customersByLoyalty", statisticsAggregate.getCustomersByLoyalty());
+        stats.put("totalReservations", statisticsAggregate.getTotalReservations());
+        stats.put("reservationsByStatus", statisticsAggregate.getReservationsByStatus());
+        stats.put("totalReservationValue", statisticsAggregate.getTotalReservationValue());
+        stats.put("totalPayments", statisticsAggregate.getTotalPayments());
+        stats.put("totalPaymentAmount", statisticsAggregate.getTotalPaymentAmount());
+        stats.put("paymentsByMethod", statisticsAggregate.getPaymentsByMethod());
+        stats.put("summary", statisticsAggregate.generateReport());
+        stats.put("reconciledAt", statisticsAggregate.getLastReconciledAt());
+        return stats;
+    }
 
-        return ResponseEntity.ok(stats);
+    /**
+     * Respuesta con ETag y Last-Modified: Spring responde 304 si la petición condicional
+     * (If-None-Match / If-Modified-Since) coincide
+     */
+    private <T> ResponseEntity<T> cachedResponse(CachedReport<T> report) {
+        return ResponseEntity.ok()
+                .eTag(report.etag())
+                .lastModified(report.lastModified())
+                .body(report.body());
     }
 
     // ========== VISITOR PATTERN - Validación ==========
 
+    /**
+     * Violaciones abiertas, paginadas (las mantiene el ValidationEngine: no recorre las tablas).
+     * entityType y rule filtran la página; los conteos por regla son siempre del total.
+     */
     @GetMapping("/validate")
-    public ResponseEntity<Map<String, Object>> validateData() {
-        ValidationVisitor visitor = new ValidationVisitor();
-
-        // Visitar todas las entidades
-        roomRepository.findAll().forEach(visitor::visit);
-        customerRepository.findAll().forEach(visitor::visit);
-        reservationRepository.findAll().forEach(visitor::visit);
-        paymentRepository.findAll().forEach(visitor::visit);
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("hasErrors", visitor.hasErrors());
-        result.put("errorCount", visitor.getErrorCount());
-        result.put("errors", visitor.getValidationErrors());
+    public ResponseEntity<Map<String, Object>> validateData(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) ViolationEntityType entityType,
+            @RequestParam(required = false) ViolationRule rule) {
+        return ResponseEntity.ok(validationEngine.getViolations(page, size, entityType, rule));
+    }
 
-        return ResponseEntity.ok(result);
+    /**
+     * Lanza una validación completa de todas las tablas (409 si ya hay una en curso)
+     */
+    @PostMapping("/validate/run")
+    public ResponseEntity<Map<String, Object>> runFullValidation() {
+        if (!validationEngine.triggerFullValidation()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("started", false));
+        }
+        return ResponseEntity.accepted().body(Map.of("started", true));
     }
 
     // ========== VISITOR PATTERN - Exportación ==========
 
-    @GetMapping(value = "/export/rooms", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> exportRooms() {
-        ExportVisitor visitor = new ExportVisitor();
-        roomRepository.findAll().forEach(visitor::visit);
-
-        String header = "ID,Numero,Tipo,Precio,Capacidad,Disponible,Piso\n";
-        return ResponseEntity.ok(header + visitor.getExportedData());
+    /**
+     * Exportaciones CSV en streaming. Con gzip=true se descargan como archivo .csv.gz.
+     * Con since/until (ISO, sobre updatedAt) solo salen las filas modificadas en [since, until);
+     * el rango aplicado vuelve en X-Export-Since / X-Export-Until para encadenar la siguiente.
+     * Sin until se usa el momento actual menos app.reports.export.safety-lag-ms; un until más
+     * cercano al momento actual puede perder filas de transacciones que aún no se confirmaron.
+     */
+    @GetMapping("/export/rooms")
+    public ResponseEntity<StreamingResponseBody> exportRooms(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return csvResponse("habitaciones", gzip, range,
+                out -> csvExportService.writeRooms(out, gzip, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
     }
 
-    @GetMapping(value = "/export/customers", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> exportCustomers() {
-        ExportVisitor visitor = new ExportVisitor();
-        customerRepository.findAll().forEach(visitor::visit);
-
-        String header = "ID,Nombre,Apellido,Email,Telefono,Nivel\n";
-        return ResponseEntity.ok(header + visitor.getExportedData());
+    @GetMapping("/export/customers")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return csvResponse("clientes", gzip, range,
+                out -> csvExportService.writeCustomers(out, gzip, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
     }
 
-    @GetMapping(value = "/export/reservations", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> exportReservations() {
-        ExportVisitor visitor = new ExportVisitor();
-        reservationRepository.findAll().forEach(visitor::visit);
+    @GetMapping("/export/reservations")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return csvResponse("reservas", gzip, range,
+                out -> csvExportService.writeReservations(out, gzip, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
+    }
 
-        String header = "ID,Cliente_ID,Habitacion_ID,Check_In,Check_Out,Huespedes,Total,Estado\n";
-        return ResponseEntity.ok(header + visitor.getExportedData());
+    @GetMapping("/export/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return csvResponse("pagos", gzip, range,
+                out -> csvExportService.writePayments(out, gzip, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
     }
 
-    @GetMapping(value = "/export/payments", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<String> exportPayments() {
-        ExportVisitor visitor = new ExportVisitor();
-        paymentRepository.findAll().forEach(visitor::visit);
+    /**
+     * Manifiesto de una exportación CSV (rooms, customers, reservations o payments): filas y
+     * CRC32 por bloque de chunkSize IDs, para que una sincronización descargue solo si algo no coincide
+     */
+    @GetMapping("/export/{entity}/manifest")
+    public ResponseEntity<ExportManifestDTO> getExportManifest(
+            @PathVariable String entity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam(defaultValue = "10000") int chunkSize) {
+        return ResponseEntity.ok(csvExportService.manifest(entity, ExportRange.of(since, until, exportSafetyLagMillis), chunkSize));
+    }
 
-        String header = "ID,Reserva_ID,Monto,Metodo,Estado,Transaction_ID\n";
-        return ResponseEntity.ok(header + visitor.getExportedData());
+    private ResponseEntity<StreamingResponseBody> csvResponse(String name, boolean gzip, ExportRange range,
+                                                              StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            headers.setContentDispositionFormData("attachment", name + ".csv.gz");
+        } else {
+            // Texto plano como antes: el frontend lee el CSV directamente de la respuesta
+            headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        }
+        if (!range.isAll()) {
+            headers.set("X-Export-Since", range.since().toString());
+            headers.set("X-Export-Until", range.until().toString());
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     // ========== Dashboard Summary ==========
@@ -154,12 +352,12 @@ public class ReportController {
     public ResponseEntity<Map<String, Object>> getDashboard() {
         Map<String, Object> dashboard = new HashMap<>();
 
-        // Contar totales
-        long totalRooms = roomRepository.count();
-        long availableRooms = roomRepository.findByAvailableTrue().size();
-        long totalCustomers = customerRepository.count();
-        long totalReservations = reservationRepository.count();
-        long totalPayments = paymentRepository.count();
+        // Contadores materializados: O(1) sin importar el tamaño de las tablas
+        long totalRooms = statisticsAggregate.getTotalRooms();
+        long availableRooms = statisticsAggregate.getAvailableRooms();
+        long totalCustomers = statisticsAggregate.getTotalCustomers();
+        long totalReservations = statisticsAggregate.getTotalReservations();
+        long totalPayments = statisticsAggregate.getTotalPayments();
 
         dashboard.put("totalRooms", totalRooms);
         dashboard.put("availableRooms", availableRooms);
@@ -176,61 +374,48 @@ public class ReportController {
     }
 
     // ========== EXCEL EXPORT ENDPOINTS ==========
+    // Generados en streaming directo a la respuesta (memoria constante)
 
+    /**
+     * Con since/until (ISO, sobre updatedAt) solo incluye las reservas modificadas en [since, until)
+     */
     @GetMapping("/reservations/excel")
-    public ResponseEntity<byte[]> downloadReservationsExcel() {
-        try {
-            List<Reservation> reservations = reservationRepository.findAll();
-            byte[] excelFile = excelExportService.exportReservationsReport(reservations);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "reporte-reservas.xlsx");
-            headers.setContentLength(excelFile.length);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelFile);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<StreamingResponseBody> downloadReservationsExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return excelResponse("reporte-reservas.xlsx",
+                out -> excelExportService.writeReservationsReport(out, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
     }
 
+    /**
+     * Con since/until (ISO, sobre updatedAt) solo incluye los pagos modificados en [since, until)
+     */
     @GetMapping("/revenue/excel")
-    public ResponseEntity<byte[]> downloadRevenueExcel() {
-        try {
-            List<Payment> payments = paymentRepository.findAll();
-            byte[] excelFile = excelExportService.exportRevenueReport(payments);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "reporte-ingresos.xlsx");
-            headers.setContentLength(excelFile.length);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelFile);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<StreamingResponseBody> downloadRevenueExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        ExportRange range = ExportRange.of(since, until, exportSafetyLagMillis);
+        return excelResponse("reporte-ingresos.xlsx",
+                out -> excelExportService.writeRevenueReport(out, new ExportOptions(range, ExportOptions.NO_PROGRESS)));
     }
 
+    /**
+     * Sin since/until: la ocupación es una foto de todas las habitaciones (ver writeOccupancyReport)
+     */
     @GetMapping("/occupancy/excel")
-    public ResponseEntity<byte[]> downloadOccupancyExcel() {
-        try {
-            List<Room> rooms = roomRepository.findAll();
-            byte[] excelFile = excelExportService.exportOccupancyReport(rooms);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "reporte-ocupacion.xlsx");
-            headers.setContentLength(excelFile.length);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelFile);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<StreamingResponseBody> downloadOccupancyExcel() {
+        return excelResponse("reporte-ocupacion.xlsx",
+                out -> excelExportService.writeOccupancyReport(out, ExportOptions.NO_PROGRESS));
+    }
+
+    private ResponseEntity<StreamingResponseBody> excelResponse(String filename, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentDispositionFormData("attachment", filename);
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
     }
 }
@@ -0,0 +1,114 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.dto.ReportJobDTO;
+import com.hotel.reservation.dto.ReportJobRequestDTO;
+import com.hotel.reservation.export.ByteRange;
+import com.hotel.reservation.service.ReportJobService;
+import com.hotel.reservation.service.ReportJobService.ReportFile;
+import com.hotel.reservation.service.ReportJobService.SubmittedReportJob;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reportes generados en segundo plano: solicitar, consultar el avance y descargar
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Encola la generación del reporte. Responde 202; el avance se consulta en GET /api/reports/jobs/{id}.
+     * Si ya hay un trabajo en curso con los mismos parámetros se devuelve ese trabajo
+     * (header Report-Job-Attached: true).
+     */
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submit(@RequestBody ReportJobRequestDTO request) {
+        SubmittedReportJob result = reportJobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + result.job().getId()))
+                .header("Report-Job-Attached", String.valueOf(result.attached()))
+                .body(result.job());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportJobDTO>> getJobs() {
+        return ResponseEntity.ok(reportJobService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    /**
+     * Descarga el archivo terminado. Soporta un rango (header Range) para reanudar descargas.
+     * El archivo se envía por bloques con FileChannel.transferTo, sin cargarlo completo en memoria.
+     * No es zero-copy: el destino es el OutputStream del contenedor, así que el canal adaptador
+     * copia cada bloque a través de un buffer en el heap.
+     */
+    @GetMapping("/{id}/download")
+    public void download(@PathVariable Long id,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                         HttpServletResponse response) throws IOException {
+        ReportFile file = reportJobService.getFile(id);
+        long size = file.size();
+
+        ByteRange range;
+        try {
+            range = ByteRange.parse(rangeHeader, size);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        response.setContentType(file.contentType());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.fileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        long position = 0;
+        long length = size;
+        if (range != null) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+            position = range.start();
+            length = range.length();
+        }
+        response.setContentLengthLong(length);
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            // Channels.newChannel envuelve el stream del servlet: transferTo lee a un buffer y lo escribe
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+}
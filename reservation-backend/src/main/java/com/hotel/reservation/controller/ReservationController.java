@@ -1,7 +1,10 @@
 package com.hotel.reservation.controller;
 
 import com.hotel.reservation.dto.ReservationDTO;
+import com.hotel.reservation.dto.ReservationJournalEntryDTO;
+import com.hotel.reservation.dto.ReservationStateDTO;
 import com.hotel.reservation.patterns.behavioral.memento.ReservationMemento;
+import com.hotel.reservation.service.ReservationJournal;
 import com.hotel.reservation.service.ReservationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reservations")
@@ -18,6 +22,7 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ReservationJournal reservationJournal;
 
     @GetMapping
     public ResponseEntity<List<ReservationDTO>> getAllReservations() {
@@ -63,6 +68,39 @@ public class ReservationController {
         return ResponseEntity.ok(reservationService.getReservationHistory(id));
     }
 
+    /**
+     * Entradas del diario de una reserva, en orden (auditoría)
+     */
+    @GetMapping("/{id}/journal")
+    public ResponseEntity<List<ReservationJournalEntryDTO>> getReservationJournal(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationJournal.getEntries(id));
+    }
+
+    /**
+     * Estado de una reserva reconstruido desde el diario (upTo: última entrada a aplicar)
+     */
+    @GetMapping("/{id}/journal/state")
+    public ResponseEntity<ReservationStateDTO> rebuildReservationState(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long upTo) {
+        return ResponseEntity.ok(reservationJournal.rebuild(id, upTo));
+    }
+
+    /**
+     * Entradas del diario de todas las reservas posteriores al cursor, para alimentar modelos de lectura
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<List<ReservationJournalEntryDTO>> tailJournal(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(reservationJournal.tail(afterId, limit));
+    }
+
+    @GetMapping("/journal/metrics")
+    public ResponseEntity<Map<String, Object>> getJournalMetrics() {
+        return ResponseEntity.ok(reservationJournal.getMetrics());
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<ReservationDTO>> searchReservationsByEmail(@RequestParam String email) {
         return ResponseEntity.ok(reservationService.getReservationsByEmail(email));
@@ -0,0 +1,10 @@
+package com.hotel.reservation.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Reserva para los sketches de analítica: cliente, fecha de registro y total (proyección sin entidades)
+ */
+public record BookingSample(Long customerId, LocalDateTime createdAt, BigDecimal totalPrice) {
+}
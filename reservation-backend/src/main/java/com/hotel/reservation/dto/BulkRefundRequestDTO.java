@@ -0,0 +1,32 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para solicitar un reembolso masivo.
+ * Se reembolsan los pagos completados cuyas reservas cumplen todos los filtros indicados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRefundRequestDTO {
+
+    // Rango de fechas de check-in (inclusive)
+    private LocalDate checkInFrom;
+    private LocalDate checkInTo;
+
+    private Long packageId;
+    private RoomType roomType;
+
+    // Cancelar también las reservas reembolsadas
+    private Boolean cancelReservations;
+
+    private String reason;
+}
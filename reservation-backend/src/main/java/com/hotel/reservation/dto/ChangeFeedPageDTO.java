@@ -0,0 +1,29 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de una página del feed de cambios
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedPageDTO {
+
+    private List<ChangeLogEntryDTO> changes;
+
+    // Cursor para la siguiente consulta (since=nextCursor)
+    private long nextCursor;
+
+    // Hay más cambios disponibles sin esperar
+    private boolean hasMore;
+
+    // El cursor es anterior a los cambios retenidos: hay que volver a exportar todo
+    private boolean resyncRequired;
+}
@@ -0,0 +1,29 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.events.DomainEventType;
+import com.hotel.reservation.models.ChangeEntityType;
+import com.hotel.reservation.models.ChangeOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un cambio del feed de cambios
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeLogEntryDTO {
+
+    private Long cursor;
+    private ChangeEntityType entityType;
+    private Long entityId;
+    private ChangeOperation operation;
+    private DomainEventType eventType;
+    private Long reservationId;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,29 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.CommandState;
+import com.hotel.reservation.models.CommandType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un comando del log de un actor
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandLogDTO {
+
+    private Long id;
+    private String actor;
+    private CommandType commandType;
+    private Long reservationId;
+    private CommandState state;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Celda de un corte del cubo de reservas.
+ * Las dimensiones que no se agrupan quedan en null (acumuladas).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CubeCellDTO {
+
+    // Mes de check-in
+    private YearMonth month;
+    private RoomType roomType;
+    private LoyaltyLevel loyaltyLevel;
+    private ReservationStatus status;
+
+    private Long reservations;
+    private Long roomNights;
+    private BigDecimal revenue;
+}
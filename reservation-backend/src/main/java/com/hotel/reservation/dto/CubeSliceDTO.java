@@ -0,0 +1,31 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Corte del cubo de reservas: celdas agrupadas por las dimensiones pedidas, con filtros
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CubeSliceDTO {
+
+    private List<String> groupBy;
+    private YearMonth from;
+    private YearMonth to;
+
+    // Una celda por combinación con reservas, ordenadas por mes, tipo, nivel y estado
+    private List<CubeCellDTO> cells;
+    private CubeCellDTO total;
+
+    private Long cubeVersion;
+    private LocalDateTime builtAt;
+}
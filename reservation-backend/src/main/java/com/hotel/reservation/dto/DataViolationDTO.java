@@ -0,0 +1,28 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ViolationEntityType;
+import com.hotel.reservation.models.ViolationRule;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una violación de datos abierta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataViolationDTO {
+
+    private Long id;
+    private ViolationEntityType entityType;
+    private Long entityId;
+    private ViolationRule rule;
+    private Long relatedEntityId;
+    private String message;
+    private LocalDateTime detectedAt;
+}
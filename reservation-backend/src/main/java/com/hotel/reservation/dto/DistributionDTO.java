@@ -0,0 +1,28 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Distribución aproximada de montos (percentiles con error relativo menor a ~1.6 %;
+ * cantidad, mínimo, máximo y promedio exactos)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionDTO {
+
+    private Long count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal mean;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p95;
+    private BigDecimal p99;
+}
@@ -0,0 +1,29 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de un bloque del manifiesto de exportación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportChunkDTO {
+
+    // Bloque de IDs [fromId, toId): index * chunkSize hasta (index + 1) * chunkSize
+    private long index;
+    private long fromId;
+    private long toId;
+
+    // Primer y último ID con filas dentro del bloque
+    private Long firstId;
+    private Long lastId;
+    private long rows;
+
+    // CRC32 (hex) de las filas del bloque tal como salen en el CSV sin comprimir
+    private String crc32;
+}
@@ -0,0 +1,28 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO del manifiesto de una exportación CSV: filas y checksum por bloque, para que una
+ * sincronización compare y descargue solo lo que cambió
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportManifestDTO {
+
+    private String entity;
+    private LocalDateTime since;
+    private LocalDateTime until;
+    // IDs que cubre cada bloque
+    private int chunkSize;
+    private long totalRows;
+    private List<ExportChunkDTO> chunks;
+}
@@ -0,0 +1,9 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.LoyaltyLevel;
+
+/**
+ * Cantidad de clientes de un nivel de lealtad (resultado de GROUP BY)
+ */
+public record LoyaltyLevelCount(LoyaltyLevel loyaltyLevel, Long count) {
+}
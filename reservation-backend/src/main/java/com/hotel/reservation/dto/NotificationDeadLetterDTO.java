@@ -0,0 +1,27 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para notificaciones fallidas (dead-letter)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationDeadLetterDTO {
+    private Long id;
+    private Long reservationId;
+    private NotificationChannel channel;
+    private NotificationEventType eventType;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Métricas de ocupación de un día (o del periodo completo) para un tipo de habitación
+ *
+ * - occupancyRate: noches vendidas / noches disponibles (%)
+ * - adr (Average Daily Rate): ingreso por habitación / noches vendidas
+ * - revpar (Revenue Per Available Room): ingreso por habitación / noches disponibles
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OccupancyMetricsDTO {
+
+    // null en el resumen del periodo
+    private LocalDate date;
+    // null = todos los tipos
+    private RoomType roomType;
+
+    private Long roomNightsAvailable;
+    private Long roomNightsSold;
+    private Double occupancyRate;
+    private BigDecimal roomRevenue;
+    private BigDecimal adr;
+    private BigDecimal revpar;
+}
@@ -0,0 +1,30 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reporte de ocupación diaria en un rango de fechas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OccupancyTimeSeriesDTO {
+
+    private LocalDate from;
+    private LocalDate to;
+    private Integer days;
+    private Long reservationsScanned;
+
+    // Totales del periodo: uno por tipo de habitación y uno general (roomType null)
+    private List<OccupancyMetricsDTO> summary;
+
+    // Un registro por día y tipo de habitación, más el total del día (roomType null)
+    private List<OccupancyMetricsDTO> daily;
+}
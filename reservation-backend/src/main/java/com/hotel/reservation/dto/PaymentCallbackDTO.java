@@ -0,0 +1,26 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para la notificación (callback) de una pasarela sobre un pago asíncrono
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentCallbackDTO {
+
+    private String transactionId;
+
+    // COMPLETED o FAILED
+    @NotNull(message = "El estado es obligatorio")
+    private PaymentStatus status;
+
+    private String message;
+}
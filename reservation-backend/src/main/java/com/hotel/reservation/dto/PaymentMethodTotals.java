@@ -0,0 +1,11 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Cantidad y monto total de los pagos de un método (resultado de GROUP BY)
+ */
+public record PaymentMethodTotals(PaymentMethod paymentMethod, Long count, BigDecimal amount) {
+}
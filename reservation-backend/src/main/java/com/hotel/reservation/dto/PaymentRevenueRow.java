@@ -0,0 +1,16 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.models.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pago con las dimensiones del rollup de ingresos (proyección sin entidades)
+ */
+public record PaymentRevenueRow(Long id, LocalDateTime paymentDate, PaymentMethod paymentMethod,
+                                RoomType roomType, PaymentStatus paymentStatus,
+                                BigDecimal amount) {
+}
@@ -0,0 +1,10 @@
+package com.hotel.reservation.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pago para los sketches de analítica: fecha y monto (proyección sin entidades)
+ */
+public record PaymentSample(LocalDateTime paymentDate, BigDecimal amount) {
+}
@@ -0,0 +1,13 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.PaymentStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Cantidad y monto de los pagos de un estado y método (resultado de GROUP BY)
+ */
+public record PaymentStatusMethodTotals(PaymentStatus paymentStatus, PaymentMethod paymentMethod,
+                                        Long count, BigDecimal amount) {
+}
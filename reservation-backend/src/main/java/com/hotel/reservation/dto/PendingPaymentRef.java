@@ -0,0 +1,13 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentMethod;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección mínima de un pago pendiente para la reconciliación con las pasarelas
+ * (updatedAt es el inicio del intento actual: un pago fallido se reutiliza en cada reintento)
+ */
+public record PendingPaymentRef(Long id, PaymentMethod paymentMethod, String transactionId,
+                                String gatewayRequestId, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,31 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * Métricas aproximadas de un mes (o de un rango, con month null)
+ *
+ * - distinctCustomers: clientes distintos que reservaron (HyperLogLog)
+ * - returningCustomers: de ellos, los que ya habían reservado en meses anteriores
+ *   (intersección estimada con |A| + |B| - |A ∪ B|, menos precisa con conjuntos pequeños)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PeriodSketchDTO {
+
+    // Mes de la reserva o del pago; null en el total del rango
+    private YearMonth month;
+
+    private Long bookings;
+    private Long distinctCustomers;
+    private Long returningCustomers;
+    private DistributionDTO bookingValue;
+    private DistributionDTO paymentAmount;
+}
@@ -0,0 +1,49 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.RefundJobStatus;
+import com.hotel.reservation.models.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para transferencia de datos de RefundJob
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJobDTO {
+
+    private Long id;
+    private RefundJobStatus status;
+
+    private LocalDate checkInFrom;
+    private LocalDate checkInTo;
+    private Long packageId;
+    private RoomType roomType;
+    private Boolean cancelReservations;
+    private String reason;
+
+    private Long totalCandidates;
+    private Long processed;
+    private Long refunded;
+    private Long failed;
+    private Long unknown;
+    private Double progressPercent;
+    private Long lastPaymentId;
+    private String lastError;
+
+    // Pagos que requieren revisión manual (fallidos o sin resultado confirmado)
+    private List<Long> failedPaymentIds;
+    private List<Long> unknownPaymentIds;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
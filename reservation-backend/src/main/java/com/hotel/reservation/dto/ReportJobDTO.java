@@ -0,0 +1,39 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ReportJobStatus;
+import com.hotel.reservation.models.ReportJobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferencia de datos de ReportJob
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJobDTO {
+
+    private Long id;
+    private ReportJobType reportType;
+    private Boolean gzip;
+    private ReportJobStatus status;
+
+    private Long totalRows;
+    private Long rowsWritten;
+    private Double progressPercent;
+
+    private String fileName;
+    private Long fileSize;
+    // Solo cuando el archivo está listo
+    private String downloadUrl;
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
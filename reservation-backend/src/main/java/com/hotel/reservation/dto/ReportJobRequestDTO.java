@@ -0,0 +1,22 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ReportJobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para solicitar la generación de un reporte en segundo plano
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJobRequestDTO {
+
+    private ReportJobType reportType;
+
+    // Comprimir con gzip (solo reportes CSV)
+    private Boolean gzip;
+}
@@ -0,0 +1,16 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Reserva con las dimensiones del cubo de reservas (proyección sin entidades)
+ */
+public record ReservationCubeRow(Long id, Long customerId, Long roomId, RoomType roomType,
+                                 LoyaltyLevel loyaltyLevel, ReservationStatus status,
+                                 LocalDate checkInDate, LocalDate checkOutDate, BigDecimal totalPrice) {
+}
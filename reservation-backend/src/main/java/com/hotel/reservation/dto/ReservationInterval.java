@@ -0,0 +1,9 @@
+package com.hotel.reservation.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Estancia de una reserva en su habitación, para detectar cruces (proyección sin entidades)
+ */
+public record ReservationInterval(Long id, Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+}
@@ -0,0 +1,38 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.events.DomainEventType;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.UndoRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de una entrada del diario de reservas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationJournalEntryDTO {
+
+    private Long id;
+    private Long reservationId;
+    private DomainEventType eventType;
+    private LocalDateTime occurredAt;
+    private Long customerId;
+    private Long roomId;
+    private Long paymentId;
+    private ReservationStatus status;
+    private ReservationStatus previousStatus;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer numberOfGuests;
+    private BigDecimal totalPrice;
+    private UndoRole undoRole;
+}
@@ -0,0 +1,34 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO del estado de una reserva reconstruido desde el diario
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationStateDTO {
+
+    private Long reservationId;
+    private Long customerId;
+    private Long roomId;
+    private ReservationStatus status;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer numberOfGuests;
+    private BigDecimal totalPrice;
+    private boolean deleted;        // La reserva se eliminó (undo de su creación)
+    private Long lastEntryId;       // Última entrada aplicada
+    private Long eventCount;        // Entradas aplicadas en total
+    private Long snapshotEntryId;   // Snapshot de partida (null si se reconstruyó desde el inicio)
+    private int entriesReplayed;    // Entradas aplicadas sobre el snapshot
+}
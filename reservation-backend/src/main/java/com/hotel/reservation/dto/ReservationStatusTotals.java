@@ -0,0 +1,11 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ReservationStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Cantidad y valor total de las reservas de un estado (resultado de GROUP BY)
+ */
+public record ReservationStatusTotals(ReservationStatus status, Long count, BigDecimal totalPrice) {
+}
@@ -0,0 +1,13 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Estancia de una reserva para los reportes de ocupación (proyección sin entidades)
+ */
+public record ReservationStay(RoomType roomType, LocalDate checkInDate, LocalDate checkOutDate,
+                              BigDecimal totalPrice) {
+}
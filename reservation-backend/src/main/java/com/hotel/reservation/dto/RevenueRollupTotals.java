@@ -0,0 +1,12 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales del rollup de ingresos de un método de pago (resultado de GROUP BY)
+ */
+public record RevenueRollupTotals(PaymentMethod paymentMethod, Long completedCount, BigDecimal completedAmount,
+                                  Long refundedCount, BigDecimal refundedAmount) {
+}
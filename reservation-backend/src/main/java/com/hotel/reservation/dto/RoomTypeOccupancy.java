@@ -0,0 +1,9 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.RoomType;
+
+/**
+ * Habitaciones totales y disponibles de un tipo (resultado de GROUP BY)
+ */
+public record RoomTypeOccupancy(RoomType roomType, Long total, Long available) {
+}
@@ -0,0 +1,28 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * Sketches serializados (Base64) de un mes, para combinarlos con los de otro nodo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SketchExportDTO {
+
+    private YearMonth month;
+    private Long bookings;
+
+    // HyperLogLog de los IDs de cliente
+    private String customers;
+
+    // Histogramas de totalPrice y de montos de pago, en centavos
+    private String bookingValues;
+    private String paymentAmounts;
+}
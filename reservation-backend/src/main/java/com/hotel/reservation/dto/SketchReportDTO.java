@@ -0,0 +1,24 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Métricas aproximadas por mes y del rango completo (sketches combinados)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SketchReportDTO {
+
+    private YearMonth from;
+    private YearMonth to;
+    private List<PeriodSketchDTO> months;
+    private PeriodSketchDTO total;
+}
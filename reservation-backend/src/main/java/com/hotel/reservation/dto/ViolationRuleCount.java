@@ -0,0 +1,9 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.models.ViolationRule;
+
+/**
+ * Cantidad de violaciones abiertas de una regla (resultado de GROUP BY)
+ */
+public record ViolationRuleCount(ViolationRule rule, Long count) {
+}
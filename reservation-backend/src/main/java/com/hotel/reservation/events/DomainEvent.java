@@ -0,0 +1,79 @@
+package com.hotel.reservation.events;
+
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.ReservationStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Evento de dominio - Slot reutilizable del ring buffer.
+ *
+ * Las instancias se crean una sola vez al iniciar el bus y se sobrescriben en cada
+ * publicación, por lo que los suscriptores NO deben guardar referencias al evento:
+ * deben copiar los valores que necesiten antes de retornar de onEvent().
+ */
+@Getter
+@Setter
+public class DomainEvent {
+
+    private DomainEventType type;
+    private long occurredAt;
+
+    // Datos de la reserva
+    private Long reservationId;
+    private Long customerId;
+    private Long roomId;
+    private ReservationStatus status;
+    private ReservationStatus previousStatus;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer numberOfGuests;
+    private BigDecimal totalPrice;
+    private BigDecimal previousTotalPrice;
+
+    // Datos del pago
+    private Long paymentId;
+    private PaymentMethod paymentMethod;
+    private BigDecimal amount;
+    private PaymentMethod previousPaymentMethod;
+    private BigDecimal previousAmount;
+
+    // Datos del cliente
+    private LoyaltyLevel loyaltyLevel;
+    private LoyaltyLevel previousLoyaltyLevel;
+
+    // Datos de la habitación
+    private Boolean roomAvailable;
+    private Boolean previousRoomAvailable;
+
+    /**
+     * Limpia el slot antes de reutilizarlo
+     */
+    void clear() {
+        type = null;
+        occurredAt = 0;
+        reservationId = null;
+        customerId = null;
+        roomId = null;
+        status = null;
+        previousStatus = null;
+        checkInDate = null;
+        checkOutDate = null;
+        numberOfGuests = null;
+        totalPrice = null;
+        previousTotalPrice = null;
+        paymentId = null;
+        paymentMethod = null;
+        amount = null;
+        previousPaymentMethod = null;
+        previousAmount = null;
+        loyaltyLevel = null;
+        previousLoyaltyLevel = null;
+        roomAvailable = null;
+        previousRoomAvailable = null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.hotel.reservation.events;
+
+import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.Room;
+import com.hotel.reservation.models.UndoRole;
+import com.hotel.reservation.service.ChangeFeed;
+import com.hotel.reservation.service.ReservationJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Publicador de eventos de dominio.
+ *
+ * Los servicios publican aquí en lugar de llamar a los observers. Los datos se copian
+ * en el momento de la llamada (la entidad puede cambiar después) y el evento entra al
+ * bus después del commit, para que los suscriptores nunca vean cambios revertidos.
+ *
+ * El cambio para el feed (pending_changes) y la entrada del diario de reservas
+ * (pending_journal_entries) se escriben en cambio dentro de la transacción del llamador:
+ * no se pierden si la aplicación se detiene entre el commit y el bus.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventPublisher {
+
+    private final RingBufferEventBus eventBus;
+    private final ChangeFeed changeFeed;
+    private final ReservationJournal reservationJournal;
+
+    /**
+     * Publica un evento de reserva
+     * @param previousStatus estado anterior al cambio (null en la creación)
+     */
+    public void publishReservationEvent(DomainEventType type, Reservation reservation,
+                                        ReservationStatus previousStatus) {
+        publishReservationEvent(type, reservation, previousStatus, null);
+    }
+
+    /**
+     * Publica un evento de reserva que también puede cambiar su precio
+     * @param previousTotalPrice precio anterior (null si no cambió)
+     */
+    public void publishReservationEvent(DomainEventType type, Reservation reservation,
+                                        ReservationStatus previousStatus, BigDecimal previousTotalPrice) {
+        publishReservationEvent(type, reservation, previousStatus, previousTotalPrice, null);
+    }
+
+    /**
+     * Publica un evento de reserva que participa en undo
+     * @param undoRole UNDOABLE si undo puede revertir el cambio, UNDO si es la restauración (null si no participa)
+     */
+    public void publishReservationEvent(DomainEventType type, Reservation reservation, ReservationStatus previousStatus,
+                                        BigDecimal previousTotalPrice, UndoRole undoRole) {
+        Long reservationId = reservation.getId();
+        Long customerId = reservation.getCustomer().getId();
+        Long roomId = reservation.getRoom().getId();
+        ReservationStatus status = reservation.getStatus();
+        LocalDate checkIn = reservation.getCheckInDate();
+        LocalDate checkOut = reservation.getCheckOutDate();
+        Integer guests = reservation.getNumberOfGuests();
+        BigDecimal totalPrice = reservation.getTotalPrice();
+
+        changeFeed.record(type, reservationId, null, customerId, roomId, previousStatus, status);
+        reservationJournal.recordReservation(type, reservation, previousStatus, undoRole);
+        afterCommit(() -> eventBus.publish(type, event -> {
+            event.setReservationId(reservationId);
+            event.setCustomerId(customerId);
+            event.setRoomId(roomId);
+            event.setStatus(status);
+            event.setPreviousStatus(previousStatus);
+            event.setCheckInDate(checkIn);
+            event.setCheckOutDate(checkOut);
+            event.setNumberOfGuests(guests);
+            event.setTotalPrice(totalPrice);
+            event.setPreviousTotalPrice(previousTotalPrice);
+        }));
+    }
+
+    /**
+     * Publica un evento de pago (incluye los datos de su reserva)
+     */
+    public void publishPaymentEvent(DomainEventType type, Payment payment) {
+        publishPaymentEvent(type, payment, null, null, null);
+    }
+
+    /**
+     * Publica un evento de pago con los valores anteriores al cambio
+     * @param previousReservationStatus estado de la reserva antes del pago (null si no cambió)
+     * @param previousMethod método del intento anterior (null si el pago es nuevo)
+     * @param previousAmount monto del intento anterior (null si el pago es nuevo)
+     */
+    public void publishPaymentEvent(DomainEventType type, Payment payment, ReservationStatus previousReservationStatus,
+                                    PaymentMethod previousMethod, BigDecimal previousAmount) {
+        Reservation reservation = payment.getReservation();
+        Long paymentId = payment.getId();
+        PaymentMethod method = payment.getPaymentMethod();
+        BigDecimal amount = payment.getAmount();
+        Long reservationId = reservation.getId();
+        Long customerId = reservation.getCustomer().getId();
+        Long roomId = reservation.getRoom().getId();
+        ReservationStatus status = reservation.getStatus();
+
+        changeFeed.record(type, reservationId, paymentId, customerId, roomId, previousReservationStatus, status);
+        reservationJournal.recordPayment(type, payment, previousReservationStatus);
+        afterCommit(() -> eventBus.publish(type, event -> {
+            event.setPaymentId(paymentId);
+            event.setPaymentMethod(method);
+            event.setAmount(amount);
+            event.setReservationId(reservationId);
+            event.setCustomerId(customerId);
+            event.setRoomId(roomId);
+            event.setStatus(status);
+            event.setPreviousStatus(previousReservationStatus);
+            event.setPreviousPaymentMethod(previousMethod);
+            event.setPreviousAmount(previousAmount);
+        }));
+    }
+
+    /**
+     * Publica un evento de cliente
+     * @param previousLoyaltyLevel nivel anterior (null en el alta)
+     */
+    public void publishCustomerEvent(DomainEventType type, Customer customer, LoyaltyLevel previousLoyaltyLevel) {
+        Long customerId = customer.getId();
+        LoyaltyLevel loyaltyLevel = customer.getLoyaltyLevel();
+
+        changeFeed.record(type, null, null, customerId, null, null, null);
+        afterCommit(() -> eventBus.publish(type, event -> {
+            event.setCustomerId(customerId);
+            event.setLoyaltyLevel(loyaltyLevel);
+            event.setPreviousLoyaltyLevel(previousLoyaltyLevel);
+        }));
+    }
+
+    /**
+     * Publica un evento de habitación
+     * @param previousAvailable disponibilidad anterior (null en el alta)
+     */
+    public void publishRoomEvent(DomainEventType type, Room room, Boolean previousAvailable) {
+        Long roomId = room.getId();
+        Boolean available = room.getAvailable();
+
+        changeFeed.record(type, null, null, null, roomId, null, null);
+        afterCommit(() -> eventBus.publish(type, event -> {
+            event.setRoomId(roomId);
+            event.setRoomAvailable(available);
+            event.setPreviousRoomAvailable(previousAvailable);
+        }));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
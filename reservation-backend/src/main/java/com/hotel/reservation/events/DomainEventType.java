@@ -0,0 +1,21 @@
+package com.hotel.reservation.events;
+
+/**
+ * Tipos de eventos de dominio publicados en el bus de eventos
+ */
+public enum DomainEventType {
+    RESERVATION_CREATED,    // Reserva creada
+    RESERVATION_CONFIRMED,  // Reserva confirmada por recepción
+    RESERVATION_UPDATED,    // Reserva modificada (edición o undo)
+    RESERVATION_CANCELLED,  // Reserva cancelada
+    RESERVATION_DELETED,    // Reserva eliminada (undo de una creación)
+    PAYMENT_CREATED,        // Pago registrado (o reintento sobre un pago fallido)
+    PAYMENT_COMPLETED,      // Pago completado (la reserva pasa a CONFIRMED)
+    PAYMENT_REFUNDED,       // Pago reembolsado
+    CUSTOMER_CREATED,       // Cliente registrado
+    CUSTOMER_UPDATED,       // Cliente modificado
+    CUSTOMER_DELETED,       // Cliente eliminado
+    ROOM_CREATED,           // Habitación creada
+    ROOM_UPDATED,           // Habitación modificada (incluye disponibilidad)
+    ROOM_DELETED            // Habitación eliminada
+}
@@ -0,0 +1,25 @@
+package com.hotel.reservation.events;
+
+/**
+ * Suscriptor del bus de eventos.
+ *
+ * Cada suscriptor se ejecuta en su propio hilo y lleva su propia secuencia,
+ * de modo que uno lento no bloquea a los demás ni al publicador
+ * (mientras no se llene el ring buffer).
+ */
+public interface EventSubscriber {
+
+    /**
+     * Nombre del suscriptor (hilo, logs y métricas)
+     */
+    String getName();
+
+    /**
+     * Procesa un evento. El evento es un slot reutilizable: copiar lo necesario.
+     * @param event evento publicado
+     * @param sequence secuencia del evento en el bus
+     * @param endOfBatch true si es el último evento disponible en este momento
+     *                   (útil para agrupar escrituras)
+     */
+    void onEvent(DomainEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
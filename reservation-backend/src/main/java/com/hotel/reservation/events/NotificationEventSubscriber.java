@@ -0,0 +1,82 @@
+package com.hotel.reservation.events;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationEventType;
+import com.hotel.reservation.models.NotificationPreference;
+import com.hotel.reservation.repositories.NotificationPreferenceRepository;
+import com.hotel.reservation.service.NotificationCoalescer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Suscriptor que conecta el bus de eventos con los observers de notificación.
+ *
+ * Resuelve las preferencias del cliente en el hilo del suscriptor (fuera de la
+ * petición) y entrega el evento a NotificationCoalescer, que agrupa por cliente y
+ * delega el envío a los observers a través de NotificationDispatcher.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationEventSubscriber implements EventSubscriber {
+
+    private final NotificationPreferenceRepository notificationPreferenceRepository;
+    private final NotificationCoalescer notificationCoalescer;
+
+    @Override
+    public String getName() {
+        return "notifications";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case RESERVATION_CREATED -> notifyByPreferences(event, NotificationEventType.RESERVATION_CREATED);
+            case RESERVATION_CONFIRMED -> notifyByPreferences(event, NotificationEventType.RESERVATION_CONFIRMED);
+            case RESERVATION_CANCELLED -> notifyByPreferences(event, NotificationEventType.RESERVATION_CANCELLED);
+            case PAYMENT_COMPLETED -> notifyPaymentCompleted(event);
+            default -> {
+                // Otros eventos no generan notificación
+            }
+        }
+    }
+
+    /**
+     * Encola la notificación en cada canal activo del cliente
+     */
+    private void notifyByPreferences(DomainEvent event, NotificationEventType eventType) {
+        NotificationPreference preferences = notificationPreferenceRepository
+                .findByCustomerId(event.getCustomerId())
+                .orElse(null);
+
+        // Sin preferencias guardadas aplican las de por defecto (solo email)
+        Set<NotificationChannel> channels = EnumSet.noneOf(NotificationChannel.class);
+        if (preferences == null || preferences.getEmailEnabled()) {
+            channels.add(NotificationChannel.EMAIL);
+        }
+        if (preferences != null && preferences.getSmsEnabled()) {
+            channels.add(NotificationChannel.SMS);
+        }
+        if (preferences != null && preferences.getWhatsappEnabled()) {
+            channels.add(NotificationChannel.WHATSAPP);
+        }
+
+        notificationCoalescer.submit(event.getCustomerId(), event.getReservationId(), eventType, channels);
+    }
+
+    /**
+     * El pago completado confirma la reserva: se notifica solo por email
+     */
+    private void notifyPaymentCompleted(DomainEvent event) {
+        NotificationPreference preferences = notificationPreferenceRepository
+                .findByCustomerId(event.getCustomerId())
+                .orElse(null);
+
+        if (preferences == null || preferences.getEmailEnabled()) {
+            notificationCoalescer.submit(event.getCustomerId(), event.getReservationId(),
+                    NotificationEventType.RESERVATION_CONFIRMED, Set.of(NotificationChannel.EMAIL));
+        }
+    }
+}
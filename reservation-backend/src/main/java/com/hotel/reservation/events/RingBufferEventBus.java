@@ -0,0 +1,235 @@
+package com.hotel.reservation.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos en memoria basado en un ring buffer.
+ *
+ * - Los slots (DomainEvent) se crean una sola vez al iniciar: publicar no genera basura
+ * - El publicador solo escribe el slot y avanza el cursor; no espera a los suscriptores
+ * - Cada suscriptor corre en su propio hilo con su propia secuencia
+ * - Si el suscriptor más lento se atrasa un buffer completo, el publicador espera
+ *   (backpressure) en lugar de sobrescribir eventos no procesados
+ *
+ * Los suscriptores son los beans que implementan EventSubscriber; se registran al
+ * arrancar el contexto para evitar dependencias circulares con los servicios.
+ */
+@Slf4j
+@Component
+public class RingBufferEventBus implements SmartLifecycle {
+
+    private final ObjectProvider<EventSubscriber> subscriberProvider;
+    private final WaitStrategy waitStrategy;
+    private final String waitStrategyName;
+    private final DomainEvent[] slots;
+    private final int mask;
+
+    // Última secuencia publicada (visible para los suscriptores)
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // Última secuencia reservada por el publicador (protegida por synchronized)
+    private long nextSequence = -1;
+    // Mínima secuencia procesada por los suscriptores, cacheada para no recorrerlos en cada publicación
+    private long cachedGatingSequence = -1;
+
+    private final List<SubscriberProcessor> processors = new CopyOnWriteArrayList<>();
+    private volatile boolean running = false;
+
+    public RingBufferEventBus(ObjectProvider<EventSubscriber> subscriberProvider,
+                              @Value("${app.events.ring-buffer-size:4096}") int bufferSize,
+                              @Value("${app.events.wait-strategy:BLOCKING}") String waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("El tamaño del ring buffer debe ser potencia de 2: " + bufferSize);
+        }
+        this.subscriberProvider = subscriberProvider;
+        this.waitStrategy = WaitStrategy.of(waitStrategy);
+        this.waitStrategyName = waitStrategy.toUpperCase();
+        this.mask = bufferSize - 1;
+        this.slots = new DomainEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new DomainEvent();
+        }
+    }
+
+    /**
+     * Traductor que escribe los datos del evento en el slot reservado
+     */
+    @FunctionalInterface
+    public interface EventTranslator {
+        void translateTo(DomainEvent event);
+    }
+
+    /**
+     * Publica un evento. Es seguro llamarlo desde varios hilos.
+     */
+    public void publish(DomainEventType type, EventTranslator translator) {
+        synchronized (this) {
+            long sequence = nextSequence + 1;
+            waitForCapacity(sequence);
+
+            DomainEvent event = slots[(int) (sequence & mask)];
+            event.clear();
+            event.setType(type);
+            event.setOccurredAt(System.currentTimeMillis());
+            translator.translateTo(event);
+
+            nextSequence = sequence;
+            cursor.set(sequence);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Estado del bus: secuencia publicada y avance de cada suscriptor
+     */
+    public Map<String, Object> getStatus() {
+        long published = cursor.get();
+        Map<String, Object> subscribers = new LinkedHashMap<>();
+        for (SubscriberProcessor processor : processors) {
+            long processed = processor.sequence.get();
+            subscribers.put(processor.subscriber.getName(), Map.of(
+                    "sequence", processed,
+                    "lag", published - processed
+            ));
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running);
+        status.put("bufferSize", slots.length);
+        status.put("waitStrategy", waitStrategyName);
+        status.put("cursor", published);
+        status.put("subscribers", subscribers);
+        return status;
+    }
+
+    @Override
+    public void start() {
+        long initial = cursor.get();
+        subscriberProvider.orderedStream()
+                .forEach(subscriber -> processors.add(new SubscriberProcessor(subscriber, initial)));
+
+        running = true;
+        for (SubscriberProcessor processor : processors) {
+            Thread thread = new Thread(processor, "event-bus-" + processor.subscriber.getName());
+            thread.setDaemon(true);
+            processor.thread = thread;
+            thread.start();
+        }
+
+        log.info("🚌 Bus de eventos iniciado: {} slots, estrategia {}, {} suscriptores",
+                slots.length, waitStrategyName, processors.size());
+    }
+
+    /**
+     * Detiene los suscriptores después de que procesen lo ya publicado
+     */
+    @Override
+    public void stop() {
+        running = false;
+        waitStrategy.signalAllWhenBlocking();
+        for (SubscriberProcessor processor : processors) {
+            try {
+                processor.thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("🚌 Bus de eventos detenido en la secuencia {}", cursor.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Se inicia antes que el servidor web para no perder eventos de las primeras peticiones
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Espera hasta que el suscriptor más lento libere el slot que se va a sobrescribir
+     */
+    private void waitForCapacity(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint <= cachedGatingSequence) {
+            return;
+        }
+
+        long minimum;
+        while (wrapPoint > (minimum = minimumProcessedSequence())) {
+            LockSupport.parkNanos(1_000);
+        }
+        cachedGatingSequence = minimum;
+    }
+
+    private long minimumProcessedSequence() {
+        long minimum = cursor.get();
+        for (SubscriberProcessor processor : processors) {
+            // Un suscriptor detenido ya no retiene slots
+            if (processor.active) {
+                minimum = Math.min(minimum, processor.sequence.get());
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * Hilo consumidor de un suscriptor
+     */
+    private class SubscriberProcessor implements Runnable {
+        private final EventSubscriber subscriber;
+        private final AtomicLong sequence;
+        private volatile boolean active = true;
+        private Thread thread;
+
+        SubscriberProcessor(EventSubscriber subscriber, long initialSequence) {
+            this.subscriber = subscriber;
+            this.sequence = new AtomicLong(initialSequence);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            try {
+                while (true) {
+                    long available = waitStrategy.waitFor(next, cursor, () -> running);
+                    if (available < next) {
+                        // Detenido y sin eventos pendientes
+                        break;
+                    }
+
+                    while (next <= available) {
+                        DomainEvent event = slots[(int) (next & mask)];
+                        try {
+                            subscriber.onEvent(event, next, next == available);
+                        } catch (Exception e) {
+                            log.error("❌ Suscriptor {} falló con el evento {} #{}: {}",
+                                    subscriber.getName(), event.getType(), next, e.getMessage(), e);
+                        }
+                        next++;
+                    }
+                    sequence.set(available);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active = false;
+            }
+        }
+    }
+}
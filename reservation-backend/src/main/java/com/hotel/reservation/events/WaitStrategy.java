@@ -0,0 +1,150 @@
+package com.hotel.reservation.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Estrategia de espera de los suscriptores cuando no hay eventos nuevos.
+ *
+ * - BLOCKING: bloquea el hilo con un Condition (mínimo uso de CPU, mayor latencia)
+ * - SLEEPING: gira, cede el CPU y finalmente duerme unos microsegundos
+ * - YIELDING: gira y cede el CPU (baja latencia, usa un núcleo)
+ * - BUSY_SPIN: gira sin pausa (mínima latencia, un núcleo dedicado por suscriptor)
+ */
+public interface WaitStrategy {
+
+    /**
+     * Espera hasta que la secuencia indicada esté publicada
+     * @param sequence secuencia requerida
+     * @param cursor última secuencia publicada
+     * @param running indica si el suscriptor sigue activo
+     * @return la última secuencia publicada (puede ser menor si el suscriptor se detuvo)
+     */
+    long waitFor(long sequence, AtomicLong cursor, BooleanSupplier running) throws InterruptedException;
+
+    /**
+     * Avisa a los suscriptores bloqueados de que hay nuevos eventos
+     */
+    void signalAllWhenBlocking();
+
+    static WaitStrategy of(String name) {
+        return switch (name.toUpperCase()) {
+            case "BLOCKING" -> new Blocking();
+            case "SLEEPING" -> new Sleeping();
+            case "YIELDING" -> new Yielding();
+            case "BUSY_SPIN" -> new BusySpin();
+            default -> throw new IllegalArgumentException("Estrategia de espera desconocida: " + name);
+        };
+    }
+
+    class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private volatile boolean waiters = false;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier running) throws InterruptedException {
+            long available = cursor.get();
+            if (available >= sequence) {
+                return available;
+            }
+            lock.lock();
+            try {
+                // Se marca la espera ANTES de volver a leer el cursor para no perder la señal
+                waiters = true;
+                while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                    // Espera acotada para revisar periódicamente si el suscriptor se detuvo
+                    published.await(100, TimeUnit.MILLISECONDS);
+                    waiters = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            // Solo se toma el lock si algún suscriptor pudo quedarse esperando
+            if (waiters) {
+                lock.lock();
+                try {
+                    waiters = false;
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    class Sleeping implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+        private static final long SLEEP_NANOS = 100_000;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier running) {
+            long available;
+            int counter = SPIN_TRIES + YIELD_TRIES;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                if (counter > YIELD_TRIES) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier running) {
+            long available;
+            int counter = SPIN_TRIES;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    class BusySpin implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier running) {
+            long available;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+}
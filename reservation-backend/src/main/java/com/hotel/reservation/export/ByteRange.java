@@ -0,0 +1,65 @@
+package com.hotel.reservation.export;
+
+/**
+ * Rango de bytes solicitado con el header Range (RFC 9110), inclusivo en ambos extremos
+ */
+public record ByteRange(long start, long end) {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Valor del header Content-Range para este rango
+     */
+    public String contentRange(long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    /**
+     * Interpreta un header Range con un solo rango: "bytes=inicio-fin", "bytes=inicio-" o "bytes=-sufijo".
+     * @param header valor del header (puede ser null)
+     * @param size tamaño del archivo
+     * @return el rango, o null si se debe responder el archivo completo
+     *         (sin header, otra unidad, varios rangos o sintaxis inválida)
+     * @throws IllegalArgumentException si el rango queda fuera del archivo (416)
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Últimos N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    throw new IllegalArgumentException("Rango no satisfacible: " + header);
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                throw new IllegalArgumentException("Rango no satisfacible: " + header);
+            }
+            if (end < start) {
+                return null;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
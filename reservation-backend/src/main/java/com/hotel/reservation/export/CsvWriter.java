@@ -0,0 +1,296 @@
+package com.hotel.reservation.export;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor CSV en streaming (RFC 4180).
+ *
+ * Escribe cada campo directamente en un buffer de caracteres propio, sin String.format
+ * ni cadenas intermedias: los números, decimales y fechas se convierten dígito a dígito.
+ * Los textos con coma, comillas o saltos de línea se escriben entre comillas, duplicando
+ * las comillas internas. Opcionalmente comprime la salida con gzip.
+ *
+ * Los errores de escritura se lanzan como UncheckedIOException para poder usarlo desde
+ * los visitors.
+ *
+ * Uso:
+ * <pre>
+ * try (CsvWriter csv = CsvWriter.open(outputStream, false)) {
+ *     csv.header("ID", "Nombre");
+ *     csv.field(1L).field("Ana").endRow();
+ * }
+ * </pre>
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private boolean firstField = true;
+    private long rows;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Crea un escritor UTF-8 sobre un OutputStream
+     * @param gzip true para comprimir la salida
+     */
+    public static CsvWriter open(OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : out;
+        return new CsvWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Escribe la fila de encabezados
+     */
+    public CsvWriter header(String... names) {
+        for (String name : names) {
+            field(name);
+        }
+        endRow();
+        rows = 0;
+        return this;
+    }
+
+    public CsvWriter field(CharSequence value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        if (needsQuotes(value)) {
+            append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    append('"');
+                }
+                append(c);
+            }
+            append('"');
+        } else {
+            append(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(Enum<?> value) {
+        return field(value != null ? value.name() : null);
+    }
+
+    public CsvWriter field(long value) {
+        separator();
+        appendLong(value);
+        return this;
+    }
+
+    public CsvWriter field(Long value) {
+        if (value == null) {
+            separator();
+            return this;
+        }
+        return field(value.longValue());
+    }
+
+    public CsvWriter field(Integer value) {
+        if (value == null) {
+            separator();
+            return this;
+        }
+        return field(value.longValue());
+    }
+
+    /**
+     * Decimal con dos posiciones y punto decimal (independiente del locale)
+     */
+    public CsvWriter field(BigDecimal value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        long cents = value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        if (cents < 0) {
+            append('-');
+            cents = -cents;
+        }
+        appendLong(cents / 100);
+        append('.');
+        appendTwoDigits((int) (cents % 100));
+        return this;
+    }
+
+    /**
+     * Fecha en formato dd/MM/yyyy
+     */
+    public CsvWriter field(LocalDate value) {
+        separator();
+        if (value != null) {
+            appendDate(value);
+        }
+        return this;
+    }
+
+    /**
+     * Fecha y hora en formato dd/MM/yyyy HH:mm
+     */
+    public CsvWriter field(LocalDateTime value) {
+        separator();
+        if (value != null) {
+            appendDate(value.toLocalDate());
+            append(' ');
+            appendTwoDigits(value.getHour());
+            append(':');
+            appendTwoDigits(value.getMinute());
+        }
+        return this;
+    }
+
+    public CsvWriter endRow() {
+        append('\n');
+        firstField = true;
+        rows++;
+        return this;
+    }
+
+    /**
+     * Filas de datos escritas (sin contar el encabezado)
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            flushBuffer();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Vacía el buffer y cierra el Writer (termina el stream gzip si se usa)
+     */
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void separator() {
+        if (firstField) {
+            firstField = false;
+        } else {
+            append(',');
+        }
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendDate(LocalDate date) {
+        appendTwoDigits(date.getDayOfMonth());
+        append('/');
+        appendTwoDigits(date.getMonthValue());
+        append('/');
+        appendLong(date.getYear());
+    }
+
+    private void appendTwoDigits(int value) {
+        ensureCapacity(2);
+        buffer[position++] = (char) ('0' + value / 10);
+        buffer[position++] = (char) ('0' + value % 10);
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        // Los dígitos se escribieron al revés
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            char tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        buffer[position++] = c;
+    }
+
+    private void append(CharSequence value) {
+        int length = value.length();
+        if (length > BUFFER_SIZE) {
+            try {
+                flushBuffer();
+                out.append(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        ensureCapacity(length);
+        if (value instanceof String string) {
+            string.getChars(0, length, buffer, position);
+            position += length;
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = value.charAt(i);
+            }
+        }
+    }
+
+    private void ensureCapacity(int chars) {
+        if (position + chars > BUFFER_SIZE) {
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hotel.reservation.export;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Opciones de una exportación (CSV o Excel)
+ *
+ * @param range filas a exportar: ExportRange.all() o solo las modificadas en el rango
+ * @param progress recibe la cantidad de filas escritas a medida que avanza (NO_PROGRESS si no interesa)
+ */
+public record ExportOptions(ExportRange range, LongConsumer progress) {
+
+    public static final LongConsumer NO_PROGRESS = rows -> { };
+
+    public ExportOptions {
+        if (range == null || progress == null) {
+            throw new IllegalArgumentException("range y progress son obligatorios (ExportRange.all() / NO_PROGRESS)");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.hotel.reservation.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ventana [since, until) de una exportación incremental, sobre updatedAt.
+ *
+ * Sin since se exporta desde el inicio; sin until, hasta el momento de la petición menos un
+ * margen de seguridad. El consumidor usa el until de una exportación como since de la siguiente.
+ *
+ * updatedAt se asigna al escribir la fila pero la fila se ve recién al confirmar: una transacción
+ * que tarda más que el margen podría confirmar una fila con updatedAt anterior al until de una
+ * exportación ya hecha, y la siguiente (con ese until como since) no la vería. Por eso el margen
+ * debe ser al menos la duración máxima de una transacción, y quien pase until no debe acercarlo
+ * al momento actual más que ese margen.
+ *
+ * all() es la exportación completa: sin since ni until, sin filtrar por updatedAt.
+ */
+public record ExportRange(LocalDateTime since, LocalDateTime until) {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final ExportRange ALL = new ExportRange(null, null);
+
+    /**
+     * Todas las filas, sin filtrar por updatedAt
+     */
+    public static ExportRange all() {
+        return ALL;
+    }
+
+    /**
+     * @param safetyLagMillis margen que se resta al momento actual cuando no se indica until
+     * @return all() si no se indica ni since ni until
+     */
+    public static ExportRange of(LocalDateTime since, LocalDateTime until, long safetyLagMillis) {
+        if (since == null && until == null) {
+            return ALL;
+        }
+        LocalDateTime from = since != null ? since : BEGINNING;
+        LocalDateTime to = until != null ? until : LocalDateTime.now().minusNanos(safetyLagMillis * 1_000_000);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException(until != null
+                    ? "since debe ser anterior a until"
+                    : "since debe ser anterior a until (por defecto, el momento actual menos "
+                            + safetyLagMillis + " ms)");
+        }
+        return new ExportRange(from, to);
+    }
+
+    public boolean isAll() {
+        return since == null && until == null;
+    }
+}
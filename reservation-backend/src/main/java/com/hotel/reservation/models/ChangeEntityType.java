@@ -0,0 +1,11 @@
+package com.hotel.reservation.models;
+
+/**
+ * Tabla de la entidad que cambió (feed de cambios)
+ */
+public enum ChangeEntityType {
+    RESERVATION,
+    ROOM,
+    CUSTOMER,
+    PAYMENT
+}
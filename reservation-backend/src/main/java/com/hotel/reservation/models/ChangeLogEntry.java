@@ -0,0 +1,55 @@
+package com.hotel.reservation.models;
+
+import com.hotel.reservation.events.DomainEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ChangeLogEntry - Cambio de una reserva, habitación, cliente o pago (feed de cambios)
+ *
+ * El ID es el cursor del feed: sale de una secuencia y solo lo inserta el relay del feed
+ * (desde pending_changes), en orden, así que un ID menor nunca se confirma después de uno mayor.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 100)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private ChangeEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ChangeOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private DomainEventType eventType;
+
+    // Reserva del pago (solo en cambios de pagos)
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    // Momento en que se registró el cambio, dentro de la transacción de la entidad
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
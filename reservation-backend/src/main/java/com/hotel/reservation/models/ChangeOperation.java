@@ -0,0 +1,9 @@
+package com.hotel.reservation.models;
+
+/**
+ * Tipo de cambio publicado en el feed de cambios
+ */
+public enum ChangeOperation {
+    UPSERT,  // Alta o modificación: el consumidor vuelve a leer la entidad
+    DELETE   // Baja: el consumidor la elimina de su copia
+}
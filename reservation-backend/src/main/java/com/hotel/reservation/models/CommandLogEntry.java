@@ -0,0 +1,65 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad CommandLogEntry - Comando ejecutado por un actor (recepcionista, sistema, etc.)
+ *
+ * Guarda lo necesario para deshacer o rehacer el comando después de un reinicio.
+ */
+@Entity
+@Table(name = "command_log", indexes = {
+        @Index(name = "idx_command_log_actor_state", columnList = "actor, state, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommandLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String actor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "command_type", nullable = false, length = 40)
+    private CommandType commandType;
+
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    // Estado de la reserva antes de cancelarla (para deshacer)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private ReservationStatus previousStatus;
+
+    // Datos de la reserva creada, en JSON (para rehacer la creación)
+    @Column(length = 4000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CommandState state;
+
+    @Column(nullable = false, length = 255)
+    private String description;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,10 @@
+package com.hotel.reservation.models;
+
+/**
+ * Estado de un comando en el log de su actor
+ */
+public enum CommandState {
+    EXECUTED,    // Aplicado: puede deshacerse
+    UNDONE,      // Deshecho: puede rehacerse hasta que el actor ejecute otro comando
+    DISCARDED    // Deshecho y descartado al ejecutar un comando nuevo
+}
@@ -0,0 +1,9 @@
+package com.hotel.reservation.models;
+
+/**
+ * Tipos de comando reversibles que se registran en el log de comandos
+ */
+public enum CommandType {
+    CREATE_RESERVATION,
+    CANCEL_RESERVATION
+}
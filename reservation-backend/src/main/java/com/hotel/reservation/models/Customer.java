@@ -1,5 +1,6 @@
 package com.hotel.reservation.models;
 
+import com.hotel.reservation.cache.DataVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -18,7 +19,10 @@ import java.time.LocalDateTime;
  * Implementa niveles de lealtad para aplicar descuentos (Strategy Pattern)
  */
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_updated_at", columnList = "updated_at")
+})
+@EntityListeners(DataVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
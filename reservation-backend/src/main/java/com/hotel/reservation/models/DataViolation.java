@@ -0,0 +1,55 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad DataViolation - Incumplimiento abierto de una regla de validación
+ *
+ * La tabla contiene solo las violaciones vigentes: cada vez que se valida una entidad se
+ * reemplazan sus filas, así que una violación corregida desaparece.
+ */
+@Entity
+@Table(name = "data_violations", indexes = {
+        @Index(name = "idx_violations_entity", columnList = "entity_type, entity_id"),
+        @Index(name = "idx_violations_rule", columnList = "rule"),
+        @Index(name = "idx_violations_related", columnList = "related_entity_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataViolation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private ViolationEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private ViolationRule rule;
+
+    // Otra entidad involucrada (p. ej. la reserva con la que se cruza)
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    @Column(nullable = false, length = 500)
+    private String message;
+
+    @CreationTimestamp
+    @Column(name = "detected_at", nullable = false, updatable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,46 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad para las claves de idempotencia de los pagos (header Idempotency-Key)
+ * Guarda la respuesta de la petición original para devolverla a los reintentos
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 100)
+    private String idempotencyKey;
+
+    // Identifica los parámetros de la petición (la misma clave no puede usarse con otros datos)
+    @Column(name = "request_fingerprint", nullable = false)
+    private String requestFingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_body", length = 4000)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
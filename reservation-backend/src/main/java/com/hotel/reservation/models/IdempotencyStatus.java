@@ -0,0 +1,9 @@
+package com.hotel.reservation.models;
+
+/**
+ * Estado de una clave de idempotencia
+ */
+public enum IdempotencyStatus {
+    IN_PROGRESS,  // La petición original se está procesando
+    COMPLETED     // Respuesta guardada, los duplicados la reciben sin volver a cobrar
+}
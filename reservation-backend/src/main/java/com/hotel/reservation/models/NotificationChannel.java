@@ -0,0 +1,11 @@
+package com.hotel.reservation.models;
+
+/**
+ * Canales de notificación disponibles para los clientes
+ * Cada canal corresponde a un Observer (Email, SMS, WhatsApp)
+ */
+public enum NotificationChannel {
+    EMAIL,      // Correo electrónico (SMTP)
+    SMS,        // Mensaje de texto
+    WHATSAPP    // WhatsApp Business
+}
@@ -0,0 +1,24 @@
+package com.hotel.reservation.models;
+
+/**
+ * Eventos de reserva que generan una notificación al cliente
+ */
+public enum NotificationEventType {
+    RESERVATION_CREATED("creada"),        // Reserva creada (pendiente)
+    RESERVATION_CONFIRMED("confirmada"),  // Reserva confirmada o pagada
+    RESERVATION_CANCELLED("cancelada");   // Reserva cancelada
+
+    private final String label;
+
+    NotificationEventType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Descripción corta para los mensajes al cliente
+     * @return estado en español (creada, confirmada, cancelada)
+     */
+    public String getLabel() {
+        return label;
+    }
+}
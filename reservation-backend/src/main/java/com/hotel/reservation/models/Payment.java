@@ -1,5 +1,6 @@
 package com.hotel.reservation.models;
 
+import com.hotel.reservation.cache.DataVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -8,6 +9,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,7 +20,12 @@ import java.time.LocalDateTime;
  * Diferentes métodos de pago se adaptan a una interfaz común
  */
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_status_date", columnList = "payment_status, payment_date"),
+        @Index(name = "idx_payments_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_payments_status_updated", columnList = "payment_status, updated_at")
+})
+@EntityListeners(DataVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,10 +60,19 @@ public class Payment {
     @Column(unique = true)
     private String transactionId;
 
+    // Clave de idempotencia del intento actual ante la pasarela; se guarda antes de llamarla
+    // para poder consultar el cobro aunque se pierda la respuesta
+    @Column(unique = true, length = 36)
+    private String gatewayRequestId;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime paymentDate;
 
+    // Nulo en los pagos creados antes de agregar la columna hasta que UpdatedAtBackfill lo asigna al iniciar
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     /**
      * Marca el pago como completado
      * @param transactionId ID de la transacción del procesador de pago
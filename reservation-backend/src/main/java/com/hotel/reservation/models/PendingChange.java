@@ -0,0 +1,51 @@
+package com.hotel.reservation.models;
+
+import com.hotel.reservation.events.DomainEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad PendingChange - Cambio todavía no publicado en el feed (outbox)
+ *
+ * Se inserta en la misma transacción que modifica la entidad, así que existe si y solo si
+ * el cambio se confirmó. El relay del feed lo mueve a change_log, donde recibe su cursor.
+ */
+@Entity
+@Table(name = "pending_changes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private ChangeEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ChangeOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private DomainEventType eventType;
+
+    // Reserva del pago (solo en cambios de pagos)
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,75 @@
+package com.hotel.reservation.models;
+
+import com.hotel.reservation.events.DomainEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad PendingJournalEntry - Entrada del diario de reservas todavía no movida a reservation_journal
+ *
+ * Se inserta en la misma transacción que modifica la reserva, así que existe si y solo si
+ * el cambio se confirmó. El relay del diario la mueve a reservation_journal, donde recibe su ID.
+ */
+@Entity
+@Table(name = "pending_journal_entries", indexes = {
+        @Index(name = "idx_pending_journal_reservation", columnList = "reservation_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private DomainEventType eventType;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private ReservationStatus previousStatus;
+
+    @Column(name = "check_in_date")
+    private LocalDate checkInDate;
+
+    @Column(name = "check_out_date")
+    private LocalDate checkOutDate;
+
+    @Column(name = "number_of_guests")
+    private Integer numberOfGuests;
+
+    @Column(name = "total_price", precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "undo_role", length = 10)
+    private UndoRole undoRole;
+}
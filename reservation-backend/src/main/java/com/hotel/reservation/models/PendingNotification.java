@@ -0,0 +1,60 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad PendingNotification - Mensaje de notificación todavía no entregado
+ *
+ * La cola de reintentos del NotificationDispatcher vive en esta tabla y no en memoria: un
+ * reinicio no pierde los mensajes pendientes ni los que esperaban su siguiente intento.
+ * La fila se borra al entregar el mensaje o al moverlo a notification_dead_letters.
+ */
+@Entity
+@Table(name = "pending_notifications", indexes = {
+        @Index(name = "idx_pending_notification_next_attempt", columnList = "next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationChannel channel;
+
+    // Eventos del mensaje (más de uno si es un resumen), en orden
+    @ElementCollection
+    @CollectionTable(name = "pending_notification_items", joinColumns = @JoinColumn(name = "notification_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<PendingNotificationItem> items = new ArrayList<>();
+
+    // Número del próximo intento (empieza en 1)
+    @Column(nullable = false)
+    private Integer attempt;
+
+    // Desde cuándo puede intentarse; mientras un hilo lo envía, el fin de su lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,95 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad RefundJob - Trabajo de reembolso masivo (p. ej. cancelación de un evento)
+ *
+ * Guarda el filtro, el cursor (último pago procesado) y los contadores de progreso.
+ * El cursor se confirma junto con cada bloque, por lo que un trabajo interrumpido
+ * se reanuda desde el último bloque confirmado.
+ */
+@Entity
+@Table(name = "refund_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private RefundJobStatus status = RefundJobStatus.PENDING;
+
+    // Filtro (todos opcionales)
+    @Column(name = "check_in_from")
+    private LocalDate checkInFrom;
+
+    @Column(name = "check_in_to")
+    private LocalDate checkInTo;
+
+    @Column(name = "package_id")
+    private Long packageId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "room_type")
+    private RoomType roomType;
+
+    @Column(name = "cancel_reservations", nullable = false)
+    @Builder.Default
+    private Boolean cancelReservations = false;
+
+    @Column(length = 500)
+    private String reason;
+
+    // Progreso
+    @Column(name = "last_payment_id", nullable = false)
+    @Builder.Default
+    private Long lastPaymentId = 0L;
+
+    @Column(name = "total_candidates", nullable = false)
+    @Builder.Default
+    private Long totalCandidates = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long processed = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long refunded = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long failed = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long unknown = 0L;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
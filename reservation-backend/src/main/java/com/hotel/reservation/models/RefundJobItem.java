@@ -0,0 +1,44 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad RefundJobItem - Resultado del reembolso de un pago dentro de un trabajo masivo
+ * Se registra como IN_PROGRESS antes de llamar a la pasarela para detectar, tras un reinicio,
+ * los reembolsos cuyo resultado no llegó a guardarse
+ */
+@Entity
+@Table(name = "refund_job_items",
+    uniqueConstraints = @UniqueConstraint(name = "uk_refund_item_job_payment", columnNames = {"job_id", "payment_id"}),
+    indexes = @Index(name = "idx_refund_item_job_status", columnList = "job_id, status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJobItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RefundJobItemStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,11 @@
+package com.hotel.reservation.models;
+
+/**
+ * Estado del reembolso de un pago dentro de un trabajo masivo
+ */
+public enum RefundJobItemStatus {
+    IN_PROGRESS,  // Enviado a la pasarela, sin resultado confirmado
+    REFUNDED,     // Reembolsado
+    FAILED,       // La pasarela rechazó el reembolso o se agotaron los reintentos
+    UNKNOWN       // Sin respuesta o interrumpido por un reinicio: verificar en la pasarela
+}
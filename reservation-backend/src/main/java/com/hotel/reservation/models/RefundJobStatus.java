@@ -0,0 +1,12 @@
+package com.hotel.reservation.models;
+
+/**
+ * Estados de un trabajo de reembolso masivo
+ */
+public enum RefundJobStatus {
+    PENDING,     // En cola
+    RUNNING,     // Procesando (se reanuda tras un reinicio)
+    COMPLETED,   // Todos los pagos del filtro fueron procesados
+    CANCELLED,   // Cancelado por un administrador
+    FAILED       // Detenido por un error inesperado
+}
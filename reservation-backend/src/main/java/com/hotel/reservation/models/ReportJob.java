@@ -0,0 +1,83 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ReportJob - Generación de un reporte en segundo plano
+ *
+ * El archivo se escribe en disco y se descarga cuando el trabajo termina.
+ * parameters_key identifica los parámetros del reporte: una solicitud idéntica
+ * mientras el trabajo está en cola o en curso se asocia a este trabajo.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+        @Index(name = "idx_report_jobs_parameters", columnList = "parameters_key, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportJobType reportType;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean gzip = false;
+
+    @Column(name = "parameters_key", nullable = false, length = 100)
+    private String parametersKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ReportJobStatus status = ReportJobStatus.PENDING;
+
+    // Progreso
+    @Column(name = "total_rows", nullable = false)
+    @Builder.Default
+    private Long totalRows = 0L;
+
+    @Column(name = "rows_written", nullable = false)
+    @Builder.Default
+    private Long rowsWritten = 0L;
+
+    // Archivo generado
+    @Column(name = "file_name", length = 100)
+    private String fileName;
+
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
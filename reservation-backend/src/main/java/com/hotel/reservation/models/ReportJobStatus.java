@@ -0,0 +1,12 @@
+package com.hotel.reservation.models;
+
+/**
+ * Estados de un trabajo de generación de reporte
+ */
+public enum ReportJobStatus {
+    PENDING,     // En cola
+    RUNNING,     // Generando el archivo (se reinicia tras un reinicio de la aplicación)
+    COMPLETED,   // Archivo listo para descargar
+    FAILED,      // Error al generar el archivo
+    EXPIRED      // Archivo eliminado al superar el tiempo de retención
+}
@@ -0,0 +1,14 @@
+package com.hotel.reservation.models;
+
+/**
+ * Reportes que pueden generarse como trabajo en segundo plano
+ */
+public enum ReportJobType {
+    RESERVATIONS_EXCEL,  // Reporte de reservas (.xlsx)
+    REVENUE_EXCEL,       // Reporte de ingresos (.xlsx)
+    OCCUPANCY_EXCEL,     // Reporte de ocupación (.xlsx)
+    ROOMS_CSV,           // Exportación de habitaciones (.csv)
+    CUSTOMERS_CSV,       // Exportación de clientes (.csv)
+    RESERVATIONS_CSV,    // Exportación de reservas (.csv)
+    PAYMENTS_CSV         // Exportación de pagos (.csv)
+}
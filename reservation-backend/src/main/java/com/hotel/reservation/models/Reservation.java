@@ -1,5 +1,6 @@
 package com.hotel.reservation.models;
 
+import com.hotel.reservation.cache.DataVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
@@ -25,7 +26,11 @@ import java.util.List;
  * El historial se guarda con el patrón Memento (ReservationMemento)
  */
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_stay", columnList = "check_in_date, check_out_date"),
+        @Index(name = "idx_reservations_updated_at", columnList = "updated_at")
+})
+@EntityListeners(DataVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,6 +51,11 @@ public class Reservation {
     @JoinColumn(name = "room_id", nullable = false)
     private Room room;
 
+    // Paquete contratado (opcional); sus servicios se copian a additionalServices
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "package_id")
+    private Package servicePackage;
+
     @NotNull(message = "La fecha de check-in es obligatoria")
     @Column(nullable = false)
     private LocalDate checkInDate;
@@ -0,0 +1,83 @@
+package com.hotel.reservation.models;
+
+import com.hotel.reservation.events.DomainEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ReservationJournalEntry - Evento del diario de reservas (solo inserción)
+ *
+ * El ID sale de una secuencia con asignación por bloques, así que un lote de eventos se
+ * inserta con JDBC batch. Solo inserta el relay del diario, en el orden de pending_journal_entries,
+ * así que el orden de los IDs es el orden de los eventos. Los campos nulos no cambiaron con el
+ * evento (p. ej. un pago completado solo trae el estado).
+ */
+@Entity
+@Table(name = "reservation_journal", indexes = {
+        @Index(name = "idx_reservation_journal_reservation", columnList = "reservation_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_journal_seq")
+    @SequenceGenerator(name = "reservation_journal_seq", sequenceName = "reservation_journal_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private DomainEventType eventType;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status")
+    private ReservationStatus previousStatus;
+
+    @Column(name = "check_in_date")
+    private LocalDate checkInDate;
+
+    @Column(name = "check_out_date")
+    private LocalDate checkOutDate;
+
+    @Column(name = "number_of_guests")
+    private Integer numberOfGuests;
+
+    @Column(name = "total_price", precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+
+    // ID que tuvo en pending_journal_entries (nulo en las entradas anteriores al relay)
+    @Column(name = "pending_id")
+    private Long pendingId;
+
+    // Nulo si la entrada no participa en undo
+    @Enumerated(EnumType.STRING)
+    @Column(name = "undo_role", length = 10)
+    private UndoRole undoRole;
+}
@@ -0,0 +1,69 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ReservationSnapshot - Estado de una reserva después de cierta entrada del diario
+ *
+ * Para reconstruir una reserva basta el último snapshot y las entradas posteriores a lastEntryId.
+ */
+@Entity
+@Table(name = "reservation_snapshots", indexes = {
+        @Index(name = "idx_reservation_snapshots_reservation", columnList = "reservation_id, last_entry_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    // Última entrada del diario incluida en este estado
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    // Entradas del diario aplicadas desde la primera
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    @Column(name = "check_in_date")
+    private LocalDate checkInDate;
+
+    @Column(name = "check_out_date")
+    private LocalDate checkOutDate;
+
+    @Column(name = "number_of_guests")
+    private Integer numberOfGuests;
+
+    @Column(name = "total_price", precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+
+    // Reserva eliminada (nulo en los snapshots creados antes de agregar la columna)
+    private Boolean deleted;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -0,0 +1,63 @@
+package com.hotel.reservation.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad RevenueDailyRollup - Ingresos agregados por día de pago, método de pago y tipo de habitación
+ *
+ * Se mantiene de forma incremental al completar o reembolsar pagos (RevenueRollupService),
+ * de modo que el reporte de ingresos lee unas pocas filas por día en lugar de todos los pagos.
+ * Un reembolso mueve el pago de completados a reembolsados en la fila de su día de pago.
+ */
+@Entity
+@Table(name = "revenue_daily_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_rollup_key", columnNames = {"rollup_date", "payment_method", "room_type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false)
+    private PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "room_type", nullable = false)
+    private RoomType roomType;
+
+    @Column(name = "completed_count", nullable = false)
+    @Builder.Default
+    private Long completedCount = 0L;
+
+    @Column(name = "completed_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal completedAmount = BigDecimal.ZERO;
+
+    @Column(name = "refunded_count", nullable = false)
+    @Builder.Default
+    private Long refundedCount = 0L;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.hotel.reservation.models;
 
+import com.hotel.reservation.cache.DataVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,8 +9,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,7 +24,10 @@ import java.util.List;
  * Usa Flyweight para compartir amenidades comunes entre habitaciones del mismo tipo
  */
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = {
+        @Index(name = "idx_rooms_updated_at", columnList = "updated_at")
+})
+@EntityListeners(DataVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -70,6 +77,14 @@ public class Room implements Cloneable {
     @Column(length = 1000)
     private String description;
 
+    // Nulos en las habitaciones creadas antes de agregar las columnas
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     /**
      * Implementa el patrón Prototype para clonar habitaciones
      * Útil para crear habitaciones similares con configuraciones base
@@ -85,6 +100,8 @@ public class Room implements Cloneable {
             cloned.id = null;
             // El clon debe tener un número de habitación diferente
             cloned.roomNumber = null;
+            cloned.createdAt = null;
+            cloned.updatedAt = null;
             return cloned;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException("Error al clonar la habitación", e);
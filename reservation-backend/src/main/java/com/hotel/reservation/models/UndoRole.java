@@ -0,0 +1,11 @@
+package com.hotel.reservation.models;
+
+/**
+ * Papel de una entrada del diario de reservas en undo
+ */
+public enum UndoRole {
+    // Cambio que undo puede revertir (se restaura el estado previo a la entrada)
+    UNDOABLE,
+    // Undo aplicado: consume el cambio UNDOABLE más reciente todavía disponible
+    UNDO
+}
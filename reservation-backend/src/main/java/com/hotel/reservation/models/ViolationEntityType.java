@@ -0,0 +1,11 @@
+package com.hotel.reservation.models;
+
+/**
+ * Tabla de la entidad que incumple una regla de validación
+ */
+public enum ViolationEntityType {
+    ROOM,
+    CUSTOMER,
+    RESERVATION,
+    PAYMENT
+}
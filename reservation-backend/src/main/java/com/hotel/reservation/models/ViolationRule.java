@@ -0,0 +1,41 @@
+package com.hotel.reservation.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reglas de validación de datos, cada una sobre un tipo de entidad
+ */
+public enum ViolationRule {
+    ROOM_INVALID_PRICE(ViolationEntityType.ROOM),                  // Precio menor o igual a 0
+    ROOM_INVALID_CAPACITY(ViolationEntityType.ROOM),               // Capacidad menor o igual a 0
+    ROOM_INVALID_FLOOR(ViolationEntityType.ROOM),                  // Piso negativo
+    CUSTOMER_INVALID_EMAIL(ViolationEntityType.CUSTOMER),          // Email vacío o sin @
+    CUSTOMER_MISSING_FIRST_NAME(ViolationEntityType.CUSTOMER),     // Sin nombre
+    CUSTOMER_MISSING_LAST_NAME(ViolationEntityType.CUSTOMER),      // Sin apellido
+    RESERVATION_INVALID_DATES(ViolationEntityType.RESERVATION),    // Check-out no posterior al check-in
+    RESERVATION_INVALID_GUESTS(ViolationEntityType.RESERVATION),   // Huéspedes menor o igual a 0
+    RESERVATION_OVER_CAPACITY(ViolationEntityType.RESERVATION),    // Más huéspedes que la capacidad de la habitación
+    RESERVATION_INVALID_TOTAL(ViolationEntityType.RESERVATION),    // Precio total menor o igual a 0
+    RESERVATION_OVERLAP(ViolationEntityType.RESERVATION),          // Se cruza con otra reserva activa de la misma habitación
+    PAYMENT_INVALID_AMOUNT(ViolationEntityType.PAYMENT),           // Monto menor o igual a 0
+    PAYMENT_MISSING_TRANSACTION(ViolationEntityType.PAYMENT),      // Pago completado o reembolsado sin ID de transacción
+    PAYMENT_AMOUNT_MISMATCH(ViolationEntityType.PAYMENT);          // Monto distinto al total de la reserva (con o sin impuestos)
+
+    private final ViolationEntityType entityType;
+
+    ViolationRule(ViolationEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public ViolationEntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Reglas que se evalúan sobre un tipo de entidad
+     */
+    public static List<ViolationRule> forEntity(ViolationEntityType entityType) {
+        return Arrays.stream(values()).filter(rule -> rule.entityType == entityType).toList();
+    }
+}
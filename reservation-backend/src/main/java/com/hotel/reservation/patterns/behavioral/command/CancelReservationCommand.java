@@ -1,43 +1,51 @@
 package com.hotel.reservation.patterns.behavioral.command;
 
-import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.dto.ReservationDTO;
 import com.hotel.reservation.models.ReservationStatus;
-import com.hotel.reservation.repositories.ReservationRepository;
-import lombok.RequiredArgsConstructor;
+import com.hotel.reservation.service.ReservationService;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Comando para cancelar una reserva (reversible)
+ * Pasa por ReservationService: eventos, diario de reservas e historial para undo
  */
 @Slf4j
-@RequiredArgsConstructor
 public class CancelReservationCommand implements Command {
 
-    private final ReservationRepository repository;
+    private final ReservationService reservationService;
+    @Getter
     private final Long reservationId;
+    @Getter
     private ReservationStatus previousStatus;
 
-    @Override
-    public void execute() {
-        Reservation reservation = repository.findById(reservationId)
-            .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+    public CancelReservationCommand(ReservationService reservationService, Long reservationId) {
+        this.reservationService = reservationService;
+        this.reservationId = reservationId;
+    }
 
-        this.previousStatus = reservation.getStatus();
-        reservation.setStatus(ReservationStatus.CANCELLED);
-        repository.save(reservation);
+    /**
+     * Comando ya ejecutado, reconstruido desde el log con el estado que tenía la reserva
+     */
+    public CancelReservationCommand(ReservationService reservationService, Long reservationId,
+                                    ReservationStatus previousStatus) {
+        this.reservationService = reservationService;
+        this.reservationId = reservationId;
+        this.previousStatus = previousStatus;
+    }
 
+    @Override
+    public void execute() {
+        this.previousStatus = reservationService.cancelReservation(reservationId);
         log.info("✅ Comando ejecutado: Reserva #{} cancelada", reservationId);
     }
 
     @Override
     public void undo() {
         if (previousStatus != null) {
-            Reservation reservation = repository.findById(reservationId)
-                .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
-
-            reservation.setStatus(previousStatus);
-            repository.save(reservation);
-
+            reservationService.updateReservation(reservationId, ReservationDTO.builder()
+                    .status(previousStatus)
+                    .build());
             log.info("↩️ Comando deshecho: Reserva #{} restaurada a {}", reservationId, previousStatus);
         }
     }
@@ -1,38 +1,58 @@
 package com.hotel.reservation.patterns.behavioral.command;
 
-import com.hotel.reservation.models.Reservation;
-import com.hotel.reservation.repositories.ReservationRepository;
-import lombok.RequiredArgsConstructor;
+import com.hotel.reservation.dto.ReservationDTO;
+import com.hotel.reservation.service.ReservationService;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Comando para crear una reserva (reversible)
+ * Pasa por ReservationService: precio, eventos y diario de reservas como cualquier otra creación
  */
 @Slf4j
-@RequiredArgsConstructor
 public class CreateReservationCommand implements Command {
 
-    private final ReservationRepository repository;
-    private final Reservation reservation;
+    private final ReservationService reservationService;
+    private final ReservationDTO reservation;
+    @Getter
     private Long savedId;
 
+    public CreateReservationCommand(ReservationService reservationService, ReservationDTO reservation) {
+        this.reservationService = reservationService;
+        this.reservation = reservation;
+    }
+
+    /**
+     * Comando ya ejecutado, reconstruido desde el log (solo puede deshacerse)
+     */
+    public CreateReservationCommand(ReservationService reservationService, Long savedId) {
+        this.reservationService = reservationService;
+        this.reservation = null;
+        this.savedId = savedId;
+    }
+
     @Override
     public void execute() {
-        Reservation saved = repository.save(reservation);
-        this.savedId = saved.getId();
+        if (reservation == null) {
+            throw new IllegalStateException("El comando no tiene los datos de la reserva para ejecutarse");
+        }
+        this.savedId = reservationService.createReservation(reservation).getId();
         log.info("✅ Comando ejecutado: Reserva #{} creada", savedId);
     }
 
     @Override
     public void undo() {
         if (savedId != null) {
-            repository.deleteById(savedId);
+            reservationService.deleteReservation(savedId);
             log.info("↩️ Comando deshecho: Reserva #{} eliminada", savedId);
         }
     }
 
     @Override
     public String getDescription() {
-        return "Crear reserva para cliente ID: " + reservation.getCustomer().getId();
+        if (reservation == null) {
+            return "Crear reserva ID: " + savedId;
+        }
+        return "Crear reserva para cliente ID: " + reservation.getCustomerId();
     }
 }
@@ -1,66 +1,209 @@
 package com.hotel.reservation.patterns.behavioral.memento;
 
+import com.hotel.reservation.service.ReservationJournal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Caretaker - Gestiona el historial de mementos
+ *
+ * El diario de reservas es la fuente de verdad: los mementos disponibles son los estados previos
+ * a cada cambio UNDOABLE que ningún UNDO posterior consumió (ReservationJournal.undoableStates).
+ * No hay una tabla aparte que pueda quedar desalineada con el diario: el cambio y su entrada
+ * se confirman en la misma transacción.
+ *
+ * En memoria solo se guardan los últimos estados de las reservas consultadas recientemente:
+ * un anillo de tamaño fijo por reserva en un mapa concurrente de hasta max-cached reservas; al
+ * pasarse se descartan las menos usadas y se vuelven a leer del diario al pedirlas. El anillo es
+ * solo una caché para consultar el historial: undo siempre decide con el diario, y los cambios lo
+ * descartan después del commit (invalidate) para que la siguiente consulta lo lea ya confirmado.
+ *
+ * El diario se lee sin ningún lock tomado (una consulta lenta no frena las de otras reservas).
+ * Cada reserva tiene una generación que invalidate incrementa: una lectura solo se publica si la
+ * generación y la entrada del mapa siguen siendo las que vio al empezar, así una lectura anterior
+ * al commit o a un descarte nunca queda en memoria.
  */
 @Slf4j
 @Component
 public class ReservationHistory {
 
-    private final Map<Long, Stack<ReservationMemento>> history = new HashMap<>();
+    private final ReservationJournal journal;
+    private final int ringSize;
+    private final int maxCached;
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
 
-    public void save(ReservationMemento memento) {
-        Long reservationId = memento.getReservationId();
+    // Solo un hilo descarta las entradas sobrantes a la vez
+    private final AtomicBoolean trimming = new AtomicBoolean();
 
-        history.computeIfAbsent(reservationId, k -> new Stack<>());
-        history.get(reservationId).push(memento);
-
-        log.info("📚 Historial: Guardado estado de reserva #{} - {} estados totales",
-            reservationId, history.get(reservationId).size());
+    public ReservationHistory(ReservationJournal journal,
+                              @Value("${app.reservations.history.ring-size:20}") int ringSize,
+                              @Value("${app.reservations.history.max-cached:10000}") int maxCached) {
+        this.journal = journal;
+        this.ringSize = ringSize;
+        this.maxCached = maxCached;
     }
 
+    /**
+     * Estado más reciente que undo puede restaurar. El llamador debe tener el bloqueo de la fila de
+     * la reserva y registrar el UNDO en la misma transacción: así dos undo simultáneos no restauran
+     * el mismo estado.
+     * @return null si no hay estados disponibles
+     */
+    @Transactional
     public ReservationMemento restore(Long reservationId) {
-        Stack<ReservationMemento> reservationHistory = history.get(reservationId);
-
-        if (reservationHistory == null || reservationHistory.isEmpty()) {
+        List<ReservationMemento> undoable = journal.undoableStates(reservationId);
+        if (undoable.isEmpty()) {
             log.warn("⚠️ No hay historial para reserva #{}", reservationId);
             return null;
         }
 
-        ReservationMemento memento = reservationHistory.pop();
+        ReservationMemento memento = undoable.get(undoable.size() - 1);
         log.info("📖 Historial: Restaurado estado de reserva #{} desde {}",
             reservationId, memento.getSavedAt());
-
         return memento;
     }
 
+    /**
+     * Últimos estados disponibles de una reserva (hasta ring-size), del más antiguo al más reciente
+     */
+    @Transactional(readOnly = true)
     public List<ReservationMemento> getHistory(Long reservationId) {
-        Stack<ReservationMemento> reservationHistory = history.get(reservationId);
-
-        if (reservationHistory == null) {
-            return new ArrayList<>();
+        // La entrada se crea antes de leer: un invalidate posterior a la lectura la encuentra
+        Slot slot = slots.computeIfAbsent(reservationId, key -> new Slot());
+        slot.lastAccess = System.nanoTime();
+        long generation;
+        synchronized (slot) {
+            if (slot.ring != null) {
+                return slot.ring.toList();
+            }
+            generation = slot.generation;
         }
 
-        return new ArrayList<>(reservationHistory);
+        Ring loaded = load(reservationId);
+        synchronized (slot) {
+            // Un invalidate o un descarte durante la lectura la deja vieja: se devuelve sin guardarla
+            if (slot.generation == generation && slots.get(reservationId) == slot) {
+                slot.ring = loaded;
+            }
+        }
+        trim();
+        return loaded.toList();
     }
 
     public int getHistorySize(Long reservationId) {
-        Stack<ReservationMemento> reservationHistory = history.get(reservationId);
-        return reservationHistory == null ? 0 : reservationHistory.size();
+        return getHistory(reservationId).size();
+    }
+
+    /**
+     * Descarta el anillo de una reserva cuando su cambio ya está confirmado; antes del commit otra
+     * consulta lo volvería a leer sin el cambio. Si la transacción se revierte, el anillo sigue siendo válido.
+     */
+    public void invalidate(Long reservationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            discard(reservationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                discard(reservationId);
+            }
+        });
+    }
+
+    /**
+     * Cantidad de reservas con historial en memoria
+     */
+    public int getCachedReservations() {
+        return slots.size();
     }
 
-    public void clearHistory(Long reservationId) {
-        history.remove(reservationId);
-        log.info("🗑️ Historial de reserva #{} eliminado", reservationId);
+    private void discard(Long reservationId) {
+        Slot slot = slots.get(reservationId);
+        if (slot != null) {
+            synchronized (slot) {
+                slot.generation++;
+                slot.ring = null;
+            }
+        }
     }
 
-    public void clearAllHistory() {
-        history.clear();
-        log.info("🗑️ Todo el historial ha sido eliminado");
+    /**
+     * Al pasar max-cached descarta las menos usadas, más un 10% de margen para no ordenar en cada lectura
+     */
+    private void trim() {
+        if (slots.size() <= maxCached || !trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<Long, Slot>> entries = new ArrayList<>(slots.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            int excess = entries.size() - maxCached + Math.max(1, maxCached / 10);
+            for (int i = 0; i < excess && i < entries.size(); i++) {
+                slots.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private Ring load(Long reservationId) {
+        Ring ring = new Ring(ringSize);
+        // Vienen del más antiguo al más reciente: el anillo conserva los últimos ring-size
+        journal.undoableStates(reservationId).forEach(ring::push);
+        return ring;
+    }
+
+    /**
+     * Entrada de una reserva en el mapa: su generación y el anillo (null si hay que leerlo).
+     * generation y ring se leen y escriben con el monitor de la entrada.
+     */
+    private static final class Slot {
+
+        private long generation;
+        private Ring ring;
+        private volatile long lastAccess = System.nanoTime();
+    }
+
+    /**
+     * Anillo de tamaño fijo con los estados más recientes de una reserva, leído del diario.
+     * Al llenarse se pisa el más antiguo.
+     */
+    private static final class Ring {
+
+        private final ReservationMemento[] mementos;
+        private int newest = -1;
+        private int size;
+
+        Ring(int capacity) {
+            this.mementos = new ReservationMemento[capacity];
+        }
+
+        synchronized void push(ReservationMemento memento) {
+            newest = (newest + 1) % mementos.length;
+            mementos[newest] = memento;
+            if (size < mementos.length) {
+                size++;
+            }
+        }
+
+        synchronized List<ReservationMemento> toList() {
+            List<ReservationMemento> list = new ArrayList<>(size);
+            for (int i = size - 1; i >= 0; i--) {
+                list.add(mementos[(newest - i + mementos.length) % mementos.length]);
+            }
+            return list;
+        }
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -36,13 +37,9 @@ public class EmailNotificationObserver implements ReservationObserver {
 
         String body = buildCreatedEmailBody(reservation);
 
-        try {
-            sendEmail(to, subject, body);
-            log.info("📧 Email enviado exitosamente: Reserva #{} creada para {}",
-                reservation.getId(), to);
-        } catch (Exception e) {
-            log.error("❌ Error al enviar email de reserva creada: {}", e.getMessage());
-        }
+        sendEmail(to, subject, body);
+        log.info("📧 Email enviado exitosamente: Reserva #{} creada para {}",
+            reservation.getId(), to);
     }
 
     @Override
@@ -52,13 +49,9 @@ public class EmailNotificationObserver implements ReservationObserver {
 
         String body = buildConfirmedEmailBody(reservation);
 
-        try {
-            sendEmail(to, subject, body);
-            log.info("📧 Email enviado exitosamente: Reserva #{} confirmada para {}",
-                reservation.getId(), to);
-        } catch (Exception e) {
-            log.error("❌ Error al enviar email de reserva confirmada: {}", e.getMessage());
-        }
+        sendEmail(to, subject, body);
+        log.info("📧 Email enviado exitosamente: Reserva #{} confirmada para {}",
+            reservation.getId(), to);
     }
 
     @Override
@@ -68,15 +61,28 @@ public class EmailNotificationObserver implements ReservationObserver {
 
         String body = buildCancelledEmailBody(reservation);
 
-        try {
-            sendEmail(to, subject, body);
-            log.info("📧 Email enviado exitosamente: Reserva #{} cancelada para {}",
-                reservation.getId(), to);
-        } catch (Exception e) {
-            log.error("❌ Error al enviar email de reserva cancelada: {}", e.getMessage());
-        }
+        sendEmail(to, subject, body);
+        log.info("📧 Email enviado exitosamente: Reserva #{} cancelada para {}",
+            reservation.getId(), to);
     }
 
+    @Override
+    public void onReservationDigest(List<ReservationNotification> notifications) {
+        Reservation first = notifications.get(0).reservation();
+        String to = first.getCustomer().getEmail();
+        String subject = "📋 Resumen de tus reservas - Hotel Oaxaca Dreams";
+
+        String body = buildDigestEmailBody(notifications);
+
+        sendEmail(to, subject, body);
+        log.info("📧 Email resumen enviado exitosamente: {} reservas para {}",
+            notifications.size(), to);
+    }
+
+    /**
+     * Envía el email. Los errores se propagan para que NotificationDispatcher
+     * pueda reintentar el envío o moverlo a dead-letter.
+     */
     private void sendEmail(String to, String subject, String body) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -279,4 +285,68 @@ public class EmailNotificationObserver implements ReservationObserver {
             reservation.getId()
         );
     }
+
+    private String buildDigestEmailBody(List<ReservationNotification> notifications) {
+        StringBuilder rows = new StringBuilder();
+        for (ReservationNotification notification : notifications) {
+            Reservation reservation = notification.reservation();
+            rows.append(String.format("""
+                            <div class="detail-row">
+                                <span class="label">Reserva #%d (%s)</span>
+                                <span>%s → %s | $%.2f %s | <strong>%s</strong></span>
+                            </div>
+                """,
+                reservation.getId(),
+                reservation.getRoom().getRoomNumber(),
+                reservation.getCheckInDate().format(DATE_FORMATTER),
+                reservation.getCheckOutDate().format(DATE_FORMATTER),
+                reservation.getTotalPrice(),
+                config.getCurrency(),
+                notification.eventType().getLabel().toUpperCase()));
+        }
+
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
+                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
+                    .content { background: #f8f9fa; padding: 30px; border-radius: 0 0 10px 10px; }
+                    .details { background: white; padding: 20px; border-radius: 8px; margin: 20px 0; }
+                    .detail-row { display: flex; justify-content: space-between; padding: 10px 0; border-bottom: 1px solid #eee; }
+                    .label { font-weight: bold; color: #667eea; }
+                    .footer { text-align: center; margin-top: 20px; color: #666; font-size: 12px; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>🏨 Hotel Oaxaca Dreams</h1>
+                        <h2>Resumen de tus reservas</h2>
+                    </div>
+                    <div class="content">
+                        <p>Estimado/a <strong>%s</strong>,</p>
+                        <p>Estas son las actualizaciones recientes de tus reservas:</p>
+
+                        <div class="details">
+            %s
+                        </div>
+
+                        <p>¡Esperamos verte pronto!</p>
+
+                        <div class="footer">
+                            <p>Hotel Oaxaca Dreams - Oaxaca, México</p>
+                            <p>Este es un correo automático, por favor no respondas a este mensaje.</p>
+                        </div>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """,
+            notifications.get(0).reservation().getCustomer().getFullName(),
+            rows
+        );
+    }
 }
@@ -0,0 +1,10 @@
+package com.hotel.reservation.patterns.behavioral.observer;
+
+import com.hotel.reservation.models.NotificationEventType;
+import com.hotel.reservation.models.Reservation;
+
+/**
+ * Evento de una reserva incluido en un resumen (digest) de notificaciones
+ */
+public record ReservationNotification(Reservation reservation, NotificationEventType eventType) {
+}
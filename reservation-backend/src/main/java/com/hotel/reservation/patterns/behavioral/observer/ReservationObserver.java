@@ -2,6 +2,8 @@ package com.hotel.reservation.patterns.behavioral.observer;
 
 import com.hotel.reservation.models.Reservation;
 
+import java.util.List;
+
 /**
  * PATRÓN OBSERVER - Observer Interface
  */
@@ -9,4 +11,19 @@ public interface ReservationObserver {
     void onReservationCreated(Reservation reservation);
     void onReservationConfirmed(Reservation reservation);
     void onReservationCancelled(Reservation reservation);
+
+    /**
+     * Notifica varios eventos de un mismo cliente en un solo mensaje.
+     * Por defecto envía cada evento por separado; los canales con costo por
+     * mensaje deben sobrescribirlo para enviar un único resumen.
+     */
+    default void onReservationDigest(List<ReservationNotification> notifications) {
+        for (ReservationNotification notification : notifications) {
+            switch (notification.eventType()) {
+                case RESERVATION_CREATED -> onReservationCreated(notification.reservation());
+                case RESERVATION_CONFIRMED -> onReservationConfirmed(notification.reservation());
+                case RESERVATION_CANCELLED -> onReservationCancelled(notification.reservation());
+            }
+        }
+    }
 }
@@ -4,6 +4,9 @@ import com.hotel.reservation.models.Reservation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Observer para enviar notificaciones por SMS
  * Implementa el patrón Observer para notificaciones SMS
@@ -54,6 +57,18 @@ public class SmsNotificationObserver implements ReservationObserver {
             maskPhone(phone), reservation.getId());
     }
 
+    @Override
+    public void onReservationDigest(List<ReservationNotification> notifications) {
+        String phone = notifications.get(0).reservation().getCustomer().getPhone();
+        String summary = notifications.stream()
+            .map(n -> String.format("#%d %s", n.reservation().getId(), n.eventType().getLabel()))
+            .collect(Collectors.joining(", "));
+        String message = "Hotel Oaxaca Dreams: Resumen de sus reservas: " + summary + ". Gracias por elegirnos!";
+        sendSms(phone, message);
+        log.info("📱 SMS resumen enviado a {}: {} reservas",
+            maskPhone(phone), notifications.size());
+    }
+
     /**
      * Simula el envío de SMS (en producción se integraría con Twilio, AWS SNS, etc.)
      */
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -104,6 +105,30 @@ public class WhatsAppNotificationObserver implements ReservationObserver {
             maskPhone(phone), reservation.getId());
     }
 
+    @Override
+    public void onReservationDigest(List<ReservationNotification> notifications) {
+        Reservation first = notifications.get(0).reservation();
+        String phone = first.getCustomer().getPhone();
+
+        StringBuilder message = new StringBuilder();
+        message.append("🏨 *Hotel Oaxaca Dreams*\n\n");
+        message.append(String.format("Hola %s! 👋\n\n", first.getCustomer().getFirstName()));
+        message.append("Resumen de tus reservas:\n\n");
+        for (ReservationNotification notification : notifications) {
+            Reservation reservation = notification.reservation();
+            message.append(String.format("📋 *Reserva #%d* - %s\n", reservation.getId(),
+                notification.eventType().getLabel().toUpperCase()));
+            message.append(String.format("📅 %s → %s\n\n",
+                reservation.getCheckInDate().format(DATE_FORMATTER),
+                reservation.getCheckOutDate().format(DATE_FORMATTER)));
+        }
+        message.append("📞 Contacto: (951) 123-4567");
+
+        sendWhatsApp(phone, message.toString());
+        log.info("💬 WhatsApp resumen enviado a {}: {} reservas",
+            maskPhone(phone), notifications.size());
+    }
+
     /**
      * Simula el envío de WhatsApp (en producción se integraría con WhatsApp Business API)
      */
@@ -1,18 +1,29 @@
 package com.hotel.reservation.patterns.behavioral.template;
 
+import com.hotel.reservation.dto.RoomTypeOccupancy;
 import com.hotel.reservation.models.Room;
 import com.hotel.reservation.repositories.RoomRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 
 /**
- * Reporte de ocupación de habitaciones
+ * Reporte de ocupación de habitaciones.
+ * Los totales salen de una consulta GROUP BY por tipo; solo el estado por habitación
+ * recorre las filas, por bloques.
  */
-@RequiredArgsConstructor
 public class OccupancyReport extends ReportTemplate {
 
     private final RoomRepository roomRepository;
+    private final boolean includeDetails;
+
+    /**
+     * @param includeDetails false para generar solo el resumen
+     */
+    public OccupancyReport(RoomRepository roomRepository, boolean includeDetails) {
+        this.roomRepository = roomRepository;
+        this.includeDetails = includeDetails;
+    }
 
     @Override
     protected String getReportName() {
@@ -21,16 +32,16 @@ public class OccupancyReport extends ReportTemplate {
 
     @Override
     protected String generateBody() {
-        List<Room> rooms = roomRepository.findAll();
+        List<RoomTypeOccupancy> byType = roomRepository.countGroupedByRoomType();
 
-        if (rooms.isEmpty()) {
+        long totalRooms = byType.stream().mapToLong(RoomTypeOccupancy::total).sum();
+        if (totalRooms == 0) {
             return "No hay habitaciones registradas.\n";
         }
 
         StringBuilder body = new StringBuilder();
 
-        long totalRooms = rooms.size();
-        long availableRooms = rooms.stream().filter(Room::isAvailable).count();
+        long availableRooms = byType.stream().mapToLong(RoomTypeOccupancy::available).sum();
         long occupiedRooms = totalRooms - availableRooms;
 
         double occupancyRate = (occupiedRooms * 100.0) / totalRooms;
@@ -43,30 +54,39 @@ public class OccupancyReport extends ReportTemplate {
         body.append("Detalle por tipo de habitación:\n");
         body.append("-".repeat(60)).append("\n");
 
-        rooms.stream()
-            .collect(java.util.stream.Collectors.groupingBy(Room::getRoomType))
-            .forEach((type, roomList) -> {
-                long available = roomList.stream().filter(Room::isAvailable).count();
-                long occupied = roomList.size() - available;
-
-                body.append(String.format("%s: %d total | %d disponibles | %d ocupadas\n",
-                    type, roomList.size(), available, occupied));
-            });
+        for (RoomTypeOccupancy type : byType) {
+            body.append(String.format("%s: %d total | %d disponibles | %d ocupadas\n",
+                type.roomType(), type.total(), type.available(), type.total() - type.available()));
+        }
 
         body.append("-".repeat(60)).append("\n\n");
 
-        body.append("Estado de habitaciones:\n");
-        body.append("-".repeat(60)).append("\n");
-
-        for (Room room : rooms) {
-            String status = room.isAvailable() ? "✓ Disponible" : "✗ Ocupada";
-            body.append(String.format("Habitación %s (%s): %s - $%.2f MXN\n",
-                room.getRoomNumber(),
-                room.getRoomType(),
-                status,
-                room.getPrice()));
+        if (includeDetails) {
+            appendDetails(body);
         }
 
         return body.toString();
     }
+
+    private void appendDetails(StringBuilder body) {
+        body.append("Estado de habitaciones:\n");
+        body.append("-".repeat(60)).append("\n");
+
+        long afterId = 0;
+        List<Room> page;
+        do {
+            page = roomRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, DETAIL_PAGE_SIZE));
+            for (Room room : page) {
+                String status = room.isAvailable() ? "✓ Disponible" : "✗ Ocupada";
+                body.append(String.format("Habitación %s (%s): %s - $%.2f MXN\n",
+                    room.getRoomNumber(),
+                    room.getRoomType(),
+                    status,
+                    room.getPrice()));
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == DETAIL_PAGE_SIZE);
+    }
 }
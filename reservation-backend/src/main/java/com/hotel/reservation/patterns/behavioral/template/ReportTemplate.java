@@ -2,6 +2,7 @@ package com.hotel.reservation.patterns.behavioral.template;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -12,6 +13,9 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public abstract class ReportTemplate {
 
+    // Filas por consulta en las secciones de detalle (paginación por keyset)
+    protected static final int DETAIL_PAGE_SIZE = 500;
+
     // Template Method - Define el flujo del algoritmo
     public final String generateReport() {
         log.info("📊 Iniciando generación de reporte: {}", getReportName());
@@ -43,6 +47,19 @@ public abstract class ReportTemplate {
             """, getReportName(), LocalDateTime.now().format(formatter));
     }
 
+    /**
+     * Describe el periodo del reporte (filtros nulos = sin límite)
+     */
+    protected String describePeriod(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return "Periodo: todo\n";
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        return String.format("Periodo: %s - %s\n",
+            from != null ? from.format(formatter) : "inicio",
+            to != null ? to.format(formatter) : "hoy");
+    }
+
     protected String generateFooter() {
         return """
 
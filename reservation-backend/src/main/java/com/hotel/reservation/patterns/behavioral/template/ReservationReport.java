@@ -1,19 +1,41 @@
 package com.hotel.reservation.patterns.behavioral.template;
 
+import com.hotel.reservation.dto.ReservationStatusTotals;
 import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.ReservationStatus;
 import com.hotel.reservation.repositories.ReservationRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Reporte de reservas
+ * Reporte de reservas.
+ * El resumen sale de una consulta GROUP BY; solo el detalle recorre las filas, por bloques.
  */
-@RequiredArgsConstructor
 public class ReservationReport extends ReportTemplate {
 
     private final ReservationRepository reservationRepository;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final boolean includeDetails;
+
+    /**
+     * @param from fecha inicial de check-in (null sin límite)
+     * @param to fecha final de check-in (null sin límite)
+     * @param includeDetails false para generar solo el resumen
+     */
+    public ReservationReport(ReservationRepository reservationRepository, LocalDate from, LocalDate to,
+                             boolean includeDetails) {
+        this.reservationRepository = reservationRepository;
+        this.from = from;
+        this.to = to;
+        this.includeDetails = includeDetails;
+    }
 
     @Override
     protected String getReportName() {
@@ -22,45 +44,66 @@ public class ReservationReport extends ReportTemplate {
 
     @Override
     protected String generateBody() {
-        List<Reservation> reservations = reservationRepository.findAll();
+        Map<ReservationStatus, Long> countsByStatus = new EnumMap<>(ReservationStatus.class);
+        long total = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        for (ReservationStatusTotals row : reservationRepository.sumGroupedByStatusForCheckIn(from, to)) {
+            countsByStatus.put(row.status(), row.count());
+            total += row.count();
+            if (row.totalPrice() != null) {
+                totalValue = totalValue.add(row.totalPrice());
+            }
+        }
 
-        if (reservations.isEmpty()) {
+        if (total == 0) {
             return "No hay reservas registradas.\n";
         }
 
         StringBuilder body = new StringBuilder();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-        body.append(String.format("Total de reservas: %d\n\n", reservations.size()));
-
-        long pending = reservations.stream().filter(r -> r.getStatus().name().equals("PENDING")).count();
-        long confirmed = reservations.stream().filter(r -> r.getStatus().name().equals("CONFIRMED")).count();
-        long cancelled = reservations.stream().filter(r -> r.getStatus().name().equals("CANCELLED")).count();
+        body.append(describePeriod(from, to));
+        body.append(String.format("Total de reservas: %d | Valor: $%.2f MXN\n\n", total, totalValue));
 
         body.append("Resumen por estado:\n");
-        body.append(String.format("  - Pendientes: %d\n", pending));
-        body.append(String.format("  - Confirmadas: %d\n", confirmed));
-        body.append(String.format("  - Canceladas: %d\n\n", cancelled));
+        body.append(String.format("  - Pendientes: %d\n", countsByStatus.getOrDefault(ReservationStatus.PENDING, 0L)));
+        body.append(String.format("  - Confirmadas: %d\n", countsByStatus.getOrDefault(ReservationStatus.CONFIRMED, 0L)));
+        body.append(String.format("  - Canceladas: %d\n", countsByStatus.getOrDefault(ReservationStatus.CANCELLED, 0L)));
+        body.append(String.format("  - Completadas: %d\n\n", countsByStatus.getOrDefault(ReservationStatus.COMPLETED, 0L)));
 
-        body.append("Detalle de reservas:\n");
-        body.append("-".repeat(80)).append("\n");
+        if (includeDetails) {
+            appendDetails(body);
+        }
 
-        for (Reservation r : reservations) {
-            body.append(String.format("ID: %d | Cliente: %s %s | Habitación: %s\n",
-                r.getId(),
-                r.getCustomer().getFirstName(),
-                r.getCustomer().getLastName(),
-                r.getRoom().getRoomNumber()));
+        return body.toString();
+    }
 
-            body.append(String.format("Check-in: %s | Check-out: %s | Estado: %s\n",
-                r.getCheckInDate().format(formatter),
-                r.getCheckOutDate().format(formatter),
-                r.getStatus()));
+    private void appendDetails(StringBuilder body) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-            body.append(String.format("Total: $%.2f MXN\n", r.getTotalPrice()));
-            body.append("-".repeat(80)).append("\n");
-        }
+        body.append("Detalle de reservas:\n");
+        body.append("-".repeat(80)).append("\n");
 
-        return body.toString();
+        long afterId = 0;
+        List<Reservation> page;
+        do {
+            page = reservationRepository.findReportPage(afterId, from, to, PageRequest.of(0, DETAIL_PAGE_SIZE));
+            for (Reservation r : page) {
+                body.append(String.format("ID: %d | Cliente: %s %s | Habitación: %s\n",
+                    r.getId(),
+                    r.getCustomer().getFirstName(),
+                    r.getCustomer().getLastName(),
+                    r.getRoom().getRoomNumber()));
+
+                body.append(String.format("Check-in: %s | Check-out: %s | Estado: %s\n",
+                    r.getCheckInDate().format(formatter),
+                    r.getCheckOutDate().format(formatter),
+                    r.getStatus()));
+
+                body.append(String.format("Total: $%.2f MXN\n", r.getTotalPrice()));
+                body.append("-".repeat(80)).append("\n");
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == DETAIL_PAGE_SIZE);
     }
 }
@@ -1,21 +1,45 @@
 package com.hotel.reservation.patterns.behavioral.template;
 
-import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.dto.PaymentStatusMethodTotals;
+import com.hotel.reservation.dto.RevenueRollupTotals;
+import com.hotel.reservation.models.PaymentMethod;
 import com.hotel.reservation.models.PaymentStatus;
 import com.hotel.reservation.patterns.creational.singleton.ConfigurationManager;
 import com.hotel.reservation.repositories.PaymentRepository;
-import lombok.RequiredArgsConstructor;
+import com.hotel.reservation.repositories.RevenueDailyRollupRepository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Reporte de ingresos
+ * Reporte de ingresos.
+ * Los completados y reembolsos salen del rollup diario (revenue_daily_rollup), agrupado por método;
+ * los pendientes y fallidos, de una consulta GROUP BY sobre los pagos de esos estados. No carga pagos.
  */
-@RequiredArgsConstructor
 public class RevenueReport extends ReportTemplate {
 
+    private static final List<PaymentStatus> OPEN_STATUSES = List.of(PaymentStatus.PENDING, PaymentStatus.FAILED);
+
+    private final RevenueDailyRollupRepository rollupRepository;
     private final PaymentRepository paymentRepository;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    /**
+     * @param from fecha inicial de pago (null sin límite)
+     * @param to fecha final de pago, inclusive (null sin límite)
+     */
+    public RevenueReport(RevenueDailyRollupRepository rollupRepository, PaymentRepository paymentRepository,
+                         LocalDate from, LocalDate to) {
+        this.rollupRepository = rollupRepository;
+        this.paymentRepository = paymentRepository;
+        this.from = from;
+        this.to = to;
+    }
 
     @Override
     protected String getReportName() {
@@ -27,50 +51,58 @@ public class RevenueReport extends ReportTemplate {
         ConfigurationManager config = ConfigurationManager.INSTANCE;
         String currency = config.getCurrency();
 
-        List<Payment> payments = paymentRepository.findAll();
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+
+        long totalPayments = 0;
+        Map<PaymentStatus, BigDecimal> amountByStatus = new EnumMap<>(PaymentStatus.class);
+        Map<PaymentMethod, Long> completedCountByMethod = new EnumMap<>(PaymentMethod.class);
+        Map<PaymentMethod, BigDecimal> completedAmountByMethod = new EnumMap<>(PaymentMethod.class);
+
+        for (RevenueRollupTotals row : rollupRepository.sumGroupedByPaymentMethod(from, to)) {
+            long completedCount = row.completedCount() != null ? row.completedCount() : 0;
+            long refundedCount = row.refundedCount() != null ? row.refundedCount() : 0;
+            BigDecimal completedAmount = row.completedAmount() != null ? row.completedAmount() : BigDecimal.ZERO;
+            BigDecimal refundedAmount = row.refundedAmount() != null ? row.refundedAmount() : BigDecimal.ZERO;
+            totalPayments += completedCount + refundedCount;
+            amountByStatus.merge(PaymentStatus.COMPLETED, completedAmount, BigDecimal::add);
+            amountByStatus.merge(PaymentStatus.REFUNDED, refundedAmount, BigDecimal::add);
+
+            if (completedCount > 0) {
+                completedCountByMethod.merge(row.paymentMethod(), completedCount, Long::sum);
+                completedAmountByMethod.merge(row.paymentMethod(), completedAmount, BigDecimal::add);
+            }
+        }
+
+        for (PaymentStatusMethodTotals row : paymentRepository.sumGroupedByStatusAndMethodForStatuses(
+                OPEN_STATUSES, fromTime, toTime)) {
+            BigDecimal amount = row.amount() != null ? row.amount() : BigDecimal.ZERO;
+            totalPayments += row.count();
+            amountByStatus.merge(row.paymentStatus(), amount, BigDecimal::add);
+        }
 
-        if (payments.isEmpty()) {
+        if (totalPayments == 0) {
             return "No hay pagos registrados.\n";
         }
 
         StringBuilder body = new StringBuilder();
-
-        BigDecimal totalRevenue = payments.stream()
-            .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal pendingRevenue = payments.stream()
-            .filter(p -> p.getPaymentStatus() == PaymentStatus.PENDING)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal refundedAmount = payments.stream()
-            .filter(p -> p.getPaymentStatus() == PaymentStatus.REFUNDED)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        body.append(String.format("Total de pagos registrados: %d\n\n", payments.size()));
+        body.append(describePeriod(from, to));
+        body.append(String.format("Total de pagos registrados: %d\n\n", totalPayments));
 
         body.append("Resumen financiero:\n");
-        body.append(String.format("  💰 Ingresos completados: $%.2f %s\n", totalRevenue, currency));
-        body.append(String.format("  ⏳ Ingresos pendientes: $%.2f %s\n", pendingRevenue, currency));
-        body.append(String.format("  ↩️  Reembolsos: $%.2f %s\n\n", refundedAmount, currency));
+        body.append(String.format("  💰 Ingresos completados: $%.2f %s\n",
+            amountByStatus.getOrDefault(PaymentStatus.COMPLETED, BigDecimal.ZERO), currency));
+        body.append(String.format("  ⏳ Ingresos pendientes: $%.2f %s\n",
+            amountByStatus.getOrDefault(PaymentStatus.PENDING, BigDecimal.ZERO), currency));
+        body.append(String.format("  ↩️  Reembolsos: $%.2f %s\n\n",
+            amountByStatus.getOrDefault(PaymentStatus.REFUNDED, BigDecimal.ZERO), currency));
 
         body.append("Desglose por método de pago:\n");
         body.append("-".repeat(60)).append("\n");
 
-        payments.stream()
-            .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED)
-            .collect(java.util.stream.Collectors.groupingBy(Payment::getPaymentMethod))
-            .forEach((method, paymentList) -> {
-                BigDecimal methodTotal = paymentList.stream()
-                    .map(Payment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                body.append(String.format("%s: %d pagos - $%.2f %s\n",
-                    method, paymentList.size(), methodTotal, currency));
-            });
+        completedCountByMethod.forEach((method, count) ->
+            body.append(String.format("%s: %d pagos - $%.2f %s\n",
+                method, count, completedAmountByMethod.get(method), currency)));
 
         body.append("-".repeat(60)).append("\n");
 
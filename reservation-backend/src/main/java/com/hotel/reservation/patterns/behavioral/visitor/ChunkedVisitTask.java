@@ -0,0 +1,64 @@
+package com.hotel.reservation.patterns.behavioral.visitor;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Recorre una lista de entidades con fork-join: la lista se divide a la mitad hasta llegar
+ * a bloques de threshold elementos, cada bloque se visita con un visitor nuevo y los
+ * resultados parciales se combinan con merge, respetando el orden de la lista.
+ *
+ * Las entidades deben estar completamente cargadas: los hilos del pool no tienen sesión
+ * de Hibernate para inicializar relaciones lazy.
+ */
+public class ChunkedVisitTask<T, V extends MergeableVisitor<V>> extends RecursiveTask<V> {
+
+    private final List<T> items;
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final Supplier<V> visitorFactory;
+    private final BiConsumer<V, T> visit;
+
+    private ChunkedVisitTask(List<T> items, int from, int to, int threshold,
+                             Supplier<V> visitorFactory, BiConsumer<V, T> visit) {
+        this.items = items;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+        this.visitorFactory = visitorFactory;
+        this.visit = visit;
+    }
+
+    /**
+     * Visita todas las entidades en el pool y devuelve el resultado combinado
+     */
+    public static <T, V extends MergeableVisitor<V>> V invoke(ForkJoinPool pool, List<T> items, int threshold,
+                                                              Supplier<V> visitorFactory, BiConsumer<V, T> visit) {
+        return pool.invoke(new ChunkedVisitTask<>(items, 0, items.size(), Math.max(1, threshold),
+                visitorFactory, visit));
+    }
+
+    @Override
+    protected V compute() {
+        if (to - from <= threshold) {
+            V visitor = visitorFactory.get();
+            for (int i = from; i < to; i++) {
+                visit.accept(visitor, items.get(i));
+            }
+            return visitor;
+        }
+
+        int middle = (from + to) >>> 1;
+        ChunkedVisitTask<T, V> left = new ChunkedVisitTask<>(items, from, middle, threshold, visitorFactory, visit);
+        ChunkedVisitTask<T, V> right = new ChunkedVisitTask<>(items, middle, to, threshold, visitorFactory, visit);
+        left.fork();
+        V rightResult = right.compute();
+        V result = left.join();
+        result.merge(rightResult);
+        return result;
+    }
+}
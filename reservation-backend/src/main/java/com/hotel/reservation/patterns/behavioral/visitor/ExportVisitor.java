@@ -1,84 +1,83 @@
 package com.hotel.reservation.patterns.behavioral.visitor;
 
+import com.hotel.reservation.export.CsvWriter;
 import com.hotel.reservation.models.Customer;
 import com.hotel.reservation.models.Payment;
 import com.hotel.reservation.models.Reservation;
 import com.hotel.reservation.models.Room;
-import lombok.Getter;
-import lombok.extern.slf4j.Slf4j;
-
-import java.time.format.DateTimeFormatter;
 
 /**
  * Visitor para exportar entidades a formato CSV
+ * Cada entidad visitada se escribe como una fila en el CsvWriter, sin acumular el resultado
  */
-@Slf4j
-@Getter
 public class ExportVisitor implements EntityVisitor {
 
-    private final StringBuilder csvData = new StringBuilder();
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    public static final String[] ROOM_HEADERS =
+            {"ID", "Numero", "Tipo", "Precio", "Capacidad", "Disponible", "Piso"};
+    public static final String[] CUSTOMER_HEADERS =
+            {"ID", "Nombre", "Apellido", "Email", "Telefono", "Nivel"};
+    public static final String[] RESERVATION_HEADERS =
+            {"ID", "Cliente_ID", "Habitacion_ID", "Check_In", "Check_Out", "Huespedes", "Total", "Estado"};
+    public static final String[] PAYMENT_HEADERS =
+            {"ID", "Reserva_ID", "Monto", "Metodo", "Estado", "Transaction_ID"};
+
+    private final CsvWriter csv;
+
+    public ExportVisitor(CsvWriter csv) {
+        this.csv = csv;
+    }
 
     @Override
     public void visit(Room room) {
-        csvData.append(String.format("%d,%s,%s,%.2f,%d,%s,%d\n",
-            room.getId(),
-            room.getRoomNumber(),
-            room.getRoomType(),
-            room.getPrice(),
-            room.getCapacity(),
-            room.isAvailable() ? "SI" : "NO",
-            room.getFloor()));
-
-        log.debug("📤 Exportando habitación: {}", room.getRoomNumber());
+        csv.field(room.getId())
+            .field(room.getRoomNumber())
+            .field(room.getRoomType())
+            .field(room.getPrice())
+            .field(room.getCapacity())
+            .field(room.isAvailable() ? "SI" : "NO")
+            .field(room.getFloor())
+            .endRow();
     }
 
     @Override
     public void visit(Customer customer) {
-        csvData.append(String.format("%d,%s,%s,%s,%s,%s\n",
-            customer.getId(),
-            customer.getFirstName(),
-            customer.getLastName(),
-            customer.getEmail(),
-            customer.getPhone(),
-            customer.getLoyaltyLevel()));
-
-        log.debug("📤 Exportando cliente: {} {}", customer.getFirstName(), customer.getLastName());
+        csv.field(customer.getId())
+            .field(customer.getFirstName())
+            .field(customer.getLastName())
+            .field(customer.getEmail())
+            .field(customer.getPhone())
+            .field(customer.getLoyaltyLevel())
+            .endRow();
     }
 
     @Override
     public void visit(Reservation reservation) {
-        csvData.append(String.format("%d,%d,%d,%s,%s,%d,%.2f,%s\n",
-            reservation.getId(),
-            reservation.getCustomer().getId(),
-            reservation.getRoom().getId(),
-            reservation.getCheckInDate().format(formatter),
-            reservation.getCheckOutDate().format(formatter),
-            reservation.getNumberOfGuests(),
-            reservation.getTotalPrice(),
-            reservation.getStatus()));
-
-        log.debug("📤 Exportando reserva: #{}", reservation.getId());
+        csv.field(reservation.getId())
+            .field(reservation.getCustomer().getId())
+            .field(reservation.getRoom().getId())
+            .field(reservation.getCheckInDate())
+            .field(reservation.getCheckOutDate())
+            .field(reservation.getNumberOfGuests())
+            .field(reservation.getTotalPrice())
+            .field(reservation.getStatus())
+            .endRow();
     }
 
     @Override
     public void visit(Payment payment) {
-        csvData.append(String.format("%d,%d,%.2f,%s,%s,%s\n",
-            payment.getId(),
-            payment.getReservation().getId(),
-            payment.getAmount(),
-            payment.getPaymentMethod(),
-            payment.getPaymentStatus(),
-            payment.getTransactionId()));
-
-        log.debug("📤 Exportando pago: #{}", payment.getId());
-    }
-
-    public String getExportedData() {
-        return csvData.toString();
+        csv.field(payment.getId())
+            .field(payment.getReservation().getId())
+            .field(payment.getAmount())
+            .field(payment.getPaymentMethod())
+            .field(payment.getPaymentStatus())
+            .field(payment.getTransactionId())
+            .endRow();
     }
 
-    public void reset() {
-        csvData.setLength(0);
+    /**
+     * Filas escritas hasta el momento
+     */
+    public long getExportedRows() {
+        return csv.getRows();
     }
 }
@@ -0,0 +1,16 @@
+package com.hotel.reservation.patterns.behavioral.visitor;
+
+/**
+ * Visitor cuyo resultado es un agregado parcial combinable.
+ *
+ * Permite repartir las entidades entre varios visitors (un bloque de una tabla o una
+ * tabla completa cada uno) y combinar después los resultados. merge debe ser asociativo:
+ * el resultado no depende de cómo se dividieron los bloques, solo de su orden.
+ */
+public interface MergeableVisitor<V extends MergeableVisitor<V>> extends EntityVisitor {
+
+    /**
+     * Agrega a este visitor el resultado de otro que visitó las entidades siguientes
+     */
+    void merge(V other);
+}
@@ -14,10 +14,11 @@ import java.util.Map;
 
 /**
  * Visitor para calcular estadísticas de entidades
+ * Los resultados parciales se combinan con merge (p. ej. una tabla por hilo o bloques con fork-join)
  */
 @Slf4j
 @Getter
-public class StatisticsVisitor implements EntityVisitor {
+public class StatisticsVisitor implements MergeableVisitor<StatisticsVisitor> {
 
     private int totalRooms = 0;
     private int availableRooms = 0;
@@ -74,6 +75,24 @@ public class StatisticsVisitor implements EntityVisitor {
         log.debug("📊 Procesando estadísticas de pago: #{}", payment.getId());
     }
 
+    @Override
+    public void merge(StatisticsVisitor other) {
+        totalRooms += other.totalRooms;
+        availableRooms += other.availableRooms;
+        totalRoomRevenue = totalRoomRevenue.add(other.totalRoomRevenue);
+
+        totalCustomers += other.totalCustomers;
+        other.customersByLoyalty.forEach((level, count) -> customersByLoyalty.merge(level, count, Integer::sum));
+
+        totalReservations += other.totalReservations;
+        other.reservationsByStatus.forEach((status, count) -> reservationsByStatus.merge(status, count, Integer::sum));
+        totalReservationValue = totalReservationValue.add(other.totalReservationValue);
+
+        totalPayments += other.totalPayments;
+        totalPaymentAmount = totalPaymentAmount.add(other.totalPaymentAmount);
+        other.paymentsByMethod.forEach((method, amount) -> paymentsByMethod.merge(method, amount, BigDecimal::add));
+    }
+
     public String generateReport() {
         ConfigurationManager config = ConfigurationManager.INSTANCE;
         String currency = config.getCurrency();
@@ -4,6 +4,8 @@ import com.hotel.reservation.models.Customer;
 import com.hotel.reservation.models.Payment;
 import com.hotel.reservation.models.Reservation;
 import com.hotel.reservation.models.Room;
+import com.hotel.reservation.validation.ValidationRules;
+import com.hotel.reservation.validation.Violation;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -12,94 +14,55 @@ import java.util.List;
 
 /**
  * Visitor para validar entidades y detectar inconsistencias
+ * Las reglas viven en ValidationRules (las comparte el ValidationEngine)
+ * Los errores de varios visitors se combinan con merge, en el orden de los bloques
  */
 @Slf4j
 @Getter
-public class ValidationVisitor implements EntityVisitor {
+public class ValidationVisitor implements MergeableVisitor<ValidationVisitor> {
 
     private final List<String> validationErrors = new ArrayList<>();
 
-    @Override
-    public void visit(Room room) {
-        if (room.getPrice().doubleValue() <= 0) {
-            validationErrors.add(String.format("Habitación %s tiene precio inválido: %.2f",
-                room.getRoomNumber(), room.getPrice()));
-        }
-
-        if (room.getCapacity() <= 0) {
-            validationErrors.add(String.format("Habitación %s tiene capacidad inválida: %d",
-                room.getRoomNumber(), room.getCapacity()));
-        }
+    // Violaciones con su entidad y regla (el ValidationEngine las guarda en data_violations)
+    private final List<Violation> violations = new ArrayList<>();
 
-        if (room.getFloor() < 0) {
-            validationErrors.add(String.format("Habitación %s tiene piso inválido: %d",
-                room.getRoomNumber(), room.getFloor()));
-        }
+    private int entityCount = 0;
 
+    @Override
+    public void visit(Room room) {
+        addAll(ValidationRules.validate(room));
         log.debug("✓ Validando habitación: {}", room.getRoomNumber());
     }
 
     @Override
     public void visit(Customer customer) {
-        if (customer.getEmail() == null || !customer.getEmail().contains("@")) {
-            validationErrors.add(String.format("Cliente %d tiene email inválido: %s",
-                customer.getId(), customer.getEmail()));
-        }
-
-        if (customer.getFirstName() == null || customer.getFirstName().trim().isEmpty()) {
-            validationErrors.add(String.format("Cliente %d no tiene nombre", customer.getId()));
-        }
-
-        if (customer.getLastName() == null || customer.getLastName().trim().isEmpty()) {
-            validationErrors.add(String.format("Cliente %d no tiene apellido", customer.getId()));
-        }
-
+        addAll(ValidationRules.validate(customer));
         log.debug("✓ Validando cliente: {} {}", customer.getFirstName(), customer.getLastName());
     }
 
     @Override
     public void visit(Reservation reservation) {
-        if (reservation.getCheckOutDate().isBefore(reservation.getCheckInDate()) ||
-            reservation.getCheckOutDate().isEqual(reservation.getCheckInDate())) {
-            validationErrors.add(String.format("Reserva %d tiene fechas inválidas: %s - %s",
-                reservation.getId(),
-                reservation.getCheckInDate(),
-                reservation.getCheckOutDate()));
-        }
-
-        if (reservation.getNumberOfGuests() <= 0) {
-            validationErrors.add(String.format("Reserva %d tiene número de huéspedes inválido: %d",
-                reservation.getId(), reservation.getNumberOfGuests()));
-        }
-
-        if (reservation.getNumberOfGuests() > reservation.getRoom().getCapacity()) {
-            validationErrors.add(String.format("Reserva %d excede capacidad de habitación: %d > %d",
-                reservation.getId(),
-                reservation.getNumberOfGuests(),
-                reservation.getRoom().getCapacity()));
-        }
-
-        if (reservation.getTotalPrice().doubleValue() <= 0) {
-            validationErrors.add(String.format("Reserva %d tiene precio total inválido: %.2f",
-                reservation.getId(), reservation.getTotalPrice()));
-        }
-
+        addAll(ValidationRules.validate(reservation));
         log.debug("✓ Validando reserva: #{}", reservation.getId());
     }
 
     @Override
     public void visit(Payment payment) {
-        if (payment.getAmount().doubleValue() <= 0) {
-            validationErrors.add(String.format("Pago %d tiene monto inválido: %.2f",
-                payment.getId(), payment.getAmount()));
-        }
+        addAll(ValidationRules.validate(payment));
+        log.debug("✓ Validando pago: #{}", payment.getId());
+    }
 
-        if (payment.getTransactionId() == null || payment.getTransactionId().trim().isEmpty()) {
-            validationErrors.add(String.format("Pago %d no tiene ID de transacción",
-                payment.getId()));
-        }
+    private void addAll(List<Violation> found) {
+        entityCount++;
+        violations.addAll(found);
+        found.forEach(violation -> validationErrors.add(violation.message()));
+    }
 
-        log.debug("✓ Validando pago: #{}", payment.getId());
+    @Override
+    public void merge(ValidationVisitor other) {
+        validationErrors.addAll(other.validationErrors);
+        violations.addAll(other.violations);
+        entityCount += other.entityCount;
     }
 
     public boolean hasErrors() {
@@ -112,5 +75,7 @@ public class ValidationVisitor implements EntityVisitor {
 
     public void reset() {
         validationErrors.clear();
+        violations.clear();
+        entityCount = 0;
     }
 }
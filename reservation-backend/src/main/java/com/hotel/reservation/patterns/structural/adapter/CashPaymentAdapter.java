@@ -1,6 +1,7 @@
 package com.hotel.reservation.patterns.structural.adapter;
 
 import com.hotel.reservation.models.Payment;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -9,10 +10,21 @@ import org.springframework.stereotype.Component;
  * Maneja pagos en efectivo realizados directamente en la recepción del hotel
  */
 @Component
+@RequiredArgsConstructor
 public class CashPaymentAdapter implements PaymentGatewayAdapter {
 
+    private final GatewaySimulator simulator;
+    private final ProcessedRequests processedRequests = new ProcessedRequests();
+
     @Override
     public PaymentResult processPayment(Payment payment) {
+        // Latencia y errores de conexión simulados (propagan al ResilientPaymentGateway)
+        simulator.simulate("cash");
+
+        return processedRequests.process(payment.getGatewayRequestId(), this::charge);
+    }
+
+    private PaymentResult charge() {
         // Para pagos en efectivo, se procesa cuando el huésped llega
         String transactionId = generateCashTransactionId();
 
@@ -24,6 +36,8 @@ public class CashPaymentAdapter implements PaymentGatewayAdapter {
 
     @Override
     public PaymentResult refund(Payment payment) {
+        simulator.simulate("cash");
+
         // Reembolso en efectivo
         String refundId = "cash_refund_" + System.currentTimeMillis();
 
@@ -33,8 +47,16 @@ public class CashPaymentAdapter implements PaymentGatewayAdapter {
         );
     }
 
+    @Override
+    public PaymentResult findByRequestId(String requestId) {
+        simulator.simulate("cash");
+        return processedRequests.find(requestId);
+    }
+
     @Override
     public PaymentResult checkStatus(String transactionId) {
+        simulator.simulate("cash");
+
         return PaymentResult.success(
             transactionId,
             "Pago en efectivo pendiente de confirmación en recepción"
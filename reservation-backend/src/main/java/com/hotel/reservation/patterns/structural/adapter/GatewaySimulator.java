@@ -0,0 +1,46 @@
+package com.hotel.reservation.patterns.structural.adapter;
+
+import com.hotel.reservation.config.PaymentGatewayProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulador de latencia y errores técnicos de las pasarelas de pago.
+ *
+ * Permite probar sin conexión los timeouts, bulkheads y circuit breakers:
+ * con la configuración por defecto (latencia 0, tasa de fallos 0) no tiene efecto.
+ */
+@Component
+@RequiredArgsConstructor
+public class GatewaySimulator {
+
+    private final PaymentGatewayProperties properties;
+
+    /**
+     * Aplica la latencia configurada y lanza un error técnico según la tasa de fallos
+     * @param gateway nombre de la pasarela (stripe, paypal, cash)
+     */
+    public void simulate(String gateway) {
+        PaymentGatewayProperties.Gateway settings = properties.gateway(gateway);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long latency = settings.getSimulatedLatencyMs();
+        if (settings.getSimulatedJitterMs() > 0) {
+            latency += random.nextLong(settings.getSimulatedJitterMs() + 1);
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Llamada a " + gateway + " interrumpida");
+            }
+        }
+
+        if (settings.getSimulatedFailureRate() > 0 && random.nextDouble() < settings.getSimulatedFailureRate()) {
+            throw new IllegalStateException("Error simulado de conexión con " + gateway);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.hotel.reservation.patterns.structural.adapter;
+
+import com.hotel.reservation.dto.PaymentCallbackDTO;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PATRÓN ADAPTER - Pasarela local con callback (solo para pruebas)
+ *
+ * Simula una pasarela asíncrona: acepta el pago de inmediato (resultado pending)
+ * y después de un retraso llama al endpoint POST /api/payments/{id}/callback
+ * de esta misma aplicación con el resultado final.
+ *
+ * Solo existe cuando app.payments.async.local-gateway.enabled=true y requiere
+ * app.payments.callback-token (el mismo que valida PaymentCallbackController).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payments.async.local-gateway.enabled", havingValue = "true")
+public class LocalCallbackGatewayAdapter implements PaymentGatewayAdapter {
+
+    public static final String TRANSACTION_PREFIX = "local_";
+
+    private final RestClient restClient;
+    private final String callbackToken;
+    private final long callbackDelayMillis;
+    private final double declineRate;
+    private final ScheduledExecutorService scheduler;
+
+    // Resultado final decidido para cada transacción (para checkStatus)
+    private final Map<String, PaymentStatus> outcomes = new ConcurrentHashMap<>();
+    private final ProcessedRequests processedRequests = new ProcessedRequests();
+
+    public LocalCallbackGatewayAdapter(
+            @Value("${app.payments.async.local-gateway.callback-base-url:http://localhost:8080}") String callbackBaseUrl,
+            @Value("${app.payments.callback-token:}") String callbackToken,
+            @Value("${app.payments.async.local-gateway.callback-delay-ms:2000}") long callbackDelayMillis,
+            @Value("${app.payments.async.local-gateway.decline-rate:0.0}") double declineRate) {
+        if (callbackToken == null || callbackToken.isBlank()) {
+            throw new IllegalStateException(
+                    "app.payments.callback-token es obligatorio cuando la pasarela local está habilitada");
+        }
+        this.restClient = RestClient.builder().baseUrl(callbackBaseUrl).build();
+        this.callbackToken = callbackToken;
+        this.callbackDelayMillis = callbackDelayMillis;
+        this.declineRate = declineRate;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("local-gateway-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Override
+    public PaymentResult processPayment(Payment payment) {
+        Long paymentId = payment.getId();
+        return processedRequests.process(payment.getGatewayRequestId(), () -> accept(paymentId));
+    }
+
+    private PaymentResult accept(Long paymentId) {
+        String transactionId = TRANSACTION_PREFIX + System.currentTimeMillis() + "_" + paymentId;
+        PaymentStatus outcome = ThreadLocalRandom.current().nextDouble() < declineRate
+                ? PaymentStatus.FAILED
+                : PaymentStatus.COMPLETED;
+        outcomes.put(transactionId, outcome);
+
+        scheduler.schedule(() -> sendCallback(paymentId, transactionId, outcome),
+                callbackDelayMillis, TimeUnit.MILLISECONDS);
+
+        return PaymentResult.pending(transactionId, "Pago aceptado por la pasarela local, resultado por callback");
+    }
+
+    @Override
+    public PaymentResult refund(Payment payment) {
+        return PaymentResult.success(
+            "local_refund_" + System.currentTimeMillis(),
+            "Reembolso procesado por la pasarela local"
+        );
+    }
+
+    @Override
+    public PaymentResult checkStatus(String transactionId) {
+        PaymentStatus outcome = outcomes.get(transactionId);
+        if (outcome == null) {
+            return PaymentResult.failure("Transacción desconocida", "LOCAL_UNKNOWN_TRANSACTION");
+        }
+        if (outcome == PaymentStatus.FAILED) {
+            return PaymentResult.failure("Pago rechazado por la pasarela local", "LOCAL_DECLINED");
+        }
+        return PaymentResult.success(transactionId, "Transacción completada");
+    }
+
+    @Override
+    public PaymentResult findByRequestId(String requestId) {
+        PaymentResult accepted = processedRequests.find(requestId);
+        return accepted.isPending() ? checkStatus(accepted.getTransactionId()) : accepted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void sendCallback(Long paymentId, String transactionId, PaymentStatus outcome) {
+        PaymentCallbackDTO callback = PaymentCallbackDTO.builder()
+                .transactionId(transactionId)
+                .status(outcome)
+                .message(outcome == PaymentStatus.COMPLETED ? "Pago aprobado" : "Pago rechazado")
+                .build();
+        try {
+            restClient.post()
+                    .uri("/api/payments/{id}/callback", paymentId)
+                    .header("X-Callback-Token", callbackToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(callback)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("📨 Callback enviado para el pago #{}: {}", paymentId, outcome);
+        } catch (Exception e) {
+            // El pago queda PENDING y lo resuelve la reconciliación con checkStatus
+            log.warn("⚠️ No se pudo enviar el callback del pago #{}: {}", paymentId, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.hotel.reservation.patterns.structural.adapter;
 
 import com.hotel.reservation.models.Payment;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -10,10 +11,21 @@ import org.springframework.stereotype.Component;
  * En producción, esto usaría el SDK oficial de PayPal
  */
 @Component
+@RequiredArgsConstructor
 public class PayPalPaymentAdapter implements PaymentGatewayAdapter {
 
+    private final GatewaySimulator simulator;
+    private final ProcessedRequests processedRequests = new ProcessedRequests();
+
     @Override
     public PaymentResult processPayment(Payment payment) {
+        // Latencia y errores de conexión simulados (propagan al ResilientPaymentGateway)
+        simulator.simulate("paypal");
+
+        return processedRequests.process(payment.getGatewayRequestId(), this::charge);
+    }
+
+    private PaymentResult charge() {
         try {
             // Simulación de llamada a la API de PayPal
             // En producción: PayPalClient.execute(order);
@@ -44,6 +56,8 @@ public class PayPalPaymentAdapter implements PaymentGatewayAdapter {
 
     @Override
     public PaymentResult refund(Payment payment) {
+        simulator.simulate("paypal");
+
         try {
             // Simulación de reembolso en PayPal
 
@@ -61,8 +75,16 @@ public class PayPalPaymentAdapter implements PaymentGatewayAdapter {
         }
     }
 
+    @Override
+    public PaymentResult findByRequestId(String requestId) {
+        simulator.simulate("paypal");
+        return processedRequests.find(requestId);
+    }
+
     @Override
     public PaymentResult checkStatus(String transactionId) {
+        simulator.simulate("paypal");
+
         // Simular verificación de estado
         return PaymentResult.success(
             transactionId,
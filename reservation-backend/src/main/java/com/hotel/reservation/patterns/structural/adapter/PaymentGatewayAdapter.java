@@ -22,7 +22,8 @@ import com.hotel.reservation.models.Payment;
 public interface PaymentGatewayAdapter {
 
     /**
-     * Procesa un pago
+     * Procesa un pago. La clave payment.gatewayRequestId se envía como clave de idempotencia:
+     * repetir la llamada con la misma clave no vuelve a cobrar.
      * @param payment datos del pago
      * @return resultado del procesamiento
      */
@@ -42,6 +43,14 @@ public interface PaymentGatewayAdapter {
      */
     PaymentResult checkStatus(String transactionId);
 
+    /**
+     * Consulta un cobro por su clave de idempotencia, para cuando se desconoce el resultado
+     * (p. ej. timeout) y no hay ID de transacción
+     * @param requestId clave enviada en processPayment
+     * @return resultado original, o un fallo ProcessedRequests.ERROR_UNKNOWN_REQUEST si la pasarela no lo recibió
+     */
+    PaymentResult findByRequestId(String requestId);
+
     /**
      * Clase para encapsular el resultado de una operación de pago
      */
@@ -50,12 +59,20 @@ public interface PaymentGatewayAdapter {
         private final String transactionId;
         private final String message;
         private final String errorCode;
+        // La pasarela aceptó la operación y notificará el resultado más tarde (callback)
+        private final boolean pending;
 
         public PaymentResult(boolean success, String transactionId, String message, String errorCode) {
+            this(success, transactionId, message, errorCode, false);
+        }
+
+        private PaymentResult(boolean success, String transactionId, String message, String errorCode,
+                              boolean pending) {
             this.success = success;
             this.transactionId = transactionId;
             this.message = message;
             this.errorCode = errorCode;
+            this.pending = pending;
         }
 
         public static PaymentResult success(String transactionId, String message) {
@@ -66,6 +83,10 @@ public interface PaymentGatewayAdapter {
             return new PaymentResult(false, null, message, errorCode);
         }
 
+        public static PaymentResult pending(String transactionId, String message) {
+            return new PaymentResult(false, transactionId, message, null, true);
+        }
+
         public boolean isSuccess() {
             return success;
         }
@@ -81,5 +102,9 @@ public interface PaymentGatewayAdapter {
         public String getErrorCode() {
             return errorCode;
         }
+
+        public boolean isPending() {
+            return pending;
+        }
     }
 }
@@ -0,0 +1,45 @@
+package com.hotel.reservation.patterns.structural.adapter;
+
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter.PaymentResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registro simulado de cobros por clave de idempotencia, del lado de la pasarela.
+ *
+ * Igual que las pasarelas reales (Idempotency-Key de Stripe, PayPal-Request-Id):
+ * - Repetir una clave devuelve el resultado original sin volver a cobrar
+ * - Un cobro cuya respuesta se perdió (timeout) puede consultarse por su clave
+ *   aunque no se conozca el ID de la transacción
+ */
+public class ProcessedRequests {
+
+    /**
+     * La pasarela nunca recibió la solicitud con esa clave: no hubo cobro
+     */
+    public static final String ERROR_UNKNOWN_REQUEST = "UNKNOWN_REQUEST";
+
+    private final Map<String, PaymentResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta el cobro una sola vez por clave (sin clave, siempre se ejecuta)
+     */
+    public PaymentResult process(String requestId, Supplier<PaymentResult> charge) {
+        if (requestId == null) {
+            return charge.get();
+        }
+        return results.computeIfAbsent(requestId, id -> charge.get());
+    }
+
+    /**
+     * Resultado del cobro con esa clave, o ERROR_UNKNOWN_REQUEST si nunca llegó
+     */
+    public PaymentResult find(String requestId) {
+        PaymentResult result = requestId != null ? results.get(requestId) : null;
+        return result != null
+                ? result
+                : PaymentResult.failure("La pasarela no tiene registro de la solicitud", ERROR_UNKNOWN_REQUEST);
+    }
+}
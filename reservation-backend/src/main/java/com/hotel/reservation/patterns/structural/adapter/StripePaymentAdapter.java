@@ -1,6 +1,7 @@
 package com.hotel.reservation.patterns.structural.adapter;
 
 import com.hotel.reservation.models.Payment;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -10,10 +11,21 @@ import org.springframework.stereotype.Component;
  * En producción, esto usaría la librería oficial de Stripe
  */
 @Component
+@RequiredArgsConstructor
 public class StripePaymentAdapter implements PaymentGatewayAdapter {
 
+    private final GatewaySimulator simulator;
+    private final ProcessedRequests processedRequests = new ProcessedRequests();
+
     @Override
     public PaymentResult processPayment(Payment payment) {
+        // Latencia y errores de conexión simulados (propagan al ResilientPaymentGateway)
+        simulator.simulate("stripe");
+
+        return processedRequests.process(payment.getGatewayRequestId(), this::charge);
+    }
+
+    private PaymentResult charge() {
         try {
             // Simulación de llamada a la API de Stripe
             // En producción: Stripe.apiKey = "sk_test_...";
@@ -45,6 +57,8 @@ public class StripePaymentAdapter implements PaymentGatewayAdapter {
 
     @Override
     public PaymentResult refund(Payment payment) {
+        simulator.simulate("stripe");
+
         try {
             // Simulación de reembolso en Stripe
             // Refund refund = Refund.create(params);
@@ -63,8 +77,16 @@ public class StripePaymentAdapter implements PaymentGatewayAdapter {
         }
     }
 
+    @Override
+    public PaymentResult findByRequestId(String requestId) {
+        simulator.simulate("stripe");
+        return processedRequests.find(requestId);
+    }
+
     @Override
     public PaymentResult checkStatus(String transactionId) {
+        simulator.simulate("stripe");
+
         // Simular verificación de estado
         return PaymentResult.success(
             transactionId,
@@ -3,6 +3,7 @@ package com.hotel.reservation.patterns.structural.facade;
 import com.hotel.reservation.models.*;
 import com.hotel.reservation.patterns.creational.builder.ReservationBuilder;
 import com.hotel.reservation.repositories.*;
+import com.hotel.reservation.service.RevenueRollupService;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -39,17 +40,20 @@ public class ReservationFacade {
     private final ReservationRepository reservationRepository;
     private final AdditionalServiceRepository serviceRepository;
     private final PaymentRepository paymentRepository;
+    private final RevenueRollupService revenueRollupService;
 
     public ReservationFacade(CustomerRepository customerRepository,
                             RoomRepository roomRepository,
                             ReservationRepository reservationRepository,
                             AdditionalServiceRepository serviceRepository,
-                            PaymentRepository paymentRepository) {
+                            PaymentRepository paymentRepository,
+                            RevenueRollupService revenueRollupService) {
         this.customerRepository = customerRepository;
         this.roomRepository = roomRepository;
         this.reservationRepository = reservationRepository;
         this.serviceRepository = serviceRepository;
         this.paymentRepository = paymentRepository;
+        this.revenueRollupService = revenueRollupService;
     }
 
     /**
@@ -140,6 +144,9 @@ public class ReservationFacade {
         }
 
         Payment savedPayment = paymentRepository.save(payment);
+        if (paymentSuccessful) {
+            revenueRollupService.applyCompleted(List.of(savedPayment.getId()));
+        }
 
         // PASO 8: Marcar habitación como ocupada (si el pago fue exitoso)
         if (paymentSuccessful) {
@@ -202,6 +209,7 @@ public class ReservationFacade {
             if (payment.canBeRefunded()) {
                 payment.markAsRefunded();
                 paymentRepository.save(payment);
+                revenueRollupService.applyRefunded(List.of(payment.getId()));
             }
         });
 
@@ -0,0 +1,52 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para el feed de cambios
+ */
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * Cambios posteriores al cursor, en orden
+     * @param afterId último ID ya procesado por el consumidor (0 para empezar)
+     * @param pageable tamaño de la página
+     */
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.id > :afterId ORDER BY c.id")
+    List<ChangeLogEntry> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Mayor ID del feed (null sin cambios)
+     */
+    @Query("SELECT MAX(c.id) FROM ChangeLogEntry c")
+    Long findMaxId();
+
+    /**
+     * Menor ID del feed (null sin cambios)
+     */
+    @Query("SELECT MIN(c.id) FROM ChangeLogEntry c")
+    Long findMinId();
+
+    /**
+     * Mayor ID de los cambios anteriores a la fecha de retención (null si no hay)
+     */
+    @Query("SELECT MAX(c.id) FROM ChangeLogEntry c WHERE c.changedAt < :before")
+    Long findMaxIdChangedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Elimina los cambios con ID hasta upToId (inclusive)
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.id <= :upToId")
+    int deleteUpTo(@Param("upToId") long upToId);
+}
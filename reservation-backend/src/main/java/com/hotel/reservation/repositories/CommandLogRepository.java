@@ -0,0 +1,44 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.CommandLogEntry;
+import com.hotel.reservation.models.CommandState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio JPA para el log de comandos por actor
+ */
+@Repository
+public interface CommandLogRepository extends JpaRepository<CommandLogEntry, Long> {
+
+    /**
+     * Último comando ejecutado del actor (el siguiente a deshacer)
+     */
+    Optional<CommandLogEntry> findFirstByActorAndStateOrderByIdDesc(String actor, CommandState state);
+
+    /**
+     * Primer comando deshecho del actor: como se deshacen del más nuevo al más viejo,
+     * el de menor ID es el último que se deshizo (el siguiente a rehacer)
+     */
+    Optional<CommandLogEntry> findFirstByActorAndStateOrderByIdAsc(String actor, CommandState state);
+
+    /**
+     * Comandos recientes del actor, del más nuevo al más viejo
+     */
+    List<CommandLogEntry> findByActorOrderByIdDesc(String actor, Pageable pageable);
+
+    /**
+     * Al ejecutar un comando nuevo ya no se puede rehacer lo deshecho
+     */
+    @Modifying
+    @Query("UPDATE CommandLogEntry c SET c.state = com.hotel.reservation.models.CommandState.DISCARDED " +
+           "WHERE c.actor = :actor AND c.state = com.hotel.reservation.models.CommandState.UNDONE")
+    int discardUndone(@Param("actor") String actor);
+}
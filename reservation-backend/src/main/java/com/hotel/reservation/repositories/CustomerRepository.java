@@ -1,12 +1,20 @@
 package com.hotel.reservation.repositories;
 
+import com.hotel.reservation.dto.LoyaltyLevelCount;
 import com.hotel.reservation.models.Customer;
 import com.hotel.reservation.models.LoyaltyLevel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Customer
@@ -49,4 +57,42 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      * @return lista de clientes
      */
     List<Customer> findByLastNameContainingIgnoreCase(String lastName);
+
+    /**
+     * Cuenta clientes agrupados por nivel de lealtad
+     * @return una fila por nivel con clientes
+     */
+    @Query("SELECT new com.hotel.reservation.dto.LoyaltyLevelCount(c.loyaltyLevel, COUNT(c)) " +
+           "FROM Customer c GROUP BY c.loyaltyLevel")
+    List<LoyaltyLevelCount> countGroupedByLoyaltyLevel();
+
+    /**
+     * Recorre todos los clientes sin cargarlos en memoria a la vez.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de clientes ordenados por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Customer c ORDER BY c.id")
+    Stream<Customer> streamAllForExport();
+
+    /**
+     * Recorre los clientes modificados en [since, until) usando el índice de updated_at (exportación incremental).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de clientes ordenados por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Customer c WHERE c.updatedAt >= :since AND c.updatedAt < :until ORDER BY c.id")
+    Stream<Customer> streamChangedForExport(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    /**
+     * Clientes con ID en [fromId, toId) (un bloque de la validación completa)
+     */
+    @Query("SELECT c FROM Customer c WHERE c.id >= :fromId AND c.id < :toId")
+    List<Customer> findInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Mayor ID de cliente (null sin clientes)
+     */
+    @Query("SELECT MAX(c.id) FROM Customer c")
+    Long findMaxId();
 }
@@ -0,0 +1,77 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.dto.ViolationRuleCount;
+import com.hotel.reservation.models.DataViolation;
+import com.hotel.reservation.models.ViolationEntityType;
+import com.hotel.reservation.models.ViolationRule;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad DataViolation
+ */
+@Repository
+public interface DataViolationRepository extends JpaRepository<DataViolation, Long> {
+
+    /**
+     * Página de violaciones abiertas (filtros nulos no se aplican)
+     */
+    @Query(value = "SELECT v FROM DataViolation v " +
+                   "WHERE (:entityType IS NULL OR v.entityType = :entityType) AND (:rule IS NULL OR v.rule = :rule) " +
+                   "ORDER BY v.id",
+           countQuery = "SELECT COUNT(v) FROM DataViolation v " +
+                   "WHERE (:entityType IS NULL OR v.entityType = :entityType) AND (:rule IS NULL OR v.rule = :rule)")
+    Page<DataViolation> findPage(@Param("entityType") ViolationEntityType entityType,
+                                 @Param("rule") ViolationRule rule,
+                                 Pageable pageable);
+
+    /**
+     * Cantidad de violaciones abiertas por regla
+     */
+    @Query("SELECT new com.hotel.reservation.dto.ViolationRuleCount(v.rule, COUNT(v)) " +
+           "FROM DataViolation v GROUP BY v.rule")
+    List<ViolationRuleCount> countGroupedByRule();
+
+    /**
+     * Entidades con una violación de la regla que involucra a alguna de las entidades indicadas
+     */
+    @Query("SELECT DISTINCT v.entityId FROM DataViolation v WHERE v.rule = :rule AND v.relatedEntityId IN :relatedIds")
+    List<Long> findEntityIdsByRuleAndRelatedIn(@Param("rule") ViolationRule rule,
+                                               @Param("relatedIds") Collection<Long> relatedIds);
+
+    /**
+     * Elimina las violaciones de esas reglas para varias entidades (antes de validarlas de nuevo)
+     */
+    @Modifying
+    @Query("DELETE FROM DataViolation v WHERE v.entityType = :entityType AND v.entityId IN :entityIds " +
+           "AND v.rule IN :rules")
+    int deleteForEntities(@Param("entityType") ViolationEntityType entityType,
+                          @Param("entityIds") Collection<Long> entityIds,
+                          @Param("rules") Collection<ViolationRule> rules);
+
+    /**
+     * Elimina las violaciones de esas reglas para las entidades con ID en [fromId, toId)
+     */
+    @Modifying
+    @Query("DELETE FROM DataViolation v WHERE v.entityType = :entityType " +
+           "AND v.entityId >= :fromId AND v.entityId < :toId AND v.rule IN :rules")
+    int deleteForIdRange(@Param("entityType") ViolationEntityType entityType,
+                         @Param("fromId") long fromId,
+                         @Param("toId") long toId,
+                         @Param("rules") Collection<ViolationRule> rules);
+
+    /**
+     * Elimina todas las violaciones de una regla
+     */
+    @Modifying
+    @Query("DELETE FROM DataViolation v WHERE v.rule = :rule")
+    int deleteByRule(@Param("rule") ViolationRule rule);
+}
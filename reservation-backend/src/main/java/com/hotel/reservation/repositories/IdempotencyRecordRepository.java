@@ -0,0 +1,21 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Busca el registro de una clave de idempotencia
+     */
+    Optional<IdempotencyRecord> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Elimina la clave (la petición original falló y puede reintentarse)
+     */
+    void deleteByIdempotencyKey(String idempotencyKey);
+}
@@ -0,0 +1,28 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para notificaciones fallidas (dead-letter)
+ */
+@Repository
+public interface NotificationDeadLetterRepository extends JpaRepository<NotificationDeadLetter, Long> {
+
+    /**
+     * Busca notificaciones fallidas por canal
+     * @param channel canal de notificación
+     * @return lista de notificaciones fallidas
+     */
+    List<NotificationDeadLetter> findByChannelOrderByIdAsc(NotificationChannel channel);
+
+    /**
+     * Obtiene todas las notificaciones fallidas en orden de llegada
+     * @return lista de notificaciones fallidas
+     */
+    List<NotificationDeadLetter> findAllByOrderByIdAsc();
+}
@@ -1,12 +1,29 @@
 package com.hotel.reservation.repositories;
 
+import com.hotel.reservation.dto.PaymentMethodTotals;
+import com.hotel.reservation.dto.PaymentRevenueRow;
+import com.hotel.reservation.dto.PaymentSample;
+import com.hotel.reservation.dto.PaymentStatusMethodTotals;
+import com.hotel.reservation.dto.PendingPaymentRef;
 import com.hotel.reservation.models.Payment;
 import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.models.RoomType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Payment
@@ -41,4 +58,205 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      * @return true si existe
      */
     boolean existsByReservationId(Long reservationId);
+
+    /**
+     * Página de pagos en un estado sin modificar desde una fecha, por keyset (id mayor al último visto).
+     * Se usa updatedAt y no paymentDate: un pago fallido se reutiliza en cada reintento y
+     * paymentDate sigue siendo el del primer intento.
+     * @param status estado buscado
+     * @param updatedBefore solo pagos sin modificar desde esta fecha
+     * @param afterId último ID de la página anterior
+     * @param pageable tamaño de página (la primera página siempre)
+     * @return proyecciones ordenadas por ID
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PendingPaymentRef(p.id, p.paymentMethod, p.transactionId, " +
+           "p.gatewayRequestId, p.updatedAt) " +
+           "FROM Payment p WHERE p.paymentStatus = :status AND p.updatedAt < :updatedBefore AND p.id > :afterId " +
+           "ORDER BY p.id")
+    List<PendingPaymentRef> findPageByStatusUpdatedBefore(@Param("status") PaymentStatus status,
+                                                          @Param("updatedBefore") LocalDateTime updatedBefore,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+
+    /**
+     * Busca los pagos de la lista que siguen en un estado
+     * @param ids IDs de los pagos
+     * @param status estado esperado
+     * @return pagos encontrados
+     */
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.paymentStatus = :status")
+    List<Payment> findByIdInAndPaymentStatus(@Param("ids") Collection<Long> ids,
+                                             @Param("status") PaymentStatus status);
+
+    /**
+     * Cambia el estado de varios pagos en una sola sentencia
+     * @param ids IDs de los pagos
+     * @param status nuevo estado
+     * @param updatedAt fecha de modificación (las sentencias masivas no aplican @UpdateTimestamp)
+     * @return cantidad de pagos actualizados
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.paymentStatus = :status, p.updatedAt = :updatedAt WHERE p.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") PaymentStatus status,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Bloque de pagos completados a reembolsar, por keyset (id mayor al cursor).
+     * Los filtros nulos no se aplican.
+     */
+    @Query("SELECT p FROM Payment p JOIN FETCH p.reservation r LEFT JOIN r.servicePackage sp " +
+           "WHERE p.paymentStatus = com.hotel.reservation.models.PaymentStatus.COMPLETED AND p.id > :afterId " +
+           "AND (:checkInFrom IS NULL OR r.checkInDate >= :checkInFrom) " +
+           "AND (:checkInTo IS NULL OR r.checkInDate <= :checkInTo) " +
+           "AND (:packageId IS NULL OR sp.id = :packageId) " +
+           "AND (:roomType IS NULL OR r.room.roomType = :roomType) " +
+           "ORDER BY p.id")
+    List<Payment> findRefundCandidates(@Param("afterId") Long afterId,
+                                       @Param("checkInFrom") LocalDate checkInFrom,
+                                       @Param("checkInTo") LocalDate checkInTo,
+                                       @Param("packageId") Long packageId,
+                                       @Param("roomType") RoomType roomType,
+                                       Pageable pageable);
+
+    /**
+     * Cuenta los pagos completados que cumplen el filtro de reembolso masivo
+     */
+    @Query("SELECT COUNT(p) FROM Payment p JOIN p.reservation r LEFT JOIN r.servicePackage sp " +
+           "WHERE p.paymentStatus = com.hotel.reservation.models.PaymentStatus.COMPLETED " +
+           "AND (:checkInFrom IS NULL OR r.checkInDate >= :checkInFrom) " +
+           "AND (:checkInTo IS NULL OR r.checkInDate <= :checkInTo) " +
+           "AND (:packageId IS NULL OR sp.id = :packageId) " +
+           "AND (:roomType IS NULL OR r.room.roomType = :roomType)")
+    long countRefundCandidates(@Param("checkInFrom") LocalDate checkInFrom,
+                               @Param("checkInTo") LocalDate checkInTo,
+                               @Param("packageId") Long packageId,
+                               @Param("roomType") RoomType roomType);
+
+    /**
+     * Cantidad y monto de los pagos agrupados por método
+     * @return una fila por método con pagos
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PaymentMethodTotals(p.paymentMethod, COUNT(p), SUM(p.amount)) " +
+           "FROM Payment p GROUP BY p.paymentMethod")
+    List<PaymentMethodTotals> sumGroupedByPaymentMethod();
+
+    /**
+     * Cantidad y monto de los pagos por estado y método, con fecha de pago en el rango
+     * (filtros nulos no se aplican)
+     * @param from inicio del rango (inclusive)
+     * @param to fin del rango (exclusivo)
+     * @return una fila por combinación de estado y método con pagos
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PaymentStatusMethodTotals(p.paymentStatus, p.paymentMethod, " +
+           "COUNT(p), SUM(p.amount)) FROM Payment p " +
+           "WHERE (:from IS NULL OR p.paymentDate >= :from) AND (:to IS NULL OR p.paymentDate < :to) " +
+           "GROUP BY p.paymentStatus, p.paymentMethod")
+    List<PaymentStatusMethodTotals> sumGroupedByStatusAndMethod(@Param("from") LocalDateTime from,
+                                                                @Param("to") LocalDateTime to);
+
+    /**
+     * Cantidad y monto de los pagos con los estados indicados, por estado y método, en el rango [from, to)
+     * @param statuses estados a incluir
+     * @param from inicio del rango (inclusive, null sin límite)
+     * @param to fin del rango (exclusivo, null sin límite)
+     * @return una fila por combinación de estado y método con pagos
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PaymentStatusMethodTotals(p.paymentStatus, p.paymentMethod, " +
+           "COUNT(p), SUM(p.amount)) FROM Payment p " +
+           "WHERE p.paymentStatus IN :statuses " +
+           "AND (:from IS NULL OR p.paymentDate >= :from) AND (:to IS NULL OR p.paymentDate < :to) " +
+           "GROUP BY p.paymentStatus, p.paymentMethod")
+    List<PaymentStatusMethodTotals> sumGroupedByStatusAndMethodForStatuses(
+            @Param("statuses") Collection<PaymentStatus> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Dimensiones del rollup de ingresos (día, método, tipo de habitación) de varios pagos
+     * @param ids IDs de los pagos
+     * @return una fila por pago encontrado
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PaymentRevenueRow(p.id, p.paymentDate, p.paymentMethod, " +
+           "rm.roomType, p.paymentStatus, p.amount) " +
+           "FROM Payment p JOIN p.reservation r JOIN r.room rm WHERE p.id IN :ids")
+    List<PaymentRevenueRow> findRevenueRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Pagos completados o reembolsados con ID en [fromId, toId), con las dimensiones del rollup
+     * (un bloque de la reconstrucción)
+     */
+    @Query("SELECT new com.hotel.reservation.dto.PaymentRevenueRow(p.id, p.paymentDate, p.paymentMethod, " +
+           "rm.roomType, p.paymentStatus, p.amount) " +
+           "FROM Payment p JOIN p.reservation r JOIN r.room rm " +
+           "WHERE p.id >= :fromId AND p.id < :toId AND p.paymentStatus IN " +
+           "(com.hotel.reservation.models.PaymentStatus.COMPLETED, com.hotel.reservation.models.PaymentStatus.REFUNDED)")
+    List<PaymentRevenueRow> findRevenueRowsInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Menor ID de pago (null sin pagos)
+     */
+    @Query("SELECT MIN(p.id) FROM Payment p")
+    Long findMinId();
+
+    /**
+     * Mayor ID de pago (null sin pagos)
+     */
+    @Query("SELECT MAX(p.id) FROM Payment p")
+    Long findMaxId();
+
+    /**
+     * Recorre todos los pagos con su reserva y cliente, sin cargarlos en memoria a la vez.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de pagos ordenados por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p JOIN FETCH p.reservation r JOIN FETCH r.customer ORDER BY p.id")
+    Stream<Payment> streamAllForExport();
+
+    /**
+     * Recorre los pagos modificados en [since, until) usando el índice de updated_at (exportación incremental).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de pagos ordenados por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p JOIN FETCH p.reservation r JOIN FETCH r.customer " +
+           "WHERE p.updatedAt >= :since AND p.updatedAt < :until ORDER BY p.id")
+    Stream<Payment> streamChangedForExport(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    /**
+     * Recorre fecha y monto de los pagos completados o reembolsados, sin cargar entidades.
+     * Debe consumirse dentro de una transacción.
+     * @return stream de pagos
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.hotel.reservation.dto.PaymentSample(p.paymentDate, p.amount) FROM Payment p " +
+           "WHERE p.paymentStatus IN " +
+           "(com.hotel.reservation.models.PaymentStatus.COMPLETED, com.hotel.reservation.models.PaymentStatus.REFUNDED)")
+    Stream<PaymentSample> streamCompletedPaymentSamples();
+
+    /**
+     * Pagos con su reserva y ID en [fromId, toId) (un bloque de la validación completa)
+     */
+    @Query("SELECT p FROM Payment p JOIN FETCH p.reservation WHERE p.id >= :fromId AND p.id < :toId")
+    List<Payment> findWithReservationInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Pagos con su reserva por IDs (validación incremental)
+     */
+    @Query("SELECT p FROM Payment p JOIN FETCH p.reservation WHERE p.id IN :ids")
+    List<Payment> findAllByIdWithReservation(@Param("ids") Collection<Long> ids);
+
+    /**
+     * IDs de los pagos de varias reservas
+     */
+    @Query("SELECT p.id FROM Payment p WHERE p.reservation.id IN :reservationIds")
+    List<Long> findIdsByReservationIdIn(@Param("reservationIds") Collection<Long> reservationIds);
+
+    /**
+     * Asigna updatedAt a los pagos creados antes de agregar la columna
+     * @return cantidad de pagos actualizados
+     */
+    @Modifying
+    @Query("UPDATE Payment p SET p.updatedAt = :now WHERE p.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
 }
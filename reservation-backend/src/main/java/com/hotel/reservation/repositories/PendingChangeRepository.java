@@ -0,0 +1,33 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.PendingChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para los cambios pendientes de publicar en el feed
+ */
+@Repository
+public interface PendingChangeRepository extends JpaRepository<PendingChange, Long> {
+
+    /**
+     * Cambios confirmados más antiguos, en el orden en que se insertaron
+     * @param pageable tamaño del lote
+     */
+    @Query("SELECT p FROM PendingChange p ORDER BY p.id")
+    List<PendingChange> findOldest(Pageable pageable);
+
+    /**
+     * Elimina los cambios ya movidos al feed
+     */
+    @Modifying
+    @Query("DELETE FROM PendingChange p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
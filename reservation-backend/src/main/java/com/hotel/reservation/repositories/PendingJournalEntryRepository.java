@@ -0,0 +1,39 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.PendingJournalEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para las entradas del diario pendientes de mover a reservation_journal
+ */
+@Repository
+public interface PendingJournalEntryRepository extends JpaRepository<PendingJournalEntry, Long> {
+
+    /**
+     * Entradas confirmadas más antiguas, en el orden en que se insertaron
+     * @param pageable tamaño del lote
+     */
+    @Query("SELECT p FROM PendingJournalEntry p ORDER BY p.id")
+    List<PendingJournalEntry> findOldest(Pageable pageable);
+
+    /**
+     * Entradas pendientes de una reserva en orden (siguen a las que ya están en el diario)
+     */
+    @Query("SELECT p FROM PendingJournalEntry p WHERE p.reservationId = :reservationId ORDER BY p.id")
+    List<PendingJournalEntry> findByReservation(@Param("reservationId") Long reservationId);
+
+    /**
+     * Elimina las entradas ya movidas al diario
+     */
+    @Modifying
+    @Query("DELETE FROM PendingJournalEntry p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
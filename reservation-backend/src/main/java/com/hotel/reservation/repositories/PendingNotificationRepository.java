@@ -0,0 +1,48 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.PendingNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la cola persistente de notificaciones
+ */
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, Long> {
+
+    /**
+     * IDs de los mensajes que ya pueden intentarse, los más atrasados primero
+     */
+    @Query("SELECT p.id FROM PendingNotification p WHERE p.nextAttemptAt <= :now ORDER BY p.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Toma un mensaje para enviarlo: solo si ya puede intentarse, y lo aparta hasta leaseUntil.
+     * Entre dos hilos que lo piden a la vez, solo uno obtiene 1.
+     * @return 1 si se tomó, 0 si no existe, no es su momento u otro hilo lo tiene
+     */
+    @Modifying
+    @Query("UPDATE PendingNotification p SET p.nextAttemptAt = :leaseUntil " +
+           "WHERE p.id = :id AND p.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Reprograma un mensaje tomado (falla o circuito abierto)
+     * @param lastError null conserva el error anterior
+     */
+    @Modifying
+    @Query("UPDATE PendingNotification p SET p.attempt = :attempt, p.nextAttemptAt = :nextAttemptAt, " +
+           "p.lastError = COALESCE(:lastError, p.lastError) WHERE p.id = :id")
+    int reschedule(@Param("id") Long id, @Param("attempt") int attempt,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+
+    long countByChannel(NotificationChannel channel);
+}
@@ -0,0 +1,23 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.RefundJobItem;
+import com.hotel.reservation.models.RefundJobItemStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RefundJobItemRepository extends JpaRepository<RefundJobItem, Long> {
+
+    /**
+     * Busca los elementos de un trabajo en un estado
+     */
+    List<RefundJobItem> findByJobIdAndStatusOrderByPaymentIdAsc(Long jobId, RefundJobItemStatus status);
+
+    /**
+     * Busca los elementos de un trabajo para un conjunto de pagos
+     */
+    List<RefundJobItem> findByJobIdAndPaymentIdIn(Long jobId, Collection<Long> paymentIds);
+}
@@ -0,0 +1,23 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.RefundJob;
+import com.hotel.reservation.models.RefundJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    /**
+     * Busca trabajos en los estados indicados, del más antiguo al más reciente
+     */
+    List<RefundJob> findByStatusInOrderByIdAsc(Collection<RefundJobStatus> statuses);
+
+    /**
+     * Lista todos los trabajos, del más reciente al más antiguo
+     */
+    List<RefundJob> findAllByOrderByIdDesc();
+}
@@ -0,0 +1,36 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.ReportJob;
+import com.hotel.reservation.models.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    /**
+     * Trabajo en cola o en curso con los mismos parámetros
+     */
+    Optional<ReportJob> findFirstByParametersKeyAndStatusInOrderByIdAsc(String parametersKey,
+                                                                         Collection<ReportJobStatus> statuses);
+
+    /**
+     * Busca trabajos en los estados indicados, del más antiguo al más reciente
+     */
+    List<ReportJob> findByStatusInOrderByIdAsc(Collection<ReportJobStatus> statuses);
+
+    /**
+     * Trabajos terminados antes de la fecha indicada (candidatos a expirar)
+     */
+    List<ReportJob> findByStatusAndFinishedAtBefore(ReportJobStatus status, LocalDateTime finishedBefore);
+
+    /**
+     * Lista todos los trabajos, del más reciente al más antiguo
+     */
+    List<ReportJob> findAllByOrderByIdDesc();
+}
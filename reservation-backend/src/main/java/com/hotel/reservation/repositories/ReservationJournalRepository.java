@@ -0,0 +1,46 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.ReservationJournalEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para el diario de reservas
+ */
+@Repository
+public interface ReservationJournalRepository extends JpaRepository<ReservationJournalEntry, Long> {
+
+    /**
+     * Entradas de una reserva en orden (auditoría)
+     */
+    @Query("SELECT e FROM ReservationJournalEntry e WHERE e.reservationId = :reservationId ORDER BY e.id")
+    List<ReservationJournalEntry> findByReservation(@Param("reservationId") Long reservationId);
+
+    /**
+     * Entradas de una reserva en (afterId, upToId], en orden (reconstrucción desde un snapshot)
+     */
+    @Query("SELECT e FROM ReservationJournalEntry e WHERE e.reservationId = :reservationId " +
+           "AND e.id > :afterId AND e.id <= :upToId ORDER BY e.id")
+    List<ReservationJournalEntry> findForReplay(@Param("reservationId") Long reservationId,
+                                                @Param("afterId") long afterId,
+                                                @Param("upToId") long upToId);
+
+    /**
+     * Entradas de todas las reservas posteriores al cursor, en orden (para alimentar modelos de lectura)
+     * @param afterId último ID ya procesado (0 para empezar)
+     * @param pageable tamaño del bloque
+     */
+    @Query("SELECT e FROM ReservationJournalEntry e WHERE e.id > :afterId ORDER BY e.id")
+    List<ReservationJournalEntry> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Último ID del diario (null si está vacío)
+     */
+    @Query("SELECT MAX(e.id) FROM ReservationJournalEntry e")
+    Long findMaxId();
+}
@@ -1,14 +1,30 @@
 package com.hotel.reservation.repositories;
 
+import com.hotel.reservation.dto.BookingSample;
+import com.hotel.reservation.dto.ReservationCubeRow;
+import com.hotel.reservation.dto.ReservationInterval;
+import com.hotel.reservation.dto.ReservationStatusTotals;
+import com.hotel.reservation.dto.ReservationStay;
 import com.hotel.reservation.models.Reservation;
 import com.hotel.reservation.models.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Reservation
@@ -85,4 +101,189 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     @Query("SELECT r FROM Reservation r WHERE r.customer.email = :email ORDER BY r.checkInDate DESC")
     List<Reservation> findByCustomerEmail(@Param("email") String email);
+
+    /**
+     * Busca una reserva cargando cliente y habitación en la misma consulta
+     * Usado por los hilos de notificación, que trabajan fuera de la sesión de la petición
+     * @param id ID de la reserva
+     * @return Optional con la reserva
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.customer JOIN FETCH r.room WHERE r.id = :id")
+    Optional<Reservation> findByIdWithDetails(@Param("id") Long id);
+
+    /**
+     * Busca una reserva tomando el bloqueo de su fila hasta el fin de la transacción
+     * Usado por undo: dos undo simultáneos de la misma reserva se ejecutan uno después del otro
+     * @param id ID de la reserva
+     * @return Optional con la reserva
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+    Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Busca varias reservas cargando cliente y habitación en la misma consulta
+     * @param ids IDs de las reservas
+     * @return lista de reservas encontradas
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.customer JOIN FETCH r.room WHERE r.id IN :ids")
+    List<Reservation> findAllByIdWithDetails(@Param("ids") List<Long> ids);
+
+    /**
+     * Cambia el estado de las reservas de varios pagos en una sola sentencia
+     * @param paymentIds IDs de los pagos
+     * @param status nuevo estado
+     * @param updatedAt fecha de modificación (las sentencias masivas no aplican @UpdateTimestamp)
+     * @return cantidad de reservas actualizadas
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = :updatedAt " +
+           "WHERE r.id IN (SELECT p.reservation.id FROM Payment p WHERE p.id IN :paymentIds)")
+    int updateStatusByPaymentIdIn(@Param("paymentIds") Collection<Long> paymentIds,
+                                  @Param("status") ReservationStatus status,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Cantidad y valor de las reservas agrupadas por estado
+     * @return una fila por estado con reservas
+     */
+    @Query("SELECT new com.hotel.reservation.dto.ReservationStatusTotals(r.status, COUNT(r), SUM(r.totalPrice)) " +
+           "FROM Reservation r GROUP BY r.status")
+    List<ReservationStatusTotals> sumGroupedByStatus();
+
+    /**
+     * Cantidad y valor de las reservas por estado, con check-in en el rango (filtros nulos no se aplican)
+     * @param from fecha inicial de check-in
+     * @param to fecha final de check-in
+     * @return una fila por estado con reservas
+     */
+    @Query("SELECT new com.hotel.reservation.dto.ReservationStatusTotals(r.status, COUNT(r), SUM(r.totalPrice)) " +
+           "FROM Reservation r " +
+           "WHERE (:from IS NULL OR r.checkInDate >= :from) AND (:to IS NULL OR r.checkInDate <= :to) " +
+           "GROUP BY r.status")
+    List<ReservationStatusTotals> sumGroupedByStatusForCheckIn(@Param("from") LocalDate from,
+                                                               @Param("to") LocalDate to);
+
+    /**
+     * Bloque de reservas para el detalle de un reporte, por keyset (id mayor al cursor).
+     * Carga cliente y habitación en la misma consulta.
+     * @param afterId último ID del bloque anterior (0 para empezar)
+     * @param from fecha inicial de check-in (null sin límite)
+     * @param to fecha final de check-in (null sin límite)
+     * @param pageable tamaño del bloque
+     * @return reservas ordenadas por ID
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.customer JOIN FETCH r.room " +
+           "WHERE r.id > :afterId " +
+           "AND (:from IS NULL OR r.checkInDate >= :from) AND (:to IS NULL OR r.checkInDate <= :to) " +
+           "ORDER BY r.id")
+    List<Reservation> findReportPage(@Param("afterId") Long afterId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     Pageable pageable);
+
+    /**
+     * Recorre todas las reservas con cliente y habitación, sin cargarlas en memoria a la vez.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de reservas ordenadas por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.customer JOIN FETCH r.room ORDER BY r.id")
+    Stream<Reservation> streamAllForExport();
+
+    /**
+     * Recorre las reservas modificadas en [since, until) usando el índice de updated_at (exportación incremental).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de reservas ordenadas por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.customer JOIN FETCH r.room " +
+           "WHERE r.updatedAt >= :since AND r.updatedAt < :until ORDER BY r.id")
+    Stream<Reservation> streamChangedForExport(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    /**
+     * Estancias que se cruzan con el rango [from, to] (noches de check-in a check-out - 1),
+     * proyectadas sin cargar entidades. Debe consumirse dentro de una transacción.
+     * @param statuses estados que ocupan habitación
+     * @param from primer día del rango
+     * @param to último día del rango
+     * @return stream de estancias
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.hotel.reservation.dto.ReservationStay(rm.roomType, r.checkInDate, r.checkOutDate, r.totalPrice) " +
+           "FROM Reservation r JOIN r.room rm " +
+           "WHERE r.status IN :statuses AND r.checkInDate <= :to AND r.checkOutDate > :from")
+    Stream<ReservationStay> streamStaysOverlapping(@Param("statuses") Collection<ReservationStatus> statuses,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
+    /**
+     * Recorre todas las reservas con las dimensiones del cubo (tipo de habitación y nivel de lealtad),
+     * proyectadas sin cargar entidades. Debe consumirse dentro de una transacción.
+     * @return stream de filas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.hotel.reservation.dto.ReservationCubeRow(r.id, c.id, rm.id, rm.roomType, " +
+           "c.loyaltyLevel, r.status, r.checkInDate, r.checkOutDate, r.totalPrice) " +
+           "FROM Reservation r JOIN r.customer c JOIN r.room rm")
+    Stream<ReservationCubeRow> streamCubeRows();
+
+    /**
+     * Recorre cliente, fecha de registro y total de todas las reservas, sin cargar entidades.
+     * Debe consumirse dentro de una transacción.
+     * @return stream de reservas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.hotel.reservation.dto.BookingSample(r.customer.id, r.createdAt, r.totalPrice) " +
+           "FROM Reservation r")
+    Stream<BookingSample> streamBookingSamples();
+
+    /**
+     * Reservas con su habitación y ID en [fromId, toId) (un bloque de la validación completa)
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.room WHERE r.id >= :fromId AND r.id < :toId")
+    List<Reservation> findWithRoomInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Reservas con su habitación por IDs (validación incremental)
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.room WHERE r.id IN :ids")
+    List<Reservation> findAllByIdWithRoom(@Param("ids") Collection<Long> ids);
+
+    /**
+     * IDs de las reservas de varias habitaciones
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.room.id IN :roomIds")
+    List<Long> findIdsByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    /**
+     * Reservas activas de la misma habitación cuya estancia se cruza con la indicada
+     * (la reserva misma queda excluida)
+     */
+    @Query("SELECT new com.hotel.reservation.dto.ReservationInterval(r.id, r.room.id, r.checkInDate, r.checkOutDate) " +
+           "FROM Reservation r WHERE r.room.id = :roomId AND r.id <> :excludeId AND r.status IN " +
+           "(com.hotel.reservation.models.ReservationStatus.PENDING, com.hotel.reservation.models.ReservationStatus.CONFIRMED) " +
+           "AND r.checkInDate < :checkOut AND r.checkOutDate > :checkIn")
+    List<ReservationInterval> findActiveOverlapping(@Param("roomId") Long roomId,
+                                                    @Param("excludeId") Long excludeId,
+                                                    @Param("checkIn") LocalDate checkIn,
+                                                    @Param("checkOut") LocalDate checkOut);
+
+    /**
+     * Recorre las estancias de las reservas activas ordenadas por habitación y check-in,
+     * proyectadas sin cargar entidades (barrido de cruces). Debe consumirse dentro de una transacción.
+     * @return stream de estancias
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.hotel.reservation.dto.ReservationInterval(r.id, r.room.id, r.checkInDate, r.checkOutDate) " +
+           "FROM Reservation r WHERE r.status IN " +
+           "(com.hotel.reservation.models.ReservationStatus.PENDING, com.hotel.reservation.models.ReservationStatus.CONFIRMED) " +
+           "ORDER BY r.room.id, r.checkInDate, r.id")
+    Stream<ReservationInterval> streamActiveIntervals();
+
+    /**
+     * Mayor ID de reserva (null sin reservas)
+     */
+    @Query("SELECT MAX(r.id) FROM Reservation r")
+    Long findMaxId();
 }
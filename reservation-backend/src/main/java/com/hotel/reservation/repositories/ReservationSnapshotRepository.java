@@ -0,0 +1,28 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.models.ReservationSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para los snapshots de reservas
+ */
+@Repository
+public interface ReservationSnapshotRepository extends JpaRepository<ReservationSnapshot, Long> {
+
+    /**
+     * Snapshots de una reserva hasta cierta entrada del diario, del más reciente al más antiguo
+     * @param upToId última entrada que puede incluir el snapshot
+     * @param pageable cuántos traer (normalmente 1)
+     */
+    @Query("SELECT s FROM ReservationSnapshot s WHERE s.reservationId = :reservationId AND s.lastEntryId <= :upToId " +
+           "ORDER BY s.lastEntryId DESC")
+    List<ReservationSnapshot> findLatest(@Param("reservationId") Long reservationId,
+                                         @Param("upToId") long upToId,
+                                         Pageable pageable);
+}
@@ -0,0 +1,69 @@
+package com.hotel.reservation.repositories;
+
+import com.hotel.reservation.dto.RevenueRollupTotals;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.RevenueDailyRollup;
+import com.hotel.reservation.models.RoomType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad RevenueDailyRollup
+ */
+@Repository
+public interface RevenueDailyRollupRepository extends JpaRepository<RevenueDailyRollup, Long> {
+
+    /**
+     * Verifica si ya existe la fila de un día, método y tipo de habitación
+     */
+    boolean existsByRollupDateAndPaymentMethodAndRoomType(LocalDate rollupDate, PaymentMethod paymentMethod,
+                                                          RoomType roomType);
+
+    /**
+     * Suma (o resta, con valores negativos) los contadores de una fila en una sola sentencia,
+     * sin leerla antes: las actualizaciones concurrentes de la misma fila no se pisan
+     * @return 1 si la fila existe, 0 si no
+     */
+    @Modifying
+    @Query("UPDATE RevenueDailyRollup r SET r.completedCount = r.completedCount + :completedCount, " +
+           "r.completedAmount = r.completedAmount + :completedAmount, " +
+           "r.refundedCount = r.refundedCount + :refundedCount, " +
+           "r.refundedAmount = r.refundedAmount + :refundedAmount, r.updatedAt = :updatedAt " +
+           "WHERE r.rollupDate = :rollupDate AND r.paymentMethod = :paymentMethod AND r.roomType = :roomType")
+    int addTotals(@Param("rollupDate") LocalDate rollupDate,
+                  @Param("paymentMethod") PaymentMethod paymentMethod,
+                  @Param("roomType") RoomType roomType,
+                  @Param("completedCount") long completedCount,
+                  @Param("completedAmount") BigDecimal completedAmount,
+                  @Param("refundedCount") long refundedCount,
+                  @Param("refundedAmount") BigDecimal refundedAmount,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Totales por método de pago en el rango de días [from, to] (filtros nulos no se aplican)
+     * @return una fila por método con datos en el rango
+     */
+    @Query("SELECT new com.hotel.reservation.dto.RevenueRollupTotals(r.paymentMethod, " +
+           "SUM(r.completedCount), SUM(r.completedAmount), SUM(r.refundedCount), SUM(r.refundedAmount)) " +
+           "FROM RevenueDailyRollup r " +
+           "WHERE (:from IS NULL OR r.rollupDate >= :from) AND (:to IS NULL OR r.rollupDate <= :to) " +
+           "GROUP BY r.paymentMethod")
+    List<RevenueRollupTotals> sumGroupedByPaymentMethod(@Param("from") LocalDate from,
+                                                        @Param("to") LocalDate to);
+
+    /**
+     * Elimina todas las filas (reconstrucción completa)
+     * @return cantidad de filas eliminadas
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM RevenueDailyRollup r")
+    int deleteAllRows();
+}
@@ -1,16 +1,24 @@
 package com.hotel.reservation.repositories;
 
+import com.hotel.reservation.dto.RoomTypeOccupancy;
 import com.hotel.reservation.models.Room;
 import com.hotel.reservation.models.RoomType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Room
@@ -70,4 +78,64 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
      * @return cantidad de habitaciones
      */
     long countByRoomType(RoomType type);
+
+    /**
+     * Cuenta habitaciones disponibles
+     * @return cantidad de habitaciones disponibles
+     */
+    long countByAvailableTrue();
+
+    /**
+     * Habitaciones totales y disponibles agrupadas por tipo
+     * @return una fila por tipo con habitaciones
+     */
+    @Query("SELECT new com.hotel.reservation.dto.RoomTypeOccupancy(r.roomType, COUNT(r), " +
+           "SUM(CASE WHEN r.available = true THEN 1L ELSE 0L END)) FROM Room r GROUP BY r.roomType")
+    List<RoomTypeOccupancy> countGroupedByRoomType();
+
+    /**
+     * Bloque de habitaciones por keyset (id mayor al cursor), para el detalle de los reportes
+     * @param afterId último ID del bloque anterior (0 para empezar)
+     * @param pageable tamaño del bloque
+     * @return habitaciones ordenadas por ID
+     */
+    List<Room> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Recorre todas las habitaciones sin cargarlas en memoria a la vez.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de habitaciones ordenadas por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Room r ORDER BY r.id")
+    Stream<Room> streamAllForExport();
+
+    /**
+     * Recorre las habitaciones modificadas en [since, until) usando el índice de updated_at (exportación incremental).
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return stream de habitaciones ordenadas por ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Room r WHERE r.updatedAt >= :since AND r.updatedAt < :until ORDER BY r.id")
+    Stream<Room> streamChangedForExport(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    /**
+     * Habitaciones con ID en [fromId, toId) (un bloque de la validación completa)
+     */
+    @Query("SELECT r FROM Room r WHERE r.id >= :fromId AND r.id < :toId")
+    List<Room> findInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Mayor ID de habitación (null sin habitaciones)
+     */
+    @Query("SELECT MAX(r.id) FROM Room r")
+    Long findMaxId();
+
+    /**
+     * Asigna updatedAt a las habitaciones creadas antes de agregar la columna
+     * @return cantidad de habitaciones actualizadas
+     */
+    @Modifying
+    @Query("UPDATE Room r SET r.updatedAt = :now WHERE r.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,42 @@
+package com.hotel.reservation.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de reintentos con backoff exponencial y jitter.
+ *
+ * El retardo base crece como initialDelay * multiplier^(intento - 1) hasta maxDelay.
+ * Se aplica "equal jitter": la mitad del retardo es fija y la otra mitad aleatoria,
+ * para que los reintentos de muchos mensajes no lleguen todos al mismo tiempo.
+ */
+public class BackoffPolicy {
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+
+    public BackoffPolicy(long initialDelayMillis, long maxDelayMillis, double multiplier) {
+        if (initialDelayMillis <= 0 || maxDelayMillis < initialDelayMillis || multiplier < 1.0) {
+            throw new IllegalArgumentException("Configuración de backoff inválida");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Calcula el retardo antes del siguiente intento
+     * @param failedAttempts número de intentos fallidos hasta ahora (1 = primer fallo)
+     * @return retardo en milisegundos
+     */
+    public long delayFor(int failedAttempts) {
+        double exponential = initialDelayMillis * Math.pow(multiplier, Math.max(0, failedAttempts - 1));
+        long capped = (long) Math.min(maxDelayMillis, exponential);
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+}
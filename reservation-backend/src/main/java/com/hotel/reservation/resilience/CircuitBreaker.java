@@ -0,0 +1,176 @@
+package com.hotel.reservation.resilience;
+
+import lombok.Getter;
+
+/**
+ * Circuit breaker con ventana deslizante por número de llamadas.
+ *
+ * Estados:
+ * - CLOSED: las llamadas pasan y se registra su resultado en la ventana
+ * - OPEN: la tasa de fallos superó el umbral, se rechaza todo hasta que expire openDuration
+ * - HALF_OPEN: se permiten algunas llamadas de prueba; si todas salen bien se cierra,
+ *   si alguna falla se vuelve a abrir
+ *
+ * Thread-safe: todos los cambios de estado se hacen bajo el monitor de la instancia.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Getter
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenProbes;
+
+    // Ventana circular de resultados (true = fallo)
+    private final boolean[] window;
+    private int windowIndex = 0;
+    private int windowCount = 0;
+    private int windowFailures = 0;
+
+    private State state = State.CLOSED;
+    private long openedAt = 0;
+    private int halfOpenInFlight = 0;
+    private int halfOpenSuccesses = 0;
+
+    /**
+     * @param name nombre para logs y métricas
+     * @param windowSize número de llamadas recientes consideradas
+     * @param minimumCalls llamadas mínimas en la ventana antes de evaluar la tasa de fallos
+     * @param failureRateThreshold porcentaje de fallos (0-100) que abre el circuito
+     * @param openDurationMillis tiempo que el circuito permanece abierto
+     * @param halfOpenProbes llamadas de prueba permitidas en HALF_OPEN
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls,
+                          double failureRateThreshold, long openDurationMillis, int halfOpenProbes) {
+        if (windowSize <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("windowSize y halfOpenProbes deben ser positivos");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Solicita permiso para ejecutar una llamada.
+     * Cada permiso concedido debe cerrarse con onSuccess() u onFailure().
+     * @return true si la llamada puede ejecutarse
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenProbes) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Registra una llamada exitosa
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Registra una llamada fallida
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && currentFailureRate() >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        // Reflejar la expiración del tiempo de apertura sin esperar a una llamada
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Milisegundos restantes antes de permitir llamadas de prueba (0 si no está abierto)
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationMillis - (System.currentTimeMillis() - openedAt));
+    }
+
+    /**
+     * Tasa de fallos actual de la ventana (0-100)
+     */
+    public synchronized double getFailureRate() {
+        return currentFailureRate();
+    }
+
+    private double currentFailureRate() {
+        return windowCount == 0 ? 0 : (windowFailures * 100.0) / windowCount;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hotel.reservation.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de tasa que espacia las llamadas de forma uniforme.
+ *
+ * Cada permiso reserva el siguiente hueco libre (1 / permitsPerSecond) y el hilo
+ * espera fuera del monitor hasta su turno, así varios hilos comparten el límite
+ * sin bloquearse entre sí mientras duermen.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeSlot;
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond debe ser positivo");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextFreeSlot = System.nanoTime();
+    }
+
+    /**
+     * Espera hasta obtener un permiso
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextFreeSlot, now);
+            nextFreeSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.hotel.reservation.resilience;
+
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador de PaymentGatewayAdapter con protección ante pasarelas degradadas.
+ *
+ * - Bulkhead: máximo de llamadas simultáneas por pasarela; el exceso se rechaza de inmediato
+ *   en lugar de ocupar hilos de petición
+ * - Timeout: la llamada corre en un hilo aparte y se abandona si excede el límite
+ * - Circuit breaker: con una tasa de errores alta se responde sin llamar a la pasarela,
+ *   con llamadas de prueba (HALF_OPEN) para detectar la recuperación
+ *
+ * Solo los errores técnicos (excepciones y timeouts) cuentan como fallos del circuito;
+ * un pago rechazado (p. ej. fondos insuficientes) es una respuesta válida de la pasarela.
+ *
+ * Los códigos de error distinguen si la operación llegó a la pasarela:
+ * - No enviada (GATEWAY_CIRCUIT_OPEN, GATEWAY_BULKHEAD_FULL, GATEWAY_UNAVAILABLE): se rechazó
+ *   antes de llamarla, reintentar es seguro
+ * - Resultado desconocido (GATEWAY_TIMEOUT, GATEWAY_OUTCOME_UNKNOWN): la llamada empezó y falló
+ *   o no respondió, la pasarela pudo procesarla. Antes de reintentar hay que consultarla
+ *   (findByRequestId) o repetir con la misma clave de idempotencia
+ */
+@Slf4j
+public class ResilientPaymentGateway implements PaymentGatewayAdapter {
+
+    public static final String ERROR_CIRCUIT_OPEN = "GATEWAY_CIRCUIT_OPEN";
+    public static final String ERROR_BULKHEAD_FULL = "GATEWAY_BULKHEAD_FULL";
+    public static final String ERROR_TIMEOUT = "GATEWAY_TIMEOUT";
+    public static final String ERROR_UNAVAILABLE = "GATEWAY_UNAVAILABLE";
+    public static final String ERROR_OUTCOME_UNKNOWN = "GATEWAY_OUTCOME_UNKNOWN";
+
+    @Getter
+    private final String name;
+    private final PaymentGatewayAdapter delegate;
+    private final ExecutorService executor;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final long timeoutMillis;
+    private final CircuitBreaker circuitBreaker;
+
+    // Métricas
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder declines = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejectedByBulkhead = new LongAdder();
+    private final LongAdder rejectedByCircuit = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    public ResilientPaymentGateway(String name, PaymentGatewayAdapter delegate, ExecutorService executor,
+                                   int maxConcurrentCalls, long timeoutMillis, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.timeoutMillis = timeoutMillis;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public PaymentResult processPayment(Payment payment) {
+        return call(() -> delegate.processPayment(payment));
+    }
+
+    @Override
+    public PaymentResult refund(Payment payment) {
+        return call(() -> delegate.refund(payment));
+    }
+
+    @Override
+    public PaymentResult checkStatus(String transactionId) {
+        return call(() -> delegate.checkStatus(transactionId));
+    }
+
+    @Override
+    public PaymentResult findByRequestId(String requestId) {
+        return call(() -> delegate.findByRequestId(requestId));
+    }
+
+    /**
+     * La operación se rechazó sin llamar a la pasarela: puede reintentarse
+     */
+    public static boolean isNotSent(String errorCode) {
+        return ERROR_CIRCUIT_OPEN.equals(errorCode)
+                || ERROR_BULKHEAD_FULL.equals(errorCode)
+                || ERROR_UNAVAILABLE.equals(errorCode);
+    }
+
+    /**
+     * La llamada empezó pero no se sabe si la pasarela la procesó
+     */
+    public static boolean isOutcomeUnknown(String errorCode) {
+        return ERROR_TIMEOUT.equals(errorCode) || ERROR_OUTCOME_UNKNOWN.equals(errorCode);
+    }
+
+    /**
+     * Métricas de la pasarela
+     */
+    public Map<String, Object> getMetrics() {
+        long completedCalls = successes.sum() + declines.sum() + errors.sum() + timeouts.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("circuitState", circuitBreaker.getState().name());
+        metrics.put("failureRate", Math.round(circuitBreaker.getFailureRate() * 100.0) / 100.0);
+        metrics.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+        metrics.put("maxConcurrentCalls", maxConcurrentCalls);
+        metrics.put("timeoutMs", timeoutMillis);
+        metrics.put("calls", calls.sum());
+        metrics.put("successes", successes.sum());
+        metrics.put("declines", declines.sum());
+        metrics.put("errors", errors.sum());
+        metrics.put("timeouts", timeouts.sum());
+        metrics.put("rejectedByBulkhead", rejectedByBulkhead.sum());
+        metrics.put("rejectedByCircuit", rejectedByCircuit.sum());
+        metrics.put("avgLatencyMs", completedCalls == 0 ? 0 : totalLatencyMillis.sum() / completedCalls);
+        metrics.put("maxLatencyMs", maxLatencyMillis.get());
+        return metrics;
+    }
+
+    private PaymentResult call(Callable<PaymentResult> operation) {
+        calls.increment();
+
+        // El permiso del bulkhead se toma antes que el del circuito para no dejar pruebas HALF_OPEN colgadas
+        if (!bulkhead.tryAcquire()) {
+            rejectedByBulkhead.increment();
+            return PaymentResult.failure("Pasarela " + name + " saturada, intenta de nuevo en unos segundos",
+                    ERROR_BULKHEAD_FULL);
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            rejectedByCircuit.increment();
+            return PaymentResult.failure("Pasarela " + name + " no disponible temporalmente", ERROR_CIRCUIT_OPEN);
+        }
+
+        long start = System.currentTimeMillis();
+        Future<PaymentResult> future;
+        try {
+            // El permiso se libera cuando la llamada termina de verdad, aunque se haya abandonado por timeout
+            future = executor.submit(() -> {
+                try {
+                    return operation.call();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            errors.increment();
+            return PaymentResult.failure("Pasarela " + name + " no disponible", ERROR_UNAVAILABLE);
+        }
+
+        try {
+            PaymentResult result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            if (result.isSuccess() || result.isPending()) {
+                successes.increment();
+            } else {
+                declines.increment();
+            }
+            return result;
+        } catch (TimeoutException e) {
+            // No se cancela: la llamada termina en segundo plano y entonces libera su permiso
+            circuitBreaker.onFailure();
+            timeouts.increment();
+            log.warn("⏱️ Pasarela {} excedió el timeout de {} ms", name, timeoutMillis);
+            return PaymentResult.failure("La pasarela " + name + " no respondió a tiempo", ERROR_TIMEOUT);
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            errors.increment();
+            String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            log.warn("⚠️ Error técnico en la pasarela {}: {}", name, message);
+            return PaymentResult.failure("Error de comunicación con " + name + ": " + message, ERROR_OUTCOME_UNKNOWN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onFailure();
+            errors.increment();
+            return PaymentResult.failure("Llamada a " + name + " interrumpida", ERROR_OUTCOME_UNKNOWN);
+        } finally {
+            recordLatency(System.currentTimeMillis() - start);
+        }
+    }
+
+    private void recordLatency(long latency) {
+        totalLatencyMillis.add(latency);
+        maxLatencyMillis.accumulateAndGet(latency, Math::max);
+    }
+}
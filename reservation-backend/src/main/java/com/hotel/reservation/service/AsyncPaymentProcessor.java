@@ -0,0 +1,140 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.PaymentDTO;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter.PaymentResult;
+import com.hotel.reservation.patterns.structural.adapter.ProcessedRequests;
+import com.hotel.reservation.resilience.ResilientPaymentGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Procesamiento asíncrono de pagos.
+ *
+ * La petición solo registra el pago como PENDING y responde 202; el cobro se ejecuta
+ * en un pool de workers. El resultado final llega de una de estas formas:
+ * - La pasarela responde de inmediato: el worker completa o marca fallido el pago
+ * - La pasarela acepta y notifica después: se guarda su referencia y el pago se
+ *   completa con el callback POST /api/payments/{id}/callback
+ *
+ * Si la pasarela no recibió el pago (circuito abierto, saturada) se reintenta con un retraso
+ * fijo y la misma clave de idempotencia; al agotar los intentos el pago se marca como fallido.
+ * Si el resultado es desconocido (timeout o error durante la llamada) el cobro pudo ocurrir:
+ * antes de reintentar se consulta a la pasarela por la clave, y si tampoco responde el pago
+ * queda PENDING para la reconciliación.
+ */
+@Slf4j
+@Service
+public class AsyncPaymentProcessor {
+
+    private final PaymentService paymentService;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final ScheduledExecutorService workers;
+
+    public AsyncPaymentProcessor(PaymentService paymentService,
+                                 PaymentGatewayRegistry paymentGatewayRegistry,
+                                 @Value("${app.payments.async.worker-threads:4}") int workerThreads,
+                                 @Value("${app.payments.async.max-attempts:3}") int maxAttempts,
+                                 @Value("${app.payments.async.retry-delay-ms:5000}") long retryDelayMillis) {
+        this.paymentService = paymentService;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-worker-");
+        threadFactory.setDaemon(true);
+        this.workers = Executors.newScheduledThreadPool(workerThreads, threadFactory);
+    }
+
+    /**
+     * Registra el pago como PENDING y programa su ejecución.
+     * Se llama fuera de una transacción: el pago ya está confirmado en la base de datos
+     * cuando el worker lo lee.
+     */
+    public PaymentDTO submit(Long reservationId, PaymentMethod paymentMethod) {
+        PaymentDTO pending = paymentService.createPendingPayment(reservationId, paymentMethod);
+        schedule(pending.getId(), 1, 0);
+        log.info("📥 Pago #{} de la reserva #{} aceptado para procesamiento asíncrono",
+                pending.getId(), reservationId);
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void schedule(Long paymentId, int attempt, long delayMillis) {
+        workers.schedule(() -> execute(paymentId, attempt), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void execute(Long paymentId, int attempt) {
+        try {
+            Optional<Payment> pending = paymentService.findPendingPayment(paymentId);
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            Payment payment = pending.get();
+            PaymentGatewayAdapter gateway = paymentGatewayRegistry.forAsyncMethod(payment.getPaymentMethod());
+            PaymentResult result = gateway.processPayment(payment);
+
+            if (ResilientPaymentGateway.isOutcomeUnknown(result.getErrorCode())) {
+                // El cobro pudo ocurrir: se consulta por la clave de idempotencia antes de decidir
+                PaymentResult lookup = gateway.findByRequestId(payment.getGatewayRequestId());
+                if (isUnanswered(lookup)) {
+                    log.warn("⏱️ Pago asíncrono #{} con resultado desconocido, queda pendiente para la reconciliación",
+                            paymentId);
+                    return;
+                }
+                result = lookup;
+            }
+
+            if (result.isSuccess()) {
+                paymentService.completePendingPayment(paymentId, result.getTransactionId());
+                log.info("✅ Pago asíncrono #{} completado", paymentId);
+            } else if (result.isPending()) {
+                paymentService.recordGatewayReference(paymentId, result.getTransactionId());
+                log.info("⏳ Pago asíncrono #{} aceptado por la pasarela, esperando callback", paymentId);
+            } else if (isRetryable(result) && attempt < maxAttempts) {
+                log.warn("⚠️ Pago asíncrono #{} falló por {} (intento {}/{}), reintento en {} ms",
+                        paymentId, result.getErrorCode(), attempt, maxAttempts, retryDelayMillis);
+                schedule(paymentId, attempt + 1, retryDelayMillis);
+            } else {
+                paymentService.failPendingPayment(paymentId);
+                log.warn("❌ Pago asíncrono #{} rechazado: {}", paymentId, result.getMessage());
+            }
+        } catch (Exception e) {
+            // Error propio (p. ej. base de datos): el pago queda PENDING para la reconciliación
+            log.error("❌ Error procesando el pago asíncrono #{}: {}", paymentId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Errores en los que la pasarela no recibió el pago: se reenvía con la misma clave de idempotencia
+     */
+    private boolean isRetryable(PaymentResult result) {
+        return ResilientPaymentGateway.isNotSent(result.getErrorCode())
+                || ProcessedRequests.ERROR_UNKNOWN_REQUEST.equals(result.getErrorCode());
+    }
+
+    /**
+     * La consulta por clave tampoco obtuvo respuesta de la pasarela
+     */
+    private boolean isUnanswered(PaymentResult lookup) {
+        return ResilientPaymentGateway.isNotSent(lookup.getErrorCode())
+                || ResilientPaymentGateway.isOutcomeUnknown(lookup.getErrorCode());
+    }
+}
@@ -0,0 +1,462 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.cache.DataTable;
+import com.hotel.reservation.cache.DataVersions;
+import com.hotel.reservation.dto.BulkRefundRequestDTO;
+import com.hotel.reservation.dto.RefundJobDTO;
+import com.hotel.reservation.events.DomainEventPublisher;
+import com.hotel.reservation.events.DomainEventType;
+import com.hotel.reservation.exception.ResourceNotFoundException;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.models.RefundJob;
+import com.hotel.reservation.models.RefundJobItem;
+import com.hotel.reservation.models.RefundJobItemStatus;
+import com.hotel.reservation.models.RefundJobStatus;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter.PaymentResult;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.RefundJobItemRepository;
+import com.hotel.reservation.repositories.RefundJobRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.resilience.BackoffPolicy;
+import com.hotel.reservation.resilience.RateLimiter;
+import com.hotel.reservation.resilience.ResilientPaymentGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de reembolsos masivos (p. ej. cancelación de un evento).
+ *
+ * Un trabajo recorre los pagos completados que cumplen el filtro en bloques (keyset por ID):
+ * 1. Registra los pagos del bloque como IN_PROGRESS
+ * 2. Reembolsa en paralelo, con un límite de tasa por pasarela y reintentos con backoff
+ *    cuando la pasarela no llegó a procesar la llamada
+ * 3. Confirma en una sola transacción los estados de los pagos, las reservas (opcional),
+ *    los resultados y el cursor del trabajo
+ *
+ * Al reiniciar la aplicación los trabajos en curso se reanudan desde el último bloque
+ * confirmado. Los pagos que quedaron IN_PROGRESS se marcan UNKNOWN (no se reintentan
+ * para no reembolsar dos veces) y se listan para revisión manual.
+ */
+@Slf4j
+@Service
+public class BulkRefundService {
+
+    private final RefundJobRepository refundJobRepository;
+    private final RefundJobItemRepository refundJobItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final ReservationRepository reservationRepository;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final DomainEventPublisher eventPublisher;
+    private final DataVersions dataVersions;
+    private final RevenueRollupService revenueRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final double refundsPerSecond;
+    private final BackoffPolicy backoffPolicy;
+
+    private final ExecutorService jobRunner;
+    private final ExecutorService refundWorkers;
+    private final Map<PaymentGatewayAdapter, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Set<Long> cancelRequested = ConcurrentHashMap.newKeySet();
+
+    public BulkRefundService(RefundJobRepository refundJobRepository,
+                             RefundJobItemRepository refundJobItemRepository,
+                             PaymentRepository paymentRepository,
+                             ReservationRepository reservationRepository,
+                             PaymentGatewayRegistry paymentGatewayRegistry,
+                             DomainEventPublisher eventPublisher,
+                             DataVersions dataVersions,
+                             RevenueRollupService revenueRollupService,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.refunds.chunk-size:100}") int chunkSize,
+                             @Value("${app.refunds.parallelism:8}") int parallelism,
+                             @Value("${app.refunds.max-attempts:3}") int maxAttempts,
+                             @Value("${app.refunds.retry-initial-delay-ms:1000}") long retryInitialDelayMs,
+                             @Value("${app.refunds.per-gateway-per-second:20}") double refundsPerSecond) {
+        this.refundJobRepository = refundJobRepository;
+        this.refundJobItemRepository = refundJobItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.reservationRepository = reservationRepository;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
+        this.revenueRollupService = revenueRollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.refundsPerSecond = refundsPerSecond;
+        this.backoffPolicy = new BackoffPolicy(retryInitialDelayMs, retryInitialDelayMs * 16, 2.0);
+
+        // Un trabajo a la vez; el paralelismo está dentro de cada bloque
+        CustomizableThreadFactory jobFactory = new CustomizableThreadFactory("refund-job-");
+        jobFactory.setDaemon(true);
+        this.jobRunner = Executors.newSingleThreadExecutor(jobFactory);
+
+        CustomizableThreadFactory workerFactory = new CustomizableThreadFactory("refund-worker-");
+        workerFactory.setDaemon(true);
+        this.refundWorkers = Executors.newFixedThreadPool(parallelism, workerFactory);
+    }
+
+    /**
+     * Crea un trabajo de reembolso masivo y lo encola
+     */
+    public RefundJobDTO createJob(BulkRefundRequestDTO request) {
+        if (request.getCheckInFrom() != null && request.getCheckInTo() != null
+                && request.getCheckInFrom().isAfter(request.getCheckInTo())) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+
+        long candidates = paymentRepository.countRefundCandidates(request.getCheckInFrom(),
+                request.getCheckInTo(), request.getPackageId(), request.getRoomType());
+
+        RefundJob job = refundJobRepository.save(RefundJob.builder()
+                .checkInFrom(request.getCheckInFrom())
+                .checkInTo(request.getCheckInTo())
+                .packageId(request.getPackageId())
+                .roomType(request.getRoomType())
+                .cancelReservations(Boolean.TRUE.equals(request.getCancelReservations()))
+                .reason(request.getReason())
+                .totalCandidates(candidates)
+                .build());
+
+        log.info("💸 Reembolso masivo #{} creado: {} pagos candidatos", job.getId(), candidates);
+        jobRunner.execute(() -> runJob(job.getId()));
+        return convertToDTO(job, false);
+    }
+
+    public RefundJobDTO getJob(Long jobId) {
+        RefundJob job = refundJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("RefundJob", "id", jobId));
+        return convertToDTO(job, true);
+    }
+
+    public List<RefundJobDTO> getJobs() {
+        return refundJobRepository.findAllByOrderByIdDesc().stream()
+                .map(job -> convertToDTO(job, false))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Solicita la cancelación; el trabajo se detiene al terminar el bloque en curso
+     */
+    public RefundJobDTO cancelJob(Long jobId) {
+        RefundJob job = refundJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("RefundJob", "id", jobId));
+        if (job.getStatus() != RefundJobStatus.PENDING && job.getStatus() != RefundJobStatus.RUNNING) {
+            throw new IllegalStateException("El reembolso masivo #" + jobId + " ya está " + job.getStatus());
+        }
+        cancelRequested.add(jobId);
+        return convertToDTO(job, false);
+    }
+
+    /**
+     * Reanuda los trabajos interrumpidos por un reinicio
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        List<RefundJob> jobs = refundJobRepository.findByStatusInOrderByIdAsc(
+                List.of(RefundJobStatus.PENDING, RefundJobStatus.RUNNING));
+        for (RefundJob job : jobs) {
+            log.info("🔁 Reanudando reembolso masivo #{} desde el pago #{}", job.getId(), job.getLastPaymentId());
+            jobRunner.execute(() -> runJob(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        refundWorkers.shutdownNow();
+    }
+
+    private void runJob(Long jobId) {
+        RefundJob job = refundJobRepository.findById(jobId).orElse(null);
+        if (job == null || (job.getStatus() != RefundJobStatus.PENDING && job.getStatus() != RefundJobStatus.RUNNING)) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                RefundJob current = refundJobRepository.findById(jobId).orElseThrow();
+                current.setStatus(RefundJobStatus.RUNNING);
+                if (current.getStartedAt() == null) {
+                    current.setStartedAt(LocalDateTime.now());
+                }
+                recoverInterruptedItems(current);
+            });
+
+            while (true) {
+                if (cancelRequested.remove(jobId)) {
+                    finishJob(jobId, RefundJobStatus.CANCELLED, null);
+                    log.info("🛑 Reembolso masivo #{} cancelado", jobId);
+                    return;
+                }
+
+                RefundJob current = refundJobRepository.findById(jobId).orElseThrow();
+                List<Payment> chunk = paymentRepository.findRefundCandidates(current.getLastPaymentId(),
+                        current.getCheckInFrom(), current.getCheckInTo(), current.getPackageId(),
+                        current.getRoomType(), PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                registerInProgress(jobId, chunk);
+                Map<Long, RefundOutcome> outcomes = refundChunk(chunk);
+                commitChunk(jobId, chunk, outcomes, current.getCancelReservations());
+            }
+
+            finishJob(jobId, RefundJobStatus.COMPLETED, null);
+            RefundJob finished = refundJobRepository.findById(jobId).orElseThrow();
+            log.info("✅ Reembolso masivo #{} terminado: {} reembolsados, {} fallidos, {} por verificar",
+                    jobId, finished.getRefunded(), finished.getFailed(), finished.getUnknown());
+        } catch (InterruptedException e) {
+            // Apagado de la aplicación: el trabajo queda RUNNING y se reanuda al iniciar
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Reembolso masivo #{} detenido: {}", jobId, e.getMessage(), e);
+            finishJob(jobId, RefundJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Los pagos que quedaron IN_PROGRESS por un reinicio pasan a UNKNOWN y el cursor avanza tras ellos
+     */
+    private void recoverInterruptedItems(RefundJob job) {
+        List<RefundJobItem> interrupted = refundJobItemRepository
+                .findByJobIdAndStatusOrderByPaymentIdAsc(job.getId(), RefundJobItemStatus.IN_PROGRESS);
+        if (interrupted.isEmpty()) {
+            return;
+        }
+
+        for (RefundJobItem item : interrupted) {
+            item.setStatus(RefundJobItemStatus.UNKNOWN);
+            item.setError("Interrumpido por un reinicio antes de confirmar el resultado");
+        }
+        refundJobItemRepository.saveAll(interrupted);
+
+        long lastPaymentId = interrupted.get(interrupted.size() - 1).getPaymentId();
+        job.setLastPaymentId(Math.max(job.getLastPaymentId(), lastPaymentId));
+        job.setProcessed(job.getProcessed() + interrupted.size());
+        job.setUnknown(job.getUnknown() + interrupted.size());
+        log.warn("⚠️ Reembolso masivo #{}: {} pagos interrumpidos requieren verificación manual",
+                job.getId(), interrupted.size());
+    }
+
+    private void registerInProgress(Long jobId, List<Payment> chunk) {
+        List<RefundJobItem> items = chunk.stream()
+                .map(payment -> RefundJobItem.builder()
+                        .jobId(jobId)
+                        .paymentId(payment.getId())
+                        .status(RefundJobItemStatus.IN_PROGRESS)
+                        .build())
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> refundJobItemRepository.saveAll(items));
+    }
+
+    /**
+     * Reembolsa un bloque en paralelo
+     */
+    private Map<Long, RefundOutcome> refundChunk(List<Payment> chunk) throws InterruptedException {
+        List<Callable<RefundOutcome>> tasks = chunk.stream()
+                .map(payment -> (Callable<RefundOutcome>) () -> refundWithRetries(payment))
+                .toList();
+
+        Map<Long, RefundOutcome> outcomes = new HashMap<>();
+        List<Future<RefundOutcome>> futures = refundWorkers.invokeAll(tasks);
+        for (int i = 0; i < futures.size(); i++) {
+            Long paymentId = chunk.get(i).getId();
+            try {
+                outcomes.put(paymentId, futures.get(i).get());
+            } catch (ExecutionException e) {
+                outcomes.put(paymentId, new RefundOutcome(RefundJobItemStatus.UNKNOWN, 1,
+                        "Error inesperado: " + e.getCause().getMessage()));
+            }
+        }
+        return outcomes;
+    }
+
+    private RefundOutcome refundWithRetries(Payment payment) throws InterruptedException {
+        PaymentGatewayAdapter gateway = paymentGatewayRegistry.forTransaction(
+                payment.getPaymentMethod(), payment.getTransactionId());
+        RateLimiter rateLimiter = rateLimiters.computeIfAbsent(gateway, g -> new RateLimiter(refundsPerSecond));
+
+        String lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            rateLimiter.acquire();
+            PaymentResult result = gateway.refund(payment);
+
+            if (result.isSuccess()) {
+                return new RefundOutcome(RefundJobItemStatus.REFUNDED, attempt, null);
+            }
+            if (ResilientPaymentGateway.isOutcomeUnknown(result.getErrorCode())) {
+                // El reembolso pudo ocurrir (timeout o error durante la llamada): no se reintenta
+                return new RefundOutcome(RefundJobItemStatus.UNKNOWN, attempt, result.getMessage());
+            }
+            if (!isRetryable(result)) {
+                return new RefundOutcome(RefundJobItemStatus.FAILED, attempt, result.getMessage());
+            }
+
+            lastError = result.getMessage();
+            if (attempt < maxAttempts) {
+                Thread.sleep(backoffPolicy.delayFor(attempt));
+            }
+        }
+        return new RefundOutcome(RefundJobItemStatus.FAILED, maxAttempts, lastError);
+    }
+
+    /**
+     * Confirma en una transacción los resultados del bloque y avanza el cursor
+     */
+    private void commitChunk(Long jobId, List<Payment> chunk, Map<Long, RefundOutcome> outcomes,
+                             boolean cancelReservations) {
+        List<Long> refundedIds = outcomes.entrySet().stream()
+                .filter(entry -> entry.getValue().status() == RefundJobItemStatus.REFUNDED)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        // Estado previo de cada reserva, para el evento de cancelación
+        Map<Long, ReservationStatus> previousStatuses = new HashMap<>();
+        chunk.forEach(payment -> previousStatuses.put(payment.getId(), payment.getReservation().getStatus()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!refundedIds.isEmpty()) {
+                paymentRepository.updateStatusByIdIn(refundedIds, PaymentStatus.REFUNDED, LocalDateTime.now());
+                dataVersions.changed(DataTable.PAYMENTS);
+                revenueRollupService.applyRefunded(refundedIds);
+                if (cancelReservations) {
+                    reservationRepository.updateStatusByPaymentIdIn(refundedIds, ReservationStatus.CANCELLED,
+                            LocalDateTime.now());
+                    dataVersions.changed(DataTable.RESERVATIONS);
+                }
+            }
+
+            // Se cargan después de las sentencias masivas, que limpian el contexto de persistencia
+            List<RefundJobItem> items = refundJobItemRepository.findByJobIdAndPaymentIdIn(jobId,
+                    chunk.stream().map(Payment::getId).toList());
+            for (RefundJobItem item : items) {
+                RefundOutcome outcome = outcomes.get(item.getPaymentId());
+                item.setStatus(outcome.status());
+                item.setAttempts(outcome.attempts());
+                item.setError(truncate(outcome.error()));
+            }
+            refundJobItemRepository.saveAll(items);
+
+            RefundJob job = refundJobRepository.findById(jobId).orElseThrow();
+            job.setLastPaymentId(chunk.get(chunk.size() - 1).getId());
+            job.setProcessed(job.getProcessed() + chunk.size());
+            job.setRefunded(job.getRefunded() + refundedIds.size());
+            job.setFailed(job.getFailed() + count(outcomes, RefundJobItemStatus.FAILED));
+            job.setUnknown(job.getUnknown() + count(outcomes, RefundJobItemStatus.UNKNOWN));
+            refundJobRepository.save(job);
+
+            // Eventos después del commit (las entidades del bloque están desasociadas)
+            for (Payment payment : chunk) {
+                if (outcomes.get(payment.getId()).status() != RefundJobItemStatus.REFUNDED) {
+                    continue;
+                }
+                payment.setPaymentStatus(PaymentStatus.REFUNDED);
+                eventPublisher.publishPaymentEvent(DomainEventType.PAYMENT_REFUNDED, payment);
+
+                if (cancelReservations) {
+                    Reservation reservation = payment.getReservation();
+                    reservation.setStatus(ReservationStatus.CANCELLED);
+                    eventPublisher.publishReservationEvent(DomainEventType.RESERVATION_CANCELLED, reservation,
+                            previousStatuses.get(payment.getId()));
+                }
+            }
+        });
+    }
+
+    private void finishJob(Long jobId, RefundJobStatus finalStatus, String error) {
+        transactionTemplate.executeWithoutResult(status -> refundJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(finalStatus);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setLastError(truncate(error));
+        }));
+    }
+
+    /**
+     * Errores en los que la pasarela no llegó a recibir el reembolso
+     */
+    private boolean isRetryable(PaymentResult result) {
+        return ResilientPaymentGateway.isNotSent(result.getErrorCode());
+    }
+
+    private long count(Map<Long, RefundOutcome> outcomes, RefundJobItemStatus status) {
+        return outcomes.values().stream().filter(outcome -> outcome.status() == status).count();
+    }
+
+    private String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private RefundJobDTO convertToDTO(RefundJob job, boolean withDetails) {
+        double progress = job.getTotalCandidates() == 0
+                ? (job.getStatus() == RefundJobStatus.COMPLETED ? 100.0 : 0.0)
+                : Math.min(100.0, Math.round(job.getProcessed() * 10000.0 / job.getTotalCandidates()) / 100.0);
+
+        RefundJobDTO.RefundJobDTOBuilder builder = RefundJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .checkInFrom(job.getCheckInFrom())
+                .checkInTo(job.getCheckInTo())
+                .packageId(job.getPackageId())
+                .roomType(job.getRoomType())
+                .cancelReservations(job.getCancelReservations())
+                .reason(job.getReason())
+                .totalCandidates(job.getTotalCandidates())
+                .processed(job.getProcessed())
+                .refunded(job.getRefunded())
+                .failed(job.getFailed())
+                .unknown(job.getUnknown())
+                .progressPercent(progress)
+                .lastPaymentId(job.getLastPaymentId())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt());
+
+        if (withDetails) {
+            builder.failedPaymentIds(paymentIds(job.getId(), RefundJobItemStatus.FAILED));
+            builder.unknownPaymentIds(paymentIds(job.getId(), RefundJobItemStatus.UNKNOWN));
+        }
+        return builder.build();
+    }
+
+    private List<Long> paymentIds(Long jobId, RefundJobItemStatus status) {
+        return refundJobItemRepository.findByJobIdAndStatusOrderByPaymentIdAsc(jobId, status).stream()
+                .map(RefundJobItem::getPaymentId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resultado del reembolso de un pago
+     */
+    private record RefundOutcome(RefundJobItemStatus status, int attempts, String error) {
+    }
+}
@@ -0,0 +1,418 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ChangeFeedPageDTO;
+import com.hotel.reservation.dto.ChangeLogEntryDTO;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.DomainEventType;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.models.ChangeEntityType;
+import com.hotel.reservation.models.ChangeLogEntry;
+import com.hotel.reservation.models.ChangeOperation;
+import com.hotel.reservation.models.PendingChange;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.repositories.ChangeLogRepository;
+import com.hotel.reservation.repositories.PendingChangeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed de cambios (GET /api/changes): reservas, habitaciones, clientes y pagos que cambiaron
+ * después de un cursor, para que el channel manager y BI lean solo los deltas en lugar de
+ * volver a descargar las tablas completas.
+ *
+ * - Outbox: DomainEventPublisher llama a record dentro de la transacción que modifica la
+ *   entidad, así que la fila en pending_changes se confirma o se revierte junto con el cambio.
+ * - Relay: un solo hilo mueve los pendientes confirmados a change_log por lotes de max-batch;
+ *   en la misma transacción inserta el lote (el ID de la secuencia es el cursor) y borra sus
+ *   pendientes. Como es el único que escribe change_log, el cursor crece en el orden en que los
+ *   cambios quedan visibles y un consumidor nunca se salta uno. Corre al llegar eventos del bus
+ *   y cada relay-interval-ms; si un lote falla, sus pendientes siguen en la tabla y se reintentan.
+ * - Long polling: si no hay cambios después del cursor, la petición queda en espera (sin
+ *   ocupar un hilo del servidor) hasta que se confirme el siguiente lote o pase wait-ms.
+ * - Retención: los cambios más viejos que retention-days se eliminan; un cursor anterior a
+ *   ellos recibe resyncRequired y debe volver a exportar todo.
+ *
+ * Cada cambio trae solo la entidad y la operación: el consumidor vuelve a leer la entidad
+ * (si ya no existe, la trata como eliminada).
+ */
+@Slf4j
+@Service
+public class ChangeFeed implements EventSubscriber {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final PendingChangeRepository pendingChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService relay;
+    private final ExecutorService notifier;
+    private final int maxBatch;
+    private final int maxLimit;
+    private final long maxWaitMillis;
+    private final int maxWaiters;
+    private final int retentionDays;
+
+    // Hay una pasada del relay encolada que todavía no empezó
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    // Consultas en espera de cambios posteriores a su cursor
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    // Último cursor confirmado y último cursor eliminado por retención
+    private final AtomicLong lastCursor = new AtomicLong();
+    private final AtomicLong purgedUpTo = new AtomicLong();
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong relayFailures = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+
+    public ChangeFeed(ChangeLogRepository changeLogRepository,
+                      PendingChangeRepository pendingChangeRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${app.changes.max-batch:1000}") int maxBatch,
+                      @Value("${app.changes.max-limit:1000}") int maxLimit,
+                      @Value("${app.changes.max-wait-ms:30000}") long maxWaitMillis,
+                      @Value("${app.changes.max-waiters:500}") int maxWaiters,
+                      @Value("${app.changes.retention-days:30}") int retentionDays) {
+        this.changeLogRepository = changeLogRepository;
+        this.pendingChangeRepository = pendingChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxBatch = maxBatch;
+        this.maxLimit = maxLimit;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxWaiters = maxWaiters;
+        this.retentionDays = retentionDays;
+
+        CustomizableThreadFactory relayFactory = new CustomizableThreadFactory("change-feed-relay-");
+        relayFactory.setDaemon(true);
+        this.relay = Executors.newSingleThreadExecutor(relayFactory);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-feed-");
+        threadFactory.setDaemon(true);
+        this.notifier = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @Override
+    public String getName() {
+        return "change-feed";
+    }
+
+    /**
+     * Los eventos llegan después del commit: solo avisan al relay que hay pendientes nuevos
+     */
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        if (endOfBatch) {
+            requestRelay();
+        }
+    }
+
+    /**
+     * Registra los cambios de un evento en pending_changes (se une a la transacción del llamador)
+     * @param reservationId reserva del evento; en los pagos, la reserva también cambió si previousStatus != status
+     */
+    public void record(DomainEventType type, Long reservationId, Long paymentId, Long customerId, Long roomId,
+                       ReservationStatus previousStatus, ReservationStatus status) {
+        List<PendingChange> changes = new ArrayList<>(2);
+        switch (type) {
+            case RESERVATION_CREATED, RESERVATION_CONFIRMED, RESERVATION_UPDATED, RESERVATION_CANCELLED,
+                 RESERVATION_DELETED -> add(changes, type, ChangeEntityType.RESERVATION, reservationId, null);
+            case PAYMENT_CREATED, PAYMENT_COMPLETED, PAYMENT_REFUNDED -> {
+                add(changes, type, ChangeEntityType.PAYMENT, paymentId, reservationId);
+                // El pago también cambió la reserva si cambió su estado (p. ej. PENDING -> CONFIRMED)
+                if (previousStatus != null && previousStatus != status) {
+                    add(changes, type, ChangeEntityType.RESERVATION, reservationId, null);
+                }
+            }
+            case CUSTOMER_CREATED, CUSTOMER_UPDATED, CUSTOMER_DELETED ->
+                    add(changes, type, ChangeEntityType.CUSTOMER, customerId, null);
+            case ROOM_CREATED, ROOM_UPDATED, ROOM_DELETED ->
+                    add(changes, type, ChangeEntityType.ROOM, roomId, null);
+            default -> { }
+        }
+        if (!changes.isEmpty()) {
+            pendingChangeRepository.saveAll(changes);
+        }
+    }
+
+    /**
+     * Toma el último cursor y el último eliminado por retención al iniciar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCursors() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Long max = changeLogRepository.findMaxId();
+            Long min = changeLogRepository.findMinId();
+            if (max != null) {
+                lastCursor.accumulateAndGet(max, Math::max);
+            }
+            if (min != null) {
+                purgedUpTo.accumulateAndGet(min - 1, Math::max);
+            }
+        });
+        log.info("🔁 Feed de cambios listo en el cursor {}", lastCursor.get());
+        // Pendientes que quedaron sin mover antes de detenerse
+        requestRelay();
+    }
+
+    /**
+     * Pasada periódica del relay: reintenta los lotes que fallaron y mueve los pendientes
+     * cuyo evento no llegó al bus (p. ej. si la aplicación se detuvo justo después del commit)
+     */
+    @Scheduled(fixedDelayString = "${app.changes.relay-interval-ms:1000}",
+               initialDelayString = "${app.changes.relay-interval-ms:1000}")
+    public void scheduledRelay() {
+        requestRelay();
+    }
+
+    /**
+     * Cambios posteriores al cursor; si no hay, espera hasta waitMillis a que llegue alguno
+     * @param since último cursor procesado por el consumidor (0 para empezar)
+     * @param waitMillis espera máxima (0 para responder de inmediato)
+     */
+    public DeferredResult<ChangeFeedPageDTO> poll(long since, int limit, long waitMillis) {
+        if (since < 0 || limit <= 0 || waitMillis < 0) {
+            throw new IllegalArgumentException("since y waitMs deben ser >= 0 y limit mayor a 0");
+        }
+        int pageSize = Math.min(limit, maxLimit);
+        long wait = Math.min(waitMillis, maxWaitMillis);
+
+        if (wait == 0 || lastCursor.get() > since || since < purgedUpTo.get()) {
+            DeferredResult<ChangeFeedPageDTO> result = new DeferredResult<>();
+            result.setResult(read(since, pageSize));
+            return result;
+        }
+        if (waiters.size() >= maxWaiters) {
+            throw new IllegalStateException("Hay demasiados consumidores esperando cambios, intenta de nuevo");
+        }
+
+        // Al vencer la espera se responde una página vacía con el mismo cursor
+        DeferredResult<ChangeFeedPageDTO> result = new DeferredResult<>(wait, emptyPage(since));
+        Waiter waiter = new Waiter(since, pageSize, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+
+        // Un lote confirmado entre la primera lectura del cursor y el alta no lo despertaría
+        if (lastCursor.get() > since && waiters.remove(waiter)) {
+            notifier.execute(() -> answer(waiter));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long commitCount = commits.get();
+        metrics.put("lastCursor", lastCursor.get());
+        metrics.put("purgedUpTo", purgedUpTo.get());
+        metrics.put("appended", appended.get());
+        metrics.put("commits", commitCount);
+        metrics.put("averageBatch", commitCount == 0 ? 0 : appended.get() / commitCount);
+        metrics.put("relayFailures", relayFailures.get());
+        metrics.put("purged", purged.get());
+        metrics.put("waiting", waiters.size());
+        return metrics;
+    }
+
+    /**
+     * Elimina los cambios más viejos que retention-days
+     */
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.changes.cleanup-interval-ms:3600000}")
+    public void expireChanges() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> {
+            Long upTo = changeLogRepository.findMaxIdChangedBefore(before);
+            if (upTo == null) {
+                return 0;
+            }
+            // Se marca antes de borrar: un consumidor con un cursor anterior ya no verá esos cambios
+            purgedUpTo.accumulateAndGet(upTo, Math::max);
+            return changeLogRepository.deleteUpTo(upTo);
+        });
+        if (deleted != null && deleted > 0) {
+            purged.addAndGet(deleted);
+            log.info("🧹 Feed de cambios: {} cambios eliminados (hasta el cursor {})", deleted, purgedUpTo.get());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    private static void add(List<PendingChange> changes, DomainEventType type, ChangeEntityType entityType,
+                            Long entityId, Long reservationId) {
+        if (entityId == null) {
+            return;
+        }
+        changes.add(PendingChange.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .operation(type.name().endsWith("_DELETED") ? ChangeOperation.DELETE : ChangeOperation.UPSERT)
+                .eventType(type)
+                .reservationId(reservationId)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Encola una pasada del relay si no hay otra esperando (las que llegan mientras corre encolan la siguiente)
+     */
+    private void requestRelay() {
+        if (!relayRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            relay.execute(this::relayPending);
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está deteniendo: los pendientes se mueven al volver a iniciar
+            relayRequested.set(false);
+        }
+    }
+
+    /**
+     * Mueve los pendientes a change_log hasta vaciar la tabla; solo corre en el hilo del relay
+     */
+    private void relayPending() {
+        relayRequested.set(false);
+        try {
+            // Con el lote lleno puede haber más pendientes
+            int moved;
+            do {
+                moved = relayBatch();
+            } while (moved == maxBatch);
+        } catch (Exception e) {
+            // Los pendientes del lote siguen en la tabla: la siguiente pasada los reintenta
+            relayFailures.incrementAndGet();
+            log.error("❌ Error al mover cambios pendientes al feed, se reintentará: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserta en change_log un lote de pendientes y los borra, en una sola transacción
+     * @return cantidad de cambios movidos
+     */
+    private int relayBatch() {
+        List<ChangeLogEntry> batch = transactionTemplate.execute(status -> {
+            List<PendingChange> changes = pendingChangeRepository.findOldest(PageRequest.of(0, maxBatch));
+            if (changes.isEmpty()) {
+                return List.of();
+            }
+            List<ChangeLogEntry> entries = changes.stream().map(ChangeFeed::toEntry).toList();
+            changeLogRepository.saveAll(entries);
+            pendingChangeRepository.deleteByIdIn(changes.stream().map(PendingChange::getId).toList());
+            return entries;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        appended.addAndGet(batch.size());
+        commits.incrementAndGet();
+        lastCursor.accumulateAndGet(batch.get(batch.size() - 1).getId(), Math::max);
+
+        if (!waiters.isEmpty()) {
+            notifier.execute(this::wakeWaiters);
+        }
+        return batch.size();
+    }
+
+    private static ChangeLogEntry toEntry(PendingChange change) {
+        return ChangeLogEntry.builder()
+                .entityType(change.getEntityType())
+                .entityId(change.getEntityId())
+                .operation(change.getOperation())
+                .eventType(change.getEventType())
+                .reservationId(change.getReservationId())
+                .changedAt(change.getChangedAt())
+                .build();
+    }
+
+    private void wakeWaiters() {
+        long cursor = lastCursor.get();
+        for (Waiter waiter : waiters) {
+            if (cursor > waiter.since() && waiters.remove(waiter)) {
+                answer(waiter);
+            }
+        }
+    }
+
+    private void answer(Waiter waiter) {
+        try {
+            waiter.result().setResult(read(waiter.since(), waiter.limit()));
+        } catch (Exception e) {
+            waiter.result().setErrorResult(e);
+        }
+    }
+
+    private ChangeFeedPageDTO read(long since, int limit) {
+        if (since < purgedUpTo.get()) {
+            return ChangeFeedPageDTO.builder()
+                    .changes(List.of())
+                    .nextCursor(since)
+                    .resyncRequired(true)
+                    .build();
+        }
+        // Se pide uno más para saber si quedan cambios sin esperar
+        List<ChangeLogEntry> entries = readOnlyTransaction.execute(status ->
+                changeLogRepository.findAfter(since, PageRequest.of(0, limit + 1)));
+        if (entries == null || entries.isEmpty()) {
+            return emptyPage(since);
+        }
+        boolean hasMore = entries.size() > limit;
+        List<ChangeLogEntryDTO> changes = entries.stream().limit(limit).map(this::toDTO).toList();
+        return ChangeFeedPageDTO.builder()
+                .changes(changes)
+                .nextCursor(changes.get(changes.size() - 1).getCursor())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static ChangeFeedPageDTO emptyPage(long since) {
+        return ChangeFeedPageDTO.builder()
+                .changes(List.of())
+                .nextCursor(since)
+                .build();
+    }
+
+    private ChangeLogEntryDTO toDTO(ChangeLogEntry entry) {
+        return ChangeLogEntryDTO.builder()
+                .cursor(entry.getId())
+                .entityType(entry.getEntityType())
+                .entityId(entry.getEntityId())
+                .operation(entry.getOperation())
+                .eventType(entry.getEventType())
+                .reservationId(entry.getReservationId())
+                .changedAt(entry.getChangedAt())
+                .build();
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<ChangeFeedPageDTO> result) {
+    }
+}
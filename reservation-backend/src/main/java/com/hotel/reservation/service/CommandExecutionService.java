@@ -0,0 +1,487 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.CommandLogDTO;
+import com.hotel.reservation.dto.ReservationDTO;
+import com.hotel.reservation.models.CommandLogEntry;
+import com.hotel.reservation.models.CommandState;
+import com.hotel.reservation.models.CommandType;
+import com.hotel.reservation.patterns.behavioral.command.CancelReservationCommand;
+import com.hotel.reservation.patterns.behavioral.command.CreateReservationCommand;
+import com.hotel.reservation.repositories.CommandLogRepository;
+import com.hotel.reservation.repositories.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Invocador de comandos por actor (Command Pattern)
+ *
+ * Cada actor (p. ej. un recepcionista, header X-Actor) tiene su propio log de comandos en la
+ * tabla command_log, así el undo de uno nunca deshace el comando de otro y el log sobrevive
+ * reinicios. Los comandos de un mismo actor se ejecutan en orden, uno a la vez, en una cola
+ * propia que drena el pool compartido; actores distintos corren en paralelo.
+ *
+ * Las sesiones (cola y últimos comandos en memoria) viven en un mapa concurrente acotado a
+ * max-actors: se crean bajo un lock que verifica el límite, descartando las ociosas más antiguas
+ * o rechazando al actor nuevo si todas están ocupadas. Las que pasan idle-timeout sin actividad
+ * se descartan y se recrean desde la tabla cuando el actor vuelve.
+ *
+ * Si el resultado no llega en timeout-ms, la tarea se cancela solo si todavía no empezó (se
+ * informa que el comando no se ejecutó); si ya empezó, se espera a que su transacción termine
+ * (la transacción tiene el mismo plazo), así la respuesta nunca contradice lo que quedó guardado.
+ *
+ * Los comandos pasan por ReservationService (eventos, diario de reservas e historial de undo).
+ * Deshacer una creación elimina la reserva y publica RESERVATION_DELETED; si ya tiene un pago
+ * se rechaza (el pago la referencia) y el actor debe cancelarla.
+ */
+@Slf4j
+@Service
+public class CommandExecutionService {
+
+    private static final int MAX_ACTOR_LENGTH = 100;
+
+    private final CommandLogRepository commandLogRepository;
+    private final PaymentRepository paymentRepository;
+    private final ReservationService reservationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int maxActors;
+    private final long idleTimeoutMillis;
+    private final int logSize;
+    private final long timeoutMillis;
+
+    private final Map<String, ActorSession> sessions = new ConcurrentHashMap<>();
+
+    // Crea las sesiones: el límite de max-actors se verifica y se cumple bajo este lock
+    private final Object sessionsLock = new Object();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong undone = new AtomicLong();
+    private final AtomicLong redone = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejectedActors = new AtomicLong();
+
+    public CommandExecutionService(CommandLogRepository commandLogRepository,
+                                   PaymentRepository paymentRepository,
+                                   ReservationService reservationService,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.commands.worker-threads:4}") int workerThreads,
+                                   @Value("${app.commands.max-actors:1000}") int maxActors,
+                                   @Value("${app.commands.idle-timeout-ms:1800000}") long idleTimeoutMillis,
+                                   @Value("${app.commands.log-size:50}") int logSize,
+                                   @Value("${app.commands.timeout-ms:30000}") long timeoutMillis) {
+        this.commandLogRepository = commandLogRepository;
+        this.paymentRepository = paymentRepository;
+        this.reservationService = reservationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Un comando que ya empezó termina (o se revierte) dentro del plazo de la espera
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+        this.maxActors = maxActors;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.logSize = logSize;
+        this.timeoutMillis = timeoutMillis;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("commands-");
+        threadFactory.setDaemon(true);
+        this.workers = Executors.newFixedThreadPool(workerThreads, threadFactory);
+    }
+
+    /**
+     * Crea una reserva con CreateReservationCommand
+     */
+    public CommandLogDTO createReservation(String actor, ReservationDTO dto) {
+        return run(actor, () -> {
+            CreateReservationCommand command = new CreateReservationCommand(reservationService, dto);
+            command.execute();
+
+            CommandLogEntry entry = CommandLogEntry.builder()
+                    .actor(actor)
+                    .commandType(CommandType.CREATE_RESERVATION)
+                    .reservationId(command.getSavedId())
+                    .payload(toJson(dto))
+                    .state(CommandState.EXECUTED)
+                    .description(command.getDescription())
+                    .build();
+            return recordExecuted(actor, entry);
+        });
+    }
+
+    /**
+     * Cancela una reserva con CancelReservationCommand
+     */
+    public CommandLogDTO cancelReservation(String actor, Long reservationId) {
+        return run(actor, () -> {
+            CancelReservationCommand command = new CancelReservationCommand(reservationService, reservationId);
+            command.execute();
+
+            CommandLogEntry entry = CommandLogEntry.builder()
+                    .actor(actor)
+                    .commandType(CommandType.CANCEL_RESERVATION)
+                    .reservationId(reservationId)
+                    .previousStatus(command.getPreviousStatus())
+                    .state(CommandState.EXECUTED)
+                    .description(command.getDescription())
+                    .build();
+            return recordExecuted(actor, entry);
+        });
+    }
+
+    /**
+     * Deshace el último comando ejecutado por el actor
+     */
+    public CommandLogDTO undo(String actor) {
+        return run(actor, () -> {
+            CommandLogEntry entry = commandLogRepository
+                    .findFirstByActorAndStateOrderByIdDesc(actor, CommandState.EXECUTED)
+                    .orElseThrow(() -> new IllegalStateException("No hay comandos para deshacer del actor " + actor));
+
+            if (entry.getCommandType() == CommandType.CREATE_RESERVATION) {
+                Long reservationId = entry.getReservationId();
+                if (paymentRepository.existsByReservationId(reservationId)) {
+                    throw new IllegalStateException("La reserva #" + reservationId
+                            + " ya tiene un pago: cancélala en lugar de deshacer su creación");
+                }
+                new CreateReservationCommand(reservationService, reservationId).undo();
+            } else {
+                new CancelReservationCommand(reservationService, entry.getReservationId(),
+                        entry.getPreviousStatus()).undo();
+            }
+
+            entry.setState(CommandState.UNDONE);
+            CommandLogDTO result = toDTO(commandLogRepository.save(entry));
+            undone.incrementAndGet();
+            log.info("⬅️ Deshacer ({}): {}", actor, entry.getDescription());
+            return result;
+        });
+    }
+
+    /**
+     * Vuelve a ejecutar el último comando deshecho por el actor
+     */
+    public CommandLogDTO redo(String actor) {
+        return run(actor, () -> {
+            CommandLogEntry entry = commandLogRepository
+                    .findFirstByActorAndStateOrderByIdAsc(actor, CommandState.UNDONE)
+                    .orElseThrow(() -> new IllegalStateException("No hay comandos para rehacer del actor " + actor));
+
+            if (entry.getCommandType() == CommandType.CREATE_RESERVATION) {
+                // Se arma de nuevo desde los datos originales: la reserva recibe un ID nuevo
+                CreateReservationCommand command = new CreateReservationCommand(reservationService,
+                        fromJson(entry.getPayload()));
+                command.execute();
+                entry.setReservationId(command.getSavedId());
+            } else {
+                CancelReservationCommand command = new CancelReservationCommand(reservationService, entry.getReservationId());
+                command.execute();
+                entry.setPreviousStatus(command.getPreviousStatus());
+            }
+
+            entry.setState(CommandState.EXECUTED);
+            CommandLogDTO result = toDTO(commandLogRepository.save(entry));
+            redone.incrementAndGet();
+            log.info("➡️ Rehacer ({}): {}", actor, entry.getDescription());
+            return result;
+        });
+    }
+
+    /**
+     * Comandos recientes del actor, del más nuevo al más viejo
+     */
+    public List<CommandLogDTO> getLog(String actor) {
+        validateActor(actor);
+        ActorSession session = sessions.get(actor);
+        if (session != null) {
+            return session.recent();
+        }
+        return commandLogRepository.findByActorOrderByIdDesc(actor, PageRequest.of(0, logSize)).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeActors", sessions.size());
+        metrics.put("maxActors", maxActors);
+        metrics.put("executed", executed.get());
+        metrics.put("undone", undone.get());
+        metrics.put("redone", redone.get());
+        metrics.put("evictedSessions", evicted.get());
+        metrics.put("rejectedActors", rejectedActors.get());
+        metrics.put("timedOut", timedOut.get());
+        return metrics;
+    }
+
+    /**
+     * Descarta las sesiones sin actividad (su log sigue en la tabla)
+     */
+    @Scheduled(fixedDelayString = "${app.commands.idle-sweep-ms:60000}")
+    public void evictIdleSessions() {
+        evictIdle(System.currentTimeMillis() - idleTimeoutMillis, Integer.MAX_VALUE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Encola el comando en la sesión del actor y espera su resultado
+     */
+    private CommandLogDTO run(String actor, Supplier<CommandLogDTO> action) {
+        validateActor(actor);
+        CompletableFuture<CommandLogDTO> result = new CompletableFuture<>();
+        // Lo toma primero la tarea al empezar o la espera al vencer el plazo (cancelación)
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                // Cancelada por timeout antes de empezar: no se ejecuta
+                return;
+            }
+            try {
+                result.complete(transactionTemplate.execute(status -> action.get()));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        // Una sesión recién descartada rechaza la tarea: se toma (o crea) la vigente
+        while (!sessionFor(actor).submit(task)) {
+            Thread.onSpinWait();
+        }
+
+        try {
+            try {
+                return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timedOut.incrementAndGet();
+                if (claimed.compareAndSet(false, true)) {
+                    // La tarea no empezó y ya no lo hará
+                    throw new IllegalStateException("El comando no se ejecutó: la cola del actor " + actor
+                            + " sigue ocupada, intenta de nuevo");
+                }
+                // Ya empezó: su resultado es el que quedó guardado (la transacción tiene el mismo plazo)
+                return result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error al ejecutar el comando", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del comando interrumpida");
+        }
+    }
+
+    private ActorSession sessionFor(String actor) {
+        ActorSession session = sessions.get(actor);
+        if (session != null) {
+            return session;
+        }
+        // El log se lee fuera del lock; si otro hilo crea la sesión primero, se descarta
+        List<CommandLogDTO> recent = commandLogRepository.findByActorOrderByIdDesc(actor, PageRequest.of(0, logSize))
+                .stream()
+                .map(this::toDTO)
+                .toList();
+        synchronized (sessionsLock) {
+            session = sessions.get(actor);
+            if (session != null) {
+                return session;
+            }
+            if (sessions.size() >= maxActors) {
+                // Se libera lugar con las sesiones ociosas más antiguas
+                evictIdle(Long.MAX_VALUE, sessions.size() - maxActors + 1);
+                if (sessions.size() >= maxActors) {
+                    rejectedActors.incrementAndGet();
+                    throw new IllegalStateException("Hay " + maxActors
+                            + " actores con comandos en curso, intenta de nuevo más tarde");
+                }
+            }
+            session = new ActorSession(actor, recent);
+            sessions.put(actor, session);
+            return session;
+        }
+    }
+
+    /**
+     * Descarta hasta limit sesiones ociosas con última actividad anterior a idleBefore, de la más antigua a la más nueva
+     */
+    private void evictIdle(long idleBefore, int limit) {
+        List<ActorSession> candidates = new ArrayList<>(sessions.values());
+        candidates.sort(Comparator.comparingLong(ActorSession::lastActive));
+        int removed = 0;
+        for (ActorSession session : candidates) {
+            if (removed >= limit || session.lastActive() >= idleBefore) {
+                break;
+            }
+            if (session.closeIfIdle()) {
+                sessions.remove(session.actor, session);
+                evicted.incrementAndGet();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("🧹 {} sesiones de comandos descartadas", removed);
+        }
+    }
+
+    private CommandLogDTO recordExecuted(String actor, CommandLogEntry entry) {
+        // Un comando nuevo invalida lo que estaba deshecho
+        commandLogRepository.discardUndone(actor);
+        CommandLogDTO result = toDTO(commandLogRepository.save(entry));
+        executed.incrementAndGet();
+        log.info("📝 Comando de {}: {}", actor, entry.getDescription());
+        return result;
+    }
+
+    private void validateActor(String actor) {
+        if (actor == null || actor.isBlank() || actor.length() > MAX_ACTOR_LENGTH) {
+            throw new IllegalArgumentException("X-Actor inválido: debe tener entre 1 y " + MAX_ACTOR_LENGTH + " caracteres");
+        }
+    }
+
+    private String toJson(ReservationDTO dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la reserva en el log de comandos", e);
+        }
+    }
+
+    private ReservationDTO fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, ReservationDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Datos de la reserva inválidos en el log de comandos", e);
+        }
+    }
+
+    private CommandLogDTO toDTO(CommandLogEntry entry) {
+        return CommandLogDTO.builder()
+                .id(entry.getId())
+                .actor(entry.getActor())
+                .commandType(entry.getCommandType())
+                .reservationId(entry.getReservationId())
+                .state(entry.getState())
+                .description(entry.getDescription())
+                .createdAt(entry.getCreatedAt())
+                .updatedAt(entry.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Sesión de un actor: cola de un solo escritor sobre el pool compartido y sus últimos comandos
+     */
+    private final class ActorSession {
+
+        private final String actor;
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private final Deque<CommandLogDTO> recent;
+        private boolean draining;
+        private boolean closed;
+        private volatile long lastActive = System.currentTimeMillis();
+
+        ActorSession(String actor, List<CommandLogDTO> recent) {
+            this.actor = actor;
+            this.recent = new ArrayDeque<>(recent);
+        }
+
+        /**
+         * @return false si la sesión ya fue descartada
+         */
+        synchronized boolean submit(Runnable task) {
+            if (closed) {
+                return false;
+            }
+            lastActive = System.currentTimeMillis();
+            queue.add(() -> {
+                task.run();
+                try {
+                    rememberLast();
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ No se pudo refrescar el log de comandos de {}: {}", actor, e.getMessage());
+                }
+            });
+            if (!draining) {
+                draining = true;
+                workers.execute(this::drain);
+            }
+            return true;
+        }
+
+        /**
+         * Ejecuta las tareas en orden; solo un hilo drena la cola a la vez
+         */
+        private void drain() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                next.run();
+            }
+        }
+
+        /**
+         * Actualiza los últimos comandos en memoria desde la tabla (solo lo llama el hilo que drena)
+         */
+        private void rememberLast() {
+            List<CommandLogDTO> latest = commandLogRepository.findByActorOrderByIdDesc(actor, PageRequest.of(0, logSize))
+                    .stream().map(CommandExecutionService.this::toDTO).toList();
+            synchronized (this) {
+                recent.clear();
+                recent.addAll(latest);
+            }
+        }
+
+        synchronized List<CommandLogDTO> recent() {
+            return new ArrayList<>(recent);
+        }
+
+        synchronized boolean closeIfIdle() {
+            if (draining || !queue.isEmpty()) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        long lastActive() {
+            return lastActive;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ExportChunkDTO;
+import com.hotel.reservation.dto.ExportManifestDTO;
+import com.hotel.reservation.export.CsvWriter;
+import com.hotel.reservation.export.ExportOptions;
+import com.hotel.reservation.export.ExportRange;
+import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.Room;
+import com.hotel.reservation.patterns.behavioral.visitor.ExportVisitor;
+import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Servicio para exportar entidades a CSV en streaming
+ *
+ * - Las filas salen de consultas en streaming dentro de una transacción de solo lectura,
+ *   y el contexto de persistencia se limpia por bloques
+ * - ExportVisitor escribe cada fila directamente en un CsvWriter sobre el OutputStream,
+ *   sin construir el archivo completo en memoria
+ * - Con gzip=true la salida se comprime al vuelo
+ * - Con un ExportRange solo se exportan las filas modificadas en el rango (índice de updated_at),
+ *   y el manifiesto da filas y CRC32 por bloque para comparar sin descargar el CSV
+ * - Las filas anteriores a la columna updatedAt las completa UpdatedAtBackfill al iniciar
+ */
+@Slf4j
+@Service
+public class CsvExportService {
+
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 1_000_000;
+
+    private final RoomRepository roomRepository;
+    private final CustomerRepository customerRepository;
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int clearEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CsvExportService(RoomRepository roomRepository,
+                            CustomerRepository customerRepository,
+                            ReservationRepository reservationRepository,
+                            PaymentRepository paymentRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.reports.csv.clear-every:500}") int clearEvery) {
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.clearEvery = clearEvery;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param options rango de filas (ExportRange.all() para todas) y avance
+     */
+    public void writeRooms(OutputStream out, boolean gzip, ExportOptions options) throws IOException {
+        write(out, gzip, "habitaciones", ExportVisitor.ROOM_HEADERS,
+                rows(roomRepository::streamAllForExport, roomRepository::streamChangedForExport, options.range()),
+                ExportVisitor::visit, options.progress());
+    }
+
+    public void writeCustomers(OutputStream out, boolean gzip, ExportOptions options) throws IOException {
+        write(out, gzip, "clientes", ExportVisitor.CUSTOMER_HEADERS,
+                rows(customerRepository::streamAllForExport, customerRepository::streamChangedForExport, options.range()),
+                ExportVisitor::visit, options.progress());
+    }
+
+    public void writeReservations(OutputStream out, boolean gzip, ExportOptions options) throws IOException {
+        write(out, gzip, "reservas", ExportVisitor.RESERVATION_HEADERS,
+                rows(reservationRepository::streamAllForExport, reservationRepository::streamChangedForExport, options.range()),
+                ExportVisitor::visit, options.progress());
+    }
+
+    public void writePayments(OutputStream out, boolean gzip, ExportOptions options) throws IOException {
+        write(out, gzip, "pagos", ExportVisitor.PAYMENT_HEADERS,
+                rows(paymentRepository::streamAllForExport, paymentRepository::streamChangedForExport, options.range()),
+                ExportVisitor::visit, options.progress());
+    }
+
+    /**
+     * Manifiesto de la exportación: filas y CRC32 de cada bloque de IDs
+     * [index * chunkSize, (index + 1) * chunkSize).
+     * Los bloques se cortan por ID y no por cantidad de filas: un alta o una baja solo cambia el
+     * bloque de su ID, en lugar de desplazar todos los bloques siguientes. Los bloques sin filas
+     * no aparecen.
+     * @param entity rooms, customers, reservations o payments
+     * @param range solo las filas modificadas en el rango (ExportRange.all() para todas)
+     * @param chunkSize cantidad de IDs que cubre cada bloque
+     */
+    public ExportManifestDTO manifest(String entity, ExportRange range, int chunkSize) {
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize debe estar entre " + MIN_CHUNK_SIZE + " y " + MAX_CHUNK_SIZE);
+        }
+        List<ExportChunkDTO> chunks = switch (entity) {
+            case "rooms" -> checksums(rows(roomRepository::streamAllForExport,
+                    roomRepository::streamChangedForExport, range), ExportVisitor::visit, Room::getId, chunkSize);
+            case "customers" -> checksums(rows(customerRepository::streamAllForExport,
+                    customerRepository::streamChangedForExport, range), ExportVisitor::visit, Customer::getId, chunkSize);
+            case "reservations" -> checksums(rows(reservationRepository::streamAllForExport,
+                    reservationRepository::streamChangedForExport, range), ExportVisitor::visit, Reservation::getId, chunkSize);
+            case "payments" -> checksums(rows(paymentRepository::streamAllForExport,
+                    paymentRepository::streamChangedForExport, range), ExportVisitor::visit, Payment::getId, chunkSize);
+            default -> throw new IllegalArgumentException("Exportación desconocida: " + entity);
+        };
+
+        return ExportManifestDTO.builder()
+                .entity(entity)
+                .since(range.since())
+                .until(range.until())
+                .chunkSize(chunkSize)
+                .totalRows(chunks.stream().mapToLong(ExportChunkDTO::getRows).sum())
+                .chunks(chunks)
+                .build();
+    }
+
+    /**
+     * Consulta completa o solo las filas modificadas en el rango
+     */
+    private static <T> Supplier<Stream<T>> rows(Supplier<Stream<T>> all,
+                                                BiFunction<LocalDateTime, LocalDateTime, Stream<T>> changed,
+                                                ExportRange range) {
+        return range.isAll() ? all : () -> changed.apply(range.since(), range.until());
+    }
+
+    /**
+     * Recorre las filas escribiéndolas como en el CSV, pero solo para calcular el CRC32 de cada bloque
+     */
+    private <T> List<ExportChunkDTO> checksums(Supplier<Stream<T>> rows, BiConsumer<ExportVisitor, T> visit,
+                                               Function<T, Long> idOf, int chunkSize) {
+        ChunkChecksums checksums = new ChunkChecksums(chunkSize);
+        ExportVisitor visitor = new ExportVisitor(checksums.csv);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get()) {
+                Iterator<T> iterator = stream.iterator();
+                long count = 0;
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    // Primero se cierra el bloque anterior si el ID ya cae en otro: la fila va al suyo
+                    checksums.beforeRow(idOf.apply(row));
+                    visit.accept(visitor, row);
+                    if (++count % clearEvery == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+        });
+        return checksums.finish();
+    }
+
+    /**
+     * Escribe el encabezado y recorre el stream de entidades con el visitor
+     * @param progress recibe la cantidad de filas escritas cada clear-every filas y al terminar
+     */
+    private <T> void write(OutputStream out, boolean gzip, String name, String[] headers,
+                           Supplier<Stream<T>> rows, BiConsumer<ExportVisitor, T> visit,
+                           LongConsumer progress) throws IOException {
+        long start = System.currentTimeMillis();
+        CsvWriter csv = CsvWriter.open(out, gzip);
+        try {
+            csv.header(headers);
+            ExportVisitor visitor = new ExportVisitor(csv);
+
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> stream = rows.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    long count = 0;
+                    while (iterator.hasNext()) {
+                        visit.accept(visitor, iterator.next());
+                        // Libera las entidades ya escritas
+                        if (++count % clearEvery == 0) {
+                            entityManager.clear();
+                            progress.accept(count);
+                        }
+                    }
+                    progress.accept(count);
+                }
+            });
+
+            csv.close();
+            log.info("📤 CSV de {} exportado: {} filas en {} ms{}", name, csv.getRows(),
+                    System.currentTimeMillis() - start, gzip ? " (gzip)" : "");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * CRC32 por bloque de IDs de las filas (sin encabezado) tal como se escriben en el CSV sin comprimir.
+     * Las filas llegan ordenadas por ID.
+     */
+    private static final class ChunkChecksums {
+
+        private final int chunkSize;
+        private final CRC32 crc = new CRC32();
+        private final CsvWriter csv = new CsvWriter(new OutputStreamWriter(
+                new CheckedOutputStream(OutputStream.nullOutputStream(), crc), StandardCharsets.UTF_8));
+        private final List<ExportChunkDTO> chunks = new ArrayList<>();
+        private long rows;
+        private long index;
+        private Long firstId;
+        private Long lastId;
+
+        ChunkChecksums(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        void beforeRow(Long id) {
+            long chunk = id / chunkSize;
+            if (rows > 0 && chunk != index) {
+                closeChunk();
+            }
+            if (rows == 0) {
+                index = chunk;
+                firstId = id;
+            }
+            lastId = id;
+            rows++;
+        }
+
+        List<ExportChunkDTO> finish() {
+            if (rows > 0) {
+                closeChunk();
+            }
+            return chunks;
+        }
+
+        private void closeChunk() {
+            csv.flush();
+            chunks.add(ExportChunkDTO.builder()
+                    .index(index)
+                    .fromId(index * chunkSize)
+                    .toId((index + 1) * chunkSize)
+                    .firstId(firstId)
+                    .lastId(lastId)
+                    .rows(rows)
+                    .crc32(String.format("%08x", crc.getValue()))
+                    .build());
+            crc.reset();
+            rows = 0;
+        }
+    }
+}
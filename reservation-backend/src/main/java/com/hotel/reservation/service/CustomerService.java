@@ -1,8 +1,11 @@
 package com.hotel.reservation.service;
 
 import com.hotel.reservation.dto.CustomerDTO;
+import com.hotel.reservation.events.DomainEventPublisher;
+import com.hotel.reservation.events.DomainEventType;
 import com.hotel.reservation.exception.ResourceNotFoundException;
 import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.LoyaltyLevel;
 import com.hotel.reservation.repositories.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +23,7 @@ import java.util.stream.Collectors;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final DomainEventPublisher eventPublisher;
 
     /**
      * Obtener todos los clientes
@@ -65,6 +69,7 @@ public class CustomerService {
                 .build();
 
         Customer savedCustomer = customerRepository.save(customer);
+        eventPublisher.publishCustomerEvent(DomainEventType.CUSTOMER_CREATED, savedCustomer, null);
         return convertToDTO(savedCustomer);
     }
 
@@ -74,6 +79,7 @@ public class CustomerService {
     public CustomerDTO updateCustomer(Long id, CustomerDTO customerDTO) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", id));
+        LoyaltyLevel previousLoyaltyLevel = customer.getLoyaltyLevel();
 
         customer.setFirstName(customerDTO.getFirstName());
         customer.setLastName(customerDTO.getLastName());
@@ -82,6 +88,7 @@ public class CustomerService {
         customer.setLoyaltyLevel(customerDTO.getLoyaltyLevel());
 
         Customer updatedCustomer = customerRepository.save(customer);
+        eventPublisher.publishCustomerEvent(DomainEventType.CUSTOMER_UPDATED, updatedCustomer, previousLoyaltyLevel);
         return convertToDTO(updatedCustomer);
     }
 
@@ -92,6 +99,7 @@ public class CustomerService {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", id));
         customerRepository.delete(customer);
+        eventPublisher.publishCustomerEvent(DomainEventType.CUSTOMER_DELETED, customer, customer.getLoyaltyLevel());
     }
 
     /**
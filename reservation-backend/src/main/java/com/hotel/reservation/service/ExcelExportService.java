@@ -1,143 +1,199 @@
 package com.hotel.reservation.service;
 
-import com.hotel.reservation.patterns.creational.singleton.ConfigurationManager;
+import com.hotel.reservation.dto.RoomTypeOccupancy;
+import com.hotel.reservation.export.ExportOptions;
+import com.hotel.reservation.export.ExportRange;
 import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentStatus;
 import com.hotel.reservation.models.Reservation;
 import com.hotel.reservation.models.Room;
-import lombok.RequiredArgsConstructor;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * Servicio para exportar reportes a formato Excel (.xlsx)
  * Utiliza Apache POI para generar archivos Excel con formato profesional
+ *
+ * Los reportes se generan en streaming para que el consumo de memoria no dependa
+ * del número de filas:
+ * - SXSSFWorkbook mantiene solo una ventana de filas en memoria; el resto se escribe
+ *   a archivos temporales comprimidos
+ * - Las filas salen de consultas en streaming y el contexto de persistencia se limpia
+ *   por bloques
+ * - El ancho de columnas se estima con una muestra de las primeras filas
+ *   (autoSizeColumn recorre toda la hoja y es muy lento)
+ * - El resultado se escribe directo al OutputStream recibido (respuesta HTTP o archivo)
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExcelExportService {
 
-    private final ConfigurationManager config = ConfigurationManager.INSTANCE;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int rowWindow;
+    private final int widthSampleRows;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExcelExportService(ReservationRepository reservationRepository,
+                              PaymentRepository paymentRepository,
+                              RoomRepository roomRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.reports.excel.row-window:100}") int rowWindow,
+                              @Value("${app.reports.excel.width-sample-rows:200}") int widthSampleRows) {
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.roomRepository = roomRepository;
+        this.rowWindow = rowWindow;
+        this.widthSampleRows = widthSampleRows;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     /**
-     * Exporta reporte de reservas a Excel
+     * Escribe el reporte de reservas en Excel
+     * @param options reservas a incluir (ExportRange.all() o las modificadas en el rango) y avance
      */
-    public byte[] exportReservationsReport(List<Reservation> reservations) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Reporte de Reservas");
+    public void writeReservationsReport(OutputStream out, ExportOptions options) throws IOException {
+        ExportRange range = options.range();
+        LongConsumer progress = options.progress();
+        String[] headers = {"ID", "Cliente", "Habitación", "Check-in", "Check-out",
+                          "Huéspedes", "Noches", "Estado", "Precio Total"};
 
-            // Estilos
-            CellStyle headerStyle = createHeaderStyle(workbook);
+        writeWorkbook(out, "Reporte de Reservas", headers, progress, (workbook, sheet, widths) -> {
             CellStyle dateStyle = createDateStyle(workbook);
             CellStyle currencyStyle = createCurrencyStyle(workbook);
 
-            // Header Row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Cliente", "Habitación", "Check-in", "Check-out",
-                              "Huéspedes", "Noches", "Estado", "Precio Total"};
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data Rows
-            int rowNum = 1;
-            for (Reservation reservation : reservations) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(reservation.getId());
-                row.createCell(1).setCellValue(reservation.getCustomer().getFullName());
-                row.createCell(2).setCellValue(reservation.getRoom().getRoomNumber());
-
-                Cell checkInCell = row.createCell(3);
-                checkInCell.setCellValue(reservation.getCheckInDate().format(DATE_FORMATTER));
-                checkInCell.setCellStyle(dateStyle);
-
-                Cell checkOutCell = row.createCell(4);
-                checkOutCell.setCellValue(reservation.getCheckOutDate().format(DATE_FORMATTER));
-                checkOutCell.setCellStyle(dateStyle);
-
-                row.createCell(5).setCellValue(reservation.getNumberOfGuests());
-                row.createCell(6).setCellValue(reservation.getNumberOfNights());
-                row.createCell(7).setCellValue(reservation.getStatus().toString());
-
-                Cell priceCell = row.createCell(8);
-                priceCell.setCellValue(reservation.getTotalPrice().doubleValue());
-                priceCell.setCellStyle(currencyStyle);
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            try (Stream<Reservation> reservations = range.isAll()
+                    ? reservationRepository.streamAllForExport()
+                    : reservationRepository.streamChangedForExport(range.since(), range.until())) {
+                int rowNum = 1;
+                Iterator<Reservation> iterator = reservations.iterator();
+                while (iterator.hasNext()) {
+                    Reservation reservation = iterator.next();
+                    Row row = sheet.createRow(rowNum);
+
+                    row.createCell(0).setCellValue(reservation.getId());
+                    String customerName = reservation.getCustomer().getFullName();
+                    row.createCell(1).setCellValue(customerName);
+                    row.createCell(2).setCellValue(reservation.getRoom().getRoomNumber());
+
+                    String checkIn = reservation.getCheckInDate().format(DATE_FORMATTER);
+                    Cell checkInCell = row.createCell(3);
+                    checkInCell.setCellValue(checkIn);
+                    checkInCell.setCellStyle(dateStyle);
+
+                    String checkOut = reservation.getCheckOutDate().format(DATE_FORMATTER);
+                    Cell checkOutCell = row.createCell(4);
+                    checkOutCell.setCellValue(checkOut);
+                    checkOutCell.setCellStyle(dateStyle);
+
+                    row.createCell(5).setCellValue(reservation.getNumberOfGuests());
+                    row.createCell(6).setCellValue(reservation.getNumberOfNights());
+                    row.createCell(7).setCellValue(reservation.getStatus().toString());
+
+                    Cell priceCell = row.createCell(8);
+                    priceCell.setCellValue(reservation.getTotalPrice().doubleValue());
+                    priceCell.setCellStyle(currencyStyle);
+
+                    if (widths.isSampling(rowNum)) {
+                        widths.sample(String.valueOf(reservation.getId()), customerName,
+                                reservation.getRoom().getRoomNumber(), checkIn, checkOut, null, null,
+                                reservation.getStatus().toString(), currencyText(reservation.getTotalPrice()));
+                    }
+                    releaseRow(rowNum++, progress);
+                }
+                return rowNum - 1;
             }
-
-            return writeWorkbookToBytes(workbook);
-        }
+        });
     }
 
     /**
-     * Exporta reporte de ingresos (pagos) a Excel
+     * Escribe el reporte de ingresos (pagos) en Excel
+     * @param options pagos a incluir (ExportRange.all() o los modificados en el rango) y avance;
+     *                el total suma los pagos completados que entran en el reporte
      */
-    public byte[] exportRevenueReport(List<Payment> payments) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Reporte de Ingresos");
+    public void writeRevenueReport(OutputStream out, ExportOptions options) throws IOException {
+        ExportRange range = options.range();
+        LongConsumer progress = options.progress();
+        String[] headers = {"ID Pago", "Reserva", "Cliente", "Monto", "Método de Pago",
+                          "Estado", "Fecha", "Transaction ID"};
 
-            // Estilos
-            CellStyle headerStyle = createHeaderStyle(workbook);
+        writeWorkbook(out, "Reporte de Ingresos", headers, progress, (workbook, sheet, widths) -> {
             CellStyle dateStyle = createDateStyle(workbook);
             CellStyle currencyStyle = createCurrencyStyle(workbook);
             CellStyle totalStyle = createTotalStyle(workbook);
 
-            // Header Row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID Pago", "Reserva", "Cliente", "Monto", "Método de Pago",
-                              "Estado", "Fecha", "Transaction ID"};
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data Rows
             int rowNum = 1;
             BigDecimal totalRevenue = BigDecimal.ZERO;
 
-            for (Payment payment : payments) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(payment.getId());
-                row.createCell(1).setCellValue("RES-" + payment.getReservation().getId());
-                row.createCell(2).setCellValue(payment.getReservation().getCustomer().getFullName());
-
-                Cell amountCell = row.createCell(3);
-                amountCell.setCellValue(payment.getAmount().doubleValue());
-                amountCell.setCellStyle(currencyStyle);
-
-                row.createCell(4).setCellValue(payment.getPaymentMethod().toString());
-                row.createCell(5).setCellValue(payment.getPaymentStatus().toString());
-
-                Cell dateCell = row.createCell(6);
-                dateCell.setCellValue(payment.getPaymentDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
-                dateCell.setCellStyle(dateStyle);
-
-                row.createCell(7).setCellValue(payment.getTransactionId() != null ? payment.getTransactionId() : "N/A");
-
-                // Acumular ingresos solo de pagos completados
-                if (payment.getPaymentStatus().toString().equals("COMPLETED")) {
-                    totalRevenue = totalRevenue.add(payment.getAmount());
+            try (Stream<Payment> payments = range.isAll()
+                    ? paymentRepository.streamAllForExport()
+                    : paymentRepository.streamChangedForExport(range.since(), range.until())) {
+                Iterator<Payment> iterator = payments.iterator();
+                while (iterator.hasNext()) {
+                    Payment payment = iterator.next();
+                    Row row = sheet.createRow(rowNum);
+
+                    row.createCell(0).setCellValue(payment.getId());
+                    String reservationRef = "RES-" + payment.getReservation().getId();
+                    row.createCell(1).setCellValue(reservationRef);
+                    String customerName = payment.getReservation().getCustomer().getFullName();
+                    row.createCell(2).setCellValue(customerName);
+
+                    Cell amountCell = row.createCell(3);
+                    amountCell.setCellValue(payment.getAmount().doubleValue());
+                    amountCell.setCellStyle(currencyStyle);
+
+                    row.createCell(4).setCellValue(payment.getPaymentMethod().toString());
+                    row.createCell(5).setCellValue(payment.getPaymentStatus().toString());
+
+                    String date = payment.getPaymentDate().format(DATE_TIME_FORMATTER);
+                    Cell dateCell = row.createCell(6);
+                    dateCell.setCellValue(date);
+                    dateCell.setCellStyle(dateStyle);
+
+                    String transactionId = payment.getTransactionId() != null ? payment.getTransactionId() : "N/A";
+                    row.createCell(7).setCellValue(transactionId);
+
+                    // Acumular ingresos solo de pagos completados
+                    if (payment.getPaymentStatus() == PaymentStatus.COMPLETED) {
+                        totalRevenue = totalRevenue.add(payment.getAmount());
+                    }
+
+                    if (widths.isSampling(rowNum)) {
+                        widths.sample(String.valueOf(payment.getId()), reservationRef, customerName,
+                                currencyText(payment.getAmount()), payment.getPaymentMethod().toString(),
+                                payment.getPaymentStatus().toString(), date, transactionId);
+                    }
+                    releaseRow(rowNum++, progress);
                 }
             }
 
@@ -151,59 +207,58 @@ public class ExcelExportService {
             totalValueCell.setCellValue(totalRevenue.doubleValue());
             totalValueCell.setCellStyle(totalStyle);
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            return writeWorkbookToBytes(workbook);
-        }
+            return rowNum - 1;
+        });
     }
 
     /**
-     * Exporta reporte de ocupación (habitaciones) a Excel
+     * Escribe el reporte de ocupación (habitaciones) en Excel.
+     * Las estadísticas salen de una consulta GROUP BY.
+     *
+     * No acepta un ExportRange: es una foto del estado actual de todas las habitaciones, y las
+     * estadísticas de ocupación solo tienen sentido sobre el total (filtrar por updatedAt dejaría
+     * afuera habitaciones ocupadas que no cambiaron en el rango).
      */
-    public byte[] exportOccupancyReport(List<Room> rooms) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Reporte de Ocupación");
+    public void writeOccupancyReport(OutputStream out, LongConsumer progress) throws IOException {
+        String[] headers = {"ID", "Número", "Tipo", "Capacidad", "Piso",
+                          "Estado", "Precio por Noche"};
 
-            // Estilos
-            CellStyle headerStyle = createHeaderStyle(workbook);
+        writeWorkbook(out, "Reporte de Ocupación", headers, progress, (workbook, sheet, widths) -> {
             CellStyle currencyStyle = createCurrencyStyle(workbook);
             CellStyle statsStyle = createTotalStyle(workbook);
 
-            // Header Row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "Número", "Tipo", "Capacidad", "Piso",
-                              "Estado", "Precio por Noche"};
-
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data Rows
             int rowNum = 1;
-            long totalRooms = rooms.size();
-            long occupiedRooms = rooms.stream().filter(r -> !r.getAvailable()).count();
-            long availableRooms = rooms.stream().filter(Room::getAvailable).count();
-
-            for (Room room : rooms) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(room.getId());
-                row.createCell(1).setCellValue(room.getRoomNumber());
-                row.createCell(2).setCellValue(room.getRoomType().toString());
-                row.createCell(3).setCellValue(room.getCapacity());
-                row.createCell(4).setCellValue(room.getFloor());
-                row.createCell(5).setCellValue(room.getAvailable() ? "Disponible" : "Ocupada");
-
-                Cell priceCell = row.createCell(6);
-                priceCell.setCellValue(room.getPrice().doubleValue());
-                priceCell.setCellStyle(currencyStyle);
+            try (Stream<Room> rooms = roomRepository.streamAllForExport()) {
+                Iterator<Room> iterator = rooms.iterator();
+                while (iterator.hasNext()) {
+                    Room room = iterator.next();
+                    Row row = sheet.createRow(rowNum);
+
+                    row.createCell(0).setCellValue(room.getId());
+                    row.createCell(1).setCellValue(room.getRoomNumber());
+                    row.createCell(2).setCellValue(room.getRoomType().toString());
+                    row.createCell(3).setCellValue(room.getCapacity());
+                    row.createCell(4).setCellValue(room.getFloor());
+                    String status = room.isAvailable() ? "Disponible" : "Ocupada";
+                    row.createCell(5).setCellValue(status);
+
+                    Cell priceCell = row.createCell(6);
+                    priceCell.setCellValue(room.getPrice().doubleValue());
+                    priceCell.setCellStyle(currencyStyle);
+
+                    if (widths.isSampling(rowNum)) {
+                        widths.sample(String.valueOf(room.getId()), room.getRoomNumber(),
+                                room.getRoomType().toString(), null, null, status, currencyText(room.getPrice()));
+                    }
+                    releaseRow(rowNum++, progress);
+                }
             }
 
+            List<RoomTypeOccupancy> byType = roomRepository.countGroupedByRoomType();
+            long totalRooms = byType.stream().mapToLong(RoomTypeOccupancy::total).sum();
+            long availableRooms = byType.stream().mapToLong(RoomTypeOccupancy::available).sum();
+            long occupiedRooms = totalRooms - availableRooms;
+
             // Estadísticas
             int statsStartRow = rowNum + 2;
 
@@ -229,12 +284,120 @@ public class ExcelExportService {
             double occupancyRate = totalRooms > 0 ? (occupiedRooms * 100.0 / totalRooms) : 0;
             occupancyRateRow.createCell(1).setCellValue(String.format("%.2f%%", occupancyRate));
 
-            // Auto-size columns
+            // Las etiquetas de estadísticas también cuentan para el ancho de la primera columna
+            widths.sample("Habitaciones Disponibles:");
+            return rowNum - 1;
+        });
+    }
+
+    // ========== Streaming ==========
+
+    /**
+     * Crea el libro en streaming, escribe el encabezado, delega las filas y escribe el
+     * resultado en el OutputStream. Las filas se leen dentro de una transacción de solo lectura.
+     */
+    private void writeWorkbook(OutputStream out, String sheetName, String[] headers, LongConsumer progress,
+                               SheetWriter sheetWriter) throws IOException {
+        long start = System.currentTimeMillis();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
+            CellStyle headerStyle = createHeaderStyle(workbook);
+
+            ColumnWidths widths = new ColumnWidths(headers.length, widthSampleRows);
+            Row headerRow = sheet.createRow(0);
             for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
             }
+            widths.sample(headers);
+
+            Integer rows = readOnlyTransaction.execute(status -> {
+                try {
+                    return sheetWriter.write(workbook, sheet, widths);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            progress.accept(rows);
+            widths.applyTo(sheet);
+
+            workbook.write(out);
+            out.flush();
+            log.info("📊 Excel '{}' generado: {} filas en {} ms", sheetName, rows, System.currentTimeMillis() - start);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // Elimina los archivos temporales de las filas ya escritas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-            return writeWorkbookToBytes(workbook);
+    /**
+     * Libera las entidades ya escritas para que el contexto de persistencia no crezca
+     * e informa el avance
+     */
+    private void releaseRow(int rowNum, LongConsumer progress) {
+        if (rowNum % rowWindow == 0) {
+            entityManager.clear();
+            progress.accept(rowNum);
+        }
+    }
+
+    /**
+     * Texto aproximado de una celda con formato $#,##0.00 (solo para estimar el ancho)
+     */
+    private String currencyText(BigDecimal amount) {
+        return String.format("$%,.2f", amount);
+    }
+
+    @FunctionalInterface
+    private interface SheetWriter {
+        /**
+         * Escribe las filas de datos
+         * @return cantidad de filas de datos escritas
+         */
+        int write(Workbook workbook, Sheet sheet, ColumnWidths widths) throws IOException;
+    }
+
+    /**
+     * Estima el ancho de cada columna con el texto de las primeras filas
+     */
+    private static class ColumnWidths {
+
+        private static final int MAX_CHARS = 60;
+
+        private final int[] maxChars;
+        private final int sampleRows;
+
+        ColumnWidths(int columns, int sampleRows) {
+            this.maxChars = new int[columns];
+            this.sampleRows = sampleRows;
+        }
+
+        boolean isSampling(int rowNum) {
+            return rowNum <= sampleRows;
+        }
+
+        /**
+         * Registra el texto de una fila (null = columna numérica corta, se ignora)
+         */
+        void sample(String... values) {
+            for (int i = 0; i < values.length && i < maxChars.length; i++) {
+                if (values[i] != null) {
+                    maxChars[i] = Math.max(maxChars[i], Math.min(values[i].length(), MAX_CHARS));
+                }
+            }
+        }
+
+        void applyTo(Sheet sheet) {
+            for (int i = 0; i < maxChars.length; i++) {
+                // Unidades de 1/256 de carácter, con margen para el filtro y el padding
+                sheet.setColumnWidth(i, (Math.max(maxChars[i], 6) + 3) * 256);
+            }
         }
     }
 
@@ -294,11 +457,4 @@ public class ExcelExportService {
         style.setBorderRight(BorderStyle.MEDIUM);
         return style;
     }
-
-    private byte[] writeWorkbookToBytes(Workbook workbook) throws IOException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        }
-    }
 }
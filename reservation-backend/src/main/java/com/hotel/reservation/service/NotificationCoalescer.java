@@ -0,0 +1,144 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationEventType;
+import com.hotel.reservation.service.NotificationDispatcher.NotificationItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa de agrupación (coalescing) previa al envío de notificaciones.
+ *
+ * Los eventos de un mismo cliente se acumulan durante una ventana configurable
+ * que empieza con el primer evento. Al cerrarse la ventana:
+ * - Por cada reserva y canal solo se conserva el último estado
+ *   (creada → confirmada envía únicamente la confirmación)
+ * - Si quedan varias reservas, se envía un único resumen por canal
+ *
+ * Así un huésped que reserva, agrega un paquete y paga en un minuto recibe
+ * un solo mensaje por canal en lugar de tres.
+ *
+ * Al cerrar la ventana el mensaje pasa a la cola persistente del NotificationDispatcher.
+ * La ventana en sí vive en memoria: al apagar se envía lo acumulado, pero una caída de
+ * la aplicación pierde los eventos de las ventanas abiertas (como mucho window-ms).
+ */
+@Slf4j
+@Service
+public class NotificationCoalescer {
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final long windowMillis;
+    private final ScheduledExecutorService timer;
+
+    private final Map<Long, CustomerBatch> batches = new ConcurrentHashMap<>();
+
+    public NotificationCoalescer(NotificationDispatcher notificationDispatcher,
+                                 @Value("${app.notifications.coalescing.window-ms:30000}") long windowMillis) {
+        this.notificationDispatcher = notificationDispatcher;
+        this.windowMillis = windowMillis;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-coalescer-");
+        threadFactory.setDaemon(true);
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Registra un evento de reserva para los canales indicados.
+     * El evento entra a la ventana después del commit de la transacción actual.
+     */
+    public void submit(Long customerId, Long reservationId, NotificationEventType eventType,
+                       Set<NotificationChannel> channels) {
+        if (channels.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(customerId, reservationId, eventType, channels);
+                }
+            });
+        } else {
+            enqueue(customerId, reservationId, eventType, channels);
+        }
+    }
+
+    /**
+     * Envía de inmediato lo acumulado al apagar la aplicación
+     */
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        new ArrayList<>(batches.keySet()).forEach(this::flush);
+    }
+
+    private void enqueue(Long customerId, Long reservationId, NotificationEventType eventType,
+                         Set<NotificationChannel> channels) {
+        if (windowMillis <= 0) {
+            channels.forEach(channel -> notificationDispatcher.dispatch(channel, eventType, reservationId));
+            return;
+        }
+
+        // compute() es atómico por cliente: la ventana se abre con el primer evento
+        batches.compute(customerId, (id, batch) -> {
+            if (batch == null) {
+                batch = new CustomerBatch();
+                timer.schedule(() -> flush(id), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            batch.add(reservationId, eventType, channels);
+            return batch;
+        });
+    }
+
+    private void flush(Long customerId) {
+        CustomerBatch batch = batches.remove(customerId);
+        if (batch == null) {
+            return;
+        }
+
+        int sent = 0;
+        for (Map.Entry<NotificationChannel, LinkedHashMap<Long, NotificationEventType>> entry : batch.byChannel.entrySet()) {
+            List<NotificationItem> items = new ArrayList<>();
+            entry.getValue().forEach((reservationId, eventType) -> items.add(new NotificationItem(reservationId, eventType)));
+            notificationDispatcher.dispatch(entry.getKey(), items);
+            sent++;
+        }
+
+        log.info("📦 Cliente #{}: {} eventos agrupados en {} mensajes", customerId, batch.received, sent);
+    }
+
+    /**
+     * Eventos acumulados de un cliente.
+     * Solo se modifica dentro de compute() y se lee tras remove(), ambos sincronizados por el mapa.
+     */
+    private static class CustomerBatch {
+        private final Map<NotificationChannel, LinkedHashMap<Long, NotificationEventType>> byChannel =
+                new EnumMap<>(NotificationChannel.class);
+        private int received = 0;
+
+        void add(Long reservationId, NotificationEventType eventType, Set<NotificationChannel> channels) {
+            for (NotificationChannel channel : channels) {
+                // El último estado de cada reserva reemplaza a los anteriores
+                byChannel.computeIfAbsent(channel, c -> new LinkedHashMap<>()).put(reservationId, eventType);
+                received++;
+            }
+        }
+    }
+}
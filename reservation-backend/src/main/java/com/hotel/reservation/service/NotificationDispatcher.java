@@ -0,0 +1,442 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationDeadLetter;
+import com.hotel.reservation.models.NotificationEventType;
+import com.hotel.reservation.models.PendingNotification;
+import com.hotel.reservation.models.PendingNotificationItem;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.patterns.behavioral.observer.EmailNotificationObserver;
+import com.hotel.reservation.patterns.behavioral.observer.ReservationNotification;
+import com.hotel.reservation.patterns.behavioral.observer.ReservationObserver;
+import com.hotel.reservation.patterns.behavioral.observer.SmsNotificationObserver;
+import com.hotel.reservation.patterns.behavioral.observer.WhatsAppNotificationObserver;
+import com.hotel.reservation.repositories.NotificationDeadLetterRepository;
+import com.hotel.reservation.repositories.PendingNotificationRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.resilience.BackoffPolicy;
+import com.hotel.reservation.resilience.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Despachador asíncrono de notificaciones.
+ *
+ * Las notificaciones se envían fuera del hilo de la petición, después del commit
+ * de la transacción que las originó. Cada canal tiene su propio circuit breaker:
+ * si un proveedor (p. ej. Gmail) está caído, los mensajes se reprograman en lugar
+ * de seguir golpeándolo.
+ *
+ * Flujo de un mensaje:
+ * 1. Tras el commit se guarda en pending_notifications y se intenta de inmediato
+ * 2. Si falla, se reintenta con backoff exponencial y jitter
+ * 3. Al agotar los reintentos se mueve a la tabla de dead-letter
+ * 4. Un administrador puede reenviar los dead-letters en bloque
+ *
+ * La cola de reintentos es la tabla, no el scheduler: los intentos programados en memoria son
+ * solo avisos para no esperar. Cada intento toma la fila con un UPDATE condicional que la aparta
+ * durante lease-ms, así un mismo mensaje nunca lo envían dos hilos a la vez. Una pasada periódica
+ * retoma las filas vencidas (las de antes de un reinicio, o las de un envío que no terminó).
+ * La entrega es al menos una vez: si la aplicación se detiene entre el envío y el borrado de la
+ * fila, el mensaje se reenvía al vencer el lease.
+ *
+ * Solo se pierde un mensaje si no se pudo guardar en la tabla; esos se cuentan por canal en
+ * getChannelStatus (dropped).
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ReservationRepository reservationRepository;
+    private final NotificationDeadLetterRepository deadLetterRepository;
+    private final PendingNotificationRepository pendingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<NotificationChannel, ReservationObserver> observers = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, CircuitBreaker> circuitBreakers = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, AtomicLong> dropped = new EnumMap<>(NotificationChannel.class);
+    private final BackoffPolicy backoffPolicy;
+    private final int maxAttempts;
+    private final long leaseMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public NotificationDispatcher(ReservationRepository reservationRepository,
+                                  NotificationDeadLetterRepository deadLetterRepository,
+                                  PendingNotificationRepository pendingRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  EmailNotificationObserver emailObserver,
+                                  SmsNotificationObserver smsObserver,
+                                  WhatsAppNotificationObserver whatsappObserver,
+                                  @Value("${app.notifications.retry.max-attempts:5}") int maxAttempts,
+                                  @Value("${app.notifications.retry.initial-delay-ms:2000}") long initialDelayMs,
+                                  @Value("${app.notifications.retry.max-delay-ms:300000}") long maxDelayMs,
+                                  @Value("${app.notifications.retry.multiplier:2.0}") double multiplier,
+                                  @Value("${app.notifications.circuit-breaker.window-size:10}") int windowSize,
+                                  @Value("${app.notifications.circuit-breaker.minimum-calls:5}") int minimumCalls,
+                                  @Value("${app.notifications.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                                  @Value("${app.notifications.circuit-breaker.open-duration-ms:60000}") long openDurationMs,
+                                  @Value("${app.notifications.retry.lease-ms:300000}") long leaseMillis,
+                                  @Value("${app.notifications.worker-threads:2}") int workerThreads) {
+        this.reservationRepository = reservationRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.pendingRepository = pendingRepository;
+
+        // Se llama desde afterCommit: cada cambio de la cola se confirma en su propia transacción
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        observers.put(NotificationChannel.EMAIL, emailObserver);
+        observers.put(NotificationChannel.SMS, smsObserver);
+        observers.put(NotificationChannel.WHATSAPP, whatsappObserver);
+
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            circuitBreakers.put(channel, new CircuitBreaker(channel.name(), windowSize, minimumCalls,
+                    failureRateThreshold, openDurationMs, 1));
+            dropped.put(channel, new AtomicLong());
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.leaseMillis = leaseMillis;
+        this.backoffPolicy = new BackoffPolicy(initialDelayMs, maxDelayMs, multiplier);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newScheduledThreadPool(workerThreads, threadFactory);
+    }
+
+    /**
+     * Encola una notificación para un canal
+     */
+    public void dispatch(NotificationChannel channel, NotificationEventType eventType, Long reservationId) {
+        dispatch(channel, List.of(new NotificationItem(reservationId, eventType)));
+    }
+
+    /**
+     * Encola un mensaje para un canal. Con más de un elemento se envía como resumen (digest).
+     * Se llama después del commit que originó los eventos (NotificationCoalescer): el mensaje
+     * se guarda en pending_notifications y se intenta de inmediato.
+     */
+    public void dispatch(NotificationChannel channel, List<NotificationItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Long id;
+        try {
+            id = transactionTemplate.execute(status ->
+                    pendingRepository.save(pending(channel, items, LocalDateTime.now())).getId());
+        } catch (Exception e) {
+            dropped.get(channel).incrementAndGet();
+            log.error("❌ No se pudo encolar la notificación {} por {}, se descarta: {}",
+                    describe(items), channel, e.getMessage());
+            return;
+        }
+        schedule(id, 0);
+    }
+
+    /**
+     * Reenvía en bloque las notificaciones fallidas.
+     * @param channel canal a reenviar, o null para todos
+     * @return cantidad de notificaciones reencoladas
+     */
+    public int replayDeadLetters(NotificationChannel channel) {
+        // Los dead-letters pasan a la cola en la misma transacción: no se pierden ni se duplican
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<NotificationDeadLetter> letters = channel == null
+                    ? deadLetterRepository.findAllByOrderByIdAsc()
+                    : deadLetterRepository.findByChannelOrderByIdAsc(channel);
+            deadLetterRepository.deleteAllInBatch(letters);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<PendingNotification> pending = letters.stream()
+                    .map(letter -> pending(letter.getChannel(),
+                            List.of(new NotificationItem(letter.getReservationId(), letter.getEventType())), now))
+                    .toList();
+            return pendingRepository.saveAll(pending).stream().map(PendingNotification::getId).toList();
+        });
+
+        ids.forEach(id -> schedule(id, 0));
+
+        log.info("🔁 Reenviando {} notificaciones fallidas{}", ids.size(),
+                channel == null ? "" : " del canal " + channel);
+        return ids.size();
+    }
+
+    /**
+     * Pasada periódica: intenta los mensajes vencidos que no tienen un aviso en memoria
+     * (pendientes de antes de un reinicio o envíos que no terminaron antes del lease)
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.retry.sweep-interval-ms:30000}",
+               initialDelayString = "${app.notifications.retry.sweep-interval-ms:30000}")
+    public void sweepDue() {
+        List<Long> due;
+        try {
+            due = pendingRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudieron leer las notificaciones pendientes: {}", e.getMessage());
+            return;
+        }
+        if (!due.isEmpty()) {
+            log.info("🔁 Retomando {} notificaciones pendientes", due.size());
+            due.forEach(id -> schedule(id, 0));
+        }
+    }
+
+    /**
+     * Estado de los circuit breakers por canal, con los mensajes en cola y los descartados
+     * porque no se pudieron guardar en la cola
+     */
+    public Map<String, Object> getChannelStatus() {
+        Map<String, Object> status = new HashMap<>();
+        circuitBreakers.forEach((channel, breaker) -> status.put(channel.name(), Map.of(
+                "state", breaker.getState().name(),
+                "failureRate", Math.round(breaker.getFailureRate() * 100.0) / 100.0,
+                "remainingOpenMillis", breaker.getRemainingOpenMillis(),
+                "pending", pendingRepository.countByChannel(channel),
+                "dropped", dropped.get(channel).get()
+        )));
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Aviso en memoria para intentar el mensaje cuando vence (la fila manda: ver claim)
+     */
+    private void schedule(Long id, long delayMillis) {
+        try {
+            scheduler.schedule(() -> execute(id), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Apagando: la fila queda en la cola y se retoma en el próximo arranque
+            log.debug("Aviso de la notificación #{} descartado al apagar", id);
+        }
+    }
+
+    private void execute(Long id) {
+        Claimed claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> claim(id));
+        } catch (Exception e) {
+            // La fila sigue vencida: la retoma la pasada periódica
+            log.warn("⚠️ No se pudo tomar la notificación #{}: {}", id, e.getMessage());
+            return;
+        }
+        if (claimed == null) {
+            // Ya enviada, o la tiene otro hilo
+            return;
+        }
+
+        NotificationTask task = claimed.task();
+        if (claimed.notifications().isEmpty()) {
+            log.warn("⚠️ Notificación descartada: las reservas {} ya no existen", task.describe());
+            finish(task, () -> pendingRepository.deleteById(task.id()));
+            return;
+        }
+
+        CircuitBreaker breaker = circuitBreakers.get(task.channel());
+        if (!breaker.tryAcquirePermission()) {
+            // Canal caído: esperar a que el circuito permita probar de nuevo, sin consumir intentos
+            long delay = Math.max(breaker.getRemainingOpenMillis(), backoffPolicy.getInitialDelayMillis());
+            log.debug("⛔ Circuito {} abierto, {} reprogramada en {} ms", task.channel(), task.describe(), delay);
+            reschedule(task, task.attempt(), delay, null);
+            return;
+        }
+
+        try {
+            deliver(observers.get(task.channel()), claimed.notifications());
+            breaker.onSuccess();
+        } catch (Exception e) {
+            breaker.onFailure();
+            retryOrDeadLetter(task, e);
+            return;
+        }
+        finish(task, () -> pendingRepository.deleteById(task.id()));
+    }
+
+    /**
+     * Toma la fila hasta el fin del lease y carga sus reservas
+     * @return null si no se pudo tomar
+     */
+    private Claimed claim(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        if (pendingRepository.claim(id, now, now.plus(leaseMillis, ChronoUnit.MILLIS)) == 0) {
+            return null;
+        }
+        PendingNotification pending = pendingRepository.findById(id).orElse(null);
+        if (pending == null) {
+            return null;
+        }
+        List<NotificationItem> items = pending.getItems().stream()
+                .map(item -> new NotificationItem(item.getReservationId(), item.getEventType()))
+                .toList();
+        NotificationTask task = new NotificationTask(id, pending.getChannel(), items, pending.getAttempt());
+        return new Claimed(task, loadNotifications(items));
+    }
+
+    /**
+     * Carga las reservas (con cliente y habitación) en una sola consulta,
+     * conservando el orden de los elementos y descartando las que ya no existen
+     */
+    private List<ReservationNotification> loadNotifications(List<NotificationItem> items) {
+        List<Long> ids = items.stream().map(NotificationItem::reservationId).distinct().toList();
+        Map<Long, Reservation> reservations = new HashMap<>();
+        for (Reservation reservation : reservationRepository.findAllByIdWithDetails(ids)) {
+            reservations.put(reservation.getId(), reservation);
+        }
+
+        List<ReservationNotification> notifications = new ArrayList<>();
+        for (NotificationItem item : items) {
+            Reservation reservation = reservations.get(item.reservationId());
+            if (reservation != null) {
+                notifications.add(new ReservationNotification(reservation, item.eventType()));
+            }
+        }
+        return notifications;
+    }
+
+    private void deliver(ReservationObserver observer, List<ReservationNotification> notifications) {
+        if (notifications.size() > 1) {
+            observer.onReservationDigest(notifications);
+            return;
+        }
+
+        ReservationNotification notification = notifications.get(0);
+        switch (notification.eventType()) {
+            case RESERVATION_CREATED -> observer.onReservationCreated(notification.reservation());
+            case RESERVATION_CONFIRMED -> observer.onReservationConfirmed(notification.reservation());
+            case RESERVATION_CANCELLED -> observer.onReservationCancelled(notification.reservation());
+        }
+    }
+
+    private void retryOrDeadLetter(NotificationTask task, Exception error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+
+        if (task.attempt() < maxAttempts) {
+            long delay = backoffPolicy.delayFor(task.attempt());
+            log.warn("⚠️ Falló {} por {} (intento {}/{}), reintento en {} ms: {}",
+                    task.describe(), task.channel(), task.attempt(), maxAttempts, delay, message);
+            reschedule(task, task.attempt() + 1, delay, truncate(message));
+            return;
+        }
+
+        log.error("❌ {} por {} agotó {} intentos, enviado a dead-letter: {}",
+                task.describe(), task.channel(), maxAttempts, message);
+        // Un registro por elemento, para poder reenviarlos de forma individual
+        List<NotificationDeadLetter> letters = task.items().stream()
+                .map(item -> NotificationDeadLetter.builder()
+                        .reservationId(item.reservationId())
+                        .channel(task.channel())
+                        .eventType(item.eventType())
+                        .attempts(task.attempt())
+                        .lastError(truncate(message))
+                        .build())
+                .toList();
+        // Se guardan y se quitan de la cola en la misma transacción
+        finish(task, () -> {
+            deadLetterRepository.saveAll(letters);
+            pendingRepository.deleteById(task.id());
+        });
+    }
+
+    /**
+     * Programa el siguiente intento. nextAttemptAt se trunca a milisegundos: nunca queda después
+     * del momento en que salta el aviso en memoria, que la toma al vencer.
+     */
+    private void reschedule(NotificationTask task, int attempt, long delayMillis, String lastError) {
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(delayMillis, ChronoUnit.MILLIS)
+                .truncatedTo(ChronoUnit.MILLIS);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    pendingRepository.reschedule(task.id(), attempt, nextAttemptAt, lastError));
+        } catch (Exception e) {
+            // La fila sigue tomada: se retoma al vencer el lease
+            log.error("❌ No se pudo reprogramar {}: {}", task.describe(), e.getMessage());
+            return;
+        }
+        schedule(task.id(), delayMillis);
+    }
+
+    /**
+     * Cierra el mensaje en la cola (entregado, descartado o movido a dead-letter)
+     */
+    private void finish(NotificationTask task, Runnable action) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> action.run());
+        } catch (Exception e) {
+            // La fila sigue tomada: al vencer el lease se vuelve a intentar (puede llegar dos veces)
+            log.error("❌ No se pudo cerrar {} en la cola: {}", task.describe(), e.getMessage());
+        }
+    }
+
+    private PendingNotification pending(NotificationChannel channel, List<NotificationItem> items, LocalDateTime now) {
+        return PendingNotification.builder()
+                .channel(channel)
+                .items(new ArrayList<>(items.stream()
+                        .map(item -> new PendingNotificationItem(item.reservationId(), item.eventType()))
+                        .toList()))
+                .attempt(1)
+                .nextAttemptAt(now.truncatedTo(ChronoUnit.MILLIS))
+                .build();
+    }
+
+    private static String describe(List<NotificationItem> items) {
+        return items.stream()
+                .map(item -> item.eventType() + " #" + item.reservationId())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    /**
+     * Evento de una reserva a notificar
+     */
+    public record NotificationItem(Long reservationId, NotificationEventType eventType) {
+    }
+
+    /**
+     * Mensaje tomado de pending_notifications (uno o varios eventos del mismo cliente)
+     */
+    private record NotificationTask(Long id,
+                                    NotificationChannel channel,
+                                    List<NotificationItem> items,
+                                    int attempt) {
+
+        String describe() {
+            return NotificationDispatcher.describe(items);
+        }
+    }
+
+    /**
+     * Mensaje tomado junto con sus reservas ya cargadas
+     */
+    private record Claimed(NotificationTask task, List<ReservationNotification> notifications) {
+    }
+}
@@ -1,16 +1,25 @@
 package com.hotel.reservation.service;
 
+import com.hotel.reservation.dto.NotificationDeadLetterDTO;
 import com.hotel.reservation.dto.NotificationPreferenceDTO;
 import com.hotel.reservation.exception.ResourceNotFoundException;
 import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.NotificationChannel;
+import com.hotel.reservation.models.NotificationDeadLetter;
 import com.hotel.reservation.models.NotificationPreference;
 import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.NotificationDeadLetterRepository;
 import com.hotel.reservation.repositories.NotificationPreferenceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 @Transactional
 @RequiredArgsConstructor
@@ -19,6 +28,8 @@ public class NotificationService {
 
     private final NotificationPreferenceRepository preferenceRepository;
     private final CustomerRepository customerRepository;
+    private final NotificationDeadLetterRepository deadLetterRepository;
+    private final NotificationDispatcher notificationDispatcher;
 
     /**
      * Obtiene las preferencias de notificación de un cliente
@@ -51,6 +62,39 @@ public class NotificationService {
         return convertToDTO(preference);
     }
 
+    /**
+     * Lista las notificaciones que agotaron sus reintentos
+     * @param channel canal a filtrar, o null para todos
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationDeadLetterDTO> getDeadLetters(NotificationChannel channel) {
+        List<NotificationDeadLetter> letters = channel == null
+                ? deadLetterRepository.findAllByOrderByIdAsc()
+                : deadLetterRepository.findByChannelOrderByIdAsc(channel);
+
+        return letters.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reenvía en bloque las notificaciones fallidas
+     * @param channel canal a reenviar, o null para todos
+     * @return cantidad de notificaciones reencoladas
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int replayDeadLetters(NotificationChannel channel) {
+        return notificationDispatcher.replayDeadLetters(channel);
+    }
+
+    /**
+     * Estado de los circuit breakers de cada canal
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getChannelStatus() {
+        return notificationDispatcher.getChannelStatus();
+    }
+
     /**
      * Crea preferencias por defecto para un cliente
      * Por defecto: Email activado, SMS y WhatsApp desactivados
@@ -82,4 +126,16 @@ public class NotificationService {
                 .activeChannelsCount(preference.getActiveChannelsCount())
                 .build();
     }
+
+    private NotificationDeadLetterDTO convertToDTO(NotificationDeadLetter letter) {
+        return NotificationDeadLetterDTO.builder()
+                .id(letter.getId())
+                .reservationId(letter.getReservationId())
+                .channel(letter.getChannel())
+                .eventType(letter.getEventType())
+                .attempts(letter.getAttempts())
+                .lastError(letter.getLastError())
+                .createdAt(letter.getCreatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,227 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.OccupancyMetricsDTO;
+import com.hotel.reservation.dto.OccupancyTimeSeriesDTO;
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.dto.RoomTypeOccupancy;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.RoomType;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ocupación diaria por tipo de habitación: noches vendidas, ocupación, ADR y RevPAR.
+ *
+ * Se calcula con un barrido de intervalos en lugar de una consulta por día:
+ * 1. Una sola consulta recorre (en streaming, sin entidades) las estancias confirmadas
+ *    o completadas que se cruzan con el rango
+ * 2. Cada estancia aporta +1 el día de entrada y -1 el día de salida, recortados al rango,
+ *    en un arreglo de diferencias por día (los eventos quedan ordenados por día sin
+ *    ordenarlos explícitamente); el ingreso por noche se acumula igual
+ * 3. Una suma acumulada día a día da las habitaciones ocupadas y el ingreso de cada noche
+ *
+ * El costo es O(reservas + días × tipos). Las noches disponibles se calculan con el
+ * inventario actual de habitaciones de cada tipo.
+ */
+@Slf4j
+@Service
+public class OccupancyAnalyticsService {
+
+    private static final List<ReservationStatus> OCCUPYING_STATUSES =
+            List.of(ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ReservationRepository reservationRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxDays;
+
+    public OccupancyAnalyticsService(ReservationRepository reservationRepository,
+                                     RoomRepository roomRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.reports.occupancy.max-days:1096}") int maxDays) {
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+        this.maxDays = maxDays;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Ocupación de cada día del rango [from, to]
+     */
+    public OccupancyTimeSeriesDTO getDailyOccupancy(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Las fechas inicial y final son obligatorias");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+        }
+        long rangeDays = to.toEpochDay() - from.toEpochDay() + 1;
+        if (rangeDays > maxDays) {
+            throw new IllegalArgumentException("El rango no puede superar " + maxDays + " días");
+        }
+
+        long start = System.currentTimeMillis();
+        int days = (int) rangeDays;
+        RoomType[] types = RoomType.values();
+
+        // Inventario por tipo
+        long[] rooms = new long[types.length];
+        for (RoomTypeOccupancy row : roomRepository.countGroupedByRoomType()) {
+            if (row.roomType() != null) {
+                rooms[row.roomType().ordinal()] = row.total();
+            }
+        }
+
+        // Arreglos de diferencias: tras la suma acumulada, [tipo][día] = habitaciones ocupadas / ingreso en centavos
+        long[][] sold = new long[types.length][days + 1];
+        long[][] revenueCents = new long[types.length][days + 1];
+        long scanned = sweep(from, to, days, sold, revenueCents);
+
+        for (int t = 0; t < types.length; t++) {
+            for (int d = 1; d <= days; d++) {
+                sold[t][d] += sold[t][d - 1];
+                revenueCents[t][d] += revenueCents[t][d - 1];
+            }
+        }
+
+        // Totales del periodo por tipo; se omiten los tipos sin habitaciones ni ventas
+        long[] periodSold = new long[types.length];
+        long[] periodRevenue = new long[types.length];
+        boolean[] reported = new boolean[types.length];
+        for (int t = 0; t < types.length; t++) {
+            for (int d = 0; d < days; d++) {
+                periodSold[t] += sold[t][d];
+                periodRevenue[t] += revenueCents[t][d];
+            }
+            reported[t] = rooms[t] > 0 || periodSold[t] > 0;
+        }
+
+        List<OccupancyMetricsDTO> daily = new ArrayList<>(days * (types.length + 1));
+        for (int d = 0; d < days; d++) {
+            LocalDate date = from.plusDays(d);
+            long dayAvailable = 0;
+            long daySold = 0;
+            long dayRevenue = 0;
+            for (int t = 0; t < types.length; t++) {
+                if (!reported[t]) {
+                    continue;
+                }
+                daily.add(metrics(date, types[t], rooms[t], sold[t][d], revenueCents[t][d]));
+                dayAvailable += rooms[t];
+                daySold += sold[t][d];
+                dayRevenue += revenueCents[t][d];
+            }
+            daily.add(metrics(date, null, dayAvailable, daySold, dayRevenue));
+        }
+
+        List<OccupancyMetricsDTO> summary = new ArrayList<>(types.length + 1);
+        long totalAvailable = 0;
+        long totalSold = 0;
+        long totalRevenue = 0;
+        for (int t = 0; t < types.length; t++) {
+            if (!reported[t]) {
+                continue;
+            }
+            summary.add(metrics(null, types[t], rooms[t] * days, periodSold[t], periodRevenue[t]));
+            totalAvailable += rooms[t] * days;
+            totalSold += periodSold[t];
+            totalRevenue += periodRevenue[t];
+        }
+        summary.add(metrics(null, null, totalAvailable, totalSold, totalRevenue));
+
+        log.info("🏨 Ocupación diaria {} - {}: {} reservas, {} días en {} ms",
+                from, to, scanned, days, System.currentTimeMillis() - start);
+
+        return OccupancyTimeSeriesDTO.builder()
+                .from(from)
+                .to(to)
+                .days(days)
+                .reservationsScanned(scanned)
+                .summary(summary)
+                .daily(daily)
+                .build();
+    }
+
+    /**
+     * Registra +1/-1 (y el ingreso por noche) de cada estancia recortada al rango
+     * @return cantidad de estancias recorridas
+     */
+    private long sweep(LocalDate from, LocalDate to, int days, long[][] sold, long[][] revenueCents) {
+        long fromDay = from.toEpochDay();
+        Long scanned = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<ReservationStay> stays = reservationRepository.streamStaysOverlapping(
+                    OCCUPYING_STATUSES, from, to)) {
+                Iterator<ReservationStay> iterator = stays.iterator();
+                while (iterator.hasNext()) {
+                    ReservationStay stay = iterator.next();
+                    count++;
+                    if (stay.roomType() == null) {
+                        continue;
+                    }
+                    long checkIn = stay.checkInDate().toEpochDay();
+                    long checkOut = stay.checkOutDate().toEpochDay();
+                    long nights = checkOut - checkIn;
+                    if (nights <= 0) {
+                        continue;
+                    }
+
+                    // Noches [checkIn, checkOut) dentro de [from, to]
+                    int first = (int) Math.max(0, checkIn - fromDay);
+                    int end = (int) Math.min(days, checkOut - fromDay);
+                    if (first >= end) {
+                        continue;
+                    }
+
+                    long nightlyCents = toCents(stay.totalPrice()) / nights;
+                    int type = stay.roomType().ordinal();
+                    sold[type][first]++;
+                    sold[type][end]--;
+                    revenueCents[type][first] += nightlyCents;
+                    revenueCents[type][end] -= nightlyCents;
+                }
+            }
+            return count;
+        });
+        return scanned != null ? scanned : 0;
+    }
+
+    private OccupancyMetricsDTO metrics(LocalDate date, RoomType roomType, long available, long sold,
+                                        long revenueCents) {
+        BigDecimal revenue = BigDecimal.valueOf(revenueCents, 2);
+        return OccupancyMetricsDTO.builder()
+                .date(date)
+                .roomType(roomType)
+                .roomNightsAvailable(available)
+                .roomNightsSold(sold)
+                .occupancyRate(available > 0 ? Math.round(sold * 10000.0 / available) / 100.0 : 0.0)
+                .roomRevenue(revenue)
+                .adr(sold > 0
+                        ? revenue.divide(BigDecimal.valueOf(sold), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO.setScale(2))
+                .revpar(available > 0
+                        ? revenue.divide(BigDecimal.valueOf(available), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO.setScale(2))
+                .build();
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.multiply(HUNDRED).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
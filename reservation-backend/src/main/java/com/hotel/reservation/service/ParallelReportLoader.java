@@ -0,0 +1,100 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.patterns.behavioral.visitor.ChunkedVisitTask;
+import com.hotel.reservation.patterns.behavioral.visitor.MergeableVisitor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Carga en paralelo de tablas independientes para los reportes.
+ *
+ * - Cada consulta corre en un pool dedicado, en su propia transacción de solo lectura,
+ *   en lugar de ejecutarse una tras otra en el hilo de la petición
+ * - Las entidades cargadas se recorren con visitors combinables (MergeableVisitor):
+ *   las tablas grandes se dividen en bloques con fork-join y los parciales se combinan
+ *
+ * Las consultas deben traer con JOIN FETCH las relaciones que usen los visitors, ya que
+ * las entidades quedan desasociadas al cerrar su transacción.
+ */
+@Slf4j
+@Service
+public class ParallelReportLoader {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService loadExecutor;
+    private final ForkJoinPool visitPool;
+    private final int forkThreshold;
+
+    public ParallelReportLoader(PlatformTransactionManager transactionManager,
+                                @Value("${app.reports.parallel.load-threads:4}") int loadThreads,
+                                @Value("${app.reports.parallel.visit-parallelism:0}") int visitParallelism,
+                                @Value("${app.reports.parallel.fork-threshold:1000}") int forkThreshold) {
+        this.forkThreshold = forkThreshold;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("report-load-");
+        threadFactory.setDaemon(true);
+        this.loadExecutor = Executors.newFixedThreadPool(loadThreads, threadFactory);
+
+        // 0 = un hilo por procesador
+        this.visitPool = new ForkJoinPool(visitParallelism > 0
+                ? visitParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ejecuta la consulta en el pool, en una transacción de solo lectura propia,
+     * y recorre el resultado con visitors combinables
+     * @return future con el visitor que agrupa todos los bloques
+     */
+    public <T, V extends MergeableVisitor<V>> CompletableFuture<V> loadAndVisit(Supplier<List<T>> query,
+                                                                                Supplier<V> visitorFactory,
+                                                                                BiConsumer<V, T> visit) {
+        return CompletableFuture
+                .supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), loadExecutor)
+                .thenApply(items -> ChunkedVisitTask.invoke(visitPool, items, forkThreshold, visitorFactory, visit));
+    }
+
+    /**
+     * Espera todas las cargas y combina sus resultados en orden
+     */
+    public <V extends MergeableVisitor<V>> V mergeAll(List<CompletableFuture<V>> parts) {
+        long start = System.currentTimeMillis();
+        try {
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+            V result = parts.get(0).join();
+            for (int i = 1; i < parts.size(); i++) {
+                result.merge(parts.get(i).join());
+            }
+            log.debug("📊 {} cargas en paralelo combinadas en {} ms", parts.size(), System.currentTimeMillis() - start);
+            return result;
+        } catch (CompletionException e) {
+            // El llamador recibe el error original de la consulta o del visitor
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+        visitPool.shutdownNow();
+    }
+}
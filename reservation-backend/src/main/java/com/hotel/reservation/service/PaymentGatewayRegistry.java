@@ -0,0 +1,126 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.config.PaymentGatewayProperties;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.patterns.structural.adapter.CashPaymentAdapter;
+import com.hotel.reservation.patterns.structural.adapter.LocalCallbackGatewayAdapter;
+import com.hotel.reservation.patterns.structural.adapter.PayPalPaymentAdapter;
+import com.hotel.reservation.patterns.structural.adapter.ProcessedRequests;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter.PaymentResult;
+import com.hotel.reservation.patterns.structural.adapter.StripePaymentAdapter;
+import com.hotel.reservation.resilience.CircuitBreaker;
+import com.hotel.reservation.resilience.ResilientPaymentGateway;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Registro de pasarelas de pago por método.
+ *
+ * Cada adapter se envuelve en un ResilientPaymentGateway con su propio bulkhead,
+ * timeout y circuit breaker, de modo que una pasarela degradada no afecta a las demás.
+ *
+ * En modo asíncrono puede usarse la pasarela local con callback (pruebas sin conexión).
+ */
+@Component
+public class PaymentGatewayRegistry {
+
+    private final Map<PaymentMethod, ResilientPaymentGateway> gateways = new EnumMap<>(PaymentMethod.class);
+    private final ResilientPaymentGateway localCallbackGateway;
+    private final boolean localGatewayEnabled;
+    private final ExecutorService executor;
+
+    public PaymentGatewayRegistry(StripePaymentAdapter stripeAdapter,
+                                  PayPalPaymentAdapter paypalAdapter,
+                                  CashPaymentAdapter cashAdapter,
+                                  ObjectProvider<LocalCallbackGatewayAdapter> localCallbackAdapter,
+                                  PaymentGatewayProperties properties) {
+        // Pool sin límite propio: la concurrencia de cada pasarela la acota su bulkhead
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-gateway-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+
+        gateways.put(PaymentMethod.CREDIT_CARD, wrap("stripe", stripeAdapter, properties));
+        gateways.put(PaymentMethod.PAYPAL, wrap("paypal", paypalAdapter, properties));
+        gateways.put(PaymentMethod.CASH, wrap("cash", cashAdapter, properties));
+
+        // El adapter local solo existe con app.payments.async.local-gateway.enabled=true
+        LocalCallbackGatewayAdapter localAdapter = localCallbackAdapter.getIfAvailable();
+        this.localCallbackGateway = localAdapter != null ? wrap("local-callback", localAdapter, properties) : null;
+        this.localGatewayEnabled = localAdapter != null;
+    }
+
+    /**
+     * Pasarela (protegida) para un método de pago
+     */
+    public PaymentGatewayAdapter forMethod(PaymentMethod paymentMethod) {
+        return gateways.get(paymentMethod);
+    }
+
+    /**
+     * Pasarela para el modo asíncrono: la local con callback si está habilitada
+     */
+    public PaymentGatewayAdapter forAsyncMethod(PaymentMethod paymentMethod) {
+        return localGatewayEnabled ? localCallbackGateway : forMethod(paymentMethod);
+    }
+
+    /**
+     * Pasarela que procesó una transacción (para consultar su estado)
+     */
+    public PaymentGatewayAdapter forTransaction(PaymentMethod paymentMethod, String transactionId) {
+        if (localGatewayEnabled && transactionId != null
+                && transactionId.startsWith(LocalCallbackGatewayAdapter.TRANSACTION_PREFIX)) {
+            return localCallbackGateway;
+        }
+        return forMethod(paymentMethod);
+    }
+
+    /**
+     * Consulta un cobro por su clave de idempotencia. El pago pudo enviarse a la pasarela
+     * de su método (modo síncrono) o a la local (modo asíncrono con la local habilitada).
+     */
+    public PaymentResult findByRequestId(PaymentMethod paymentMethod, String requestId) {
+        PaymentResult result = forMethod(paymentMethod).findByRequestId(requestId);
+        if (localGatewayEnabled && ProcessedRequests.ERROR_UNKNOWN_REQUEST.equals(result.getErrorCode())) {
+            return localCallbackGateway.findByRequestId(requestId);
+        }
+        return result;
+    }
+
+    /**
+     * Métricas de todas las pasarelas
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        gateways.values().forEach(gateway -> metrics.put(gateway.getName(), gateway.getMetrics()));
+        if (localGatewayEnabled) {
+            metrics.put(localCallbackGateway.getName(), localCallbackGateway.getMetrics());
+        }
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ResilientPaymentGateway wrap(String name, PaymentGatewayAdapter adapter,
+                                         PaymentGatewayProperties properties) {
+        PaymentGatewayProperties.Gateway settings = properties.gateway(name);
+        PaymentGatewayProperties.CircuitBreakerSettings breaker = properties.getCircuitBreaker();
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(name, breaker.getWindowSize(), breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(), breaker.getOpenDurationMs(), breaker.getHalfOpenProbes());
+
+        return new ResilientPaymentGateway(name, adapter, executor,
+                settings.getMaxConcurrentCalls(), settings.getTimeoutMs(), circuitBreaker);
+    }
+}
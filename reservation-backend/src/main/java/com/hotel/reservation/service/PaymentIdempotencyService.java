@@ -0,0 +1,287 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.PaymentDTO;
+import com.hotel.reservation.exception.PaymentProcessingException;
+import com.hotel.reservation.exception.ResourceNotFoundException;
+import com.hotel.reservation.models.IdempotencyRecord;
+import com.hotel.reservation.models.IdempotencyStatus;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.repositories.IdempotencyRecordRepository;
+import com.hotel.reservation.resilience.ResilientPaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Procesamiento idempotente de pagos (header Idempotency-Key).
+ *
+ * Un reintento del cliente con la misma clave nunca vuelve a llamar al gateway:
+ * - Claves completadas: se responde desde la caché local o desde la tabla idempotency_keys
+ * - Claves en curso en este nodo: el duplicado espera el resultado de la petición original
+ * - Claves en curso en otro nodo: se responde 409 para que el cliente reintente más tarde
+ *
+ * Si la petición original falla sin haber cobrado (rechazo de la pasarela, circuito abierto,
+ * pasarela saturada o datos inválidos), la clave se libera y puede reintentarse. Si la pasarela
+ * no respondió a tiempo el pago queda PENDING y la clave guarda esa respuesta: los reintentos
+ * reciben el estado actual del pago, que resuelve la reconciliación, sin volver a cobrar.
+ * Ante cualquier otro error la clave queda reservada.
+ */
+@Slf4j
+@Service
+public class PaymentIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final PaymentService paymentService;
+    private final AsyncPaymentProcessor asyncPaymentProcessor;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate requiresNewTransaction;
+    private final ObjectMapper objectMapper;
+    private final long waitTimeoutMillis;
+    private final long staleAfterMillis;
+
+    // Peticiones en curso en este nodo
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // Respuestas completadas recientes (LRU)
+    private final Map<String, Completed> completed;
+
+    public PaymentIdempotencyService(PaymentService paymentService,
+                                     AsyncPaymentProcessor asyncPaymentProcessor,
+                                     IdempotencyRecordRepository idempotencyRecordRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.payments.idempotency.cache-size:10000}") int cacheSize,
+                                     @Value("${app.payments.idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis,
+                                     @Value("${app.payments.idempotency.stale-after-ms:120000}") long staleAfterMillis) {
+        this.paymentService = paymentService;
+        this.asyncPaymentProcessor = asyncPaymentProcessor;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.staleAfterMillis = staleAfterMillis;
+
+        // Cada cambio de la clave se confirma de inmediato, independiente del pago
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Procesa un pago una sola vez por clave de idempotencia
+     * @param idempotencyKey clave enviada por el cliente, o null para procesar sin deduplicar
+     * @param async true para solo registrar el pago (PENDING) y cobrarlo en segundo plano
+     */
+    public IdempotentPayment processPayment(String idempotencyKey, Long reservationId, PaymentMethod paymentMethod,
+                                            boolean async) {
+        if (idempotencyKey == null) {
+            return new IdempotentPayment(execute(reservationId, paymentMethod, async), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key inválida: debe tener entre 1 y "
+                    + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String fingerprint = reservationId + ":" + paymentMethod.name() + (async ? ":async" : "");
+
+        // 1. Respuesta ya conocida en este nodo
+        Completed cached = completed.get(idempotencyKey);
+        if (cached != null) {
+            checkFingerprint(idempotencyKey, cached.fingerprint(), fingerprint);
+            log.info("🔁 Pago duplicado con clave {} respondido desde caché", idempotencyKey);
+            return new IdempotentPayment(current(cached.payment()), true);
+        }
+
+        // 2. Petición idéntica en curso: esperar su resultado en lugar de competir
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (existing != null) {
+            checkFingerprint(idempotencyKey, existing.fingerprint(), fingerprint);
+            log.info("⏳ Pago duplicado con clave {}: esperando a la petición original", idempotencyKey);
+            return new IdempotentPayment(await(existing.result()), true);
+        }
+
+        // 3. Esta petición es la dueña de la clave
+        try {
+            IdempotentPayment result = processAsOwner(idempotencyKey, fingerprint, reservationId, paymentMethod, async);
+            mine.result().complete(result.payment());
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey);
+        }
+    }
+
+    private IdempotentPayment processAsOwner(String idempotencyKey, String fingerprint,
+                                             Long reservationId, PaymentMethod paymentMethod, boolean async) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByIdempotencyKey(idempotencyKey);
+
+        if (stored.isPresent()) {
+            IdempotencyRecord record = stored.get();
+            checkFingerprint(idempotencyKey, record.getRequestFingerprint(), fingerprint);
+
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                PaymentDTO payment = readResponse(record.getResponseBody());
+                completed.put(idempotencyKey, new Completed(fingerprint, payment));
+                log.info("🔁 Pago duplicado con clave {} respondido desde la base de datos", idempotencyKey);
+                return new IdempotentPayment(current(payment), true);
+            }
+
+            // En curso en otro nodo, o abandonada por un nodo que se detuvo a mitad del pago
+            if (record.getCreatedAt().isAfter(LocalDateTime.now().minusNanos(staleAfterMillis * 1_000_000))) {
+                throw new IllegalStateException("El pago con esta Idempotency-Key ya se está procesando");
+            }
+            log.warn("⚠️ Clave {} abandonada desde {}, se retoma el pago", idempotencyKey, record.getCreatedAt());
+            record.setCreatedAt(LocalDateTime.now());
+            requiresNewTransaction.executeWithoutResult(status -> idempotencyRecordRepository.save(record));
+        } else {
+            reserveKey(idempotencyKey, fingerprint);
+        }
+
+        PaymentDTO payment;
+        try {
+            payment = execute(reservationId, paymentMethod, async);
+        } catch (RuntimeException e) {
+            if (nothingCharged(e)) {
+                // No hubo cobro (el pago no se registró o quedó FAILED): liberar la clave para permitir el reintento
+                requiresNewTransaction.executeWithoutResult(status ->
+                        idempotencyRecordRepository.deleteByIdempotencyKey(idempotencyKey));
+            } else {
+                log.error("❌ Pago con clave {} interrumpido por un error inesperado, la clave queda reservada: {}",
+                        idempotencyKey, e.getMessage());
+            }
+            throw e;
+        }
+
+        String body = writeResponse(payment);
+        requiresNewTransaction.executeWithoutResult(status ->
+                idempotencyRecordRepository.findByIdempotencyKey(idempotencyKey).ifPresent(record -> {
+                    record.setStatus(IdempotencyStatus.COMPLETED);
+                    record.setResponseBody(body);
+                    record.setCompletedAt(LocalDateTime.now());
+                }));
+        completed.put(idempotencyKey, new Completed(fingerprint, payment));
+
+        return new IdempotentPayment(payment, false);
+    }
+
+    private PaymentDTO execute(Long reservationId, PaymentMethod paymentMethod, boolean async) {
+        return async
+                ? asyncPaymentProcessor.submit(reservationId, paymentMethod)
+                : paymentService.processPayment(reservationId, paymentMethod);
+    }
+
+    /**
+     * Errores que garantizan que no hubo cobro. Un resultado desconocido de la pasarela no llega
+     * como excepción: el pago queda PENDING y se guarda como respuesta.
+     */
+    private boolean nothingCharged(RuntimeException e) {
+        if (e instanceof PaymentProcessingException paymentError) {
+            return !ResilientPaymentGateway.isOutcomeUnknown(paymentError.getErrorCode());
+        }
+        return e instanceof ResourceNotFoundException || e instanceof IllegalArgumentException;
+    }
+
+    /**
+     * Una respuesta PENDING (pago asíncrono o sin respuesta de la pasarela) se devuelve con el estado actual
+     */
+    private PaymentDTO current(PaymentDTO payment) {
+        return payment.getPaymentStatus() == PaymentStatus.PENDING
+                ? paymentService.getPaymentById(payment.getId())
+                : payment;
+    }
+
+    /**
+     * Registra la clave como IN_PROGRESS. La restricción UNIQUE resuelve la carrera entre nodos.
+     */
+    private void reserveKey(String idempotencyKey, String fingerprint) {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .requestFingerprint(fingerprint)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(record));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("El pago con esta Idempotency-Key ya se está procesando");
+        }
+    }
+
+    private PaymentDTO await(CompletableFuture<PaymentDTO> result) {
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // El duplicado recibe el mismo error que la petición original
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error al procesar el pago original", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("El pago con esta Idempotency-Key ya se está procesando");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del pago original interrumpida");
+        }
+    }
+
+    private void checkFingerprint(String idempotencyKey, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalArgumentException("La Idempotency-Key " + idempotencyKey
+                    + " ya se usó con otros datos de pago");
+        }
+    }
+
+    private String writeResponse(PaymentDTO payment) {
+        try {
+            return objectMapper.writeValueAsString(payment);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta del pago", e);
+        }
+    }
+
+    private PaymentDTO readResponse(String body) {
+        try {
+            return objectMapper.readValue(body, PaymentDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta guardada del pago inválida", e);
+        }
+    }
+
+    /**
+     * Resultado del pago e indicador de si es la respuesta de una petición anterior
+     */
+    public record IdempotentPayment(PaymentDTO payment, boolean replayed) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<PaymentDTO> result) {
+    }
+
+    private record Completed(String fingerprint, PaymentDTO payment) {
+    }
+}
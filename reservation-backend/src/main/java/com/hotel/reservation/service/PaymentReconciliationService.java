@@ -0,0 +1,298 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.PendingPaymentRef;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
+import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter.PaymentResult;
+import com.hotel.reservation.patterns.structural.adapter.ProcessedRequests;
+import com.hotel.reservation.repositories.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciliación periódica de pagos PENDING con las pasarelas (checkStatus).
+ *
+ * Resuelve los pagos asíncronos cuyo callback nunca llegó:
+ * 1. Recorre los pagos PENDING sin cambios en stale-after-ms con paginación por keyset
+ *    (id > último visto), sin cargar entidades completas
+ * 2. Consulta en su pasarela el estado de cada pago de la página en paralelo,
+ *    con un máximo de consultas simultáneas
+ * 3. Aplica las transiciones de cada página con sentencias UPDATE masivas
+ *
+ * Los pagos sin referencia de la pasarela (timeout o caída durante la llamada) se consultan
+ * por su clave de idempotencia (gatewayRequestId, guardada antes de llamarla): un cobro
+ * encontrado se completa y solo se marca fallido si la pasarela lo rechazó o, pasado
+ * unreferenced-timeout-ms, no tiene registro de la solicitud.
+ *
+ * Ambos plazos se cuentan desde updatedAt (inicio del intento actual) y no desde la creación:
+ * un pago fallido que se reintenta no debe verse vencido mientras se está cobrando.
+ */
+@Slf4j
+@Service
+public class PaymentReconciliationService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final int pageSize;
+    private final long staleAfterMillis;
+    private final long unreferencedTimeoutMillis;
+    private final ExecutorService checkExecutor;
+    private final ExecutorService runExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Progreso de la ejecución actual
+    private final AtomicLong currentScanned = new AtomicLong();
+
+    // Métricas acumuladas y de la última ejecución
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalChecked = new AtomicLong();
+    private final AtomicLong totalCompleted = new AtomicLong();
+    private final AtomicLong totalFailed = new AtomicLong();
+    private final AtomicLong totalErrors = new AtomicLong();
+    private volatile RunSummary lastRun;
+
+    public PaymentReconciliationService(PaymentRepository paymentRepository,
+                                        PaymentService paymentService,
+                                        PaymentGatewayRegistry paymentGatewayRegistry,
+                                        @Value("${app.payments.reconciliation.page-size:500}") int pageSize,
+                                        @Value("${app.payments.reconciliation.max-concurrency:8}") int maxConcurrency,
+                                        @Value("${app.payments.reconciliation.stale-after-ms:300000}") long staleAfterMillis,
+                                        @Value("${app.payments.reconciliation.unreferenced-timeout-ms:3600000}") long unreferencedTimeoutMillis) {
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.pageSize = pageSize;
+        this.staleAfterMillis = staleAfterMillis;
+        this.unreferencedTimeoutMillis = unreferencedTimeoutMillis;
+
+        CustomizableThreadFactory checkFactory = new CustomizableThreadFactory("payment-reconcile-");
+        checkFactory.setDaemon(true);
+        this.checkExecutor = Executors.newFixedThreadPool(maxConcurrency, checkFactory);
+
+        CustomizableThreadFactory runFactory = new CustomizableThreadFactory("payment-reconcile-run-");
+        runFactory.setDaemon(true);
+        this.runExecutor = Executors.newSingleThreadExecutor(runFactory);
+    }
+
+    /**
+     * Ejecución programada
+     */
+    @Scheduled(fixedDelayString = "${app.payments.reconciliation.interval-ms:60000}",
+               initialDelayString = "${app.payments.reconciliation.initial-delay-ms:60000}")
+    public void scheduledReconciliation() {
+        reconcile();
+    }
+
+    /**
+     * Lanza una reconciliación manual en segundo plano
+     * @return false si ya hay una en curso
+     */
+    public boolean trigger() {
+        if (running.get()) {
+            return false;
+        }
+        runExecutor.execute(this::reconcile);
+        return true;
+    }
+
+    /**
+     * Progreso y métricas de throughput
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("running", running.get());
+        metrics.put("currentScanned", currentScanned.get());
+        metrics.put("totalRuns", totalRuns.get());
+        metrics.put("totalChecked", totalChecked.get());
+        metrics.put("totalCompleted", totalCompleted.get());
+        metrics.put("totalFailed", totalFailed.get());
+        metrics.put("totalErrors", totalErrors.get());
+
+        RunSummary summary = lastRun;
+        if (summary != null) {
+            Map<String, Object> last = new LinkedHashMap<>();
+            last.put("startedAt", summary.startedAt().toString());
+            last.put("durationMs", summary.durationMillis());
+            last.put("scanned", summary.scanned());
+            last.put("checked", summary.checked());
+            last.put("completed", summary.completed());
+            last.put("failed", summary.failed());
+            last.put("unchanged", summary.unchanged());
+            last.put("errors", summary.errors());
+            last.put("checksPerSecond", summary.durationMillis() == 0
+                    ? summary.checked()
+                    : Math.round(summary.checked() * 1000.0 / summary.durationMillis()));
+            metrics.put("lastRun", last);
+        }
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        checkExecutor.shutdownNow();
+    }
+
+    /**
+     * Recorre todos los pagos pendientes antiguos, página por página
+     */
+    private void reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Reconciliación de pagos ya en curso, se omite");
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        currentScanned.set(0);
+        RunCounters counters = new RunCounters();
+
+        try {
+            LocalDateTime staleBefore = startedAt.minusNanos(staleAfterMillis * 1_000_000);
+            LocalDateTime unreferencedBefore = startedAt.minusNanos(unreferencedTimeoutMillis * 1_000_000);
+
+            long afterId = 0;
+            while (true) {
+                List<PendingPaymentRef> page = paymentRepository.findPageByStatusUpdatedBefore(
+                        PaymentStatus.PENDING, staleBefore, afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                reconcilePage(page, unreferencedBefore, counters);
+
+                afterId = page.get(page.size() - 1).id();
+                currentScanned.addAndGet(page.size());
+                counters.scanned += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            counters.errors++;
+            log.error("❌ Error en la reconciliación de pagos: {}", e.getMessage(), e);
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            lastRun = new RunSummary(startedAt, duration, counters.scanned, counters.checked,
+                    counters.completed, counters.failed, counters.unchanged, counters.errors);
+            totalRuns.incrementAndGet();
+            totalChecked.addAndGet(counters.checked);
+            totalCompleted.addAndGet(counters.completed);
+            totalFailed.addAndGet(counters.failed);
+            totalErrors.addAndGet(counters.errors);
+            running.set(false);
+
+            if (counters.scanned > 0) {
+                log.info("🔄 Reconciliación de pagos: {} revisados, {} completados, {} fallidos, {} sin cambios en {} ms",
+                        counters.scanned, counters.completed, counters.failed, counters.unchanged, duration);
+            }
+        }
+    }
+
+    private void reconcilePage(List<PendingPaymentRef> page, LocalDateTime unreferencedBefore,
+                               RunCounters counters) throws InterruptedException {
+        List<Long> toComplete = new ArrayList<>();
+        List<Long> toFail = new ArrayList<>();
+
+        // Con referencia se consulta la transacción; sin ella, el cobro por su clave de idempotencia
+        List<Callable<StatusCheck>> checks = new ArrayList<>();
+        for (PendingPaymentRef payment : page) {
+            if (payment.transactionId() != null) {
+                PaymentGatewayAdapter gateway = paymentGatewayRegistry.forTransaction(
+                        payment.paymentMethod(), payment.transactionId());
+                checks.add(() -> new StatusCheck(payment, gateway.checkStatus(payment.transactionId())));
+            } else if (payment.gatewayRequestId() != null) {
+                checks.add(() -> new StatusCheck(payment, paymentGatewayRegistry.findByRequestId(
+                        payment.paymentMethod(), payment.gatewayRequestId())));
+            } else if (payment.updatedAt().isBefore(unreferencedBefore)) {
+                // Pagos anteriores a la clave de idempotencia: solo se resuelven por tiempo
+                toFail.add(payment.id());
+            } else {
+                counters.unchanged++;
+            }
+        }
+
+        // El pool limita las consultas simultáneas
+        for (Future<StatusCheck> future : checkExecutor.invokeAll(checks)) {
+            counters.checked++;
+            try {
+                StatusCheck check = future.get();
+                PendingPaymentRef payment = check.payment();
+                PaymentResult result = check.result();
+                if (result.isSuccess()) {
+                    if (payment.transactionId() != null) {
+                        toComplete.add(payment.id());
+                    } else {
+                        // Cobro encontrado por su clave: se completa con la transacción de la pasarela
+                        paymentService.completePendingPayment(payment.id(), result.getTransactionId());
+                        counters.completed++;
+                    }
+                } else if (result.isPending()) {
+                    if (payment.transactionId() == null) {
+                        paymentService.recordGatewayReference(payment.id(), result.getTransactionId());
+                    }
+                    counters.unchanged++;
+                } else if (isTechnicalError(result)) {
+                    counters.unchanged++;
+                } else if (ProcessedRequests.ERROR_UNKNOWN_REQUEST.equals(result.getErrorCode())
+                        && !payment.updatedAt().isBefore(unreferencedBefore)) {
+                    // La solicitud pudo seguir en camino: se falla al superar unreferenced-timeout-ms
+                    counters.unchanged++;
+                } else {
+                    toFail.add(payment.id());
+                }
+            } catch (Exception e) {
+                counters.errors++;
+            }
+        }
+
+        // Transiciones en bloque: una sentencia por estado destino
+        counters.completed += paymentService.applyReconciledStatus(toComplete, PaymentStatus.COMPLETED);
+        counters.failed += paymentService.applyReconciledStatus(toFail, PaymentStatus.FAILED);
+    }
+
+    /**
+     * Errores de la capa de resiliencia: la pasarela no respondió, se reintenta en la próxima ejecución
+     */
+    private boolean isTechnicalError(PaymentResult result) {
+        return result.getErrorCode() != null && result.getErrorCode().startsWith("GATEWAY_");
+    }
+
+    private record StatusCheck(PendingPaymentRef payment, PaymentResult result) {
+    }
+
+    private record RunSummary(LocalDateTime startedAt, long durationMillis, long scanned, long checked,
+                              long completed, long failed, long unchanged, long errors) {
+    }
+
+    /**
+     * Contadores de una ejecución (solo los modifica el hilo de la reconciliación)
+     */
+    private static class RunCounters {
+        long scanned;
+        long checked;
+        long completed;
+        long failed;
+        long unchanged;
+        long errors;
+    }
+}
@@ -1,28 +1,32 @@
 package com.hotel.reservation.service;
 
+import com.hotel.reservation.cache.DataTable;
+import com.hotel.reservation.cache.DataVersions;
+import com.hotel.reservation.dto.PaymentCallbackDTO;
 import com.hotel.reservation.dto.PaymentDTO;
+import com.hotel.reservation.events.DomainEventPublisher;
+import com.hotel.reservation.events.DomainEventType;
 import com.hotel.reservation.exception.PaymentProcessingException;
 import com.hotel.reservation.exception.ResourceNotFoundException;
 import com.hotel.reservation.models.Payment;
 import com.hotel.reservation.models.PaymentMethod;
 import com.hotel.reservation.models.PaymentStatus;
 import com.hotel.reservation.models.Reservation;
-import com.hotel.reservation.patterns.behavioral.observer.EmailNotificationObserver;
 import com.hotel.reservation.patterns.creational.singleton.ConfigurationManager;
-import com.hotel.reservation.patterns.structural.adapter.CashPaymentAdapter;
-import com.hotel.reservation.patterns.structural.adapter.PayPalPaymentAdapter;
 import com.hotel.reservation.patterns.structural.adapter.PaymentGatewayAdapter;
-import com.hotel.reservation.patterns.structural.adapter.StripePaymentAdapter;
 import com.hotel.reservation.repositories.PaymentRepository;
 import com.hotel.reservation.repositories.ReservationRepository;
-import com.hotel.reservation.repositories.NotificationPreferenceRepository;
+import com.hotel.reservation.resilience.ResilientPaymentGateway;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -49,59 +53,43 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final ReservationRepository reservationRepository;
-    private final NotificationPreferenceRepository notificationPreferenceRepository;
-    private final EmailNotificationObserver emailObserver;
+    private final DomainEventPublisher eventPublisher;
+    private final DataVersions dataVersions;
+    private final RevenueRollupService revenueRollupService;
 
-    // Adapters para diferentes gateways de pago
-    private final PaymentGatewayAdapter stripeAdapter = new StripePaymentAdapter();
-    private final PaymentGatewayAdapter paypalAdapter = new PayPalPaymentAdapter();
-    private final PaymentGatewayAdapter cashAdapter = new CashPaymentAdapter();
+    // Adapters para diferentes gateways de pago (con bulkhead, timeout y circuit breaker)
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Procesar un pago para una reserva.
      * Usa Adapter Pattern para procesar con el gateway apropiado.
+     *
+     * El pago PENDING se confirma con su clave de idempotencia (gatewayRequestId) antes de
+     * llamar a la pasarela, y la llamada ocurre fuera de la transacción: si se pierde la
+     * respuesta o el proceso se detiene a mitad, la reconciliación consulta el cobro por esa clave.
+     * Si no se sabe si la pasarela cobró (timeout o error durante la llamada) el pago queda
+     * PENDING (sin lanzar excepción);
+     * un rechazo lo deja FAILED y el siguiente intento lo reutiliza.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDTO processPayment(Long reservationId, PaymentMethod paymentMethod) {
-        // Buscar reserva
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", reservationId));
-
-        // Verificar que no exista ya un pago completado para esta reserva
-        Optional<Payment> existingPayment = paymentRepository.findByReservationId(reservationId);
-        if (existingPayment.isPresent() && existingPayment.get().getPaymentStatus() == PaymentStatus.COMPLETED) {
-            throw new PaymentProcessingException("La reserva ya tiene un pago completado");
-        }
-
-        // Calcular monto con impuestos usando Singleton
-        ConfigurationManager config = ConfigurationManager.INSTANCE;
-        BigDecimal amount = reservation.getTotalPrice();
-        // Aplicar tasa de impuesto manualmente ya que no hay método applyTax
-        BigDecimal taxRate = BigDecimal.valueOf(config.getTaxRate());
-        BigDecimal amountWithTax = amount.add(amount.multiply(taxRate));
-
-        // Crear registro de pago
-        Payment payment = Payment.builder()
-                .reservation(reservation)
-                .amount(amountWithTax)
-                .paymentMethod(paymentMethod)
-                .paymentStatus(PaymentStatus.PENDING)
-                .build();
+        Payment payment = transactionTemplate.execute(status -> {
+            Reservation reservation = reservationRepository.findById(reservationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", reservationId));
+            return preparePayment(reservation, paymentMethod);
+        });
 
         // Seleccionar adapter y procesar pago
         PaymentGatewayAdapter adapter = selectPaymentAdapter(paymentMethod);
         PaymentGatewayAdapter.PaymentResult result = adapter.processPayment(payment);
 
-        if (result.isSuccess()) {
-            payment.markAsCompleted(result.getTransactionId());
-
-            // Actualizar estado de la reservación a CONFIRMED
-            reservation.setStatus(com.hotel.reservation.models.ReservationStatus.CONFIRMED);
-            reservationRepository.save(reservation);
-
-            // Notificar al cliente sobre el pago exitoso
-            notifyPaymentCompleted(reservation);
-        } else {
-            payment.markAsFailed();
+        if (ResilientPaymentGateway.isOutcomeUnknown(result.getErrorCode())) {
+            return convertToDTO(payment);
+        }
+        if (!result.isSuccess()) {
+            transactionTemplate.executeWithoutResult(status -> failPendingPayment(payment.getId()));
             throw new PaymentProcessingException(
                     result.getMessage(),
                     paymentMethod.name(),
@@ -109,8 +97,130 @@ public class PaymentService {
             );
         }
 
-        Payment savedPayment = paymentRepository.save(payment);
-        return convertToDTO(savedPayment);
+        return transactionTemplate.execute(status -> {
+            completePendingPayment(payment.getId(), result.getTransactionId());
+            return getPaymentById(payment.getId());
+        });
+    }
+
+    /**
+     * Registrar un pago PENDING para procesarlo de forma asíncrona.
+     * El cobro lo ejecuta AsyncPaymentProcessor después del commit.
+     */
+    public PaymentDTO createPendingPayment(Long reservationId, PaymentMethod paymentMethod) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", reservationId));
+
+        Payment payment = preparePayment(reservation, paymentMethod);
+        return convertToDTO(payment);
+    }
+
+    /**
+     * Obtener un pago que sigue pendiente (para enviarlo a la pasarela)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Payment> findPendingPayment(Long paymentId) {
+        return paymentRepository.findById(paymentId)
+                .filter(payment -> payment.getPaymentStatus() == PaymentStatus.PENDING);
+    }
+
+    /**
+     * Guardar la referencia de la pasarela de un pago aceptado que se completará por callback
+     */
+    public void recordGatewayReference(Long paymentId, String transactionId) {
+        findPendingPayment(paymentId).ifPresent(payment -> {
+            payment.setTransactionId(transactionId);
+            paymentRepository.save(payment);
+        });
+    }
+
+    /**
+     * Completar un pago pendiente. Sin efecto si ya no está pendiente.
+     */
+    public void completePendingPayment(Long paymentId, String transactionId) {
+        findPendingPayment(paymentId).ifPresent(payment -> confirmPayment(payment, transactionId));
+    }
+
+    /**
+     * Marcar como fallido un pago pendiente. Sin efecto si ya no está pendiente.
+     */
+    public void failPendingPayment(Long paymentId) {
+        findPendingPayment(paymentId).ifPresent(payment -> {
+            payment.markAsFailed();
+            paymentRepository.save(payment);
+        });
+    }
+
+    /**
+     * Aplicar en bloque el resultado de la reconciliación con las pasarelas.
+     * Solo cambian los pagos que siguen PENDING; los completados confirman su reserva
+     * y publican el evento de pago.
+     * @return cantidad de pagos actualizados
+     */
+    public int applyReconciledStatus(Collection<Long> paymentIds, PaymentStatus status) {
+        if (paymentIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Payment> pending = paymentRepository.findByIdInAndPaymentStatus(paymentIds, PaymentStatus.PENDING);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = pending.stream().map(Payment::getId).toList();
+
+        paymentRepository.updateStatusByIdIn(ids, status, LocalDateTime.now());
+        dataVersions.changed(DataTable.PAYMENTS);
+        if (status == PaymentStatus.COMPLETED) {
+            reservationRepository.updateStatusByPaymentIdIn(ids,
+                    com.hotel.reservation.models.ReservationStatus.CONFIRMED, LocalDateTime.now());
+            dataVersions.changed(DataTable.RESERVATIONS);
+            revenueRollupService.applyCompleted(ids);
+
+            // Las entidades quedaron desasociadas tras la sentencia masiva: solo se usan para el evento
+            for (Payment payment : pending) {
+                com.hotel.reservation.models.ReservationStatus previousStatus = payment.getReservation().getStatus();
+                payment.setPaymentStatus(PaymentStatus.COMPLETED);
+                payment.getReservation().setStatus(com.hotel.reservation.models.ReservationStatus.CONFIRMED);
+                eventPublisher.publishPaymentEvent(DomainEventType.PAYMENT_COMPLETED, payment, previousStatus,
+                        null, null);
+            }
+        }
+        return ids.size();
+    }
+
+    /**
+     * Aplicar la notificación (callback) de la pasarela para un pago asíncrono.
+     * Es idempotente: repetir el mismo callback no cambia nada.
+     */
+    public PaymentDTO handleGatewayCallback(Long paymentId, PaymentCallbackDTO callback) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+
+        if (callback.getStatus() != PaymentStatus.COMPLETED && callback.getStatus() != PaymentStatus.FAILED) {
+            throw new IllegalArgumentException("Estado de callback inválido: " + callback.getStatus());
+        }
+        if (payment.getTransactionId() != null && callback.getTransactionId() != null
+                && !payment.getTransactionId().equals(callback.getTransactionId())) {
+            throw new IllegalArgumentException("El callback no corresponde a la transacción del pago #" + paymentId);
+        }
+
+        if (payment.getPaymentStatus() == callback.getStatus()) {
+            // Callback repetido
+            return convertToDTO(payment);
+        }
+        if (payment.getPaymentStatus() != PaymentStatus.PENDING) {
+            throw new IllegalStateException("El pago #" + paymentId + " ya está " + payment.getPaymentStatus());
+        }
+
+        if (callback.getStatus() == PaymentStatus.COMPLETED) {
+            String transactionId = callback.getTransactionId() != null
+                    ? callback.getTransactionId()
+                    : payment.getTransactionId();
+            return convertToDTO(confirmPayment(payment, transactionId));
+        }
+
+        payment.markAsFailed();
+        return convertToDTO(paymentRepository.save(payment));
     }
 
     /**
@@ -131,6 +241,8 @@ public class PaymentService {
         if (result.isSuccess()) {
             payment.markAsRefunded();
             Payment refundedPayment = paymentRepository.save(payment);
+            revenueRollupService.applyRefunded(List.of(refundedPayment.getId()));
+            eventPublisher.publishPaymentEvent(DomainEventType.PAYMENT_REFUNDED, refundedPayment);
             return convertToDTO(refundedPayment);
         } else {
             throw new PaymentProcessingException(result.getMessage());
@@ -178,17 +290,65 @@ public class PaymentService {
     }
 
     /**
-     * Notificar al cliente cuando el pago es completado exitosamente
+     * Valida que la reserva pueda pagarse y guarda el pago PENDING con impuestos
      */
-    private void notifyPaymentCompleted(Reservation reservation) {
-        com.hotel.reservation.models.NotificationPreference preferences =
-            notificationPreferenceRepository.findByCustomerId(reservation.getCustomer().getId())
-                .orElse(null);
-
-        // Si el cliente tiene email habilitado o no tiene preferencias (por defecto email activo)
-        if (preferences == null || preferences.getEmailEnabled()) {
-            emailObserver.onReservationConfirmed(reservation);
+    private Payment preparePayment(Reservation reservation, PaymentMethod paymentMethod) {
+        // Verificar que no exista ya un pago completado o en proceso para esta reserva
+        Optional<Payment> existingPayment = paymentRepository.findByReservationId(reservation.getId());
+        if (existingPayment.isPresent() && existingPayment.get().getPaymentStatus() == PaymentStatus.COMPLETED) {
+            throw new PaymentProcessingException("La reserva ya tiene un pago completado");
         }
+        if (existingPayment.isPresent() && existingPayment.get().getPaymentStatus() == PaymentStatus.PENDING) {
+            throw new PaymentProcessingException("La reserva ya tiene un pago en proceso");
+        }
+
+        // Calcular monto con impuestos usando Singleton
+        ConfigurationManager config = ConfigurationManager.INSTANCE;
+        BigDecimal amount = reservation.getTotalPrice();
+        // Aplicar tasa de impuesto manualmente ya que no hay método applyTax
+        BigDecimal taxRate = BigDecimal.valueOf(config.getTaxRate());
+        BigDecimal amountWithTax = amount.add(amount.multiply(taxRate));
+
+        // Un intento asíncrono fallido se reutiliza (solo puede haber un pago por reserva)
+        Payment payment = existingPayment
+                .filter(existing -> existing.getPaymentStatus() == PaymentStatus.FAILED)
+                .orElseGet(() -> Payment.builder().reservation(reservation).build());
+        PaymentMethod previousMethod = payment.getPaymentMethod();
+        BigDecimal previousAmount = payment.getAmount();
+
+        payment.setAmount(amountWithTax);
+        payment.setPaymentMethod(paymentMethod);
+        payment.setPaymentStatus(PaymentStatus.PENDING);
+        payment.setTransactionId(null);
+        // Clave nueva por intento: la de un intento rechazado devolvería el mismo rechazo
+        payment.setGatewayRequestId(UUID.randomUUID().toString());
+
+        Payment savedPayment = paymentRepository.save(payment);
+        eventPublisher.publishPaymentEvent(DomainEventType.PAYMENT_CREATED, savedPayment, null,
+                previousMethod, previousAmount);
+        return savedPayment;
+    }
+
+    /**
+     * Marca el pago como completado, confirma la reserva y publica el evento
+     */
+    private Payment confirmPayment(Payment payment, String transactionId) {
+        payment.markAsCompleted(transactionId);
+
+        // Actualizar estado de la reservación a CONFIRMED
+        Reservation reservation = payment.getReservation();
+        com.hotel.reservation.models.ReservationStatus previousStatus = reservation.getStatus();
+        reservation.setStatus(com.hotel.reservation.models.ReservationStatus.CONFIRMED);
+        reservationRepository.save(reservation);
+
+        Payment savedPayment = paymentRepository.save(payment);
+        revenueRollupService.applyCompleted(List.of(savedPayment.getId()));
+
+        // Publicar evento (los suscriptores notifican al cliente sobre el pago exitoso)
+        eventPublisher.publishPaymentEvent(DomainEventType.PAYMENT_COMPLETED, savedPayment, previousStatus,
+                null, null);
+
+        return savedPayment;
     }
 
     /**
@@ -196,11 +356,7 @@ public class PaymentService {
      * Implementación del Adapter Pattern.
      */
     private PaymentGatewayAdapter selectPaymentAdapter(PaymentMethod paymentMethod) {
-        return switch (paymentMethod) {
-            case CREDIT_CARD -> stripeAdapter;
-            case PAYPAL -> paypalAdapter;
-            case CASH -> cashAdapter;
-        };
+        return paymentGatewayRegistry.forMethod(paymentMethod);
     }
 
     /**
@@ -0,0 +1,387 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ReportJobDTO;
+import com.hotel.reservation.dto.ReportJobRequestDTO;
+import com.hotel.reservation.exception.ResourceNotFoundException;
+import com.hotel.reservation.export.ExportOptions;
+import com.hotel.reservation.export.ExportRange;
+import com.hotel.reservation.models.ReportJob;
+import com.hotel.reservation.models.ReportJobStatus;
+import com.hotel.reservation.models.ReportJobType;
+import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReportJobRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Generación de reportes en segundo plano (Excel y CSV).
+ *
+ * Las exportaciones grandes no ocupan un hilo de petición:
+ * 1. POST registra el trabajo en report_jobs y lo encola en un pool acotado
+ *    (si la cola está llena se rechaza en lugar de acumular trabajos)
+ * 2. El worker escribe el archivo en disco (.part y luego se renombra) informando el avance
+ * 3. El cliente consulta el estado y descarga el archivo terminado
+ *
+ * Una solicitud con los mismos parámetros que un trabajo en cola o en curso se asocia
+ * a ese trabajo en lugar de generar el mismo archivo dos veces.
+ * Los archivos se eliminan al superar retention-ms (el trabajo pasa a EXPIRED).
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final List<ReportJobStatus> ACTIVE_STATUSES =
+            List.of(ReportJobStatus.PENDING, ReportJobStatus.RUNNING);
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final ReportJobRepository reportJobRepository;
+    private final ExcelExportService excelExportService;
+    private final CsvExportService csvExportService;
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final RoomRepository roomRepository;
+    private final CustomerRepository customerRepository;
+    private final Path directory;
+    private final long retentionMillis;
+    private final ThreadPoolExecutor executor;
+
+    // Filas escritas por los trabajos en curso (se guardan en la tabla al terminar)
+    private final Map<Long, AtomicLong> progress = new ConcurrentHashMap<>();
+    private final Object submitLock = new Object();
+
+    public ReportJobService(ReportJobRepository reportJobRepository,
+                            ExcelExportService excelExportService,
+                            CsvExportService csvExportService,
+                            ReservationRepository reservationRepository,
+                            PaymentRepository paymentRepository,
+                            RoomRepository roomRepository,
+                            CustomerRepository customerRepository,
+                            @Value("${app.reports.jobs.directory:./data/report-jobs}") String directory,
+                            @Value("${app.reports.jobs.worker-threads:2}") int workerThreads,
+                            @Value("${app.reports.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.reports.jobs.retention-ms:86400000}") long retentionMillis) {
+        this.reportJobRepository = reportJobRepository;
+        this.excelExportService = excelExportService;
+        this.csvExportService = csvExportService;
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.retentionMillis = retentionMillis;
+
+        // Pool y cola acotados: una ráfaga de solicitudes no puede agotar memoria ni disco
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("report-job-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    /**
+     * Registra un trabajo y lo encola, o devuelve el trabajo en curso con los mismos parámetros
+     */
+    public SubmittedReportJob submit(ReportJobRequestDTO request) {
+        ReportJobType type = request.getReportType();
+        if (type == null) {
+            throw new IllegalArgumentException("El tipo de reporte es obligatorio");
+        }
+        boolean gzip = Boolean.TRUE.equals(request.getGzip());
+        if (gzip && isExcel(type)) {
+            throw new IllegalArgumentException("La compresión gzip solo aplica a reportes CSV");
+        }
+        String parametersKey = type.name() + (gzip ? ":gzip" : "");
+
+        synchronized (submitLock) {
+            Optional<ReportJob> active = reportJobRepository
+                    .findFirstByParametersKeyAndStatusInOrderByIdAsc(parametersKey, ACTIVE_STATUSES);
+            if (active.isPresent()) {
+                log.info("🔗 Solicitud de reporte {} asociada al trabajo en curso #{}", parametersKey, active.get().getId());
+                return new SubmittedReportJob(convertToDTO(active.get()), true);
+            }
+
+            ReportJob job = reportJobRepository.save(ReportJob.builder()
+                    .reportType(type)
+                    .gzip(gzip)
+                    .parametersKey(parametersKey)
+                    .totalRows(countRows(type))
+                    .build());
+
+            enqueue(job);
+            log.info("📄 Trabajo de reporte #{} encolado: {}", job.getId(), parametersKey);
+            return new SubmittedReportJob(convertToDTO(job), false);
+        }
+    }
+
+    public ReportJobDTO getJob(Long jobId) {
+        return convertToDTO(findJob(jobId));
+    }
+
+    public List<ReportJobDTO> getJobs() {
+        return reportJobRepository.findAllByOrderByIdDesc().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Archivo de un trabajo terminado
+     */
+    public ReportFile getFile(Long jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new IllegalStateException("El reporte #" + jobId + " no está disponible (" + job.getStatus() + ")");
+        }
+        Path path = Path.of(job.getFilePath());
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException("El archivo del reporte #" + jobId + " ya no existe");
+        }
+        return new ReportFile(path, job.getFileName(), job.getContentType(), job.getFileSize());
+    }
+
+    /**
+     * Los archivos a medio escribir se descartan: los trabajos interrumpidos se generan de nuevo
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        for (ReportJob job : reportJobRepository.findByStatusInOrderByIdAsc(ACTIVE_STATUSES)) {
+            log.info("🔁 Reencolando trabajo de reporte #{} ({})", job.getId(), job.getParametersKey());
+            job.setStatus(ReportJobStatus.PENDING);
+            job.setRowsWritten(0L);
+            reportJobRepository.save(job);
+            try {
+                enqueue(job);
+            } catch (IllegalStateException e) {
+                log.warn("⚠️ Trabajo de reporte #{} no reencolado: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Elimina los archivos que superaron el tiempo de retención
+     */
+    @Scheduled(fixedDelayString = "${app.reports.jobs.cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.reports.jobs.cleanup-interval-ms:3600000}")
+    public void expireFiles() {
+        LocalDateTime finishedBefore = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+        List<ReportJob> expired = reportJobRepository.findByStatusAndFinishedAtBefore(
+                ReportJobStatus.COMPLETED, finishedBefore);
+        for (ReportJob job : expired) {
+            try {
+                Files.deleteIfExists(Path.of(job.getFilePath()));
+            } catch (IOException e) {
+                log.warn("⚠️ No se pudo eliminar el archivo del reporte #{}: {}", job.getId(), e.getMessage());
+                continue;
+            }
+            job.setStatus(ReportJobStatus.EXPIRED);
+            job.setFilePath(null);
+            reportJobRepository.save(job);
+        }
+        if (!expired.isEmpty()) {
+            log.info("🧹 {} archivos de reportes eliminados por retención", expired.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(ReportJob job) {
+        Long jobId = job.getId();
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(ReportJobStatus.FAILED);
+            job.setLastError("Cola de reportes llena");
+            job.setFinishedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+            throw new IllegalStateException("Hay demasiados reportes en cola, intente más tarde");
+        }
+    }
+
+    private void runJob(Long jobId) {
+        ReportJob job = reportJobRepository.findById(jobId).orElse(null);
+        if (job == null || !ACTIVE_STATUSES.contains(job.getStatus())) {
+            return;
+        }
+
+        job.setStatus(ReportJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setRowsWritten(0L);
+        job = reportJobRepository.save(job);
+
+        AtomicLong rows = new AtomicLong();
+        progress.put(jobId, rows);
+        Path target = directory.resolve("report-" + jobId + extension(job.getReportType(), job.getGzip()));
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        long start = System.currentTimeMillis();
+
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                write(job.getReportType(), job.getGzip(), out, rows::set);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStatus(ReportJobStatus.COMPLETED);
+            job.setFilePath(target.toString());
+            job.setFileName(downloadName(job.getReportType(), job.getGzip()));
+            job.setContentType(contentType(job.getReportType(), job.getGzip()));
+            job.setFileSize(Files.size(target));
+            log.info("✅ Reporte #{} generado: {} filas, {} bytes en {} ms",
+                    jobId, rows.get(), job.getFileSize(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("❌ Error generando el reporte #{}: {}", jobId, e.getMessage(), e);
+            job.setStatus(ReportJobStatus.FAILED);
+            job.setLastError(e.getMessage());
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // El archivo parcial se sobrescribe si el trabajo se reintenta
+            }
+        } finally {
+            progress.remove(jobId);
+            job.setRowsWritten(rows.get());
+            job.setFinishedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+        }
+    }
+
+    private void write(ReportJobType type, boolean gzip, OutputStream out, LongConsumer rows) throws IOException {
+        // Los trabajos exportan siempre todas las filas
+        ExportOptions options = new ExportOptions(ExportRange.all(), rows);
+        switch (type) {
+            case RESERVATIONS_EXCEL -> excelExportService.writeReservationsReport(out, options);
+            case REVENUE_EXCEL -> excelExportService.writeRevenueReport(out, options);
+            case OCCUPANCY_EXCEL -> excelExportService.writeOccupancyReport(out, rows);
+            case ROOMS_CSV -> csvExportService.writeRooms(out, gzip, options);
+            case CUSTOMERS_CSV -> csvExportService.writeCustomers(out, gzip, options);
+            case RESERVATIONS_CSV -> csvExportService.writeReservations(out, gzip, options);
+            case PAYMENTS_CSV -> csvExportService.writePayments(out, gzip, options);
+        }
+    }
+
+    /**
+     * Filas esperadas, para calcular el porcentaje de avance
+     */
+    private long countRows(ReportJobType type) {
+        return switch (type) {
+            case RESERVATIONS_EXCEL, RESERVATIONS_CSV -> reservationRepository.count();
+            case REVENUE_EXCEL, PAYMENTS_CSV -> paymentRepository.count();
+            case OCCUPANCY_EXCEL, ROOMS_CSV -> roomRepository.count();
+            case CUSTOMERS_CSV -> customerRepository.count();
+        };
+    }
+
+    private boolean isExcel(ReportJobType type) {
+        return type == ReportJobType.RESERVATIONS_EXCEL
+                || type == ReportJobType.REVENUE_EXCEL
+                || type == ReportJobType.OCCUPANCY_EXCEL;
+    }
+
+    private String extension(ReportJobType type, boolean gzip) {
+        if (isExcel(type)) {
+            return ".xlsx";
+        }
+        return gzip ? ".csv.gz" : ".csv";
+    }
+
+    private String contentType(ReportJobType type, boolean gzip) {
+        if (isExcel(type)) {
+            return XLSX_CONTENT_TYPE;
+        }
+        return gzip ? "application/gzip" : "text/csv; charset=UTF-8";
+    }
+
+    private String downloadName(ReportJobType type, boolean gzip) {
+        String baseName = switch (type) {
+            case RESERVATIONS_EXCEL -> "reporte-reservas";
+            case REVENUE_EXCEL -> "reporte-ingresos";
+            case OCCUPANCY_EXCEL -> "reporte-ocupacion";
+            case ROOMS_CSV -> "habitaciones";
+            case CUSTOMERS_CSV -> "clientes";
+            case RESERVATIONS_CSV -> "reservas";
+            case PAYMENTS_CSV -> "pagos";
+        };
+        return baseName + extension(type, gzip);
+    }
+
+    private ReportJob findJob(Long jobId) {
+        return reportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("ReportJob", "id", jobId));
+    }
+
+    private ReportJobDTO convertToDTO(ReportJob job) {
+        AtomicLong running = progress.get(job.getId());
+        long rowsWritten = running != null ? running.get() : job.getRowsWritten();
+        long totalRows = job.getTotalRows();
+
+        double percent;
+        if (job.getStatus() == ReportJobStatus.COMPLETED || job.getStatus() == ReportJobStatus.EXPIRED) {
+            percent = 100.0;
+        } else if (totalRows == 0) {
+            percent = 0.0;
+        } else {
+            // El total es una estimación tomada al encolar: no se informa 100% antes de terminar
+            percent = Math.min(99.0, Math.round(rowsWritten * 1000.0 / totalRows) / 10.0);
+        }
+
+        return ReportJobDTO.builder()
+                .id(job.getId())
+                .reportType(job.getReportType())
+                .gzip(job.getGzip())
+                .status(job.getStatus())
+                .totalRows(totalRows)
+                .rowsWritten(rowsWritten)
+                .progressPercent(percent)
+                .fileName(job.getFileName())
+                .fileSize(job.getFileSize())
+                .downloadUrl(job.getStatus() == ReportJobStatus.COMPLETED
+                        ? "/api/reports/jobs/" + job.getId() + "/download" : null)
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * Trabajo creado o trabajo en curso al que se asoció la solicitud
+     */
+    public record SubmittedReportJob(ReportJobDTO job, boolean attached) {
+    }
+
+    /**
+     * Archivo listo para descargar
+     */
+    public record ReportFile(Path path, String fileName, String contentType, long size) {
+    }
+}
@@ -0,0 +1,612 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.CubeCellDTO;
+import com.hotel.reservation.dto.CubeSliceDTO;
+import com.hotel.reservation.dto.ReservationCubeRow;
+import com.hotel.reservation.dto.ReservationJournalEntryDTO;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.Room;
+import com.hotel.reservation.models.RoomType;
+import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Cubo OLAP en memoria de las reservas: mes de check-in × tipo de habitación × nivel de lealtad × estado.
+ *
+ * Cada medida (reservas, noches, ingreso en centavos) es un arreglo long[] denso indexado por los
+ * ordinales de las dimensiones, con el mes como dimensión exterior (crece al aparecer meses nuevos).
+ * Un corte recorre solo esos arreglos, sin consultar la base de datos: unos miles de celdas.
+ *
+ * Las reservas se mantienen con el diario de reservas (ReservationJournalConsumer): el cubo lee
+ * las entradas en orden desde su cursor, así no pierde cambios aunque el bus descarte eventos o
+ * un aviso llegue durante una reconstrucción. Cada reserva conserva su aporte (hecho) para
+ * restarlo cuando cambia su estado, fechas, precio o habitación, o el nivel de lealtad del cliente;
+ * los niveles de lealtad siguen llegando por los eventos de cliente del bus.
+ *
+ * Se reconstruye al iniciar y periódicamente para corregir la deriva (cambios fuera del diario,
+ * como cambios de tipo de habitación): la tabla se lee después de tomar el cursor del diario y
+ * las entradas posteriores se vuelven a aplicar (cada una reemplaza el aporte completo de su reserva).
+ */
+@Slf4j
+@Service
+public class ReservationCube implements EventSubscriber, ReservationJournalConsumer {
+
+    /**
+     * Dimensiones por las que se puede agrupar un corte
+     */
+    public enum Dimension {
+        MONTH,
+        ROOM_TYPE,
+        LOYALTY_LEVEL,
+        STATUS
+    }
+
+    private static final int ROOM_TYPES = RoomType.values().length;
+    private static final int LOYALTY_LEVELS = LoyaltyLevel.values().length;
+    private static final int STATUSES = ReservationStatus.values().length;
+    private static final int CELLS_PER_MONTH = ROOM_TYPES * LOYALTY_LEVELS * STATUSES;
+
+    // Meses extra que se reservan al crecer, para no copiar los arreglos en cada mes nuevo
+    private static final int GROWTH_MONTHS = 12;
+
+    // Entradas del diario por lectura al ponerse al día
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private final ReservationRepository reservationRepository;
+    private final RoomRepository roomRepository;
+    private final CustomerRepository customerRepository;
+    private final ReservationJournal journal;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Protege el estado: escriben el relay del diario, el hilo de eventos y la reconstrucción, leen los cortes
+    private final StampedLock lock = new StampedLock();
+    private State state = new State();
+
+    // Serializa la lectura del diario y el reemplazo del estado: el cursor solo avanza con sus entradas aplicadas
+    private final Object catchUpMonitor = new Object();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+    private volatile LocalDateTime builtAt;
+
+    public ReservationCube(ReservationRepository reservationRepository,
+                           RoomRepository roomRepository,
+                           CustomerRepository customerRepository,
+                           ReservationJournal journal,
+                           PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+        this.journal = journal;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public String getName() {
+        return "reservation-cube";
+    }
+
+    /**
+     * Los cambios de reservas llegan por el diario; del bus solo se toman los niveles de lealtad
+     */
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case CUSTOMER_CREATED -> {
+                Long customerId = event.getCustomerId();
+                LoyaltyLevel level = event.getLoyaltyLevel();
+                write(current -> current.loyaltyByCustomer.put(customerId, ordinal(level)));
+            }
+            case CUSTOMER_UPDATED -> {
+                if (event.getPreviousLoyaltyLevel() == event.getLoyaltyLevel()) {
+                    return;
+                }
+                Long customerId = event.getCustomerId();
+                int loyalty = ordinal(event.getLoyaltyLevel());
+                write(current -> current.changeLoyalty(customerId, loyalty));
+            }
+            default -> {
+                // Otros eventos no cambian el cubo
+                return;
+            }
+        }
+        touch();
+    }
+
+    @Override
+    public void onJournalAppended() {
+        catchUp();
+    }
+
+    /**
+     * Aplica las entradas del diario posteriores al cursor, en orden
+     */
+    public void catchUp() {
+        synchronized (catchUpMonitor) {
+            List<ReservationJournalEntryDTO> entries;
+            do {
+                long cursor = state.journalCursor;
+                entries = journal.tail(cursor, CATCH_UP_BATCH);
+                for (ReservationJournalEntryDTO entry : entries) {
+                    apply(entry);
+                }
+                if (!entries.isEmpty()) {
+                    long last = entries.get(entries.size() - 1).getId();
+                    write(current -> current.journalCursor = last);
+                    touch();
+                }
+            } while (entries.size() == CATCH_UP_BATCH);
+        }
+    }
+
+    private void apply(ReservationJournalEntryDTO entry) {
+        Long reservationId = entry.getReservationId();
+        switch (entry.getEventType()) {
+            case RESERVATION_CREATED, RESERVATION_CONFIRMED, RESERVATION_UPDATED, RESERVATION_CANCELLED -> {
+                // Las búsquedas de tipo y nivel (que pueden ir a la base de datos) se hacen fuera del bloqueo
+                int roomType = roomTypeOf(entry.getRoomId());
+                int loyalty = loyaltyOf(entry.getCustomerId());
+                Fact fact = Fact.of(entry.getCustomerId(), roomType, loyalty, entry.getStatus(),
+                        entry.getCheckInDate(), entry.getCheckOutDate(), entry.getTotalPrice());
+                write(current -> current.put(reservationId, fact));
+            }
+            case RESERVATION_DELETED -> write(current -> current.remove(reservationId));
+            case PAYMENT_COMPLETED, PAYMENT_REFUNDED -> {
+                ReservationStatus status = entry.getStatus();
+                write(current -> current.changeStatus(reservationId, status));
+            }
+            default -> {
+                // Otras entradas no cambian el cubo
+            }
+        }
+    }
+
+    /**
+     * Carga inicial, después de que la aplicación (y sus datos iniciales) está lista
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Reconstrucción periódica desde la base de datos
+     */
+    @Scheduled(fixedDelayString = "${app.reports.cube.rebuild-interval-ms:900000}",
+               initialDelayString = "${app.reports.cube.rebuild-interval-ms:900000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Construye un cubo nuevo recorriendo las reservas y lo reemplaza de una vez.
+     * El cursor se toma antes de leer la tabla: las entradas que lleguen durante la lectura
+     * se aplican después sobre el cubo nuevo.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long cursor = journal.getLastEntryId();
+            State built = readOnlyTransaction.execute(status -> {
+                State fresh = new State();
+                fresh.journalCursor = cursor;
+                try (Stream<ReservationCubeRow> rows = reservationRepository.streamCubeRows()) {
+                    Iterator<ReservationCubeRow> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        ReservationCubeRow row = iterator.next();
+                        int roomType = ordinal(row.roomType());
+                        int loyalty = ordinal(row.loyaltyLevel());
+                        fresh.roomTypeByRoom.put(row.roomId(), roomType);
+                        fresh.loyaltyByCustomer.put(row.customerId(), loyalty);
+                        fresh.put(row.id(), Fact.of(row.customerId(), roomType, loyalty,
+                                row.status(), row.checkInDate(), row.checkOutDate(), row.totalPrice()));
+                    }
+                }
+                return fresh;
+            });
+            if (built == null) {
+                return;
+            }
+
+            synchronized (catchUpMonitor) {
+                long stamp = lock.writeLock();
+                try {
+                    state = built;
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+            builtAt = LocalDateTime.now();
+            touch();
+            catchUp();
+            log.info("🧊 Cubo de reservas construido: {} reservas, {} meses en {} ms",
+                    built.facts.size(), built.months, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("❌ Error construyendo el cubo de reservas: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Corte del cubo: agrupa por las dimensiones indicadas y acumula las demás.
+     * Filtros vacíos o nulos no se aplican.
+     * @param groupBy dimensiones a conservar (vacío = solo el total)
+     * @param from primer mes de check-in (inclusive)
+     * @param to último mes de check-in (inclusive)
+     */
+    public CubeSliceDTO slice(Collection<Dimension> groupBy, YearMonth from, YearMonth to,
+                              Collection<RoomType> roomTypes, Collection<LoyaltyLevel> loyaltyLevels,
+                              Collection<ReservationStatus> statuses) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("El mes inicial no puede ser posterior al final");
+        }
+        Set<Dimension> dimensions = groupBy == null || groupBy.isEmpty()
+                ? EnumSet.noneOf(Dimension.class)
+                : EnumSet.copyOf(groupBy);
+        boolean[] roomMask = mask(roomTypes, ROOM_TYPES);
+        boolean[] loyaltyMask = mask(loyaltyLevels, LOYALTY_LEVELS);
+        boolean[] statusMask = mask(statuses, STATUSES);
+
+        boolean byMonth = dimensions.contains(Dimension.MONTH);
+        int roomGroups = dimensions.contains(Dimension.ROOM_TYPE) ? ROOM_TYPES : 1;
+        int loyaltyGroups = dimensions.contains(Dimension.LOYALTY_LEVEL) ? LOYALTY_LEVELS : 1;
+        int statusGroups = dimensions.contains(Dimension.STATUS) ? STATUSES : 1;
+
+        int firstMonth;
+        int monthGroups;
+        long[] count;
+        long[] nights;
+        long[] cents;
+
+        long stamp = lock.readLock();
+        try {
+            State current = state;
+            firstMonth = Math.max(current.baseMonth, from != null ? epochMonth(from) : Integer.MIN_VALUE);
+            int lastMonth = Math.min(current.baseMonth + current.months - 1,
+                    to != null ? epochMonth(to) : Integer.MAX_VALUE);
+            int monthsInRange = Math.max(0, lastMonth - firstMonth + 1);
+            monthGroups = byMonth ? monthsInRange : 1;
+
+            int groups = monthGroups * roomGroups * loyaltyGroups * statusGroups;
+            count = new long[groups];
+            nights = new long[groups];
+            cents = new long[groups];
+
+            for (int m = 0; m < monthsInRange; m++) {
+                int source = (firstMonth - current.baseMonth + m) * CELLS_PER_MONTH;
+                int monthGroup = byMonth ? m : 0;
+                for (int r = 0; r < ROOM_TYPES; r++) {
+                    for (int l = 0; l < LOYALTY_LEVELS; l++) {
+                        for (int s = 0; s < STATUSES; s++, source++) {
+                            if (!roomMask[r] || !loyaltyMask[l] || !statusMask[s] || current.count[source] == 0) {
+                                continue;
+                            }
+                            int target = ((monthGroup * roomGroups + (roomGroups > 1 ? r : 0))
+                                    * loyaltyGroups + (loyaltyGroups > 1 ? l : 0))
+                                    * statusGroups + (statusGroups > 1 ? s : 0);
+                            count[target] += current.count[source];
+                            nights[target] += current.nights[source];
+                            cents[target] += current.cents[source];
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        // Fuera del bloqueo: armar las celdas con datos (el índice sigue el orden mes, tipo, nivel, estado)
+        List<CubeCellDTO> cells = new ArrayList<>();
+        long totalCount = 0;
+        long totalNights = 0;
+        long totalCents = 0;
+        for (int target = 0; target < count.length; target++) {
+            if (count[target] == 0) {
+                continue;
+            }
+            totalCount += count[target];
+            totalNights += nights[target];
+            totalCents += cents[target];
+
+            int s = target % statusGroups;
+            int l = (target / statusGroups) % loyaltyGroups;
+            int r = (target / (statusGroups * loyaltyGroups)) % roomGroups;
+            int m = target / (statusGroups * loyaltyGroups * roomGroups);
+            cells.add(CubeCellDTO.builder()
+                    .month(byMonth ? yearMonth(firstMonth + m) : null)
+                    .roomType(roomGroups > 1 ? RoomType.values()[r] : null)
+                    .loyaltyLevel(loyaltyGroups > 1 ? LoyaltyLevel.values()[l] : null)
+                    .status(statusGroups > 1 ? ReservationStatus.values()[s] : null)
+                    .reservations(count[target])
+                    .roomNights(nights[target])
+                    .revenue(BigDecimal.valueOf(cents[target], 2))
+                    .build());
+        }
+
+        return CubeSliceDTO.builder()
+                .groupBy(dimensions.stream().map(Enum::name).toList())
+                .from(from)
+                .to(to)
+                .cells(cells)
+                .total(CubeCellDTO.builder()
+                        .reservations(totalCount)
+                        .roomNights(totalNights)
+                        .revenue(BigDecimal.valueOf(totalCents, 2))
+                        .build())
+                .cubeVersion(version.get())
+                .builtAt(builtAt)
+                .build();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private void touch() {
+        lastModified = Instant.now();
+        version.incrementAndGet();
+    }
+
+    private void write(Consumer<State> change) {
+        long stamp = lock.writeLock();
+        try {
+            change.accept(state);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Tipo de la habitación; si no se conoce se consulta una vez en la base de datos
+     */
+    private int roomTypeOf(Long roomId) {
+        if (roomId == null) {
+            return -1;
+        }
+        Integer known = readKnown(() -> state.roomTypeByRoom.get(roomId));
+        if (known != null) {
+            return known;
+        }
+        int roomType = ordinal(roomRepository.findById(roomId).map(Room::getRoomType).orElse(null));
+        write(current -> current.roomTypeByRoom.put(roomId, roomType));
+        return roomType;
+    }
+
+    /**
+     * Nivel de lealtad del cliente; si no se conoce se consulta una vez en la base de datos
+     */
+    private int loyaltyOf(Long customerId) {
+        if (customerId == null) {
+            return -1;
+        }
+        Integer known = readKnown(() -> state.loyaltyByCustomer.get(customerId));
+        if (known != null) {
+            return known;
+        }
+        int loyalty = ordinal(customerRepository.findById(customerId).map(Customer::getLoyaltyLevel).orElse(null));
+        write(current -> current.loyaltyByCustomer.put(customerId, loyalty));
+        return loyalty;
+    }
+
+    private Integer readKnown(Supplier<Integer> lookup) {
+        long stamp = lock.readLock();
+        try {
+            return lookup.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static boolean[] mask(Collection<? extends Enum<?>> values, int size) {
+        boolean[] mask = new boolean[size];
+        if (values == null || values.isEmpty()) {
+            Arrays.fill(mask, true);
+        } else {
+            values.forEach(value -> mask[value.ordinal()] = true);
+        }
+        return mask;
+    }
+
+    private static int ordinal(Enum<?> value) {
+        return value != null ? value.ordinal() : -1;
+    }
+
+    private static int epochMonth(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth yearMonth(int epochMonth) {
+        return YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Aporte de una reserva al cubo (índices -1 = dimensión desconocida: no se cuenta)
+     */
+    private record Fact(Long customerId, int month, int roomType, int loyalty, int status,
+                        long nights, long cents) {
+
+        static Fact of(Long customerId, int roomType, int loyalty, ReservationStatus status,
+                       LocalDate checkIn, LocalDate checkOut, BigDecimal totalPrice) {
+            int month = checkIn != null ? epochMonth(YearMonth.from(checkIn)) : Integer.MIN_VALUE;
+            long nights = checkIn != null && checkOut != null
+                    ? Math.max(0, ChronoUnit.DAYS.between(checkIn, checkOut))
+                    : 0;
+            return new Fact(customerId, month, roomType, loyalty, ordinal(status), nights, toCents(totalPrice));
+        }
+
+        boolean counted() {
+            return month != Integer.MIN_VALUE && roomType >= 0 && loyalty >= 0 && status >= 0;
+        }
+
+        Fact withStatus(int status) {
+            return new Fact(customerId, month, roomType, loyalty, status, nights, cents);
+        }
+
+        Fact withLoyalty(int loyalty) {
+            return new Fact(customerId, month, roomType, loyalty, status, nights, cents);
+        }
+    }
+
+    /**
+     * Arreglos del cubo, hechos por reserva y dimensiones conocidas de habitaciones y clientes.
+     * Solo se modifica con el bloqueo de escritura.
+     */
+    private static class State {
+        // Mes (año * 12 + mes - 1) de la primera fila de los arreglos
+        int baseMonth;
+        int months;
+        long[] count = new long[0];
+        long[] nights = new long[0];
+        long[] cents = new long[0];
+
+        // Última entrada del diario aplicada
+        long journalCursor;
+
+        final Map<Long, Fact> facts = new HashMap<>();
+        final Map<Long, Integer> roomTypeByRoom = new HashMap<>();
+        final Map<Long, Integer> loyaltyByCustomer = new HashMap<>();
+
+        /**
+         * Reemplaza el aporte de una reserva
+         */
+        void put(Long reservationId, Fact fact) {
+            Fact previous = facts.put(reservationId, fact);
+            if (previous != null) {
+                contribute(previous, -1);
+            }
+            contribute(fact, 1);
+        }
+
+        /**
+         * Quita el aporte de una reserva eliminada
+         */
+        void remove(Long reservationId) {
+            Fact previous = facts.remove(reservationId);
+            if (previous != null) {
+                contribute(previous, -1);
+            }
+        }
+
+        void changeStatus(Long reservationId, ReservationStatus status) {
+            Fact fact = facts.get(reservationId);
+            if (fact != null && status != null && fact.status() != status.ordinal()) {
+                put(reservationId, fact.withStatus(status.ordinal()));
+            }
+        }
+
+        /**
+         * Mueve las reservas del cliente a su nuevo nivel (los cambios de nivel son poco frecuentes)
+         */
+        void changeLoyalty(Long customerId, int loyalty) {
+            loyaltyByCustomer.put(customerId, loyalty);
+            List<Map.Entry<Long, Fact>> moved = new ArrayList<>();
+            for (Map.Entry<Long, Fact> entry : facts.entrySet()) {
+                if (customerId.equals(entry.getValue().customerId()) && entry.getValue().loyalty() != loyalty) {
+                    moved.add(entry);
+                }
+            }
+            for (Map.Entry<Long, Fact> entry : moved) {
+                put(entry.getKey(), entry.getValue().withLoyalty(loyalty));
+            }
+        }
+
+        private void contribute(Fact fact, int sign) {
+            if (!fact.counted()) {
+                return;
+            }
+            ensureMonth(fact.month());
+            int index = ((fact.month() - baseMonth) * ROOM_TYPES + fact.roomType())
+                    * LOYALTY_LEVELS * STATUSES + fact.loyalty() * STATUSES + fact.status();
+            count[index] += sign;
+            nights[index] += sign * fact.nights();
+            cents[index] += sign * fact.cents();
+        }
+
+        /**
+         * Amplía los arreglos para incluir el mes (el mes es la dimensión exterior: se copian bloques contiguos)
+         */
+        private void ensureMonth(int month) {
+            if (months > 0 && month >= baseMonth && month < baseMonth + months) {
+                return;
+            }
+            int newBase;
+            int newEnd;
+            if (months == 0) {
+                newBase = month;
+                newEnd = month + 1 + GROWTH_MONTHS;
+            } else if (month < baseMonth) {
+                newBase = month - GROWTH_MONTHS;
+                newEnd = baseMonth + months;
+            } else {
+                newBase = baseMonth;
+                newEnd = month + 1 + GROWTH_MONTHS;
+            }
+            int newMonths = newEnd - newBase;
+            int offset = (baseMonth - newBase) * CELLS_PER_MONTH;
+
+            count = grow(count, newMonths, offset);
+            nights = grow(nights, newMonths, offset);
+            cents = grow(cents, newMonths, offset);
+            baseMonth = newBase;
+            months = newMonths;
+        }
+
+        private long[] grow(long[] values, int newMonths, int offset) {
+            long[] grown = new long[newMonths * CELLS_PER_MONTH];
+            if (values.length > 0) {
+                System.arraycopy(values, 0, grown, offset, values.length);
+            }
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ReservationJournalEntryDTO;
+import com.hotel.reservation.dto.ReservationStateDTO;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.DomainEventType;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.exception.ResourceNotFoundException;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PendingJournalEntry;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.ReservationJournalEntry;
+import com.hotel.reservation.models.ReservationSnapshot;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.UndoRole;
+import com.hotel.reservation.patterns.behavioral.memento.ReservationMemento;
+import com.hotel.reservation.repositories.PendingJournalEntryRepository;
+import com.hotel.reservation.repositories.ReservationJournalRepository;
+import com.hotel.reservation.repositories.ReservationSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Diario de reservas (event sourcing): cada cambio de una reserva se agrega como una entrada
+ * en reservation_journal, sin modificar las anteriores.
+ *
+ * - Outbox: DomainEventPublisher llama a record dentro de la transacción que modifica la
+ *   reserva, así que la entrada en pending_journal_entries se confirma o se revierte junto con
+ *   el cambio y nunca se pierde.
+ * - Group commit: un solo hilo (relay) mueve las pendientes a reservation_journal por lotes de
+ *   max-batch, en una transacción con JDBC batch que también borra las pendientes, así el costo
+ *   del commit se reparte entre todas las entradas del lote. Corre al llegar eventos del bus y
+ *   cada relay-interval-ms; si un lote falla, sus entradas siguen pendientes y se reintentan.
+ * - Snapshots: cada snapshot-every entradas de una reserva se guarda su estado completo, así
+ *   reconstruirla solo aplica las entradas posteriores al último snapshot.
+ * - Auditoría, reconstrucción del estado en cualquier punto, undo e historial (estados previos
+ *   a los cambios UNDOABLE no consumidos por un UNDO) y la lectura en orden de todas las entradas
+ *   para los modelos de lectura (ReservationJournalConsumer) salen del diario.
+ */
+@Slf4j
+@Service
+public class ReservationJournal implements EventSubscriber {
+
+    private static final int MAX_TAIL_LIMIT = 1000;
+
+    private final ReservationJournalRepository journalRepository;
+    private final PendingJournalEntryRepository pendingRepository;
+    private final ReservationSnapshotRepository snapshotRepository;
+    private final ObjectProvider<ReservationJournalConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService relay;
+    private final int maxBatch;
+    private final int snapshotEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Hay una pasada del relay encolada que todavía no empezó
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    // Estado plegado de las reservas recientes (LRU), para decidir cuándo tomar snapshot; solo lo usa el relay
+    private final Map<Long, FoldedState> states;
+
+    private final AtomicLong lastEntryId = new AtomicLong();
+    private volatile boolean lastEntryIdLoaded;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong relayFailures = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private volatile long lastCommitMillis;
+
+    public ReservationJournal(ReservationJournalRepository journalRepository,
+                              PendingJournalEntryRepository pendingRepository,
+                              ReservationSnapshotRepository snapshotRepository,
+                              ObjectProvider<ReservationJournalConsumer> consumers,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.reservations.journal.max-batch:1000}") int maxBatch,
+                              @Value("${app.reservations.journal.snapshot-every:50}") int snapshotEvery,
+                              @Value("${app.reservations.journal.state-cache-size:10000}") int stateCacheSize) {
+        this.journalRepository = journalRepository;
+        this.pendingRepository = pendingRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxBatch = maxBatch;
+        this.snapshotEvery = snapshotEvery;
+
+        CustomizableThreadFactory relayFactory = new CustomizableThreadFactory("reservation-journal-relay-");
+        relayFactory.setDaemon(true);
+        this.relay = Executors.newSingleThreadExecutor(relayFactory);
+
+        this.states = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FoldedState> eldest) {
+                return size() > stateCacheSize;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return "reservation-journal";
+    }
+
+    /**
+     * Los eventos llegan después del commit: solo avisan al relay que hay entradas nuevas
+     */
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        if (endOfBatch) {
+            requestRelay();
+        }
+    }
+
+    /**
+     * Registra el cambio de una reserva en pending_journal_entries (se une a la transacción del llamador)
+     * @param undoRole papel de la entrada en undo (null si no participa)
+     */
+    public void recordReservation(DomainEventType type, Reservation reservation, ReservationStatus previousStatus,
+                                  UndoRole undoRole) {
+        append(PendingJournalEntry.builder()
+                .reservationId(reservation.getId())
+                .eventType(type)
+                .occurredAt(LocalDateTime.now())
+                .customerId(reservation.getCustomer().getId())
+                .roomId(reservation.getRoom().getId())
+                .status(reservation.getStatus())
+                .previousStatus(previousStatus)
+                .checkInDate(reservation.getCheckInDate())
+                .checkOutDate(reservation.getCheckOutDate())
+                .numberOfGuests(reservation.getNumberOfGuests())
+                .totalPrice(reservation.getTotalPrice())
+                .undoRole(undoRole)
+                .build());
+    }
+
+    /**
+     * Registra un pago que cambió el estado de su reserva (p. ej. PENDING -> CONFIRMED);
+     * los demás pagos no cambian la reserva y no se registran
+     */
+    public void recordPayment(DomainEventType type, Payment payment, ReservationStatus previousReservationStatus) {
+        Reservation reservation = payment.getReservation();
+        boolean changesReservation = (type == DomainEventType.PAYMENT_COMPLETED || type == DomainEventType.PAYMENT_REFUNDED)
+                && previousReservationStatus != null && previousReservationStatus != reservation.getStatus();
+        if (!changesReservation) {
+            return;
+        }
+        append(PendingJournalEntry.builder()
+                .reservationId(reservation.getId())
+                .eventType(type)
+                .occurredAt(LocalDateTime.now())
+                .paymentId(payment.getId())
+                .status(reservation.getStatus())
+                .previousStatus(previousReservationStatus)
+                .build());
+    }
+
+    /**
+     * Toma el último ID del diario y mueve las entradas que quedaron pendientes antes de detenerse
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadLastEntryId();
+        requestRelay();
+    }
+
+    /**
+     * Pasada periódica del relay: reintenta los lotes que fallaron y mueve las entradas
+     * cuyo evento no llegó al bus (p. ej. si la aplicación se detuvo justo después del commit)
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.journal.relay-interval-ms:1000}",
+               initialDelayString = "${app.reservations.journal.relay-interval-ms:1000}")
+    public void scheduledRelay() {
+        requestRelay();
+    }
+
+    /**
+     * Último ID movido al diario (cursor de los modelos de lectura)
+     */
+    public long getLastEntryId() {
+        if (!lastEntryIdLoaded) {
+            // Un modelo de lectura puede pedirlo antes de start()
+            loadLastEntryId();
+        }
+        return lastEntryId.get();
+    }
+
+    /**
+     * Entradas de una reserva en orden
+     */
+    public List<ReservationJournalEntryDTO> getEntries(Long reservationId) {
+        List<ReservationJournalEntry> entries = readOnlyTransaction.execute(status ->
+                journalRepository.findByReservation(reservationId));
+        return entries == null ? List.of() : entries.stream().map(this::toDTO).toList();
+    }
+
+    /**
+     * Entradas de todas las reservas posteriores al cursor, en orden
+     * @param afterId último ID ya procesado por el consumidor (0 para empezar)
+     */
+    public List<ReservationJournalEntryDTO> tail(long afterId, int limit) {
+        if (afterId < 0 || limit <= 0) {
+            throw new IllegalArgumentException("afterId debe ser >= 0 y limit mayor a 0");
+        }
+        List<ReservationJournalEntry> entries = readOnlyTransaction.execute(status ->
+                journalRepository.findAfter(afterId, PageRequest.of(0, Math.min(limit, MAX_TAIL_LIMIT))));
+        return entries == null ? List.of() : entries.stream().map(this::toDTO).toList();
+    }
+
+    /**
+     * Reconstruye el estado de una reserva: último snapshot más las entradas posteriores
+     * @param upToEntryId última entrada a aplicar (null para el estado más reciente)
+     */
+    public ReservationStateDTO rebuild(Long reservationId, Long upToEntryId) {
+        long upTo = upToEntryId == null ? Long.MAX_VALUE : upToEntryId;
+        ReservationStateDTO state = readOnlyTransaction.execute(status -> {
+            List<ReservationSnapshot> latest = snapshotRepository.findLatest(reservationId, upTo, PageRequest.of(0, 1));
+            ReservationSnapshot snapshot = latest.isEmpty() ? null : latest.get(0);
+            FoldedState folded = snapshot == null ? new FoldedState() : FoldedState.of(snapshot);
+
+            List<ReservationJournalEntry> entries = journalRepository.findForReplay(reservationId,
+                    folded.lastEntryId, upTo);
+            entries.forEach(folded::apply);
+            if (folded.eventCount == 0) {
+                return null;
+            }
+            return folded.toDTO(reservationId, snapshot == null ? null : snapshot.getLastEntryId(), entries.size());
+        });
+        if (state == null) {
+            throw new ResourceNotFoundException("ReservationJournal", "reservationId", reservationId);
+        }
+        return state;
+    }
+
+    /**
+     * Estados que undo puede restaurar, del más antiguo al más reciente: el estado previo a cada
+     * entrada UNDOABLE que ningún UNDO posterior consumió. Incluye las entradas que el relay todavía
+     * no movió (siguen a las del diario), así refleja los cambios ya confirmados.
+     *
+     * Los cambios sin un estado previo completo en el diario (reservas anteriores a él) no se pueden deshacer.
+     */
+    public List<ReservationMemento> undoableStates(Long reservationId) {
+        // Las pendientes se leen primero: si el relay mueve alguna entre las dos lecturas, aparece
+        // también en el diario y se descarta por su pendingId
+        List<PendingJournalEntry> pendingEntries = pendingRepository.findByReservation(reservationId);
+        List<ReservationJournalEntry> entries = new ArrayList<>(journalRepository.findByReservation(reservationId));
+        Set<Long> moved = entries.stream()
+                .map(ReservationJournalEntry::getPendingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        pendingEntries.stream()
+                .filter(pending -> !moved.contains(pending.getId()))
+                .forEach(pending -> entries.add(toEntry(pending)));
+
+        FoldedState state = new FoldedState();
+        Deque<ReservationMemento> undoable = new ArrayDeque<>();
+        for (ReservationJournalEntry entry : entries) {
+            if (entry.getUndoRole() == UndoRole.UNDO) {
+                undoable.pollLast();
+            } else if (entry.getUndoRole() == UndoRole.UNDOABLE && state.isComplete()) {
+                undoable.addLast(state.toMemento(reservationId, entry.getOccurredAt()));
+            }
+            state.apply(entry);
+        }
+        return new ArrayList<>(undoable);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long commitCount = commits.get();
+        metrics.put("lastEntryId", lastEntryId.get());
+        metrics.put("pending", readOnlyTransaction.execute(status -> pendingRepository.count()));
+        metrics.put("appended", appended.get());
+        metrics.put("commits", commitCount);
+        metrics.put("averageBatch", commitCount == 0 ? 0 : appended.get() / commitCount);
+        metrics.put("largestBatch", largestBatch.get());
+        metrics.put("snapshots", snapshots.get());
+        metrics.put("relayFailures", relayFailures.get());
+        metrics.put("lastCommitMs", lastCommitMillis);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+    }
+
+    private void append(PendingJournalEntry entry) {
+        // Escribe antes el UPDATE de la reserva: toma su bloqueo de fila, así dos transacciones sobre
+        // la misma reserva insertan sus entradas (IDs crecientes) en el orden en que se confirman
+        entityManager.flush();
+        pendingRepository.save(entry);
+    }
+
+    private synchronized void loadLastEntryId() {
+        if (lastEntryIdLoaded) {
+            return;
+        }
+        Long max = readOnlyTransaction.execute(status -> journalRepository.findMaxId());
+        if (max != null) {
+            lastEntryId.accumulateAndGet(max, Math::max);
+        }
+        lastEntryIdLoaded = true;
+    }
+
+    /**
+     * Encola una pasada del relay si no hay otra esperando (las que llegan mientras corre encolan la siguiente)
+     */
+    private void requestRelay() {
+        if (!relayRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            relay.execute(this::relayPending);
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está deteniendo: las pendientes se mueven al volver a iniciar
+            relayRequested.set(false);
+        }
+    }
+
+    /**
+     * Mueve las pendientes al diario hasta vaciar la tabla; solo corre en el hilo del relay
+     */
+    private void relayPending() {
+        relayRequested.set(false);
+        int moved = 0;
+        try {
+            // Con el lote lleno puede haber más pendientes
+            int batch;
+            do {
+                batch = relayBatch();
+                moved += batch;
+            } while (batch == maxBatch);
+        } catch (Exception e) {
+            // Las entradas del lote siguen pendientes: la siguiente pasada las reintenta
+            relayFailures.incrementAndGet();
+            log.error("❌ Error al mover entradas al diario de reservas, se reintentará: {}", e.getMessage(), e);
+        }
+        if (moved > 0) {
+            notifyConsumers();
+        }
+    }
+
+    /**
+     * Inserta en el diario un lote de pendientes con los snapshots que tocan y borra las pendientes,
+     * en una sola transacción
+     * @return cantidad de entradas movidas
+     */
+    private int relayBatch() {
+        long start = System.currentTimeMillis();
+        // Estado de las reservas del lote: copia del caché que solo lo reemplaza si se confirma
+        Map<Long, FoldedState> batchStates = new LinkedHashMap<>();
+
+        List<ReservationJournalEntry> batch;
+        try {
+            batch = transactionTemplate.execute(status -> {
+                List<PendingJournalEntry> pendingEntries = pendingRepository.findOldest(PageRequest.of(0, maxBatch));
+                if (pendingEntries.isEmpty()) {
+                    return List.of();
+                }
+                List<ReservationJournalEntry> entries = pendingEntries.stream().map(ReservationJournal::toEntry).toList();
+
+                // Se lee antes de insertar las entradas del lote para no aplicarlas dos veces
+                for (ReservationJournalEntry entry : entries) {
+                    batchStates.computeIfAbsent(entry.getReservationId(), this::cachedOrLoad);
+                }
+
+                journalRepository.saveAll(entries);
+
+                List<ReservationSnapshot> newSnapshots = new ArrayList<>();
+                LocalDateTime now = LocalDateTime.now();
+                for (ReservationJournalEntry entry : entries) {
+                    FoldedState state = batchStates.get(entry.getReservationId());
+                    state.apply(entry);
+                    if (++state.sinceSnapshot >= snapshotEvery) {
+                        newSnapshots.add(state.toSnapshot(entry.getReservationId(), now));
+                        state.sinceSnapshot = 0;
+                    }
+                }
+                snapshotRepository.saveAll(newSnapshots);
+                pendingRepository.deleteByIdIn(pendingEntries.stream().map(PendingJournalEntry::getId).toList());
+                snapshots.addAndGet(newSnapshots.size());
+                return entries;
+            });
+        } catch (RuntimeException e) {
+            // El caché pudo quedar adelantado respecto a la tabla: se vuelve a leer al reintentar
+            batchStates.keySet().forEach(states::remove);
+            throw e;
+        }
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        states.putAll(batchStates);
+        appended.addAndGet(batch.size());
+        commits.incrementAndGet();
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        lastEntryId.accumulateAndGet(batch.get(batch.size() - 1).getId(), Math::max);
+        lastCommitMillis = System.currentTimeMillis() - start;
+        return batch.size();
+    }
+
+    /**
+     * Avisa a los modelos de lectura que el diario avanzó; cada uno lee desde su cursor
+     */
+    private void notifyConsumers() {
+        consumers.orderedStream().forEach(consumer -> {
+            try {
+                consumer.onJournalAppended();
+            } catch (Exception e) {
+                log.error("❌ El consumidor del diario {} falló: {}", consumer.getName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Copia del estado en caché (se modifica dentro de la transacción) o reconstruido desde la tabla
+     */
+    private FoldedState cachedOrLoad(Long reservationId) {
+        FoldedState cached = states.get(reservationId);
+        if (cached != null) {
+            return cached.copy();
+        }
+        List<ReservationSnapshot> latest = snapshotRepository.findLatest(reservationId, Long.MAX_VALUE, PageRequest.of(0, 1));
+        FoldedState state = latest.isEmpty() ? new FoldedState() : FoldedState.of(latest.get(0));
+        List<ReservationJournalEntry> entries = journalRepository.findForReplay(reservationId, state.lastEntryId, Long.MAX_VALUE);
+        entries.forEach(state::apply);
+        state.sinceSnapshot = entries.size();
+        return state;
+    }
+
+    private static ReservationJournalEntry toEntry(PendingJournalEntry pending) {
+        return ReservationJournalEntry.builder()
+                .pendingId(pending.getId())
+                .reservationId(pending.getReservationId())
+                .eventType(pending.getEventType())
+                .occurredAt(pending.getOccurredAt())
+                .customerId(pending.getCustomerId())
+                .roomId(pending.getRoomId())
+                .paymentId(pending.getPaymentId())
+                .status(pending.getStatus())
+                .previousStatus(pending.getPreviousStatus())
+                .checkInDate(pending.getCheckInDate())
+                .checkOutDate(pending.getCheckOutDate())
+                .numberOfGuests(pending.getNumberOfGuests())
+                .totalPrice(pending.getTotalPrice())
+                .undoRole(pending.getUndoRole())
+                .build();
+    }
+
+    private ReservationJournalEntryDTO toDTO(ReservationJournalEntry entry) {
+        return ReservationJournalEntryDTO.builder()
+                .id(entry.getId())
+                .reservationId(entry.getReservationId())
+                .eventType(entry.getEventType())
+                .occurredAt(entry.getOccurredAt())
+                .customerId(entry.getCustomerId())
+                .roomId(entry.getRoomId())
+                .paymentId(entry.getPaymentId())
+                .status(entry.getStatus())
+                .previousStatus(entry.getPreviousStatus())
+                .checkInDate(entry.getCheckInDate())
+                .checkOutDate(entry.getCheckOutDate())
+                .numberOfGuests(entry.getNumberOfGuests())
+                .totalPrice(entry.getTotalPrice())
+                .undoRole(entry.getUndoRole())
+                .build();
+    }
+
+    /**
+     * Estado de una reserva resultado de aplicar sus entradas en orden (los campos nulos de una
+     * entrada no cambian el estado)
+     */
+    private static final class FoldedState {
+
+        private Long customerId;
+        private Long roomId;
+        private ReservationStatus status;
+        private LocalDate checkInDate;
+        private LocalDate checkOutDate;
+        private Integer numberOfGuests;
+        private BigDecimal totalPrice;
+        private boolean deleted;
+        private long lastEntryId;
+        private long eventCount;
+        private int sinceSnapshot;
+
+        static FoldedState of(ReservationSnapshot snapshot) {
+            FoldedState state = new FoldedState();
+            state.customerId = snapshot.getCustomerId();
+            state.roomId = snapshot.getRoomId();
+            state.status = snapshot.getStatus();
+            state.checkInDate = snapshot.getCheckInDate();
+            state.checkOutDate = snapshot.getCheckOutDate();
+            state.numberOfGuests = snapshot.getNumberOfGuests();
+            state.totalPrice = snapshot.getTotalPrice();
+            state.deleted = Boolean.TRUE.equals(snapshot.getDeleted());
+            state.lastEntryId = snapshot.getLastEntryId();
+            state.eventCount = snapshot.getEventCount();
+            return state;
+        }
+
+        void apply(ReservationJournalEntry entry) {
+            if (entry.getCustomerId() != null) {
+                customerId = entry.getCustomerId();
+            }
+            if (entry.getRoomId() != null) {
+                roomId = entry.getRoomId();
+            }
+            if (entry.getStatus() != null) {
+                status = entry.getStatus();
+            }
+            if (entry.getCheckInDate() != null) {
+                checkInDate = entry.getCheckInDate();
+            }
+            if (entry.getCheckOutDate() != null) {
+                checkOutDate = entry.getCheckOutDate();
+            }
+            if (entry.getNumberOfGuests() != null) {
+                numberOfGuests = entry.getNumberOfGuests();
+            }
+            if (entry.getTotalPrice() != null) {
+                totalPrice = entry.getTotalPrice();
+            }
+            if (entry.getEventType() == DomainEventType.RESERVATION_DELETED) {
+                deleted = true;
+            }
+            // Las entradas pendientes (undoableStates) todavía no tienen ID
+            if (entry.getId() != null) {
+                lastEntryId = entry.getId();
+            }
+            eventCount++;
+        }
+
+        boolean isComplete() {
+            return !deleted && status != null && checkInDate != null && checkOutDate != null
+                    && numberOfGuests != null && totalPrice != null;
+        }
+
+        ReservationMemento toMemento(Long reservationId, LocalDateTime savedAt) {
+            return new ReservationMemento(reservationId, status, checkInDate, checkOutDate,
+                    numberOfGuests, totalPrice, savedAt);
+        }
+
+        FoldedState copy() {
+            FoldedState copy = new FoldedState();
+            copy.customerId = customerId;
+            copy.roomId = roomId;
+            copy.status = status;
+            copy.checkInDate = checkInDate;
+            copy.checkOutDate = checkOutDate;
+            copy.numberOfGuests = numberOfGuests;
+            copy.totalPrice = totalPrice;
+            copy.deleted = deleted;
+            copy.lastEntryId = lastEntryId;
+            copy.eventCount = eventCount;
+            copy.sinceSnapshot = sinceSnapshot;
+            return copy;
+        }
+
+        ReservationSnapshot toSnapshot(Long reservationId, LocalDateTime takenAt) {
+            return ReservationSnapshot.builder()
+                    .reservationId(reservationId)
+                    .lastEntryId(lastEntryId)
+                    .eventCount(eventCount)
+                    .customerId(customerId)
+                    .roomId(roomId)
+                    .status(status)
+                    .checkInDate(checkInDate)
+                    .checkOutDate(checkOutDate)
+                    .numberOfGuests(numberOfGuests)
+                    .totalPrice(totalPrice)
+                    .deleted(deleted)
+                    .takenAt(takenAt)
+                    .build();
+        }
+
+        ReservationStateDTO toDTO(Long reservationId, Long snapshotEntryId, int entriesReplayed) {
+            return ReservationStateDTO.builder()
+                    .reservationId(reservationId)
+                    .customerId(customerId)
+                    .roomId(roomId)
+                    .status(status)
+                    .checkInDate(checkInDate)
+                    .checkOutDate(checkOutDate)
+                    .numberOfGuests(numberOfGuests)
+                    .totalPrice(totalPrice)
+                    .deleted(deleted)
+                    .lastEntryId(lastEntryId)
+                    .eventCount(eventCount)
+                    .snapshotEntryId(snapshotEntryId)
+                    .entriesReplayed(entriesReplayed)
+                    .build();
+        }
+    }
+}
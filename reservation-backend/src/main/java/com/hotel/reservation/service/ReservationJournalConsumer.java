@@ -0,0 +1,18 @@
+package com.hotel.reservation.service;
+
+/**
+ * Modelo de lectura alimentado por el diario de reservas.
+ *
+ * El relay avisa cada vez que mueve entradas al diario; el consumidor las lee con
+ * ReservationJournal.tail desde su propio cursor, así las recibe todas, en orden y sin
+ * huecos, aunque un aviso llegue mientras se reconstruye.
+ */
+public interface ReservationJournalConsumer {
+
+    String getName();
+
+    /**
+     * El diario avanzó (lo llama el hilo del relay)
+     */
+    void onJournalAppended();
+}
@@ -2,12 +2,9 @@ package com.hotel.reservation.service;
 
 import com.hotel.reservation.dto.ReservationDTO;
 import com.hotel.reservation.exception.ResourceNotFoundException;
+import com.hotel.reservation.events.DomainEventPublisher;
+import com.hotel.reservation.events.DomainEventType;
 import com.hotel.reservation.models.*;
-import com.hotel.reservation.models.NotificationPreference;
-import com.hotel.reservation.patterns.behavioral.observer.EmailNotificationObserver;
-import com.hotel.reservation.patterns.behavioral.observer.ReservationObserver;
-import com.hotel.reservation.patterns.behavioral.observer.SmsNotificationObserver;
-import com.hotel.reservation.patterns.behavioral.observer.WhatsAppNotificationObserver;
 import com.hotel.reservation.patterns.behavioral.strategy.*;
 import com.hotel.reservation.patterns.behavioral.memento.ReservationHistory;
 import com.hotel.reservation.patterns.behavioral.memento.ReservationMemento;
@@ -34,12 +31,9 @@ public class ReservationService {
     private final CustomerRepository customerRepository;
     private final RoomRepository roomRepository;
     private final AdditionalServiceRepository serviceRepository;
-    private final NotificationPreferenceRepository notificationPreferenceRepository;
     private final PackageRepository packageRepository;
 
-    private final EmailNotificationObserver emailObserver;
-    private final SmsNotificationObserver smsObserver;
-    private final WhatsAppNotificationObserver whatsappObserver;
+    private final DomainEventPublisher eventPublisher;
 
     private final ReservationHistory reservationHistory;
 
@@ -47,21 +41,15 @@ public class ReservationService {
                             CustomerRepository customerRepository,
                             RoomRepository roomRepository,
                             AdditionalServiceRepository serviceRepository,
-                            NotificationPreferenceRepository notificationPreferenceRepository,
                             PackageRepository packageRepository,
-                            EmailNotificationObserver emailObserver,
-                            SmsNotificationObserver smsObserver,
-                            WhatsAppNotificationObserver whatsappObserver,
+                            DomainEventPublisher eventPublisher,
                             ReservationHistory reservationHistory) {
         this.reservationRepository = reservationRepository;
         this.customerRepository = customerRepository;
         this.roomRepository = roomRepository;
         this.serviceRepository = serviceRepository;
-        this.notificationPreferenceRepository = notificationPreferenceRepository;
         this.packageRepository = packageRepository;
-        this.emailObserver = emailObserver;
-        this.smsObserver = smsObserver;
-        this.whatsappObserver = whatsappObserver;
+        this.eventPublisher = eventPublisher;
         this.reservationHistory = reservationHistory;
     }
 
@@ -104,6 +92,19 @@ public class ReservationService {
     }
 
     public ReservationDTO createReservation(ReservationDTO dto) {
+        Reservation saved = reservationRepository.save(buildReservation(dto));
+
+        // Publicar evento (los suscriptores notifican según las preferencias del cliente)
+        eventPublisher.publishReservationEvent(DomainEventType.RESERVATION_CREATED, saved, null);
+
+        return convertToDTO(saved);
+    }
+
+    /**
+     * Arma una reserva nueva (sin guardar) con su precio final, paquete y servicios
+     */
+    @Transactional(readOnly = true)
+    public Reservation buildReservation(ReservationDTO dto) {
         Customer customer = customerRepository.findById(dto.getCustomerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", dto.getCustomerId()));
 
@@ -136,6 +137,8 @@ public class ReservationService {
             com.hotel.reservation.models.Package pkg = packageRepository.findById(dto.getPackageId())
                     .orElseThrow(() -> new ResourceNotFoundException("Package", "id", dto.getPackageId()));
 
+            reservation.setServicePackage(pkg);
+
             // Agregar todos los servicios del paquete a la reserva
             for (AdditionalService service : pkg.getServices()) {
                 reservation.addService(service);
@@ -158,36 +161,46 @@ public class ReservationService {
             reservation.setTotalPrice(finalPrice);
         }
 
-        Reservation saved = reservationRepository.save(reservation);
-
-        // Notificar según preferencias del cliente
-        notifyReservationCreated(saved);
-
-        return convertToDTO(saved);
+        return reservation;
     }
 
     public void confirmReservation(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
 
-        // Guardar estado actual antes de modificar
-        saveReservationState(reservation);
-
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(ReservationStatus.CONFIRMED);
         reservationRepository.save(reservation);
-        notifyReservationConfirmed(reservation);
+        // El diario guarda el estado previo para undo
+        publishUndoable(DomainEventType.RESERVATION_CONFIRMED, reservation, previousStatus, null);
     }
 
-    public void cancelReservation(Long id) {
+    /**
+     * Cancela una reserva
+     * @return estado que tenía antes de cancelarla
+     */
+    public ReservationStatus cancelReservation(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
 
-        // Guardar estado actual antes de modificar
-        saveReservationState(reservation);
-
+        ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
-        notifyReservationCancelled(reservation);
+        publishUndoable(DomainEventType.RESERVATION_CANCELLED, reservation, previousStatus, null);
+        return previousStatus;
+    }
+
+    /**
+     * Elimina una reserva (undo de su creación)
+     */
+    public void deleteReservation(Long id) {
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+
+        // El evento toma los datos de la reserva antes de eliminarla y se publica al confirmar
+        eventPublisher.publishReservationEvent(DomainEventType.RESERVATION_DELETED, reservation, null);
+        reservationRepository.delete(reservation);
+        reservationHistory.invalidate(id);
     }
 
     /**
@@ -197,8 +210,8 @@ public class ReservationService {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
 
-        // Guardar estado actual antes de modificar (para undo)
-        saveReservationState(reservation);
+        ReservationStatus previousStatus = reservation.getStatus();
+        BigDecimal previousTotalPrice = reservation.getTotalPrice();
 
         // Actualizar campos
         if (dto.getCheckInDate() != null) {
@@ -218,6 +231,7 @@ public class ReservationService {
         }
 
         Reservation updated = reservationRepository.save(reservation);
+        publishUndoable(DomainEventType.RESERVATION_UPDATED, updated, previousStatus, previousTotalPrice);
         log.info("✏️ Reserva #{} actualizada. Historial disponible para undo", id);
 
         return convertToDTO(updated);
@@ -227,22 +241,30 @@ public class ReservationService {
      * Deshace el último cambio de una reserva (Undo)
      */
     public ReservationDTO undoReservationChange(Long id) {
-        Reservation reservation = reservationRepository.findById(id)
+        // El bloqueo de la fila serializa los undo de la reserva: el siguiente ve el UNDO de este
+        Reservation reservation = reservationRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
 
-        // Restaurar estado anterior desde el historial
+        // Restaurar estado anterior desde el historial (diario de reservas)
         ReservationMemento memento = reservationHistory.restore(id);
 
         if (memento == null) {
             throw new IllegalStateException("No hay cambios previos para deshacer en la reserva #" + id);
         }
 
+        ReservationStatus previousStatus = reservation.getStatus();
+        BigDecimal previousTotalPrice = reservation.getTotalPrice();
+
         // Crear originator y restaurar desde memento
         ReservationOriginator originator = new ReservationOriginator(reservation);
         originator.restoreFromMemento(memento);
         originator.applyToReservation(reservation);
 
         Reservation restored = reservationRepository.save(reservation);
+        // La entrada UNDO consume el estado restaurado
+        eventPublisher.publishReservationEvent(DomainEventType.RESERVATION_UPDATED, restored,
+                previousStatus, previousTotalPrice, UndoRole.UNDO);
+        reservationHistory.invalidate(id);
         log.info("↩️ Deshecho último cambio en reserva #{}. Restaurado estado desde {}",
                 id, memento.getSavedAt());
 
@@ -257,88 +279,12 @@ public class ReservationService {
     }
 
     /**
-     * Guarda el estado actual de una reserva en el historial
-     */
-    private void saveReservationState(Reservation reservation) {
-        ReservationOriginator originator = new ReservationOriginator(reservation);
-        ReservationMemento memento = originator.saveToMemento();
-        reservationHistory.save(memento);
-    }
-
-    /**
-     * Notifica la creación de una reserva según las preferencias del cliente
-     */
-    private void notifyReservationCreated(Reservation reservation) {
-        NotificationPreference preferences = getOrCreatePreferences(reservation.getCustomer().getId());
-
-        if (preferences.getEmailEnabled()) {
-            emailObserver.onReservationCreated(reservation);
-        }
-        if (preferences.getSmsEnabled()) {
-            smsObserver.onReservationCreated(reservation);
-        }
-        if (preferences.getWhatsappEnabled()) {
-            whatsappObserver.onReservationCreated(reservation);
-        }
-    }
-
-    /**
-     * Notifica la confirmación de una reserva según las preferencias del cliente
-     */
-    private void notifyReservationConfirmed(Reservation reservation) {
-        NotificationPreference preferences = getOrCreatePreferences(reservation.getCustomer().getId());
-
-        if (preferences.getEmailEnabled()) {
-            emailObserver.onReservationConfirmed(reservation);
-        }
-        if (preferences.getSmsEnabled()) {
-            smsObserver.onReservationConfirmed(reservation);
-        }
-        if (preferences.getWhatsappEnabled()) {
-            whatsappObserver.onReservationConfirmed(reservation);
-        }
-    }
-
-    /**
-     * Notifica la cancelación de una reserva según las preferencias del cliente
+     * Publica un cambio que undo puede revertir y descarta el historial en memoria después del commit
      */
-    private void notifyReservationCancelled(Reservation reservation) {
-        NotificationPreference preferences = getOrCreatePreferences(reservation.getCustomer().getId());
-
-        if (preferences.getEmailEnabled()) {
-            emailObserver.onReservationCancelled(reservation);
-        }
-        if (preferences.getSmsEnabled()) {
-            smsObserver.onReservationCancelled(reservation);
-        }
-        if (preferences.getWhatsappEnabled()) {
-            whatsappObserver.onReservationCancelled(reservation);
-        }
-    }
-
-    /**
-     * Obtiene o crea preferencias por defecto para un cliente
-     */
-    private NotificationPreference getOrCreatePreferences(Long customerId) {
-        return notificationPreferenceRepository.findByCustomerId(customerId)
-                .orElseGet(() -> createDefaultPreferences(customerId));
-    }
-
-    /**
-     * Crea preferencias por defecto (solo email activado)
-     */
-    private NotificationPreference createDefaultPreferences(Long customerId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
-
-        NotificationPreference preferences = NotificationPreference.builder()
-                .customer(customer)
-                .emailEnabled(true)
-                .smsEnabled(false)
-                .whatsappEnabled(false)
-                .build();
-
-        return notificationPreferenceRepository.save(preferences);
+    private void publishUndoable(DomainEventType type, Reservation reservation, ReservationStatus previousStatus,
+                                 BigDecimal previousTotalPrice) {
+        eventPublisher.publishReservationEvent(type, reservation, previousStatus, previousTotalPrice, UndoRole.UNDOABLE);
+        reservationHistory.invalidate(reservation.getId());
     }
 
     private ReservationDTO convertToDTO(Reservation reservation) {
@@ -348,6 +294,7 @@ public class ReservationService {
                 .id(reservation.getId())
                 .customerId(reservation.getCustomer().getId())
                 .roomId(reservation.getRoom().getId())
+                .packageId(reservation.getServicePackage() != null ? reservation.getServicePackage().getId() : null)
                 .checkInDate(reservation.getCheckInDate())
                 .checkOutDate(reservation.getCheckOutDate())
                 .numberOfGuests(reservation.getNumberOfGuests())
@@ -0,0 +1,376 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.cache.DataTable;
+import com.hotel.reservation.cache.DataVersions;
+import com.hotel.reservation.dto.PaymentRevenueRow;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.models.RevenueDailyRollup;
+import com.hotel.reservation.models.RoomType;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.RevenueDailyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mantiene la tabla revenue_daily_rollup (ingresos por día de pago, método y tipo de habitación).
+ *
+ * - Incremental: al completar o reembolsar pagos se suman los deltas a la fila de cada
+ *   combinación con un UPDATE atómico, dentro de la misma transacción que cambia el pago
+ * - Reconstrucción: recorre los pagos por bloques de IDs en paralelo (cada bloque agrega sus
+ *   pagos por separado y los parciales se combinan al final) y reemplaza la tabla completa
+ *   en una sola transacción. Se lanza sola al iniciar si la tabla está vacía y hay pagos.
+ *
+ * Durante una reconstrucción, los cambios que se confirmen entre la lectura de los pagos y el
+ * reemplazo de la tabla pueden perderse; la siguiente reconstrucción los corrige.
+ */
+@Slf4j
+@Service
+public class RevenueRollupService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final RevenueDailyRollupRepository rollupRepository;
+    private final PaymentRepository paymentRepository;
+    private final DataVersions dataVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int chunkSize;
+    private final ExecutorService chunkExecutor;
+    private final ExecutorService runExecutor;
+
+    // Combinaciones que ya tienen fila (evita consultar su existencia en cada pago)
+    private final Set<RollupKey> knownKeys = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicInteger chunksTotal = new AtomicInteger();
+    private final AtomicInteger chunksDone = new AtomicInteger();
+    private volatile RebuildSummary lastRebuild;
+
+    public RevenueRollupService(RevenueDailyRollupRepository rollupRepository,
+                                PaymentRepository paymentRepository,
+                                DataVersions dataVersions,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.reports.revenue-rollup.chunk-size:5000}") int chunkSize,
+                                @Value("${app.reports.revenue-rollup.rebuild-threads:4}") int rebuildThreads) {
+        this.rollupRepository = rollupRepository;
+        this.paymentRepository = paymentRepository;
+        this.dataVersions = dataVersions;
+        this.chunkSize = chunkSize;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        CustomizableThreadFactory chunkFactory = new CustomizableThreadFactory("revenue-rollup-");
+        chunkFactory.setDaemon(true);
+        this.chunkExecutor = Executors.newFixedThreadPool(rebuildThreads, chunkFactory);
+
+        CustomizableThreadFactory runFactory = new CustomizableThreadFactory("revenue-rollup-run-");
+        runFactory.setDaemon(true);
+        this.runExecutor = Executors.newSingleThreadExecutor(runFactory);
+    }
+
+    /**
+     * Suma pagos que acaban de completarse. Se une a la transacción del llamador.
+     */
+    @Transactional
+    public void applyCompleted(Collection<Long> paymentIds) {
+        apply(paymentIds, false);
+    }
+
+    /**
+     * Mueve pagos reembolsados de completados a reembolsados. Se une a la transacción del llamador.
+     */
+    @Transactional
+    public void applyRefunded(Collection<Long> paymentIds) {
+        apply(paymentIds, true);
+    }
+
+    /**
+     * Backfill inicial: si la tabla está vacía y ya hay pagos, se reconstruye en segundo plano
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && paymentRepository.count() > 0) {
+            log.info("📈 Rollup de ingresos vacío: iniciando reconstrucción");
+            triggerRebuild();
+        }
+    }
+
+    /**
+     * Lanza una reconstrucción completa en segundo plano
+     * @return false si ya hay una en curso
+     */
+    public boolean triggerRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        runExecutor.execute(this::rebuild);
+        return true;
+    }
+
+    /**
+     * Progreso de la reconstrucción en curso y resultado de la última
+     */
+    public Map<String, Object> getRebuildStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", rebuilding.get());
+        status.put("chunksTotal", chunksTotal.get());
+        status.put("chunksDone", chunksDone.get());
+
+        RebuildSummary summary = lastRebuild;
+        if (summary != null) {
+            Map<String, Object> last = new LinkedHashMap<>();
+            last.put("startedAt", summary.startedAt().toString());
+            last.put("durationMs", summary.durationMillis());
+            last.put("payments", summary.payments());
+            last.put("rows", summary.rows());
+            last.put("error", summary.error());
+            status.put("lastRebuild", last);
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    private void apply(Collection<Long> paymentIds, boolean refund) {
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+
+        Map<RollupKey, Totals> deltas = new HashMap<>();
+        for (PaymentRevenueRow row : paymentRepository.findRevenueRowsByIdIn(paymentIds)) {
+            RollupKey key = RollupKey.of(row);
+            if (key == null) {
+                continue;
+            }
+            Totals totals = deltas.computeIfAbsent(key, k -> new Totals());
+            long cents = toCents(row.amount());
+            if (refund) {
+                totals.add(-1, -cents, 1, cents);
+            } else {
+                totals.add(1, cents, 0, 0);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((key, totals) -> addTotals(key, totals, now));
+    }
+
+    private void addTotals(RollupKey key, Totals totals, LocalDateTime now) {
+        if (!knownKeys.contains(key)) {
+            ensureRow(key);
+        }
+        if (update(key, totals, now) == 0) {
+            // La fila desapareció (reconstrucción en curso): se crea de nuevo
+            ensureRow(key);
+            update(key, totals, now);
+        }
+    }
+
+    private int update(RollupKey key, Totals totals, LocalDateTime now) {
+        return rollupRepository.addTotals(key.date(), key.paymentMethod(), key.roomType(),
+                totals.completedCount, BigDecimal.valueOf(totals.completedCents, 2),
+                totals.refundedCount, BigDecimal.valueOf(totals.refundedCents, 2), now);
+    }
+
+    /**
+     * Crea la fila en cero en su propia transacción, para que el UPDATE posterior la encuentre.
+     * Si otra transacción la crea al mismo tiempo, la restricción única rechaza el duplicado.
+     */
+    private void ensureRow(RollupKey key) {
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                if (!rollupRepository.existsByRollupDateAndPaymentMethodAndRoomType(
+                        key.date(), key.paymentMethod(), key.roomType())) {
+                    rollupRepository.saveAndFlush(RevenueDailyRollup.builder()
+                            .rollupDate(key.date())
+                            .paymentMethod(key.paymentMethod())
+                            .roomType(key.roomType())
+                            .updatedAt(LocalDateTime.now())
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Fila de rollup {} creada por otra transacción", key);
+        }
+        knownKeys.add(key);
+    }
+
+    /**
+     * Agrega los pagos por bloques de IDs en paralelo y reemplaza la tabla
+     */
+    private void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        chunksTotal.set(0);
+        chunksDone.set(0);
+
+        try {
+            Long minId = paymentRepository.findMinId();
+            Long maxId = paymentRepository.findMaxId();
+
+            Map<RollupKey, Totals> merged = new HashMap<>();
+            long payments = 0;
+            if (minId != null && maxId != null) {
+                List<Callable<ChunkResult>> chunks = new ArrayList<>();
+                for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+                    long chunkFrom = fromId;
+                    chunks.add(() -> aggregateChunk(chunkFrom, chunkFrom + chunkSize));
+                }
+                chunksTotal.set(chunks.size());
+
+                for (Future<ChunkResult> future : chunkExecutor.invokeAll(chunks)) {
+                    ChunkResult result = future.get();
+                    result.totals().forEach((key, totals) -> merged.merge(key, totals, Totals::merge));
+                    payments += result.payments();
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<RevenueDailyRollup> rows = new ArrayList<>(merged.size());
+            merged.forEach((key, totals) -> rows.add(RevenueDailyRollup.builder()
+                    .rollupDate(key.date())
+                    .paymentMethod(key.paymentMethod())
+                    .roomType(key.roomType())
+                    .completedCount(totals.completedCount)
+                    .completedAmount(BigDecimal.valueOf(totals.completedCents, 2))
+                    .refundedCount(totals.refundedCount)
+                    .refundedAmount(BigDecimal.valueOf(totals.refundedCents, 2))
+                    .updatedAt(now)
+                    .build()));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.deleteAllRows();
+                rollupRepository.saveAll(rows);
+                // Los reportes de ingresos en caché se invalidan con la versión de los pagos
+                dataVersions.changed(DataTable.PAYMENTS);
+            });
+            knownKeys.clear();
+            knownKeys.addAll(merged.keySet());
+
+            long duration = System.currentTimeMillis() - start;
+            lastRebuild = new RebuildSummary(startedAt, duration, payments, rows.size(), null);
+            log.info("📈 Rollup de ingresos reconstruido: {} pagos, {} filas, {} bloques en {} ms",
+                    payments, rows.size(), chunksTotal.get(), duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Error al reconstruir el rollup de ingresos: {}", e.getMessage(), e);
+            lastRebuild = new RebuildSummary(startedAt, System.currentTimeMillis() - start, 0, 0, e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Agrega un bloque de pagos [fromId, toId) en su propia transacción de solo lectura
+     */
+    private ChunkResult aggregateChunk(long fromId, long toId) {
+        List<PaymentRevenueRow> rows = readOnlyTransaction.execute(status ->
+                paymentRepository.findRevenueRowsInIdRange(fromId, toId));
+
+        Map<RollupKey, Totals> totals = new HashMap<>();
+        long payments = 0;
+        if (rows != null) {
+            for (PaymentRevenueRow row : rows) {
+                RollupKey key = RollupKey.of(row);
+                if (key == null) {
+                    continue;
+                }
+                payments++;
+                long cents = toCents(row.amount());
+                if (row.paymentStatus() == PaymentStatus.REFUNDED) {
+                    totals.computeIfAbsent(key, k -> new Totals()).add(0, 0, 1, cents);
+                } else {
+                    totals.computeIfAbsent(key, k -> new Totals()).add(1, cents, 0, 0);
+                }
+            }
+        }
+        chunksDone.incrementAndGet();
+        return new ChunkResult(totals, payments);
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.multiply(HUNDRED).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private record RollupKey(LocalDate date, PaymentMethod paymentMethod, RoomType roomType) {
+
+        /**
+         * @return null si al pago le falta alguna dimensión
+         */
+        static RollupKey of(PaymentRevenueRow row) {
+            if (row.paymentDate() == null || row.paymentMethod() == null || row.roomType() == null) {
+                return null;
+            }
+            return new RollupKey(row.paymentDate().toLocalDate(), row.paymentMethod(), row.roomType());
+        }
+    }
+
+    private record ChunkResult(Map<RollupKey, Totals> totals, long payments) {
+    }
+
+    private record RebuildSummary(LocalDateTime startedAt, long durationMillis, long payments, long rows,
+                                  String error) {
+    }
+
+    /**
+     * Contadores de una combinación (montos en centavos)
+     */
+    private static class Totals {
+        long completedCount;
+        long completedCents;
+        long refundedCount;
+        long refundedCents;
+
+        void add(long completedCount, long completedCents, long refundedCount, long refundedCents) {
+            this.completedCount += completedCount;
+            this.completedCents += completedCents;
+            this.refundedCount += refundedCount;
+            this.refundedCents += refundedCents;
+        }
+
+        Totals merge(Totals other) {
+            add(other.completedCount, other.completedCents, other.refundedCount, other.refundedCents);
+            return this;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.hotel.reservation.service;
 
 import com.hotel.reservation.dto.RoomDTO;
+import com.hotel.reservation.events.DomainEventPublisher;
+import com.hotel.reservation.events.DomainEventType;
 import com.hotel.reservation.exception.ResourceNotFoundException;
 import com.hotel.reservation.models.Room;
 import com.hotel.reservation.models.RoomType;
@@ -38,6 +40,7 @@ import java.util.stream.Collectors;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final DomainEventPublisher eventPublisher;
 
     /**
      * Crear una nueva habitación usando Factory Pattern.
@@ -46,6 +49,7 @@ public class RoomService {
         // Usar Factory para crear habitación con configuración predefinida
         Room room = RoomFactory.createRoom(roomType, roomNumber, floor);
         Room savedRoom = roomRepository.save(room);
+        eventPublisher.publishRoomEvent(DomainEventType.ROOM_CREATED, savedRoom, null);
         return convertToDTO(savedRoom);
     }
 
@@ -61,6 +65,7 @@ public class RoomService {
         clonedRoom.setRoomNumber(newRoomNumber);
 
         Room savedRoom = roomRepository.save(clonedRoom);
+        eventPublisher.publishRoomEvent(DomainEventType.ROOM_CREATED, savedRoom, null);
         return convertToDTO(savedRoom);
     }
 
@@ -114,6 +119,7 @@ public class RoomService {
     public RoomDTO updateRoom(Long id, RoomDTO roomDTO) {
         Room room = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room", "id", id));
+        Boolean previousAvailable = room.getAvailable();
 
         // Actualizar campos
         room.setRoomNumber(roomDTO.getRoomNumber());
@@ -127,6 +133,7 @@ public class RoomService {
         room.setDescription(roomDTO.getDescription());
 
         Room updatedRoom = roomRepository.save(room);
+        eventPublisher.publishRoomEvent(DomainEventType.ROOM_UPDATED, updatedRoom, previousAvailable);
         return convertToDTO(updatedRoom);
     }
 
@@ -136,8 +143,10 @@ public class RoomService {
     public void toggleRoomAvailability(Long id) {
         Room room = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room", "id", id));
-        room.setAvailable(!room.getAvailable());
+        Boolean previousAvailable = room.getAvailable();
+        room.setAvailable(!previousAvailable);
         roomRepository.save(room);
+        eventPublisher.publishRoomEvent(DomainEventType.ROOM_UPDATED, room, previousAvailable);
     }
 
     /**
@@ -147,6 +156,7 @@ public class RoomService {
         Room room = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room", "id", id));
         roomRepository.delete(room);
+        eventPublisher.publishRoomEvent(DomainEventType.ROOM_DELETED, room, room.getAvailable());
     }
 
     /**
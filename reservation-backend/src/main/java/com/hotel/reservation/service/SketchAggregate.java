@@ -0,0 +1,407 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.BookingSample;
+import com.hotel.reservation.dto.DistributionDTO;
+import com.hotel.reservation.dto.PaymentSample;
+import com.hotel.reservation.dto.PeriodSketchDTO;
+import com.hotel.reservation.dto.SketchExportDTO;
+import com.hotel.reservation.dto.SketchReportDTO;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.sketch.HyperLogLog;
+import com.hotel.reservation.sketch.ValueHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Sketches de analítica por mes: clientes distintos (HyperLogLog) y distribución de totales de
+ * reserva y montos de pago (histogramas log-lineales), con memoria fija por mes (~40 KB).
+ *
+ * Se alimentan con los eventos del bus (reserva creada, pago completado) y se reconstruyen desde
+ * la base de datos al iniciar y periódicamente. Las reservas cuentan en el mes en que se registraron;
+ * los pagos, en el mes en que se completaron (en la reconstrucción, el mes de registro del pago).
+ * Los sketches solo crecen: una cancelación no resta la reserva, refleja lo que se reservó.
+ *
+ * Los sketches de varios meses se combinan para un rango, y los exportados por otro nodo
+ * (GET /api/reports/sketches/export) se combinan con POST /api/reports/sketches/merge.
+ */
+@Slf4j
+@Service
+public class SketchAggregate implements EventSubscriber {
+
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Mes (año * 12 + mes - 1) -> sketches; protegido por el monitor de esta clase
+    private NavigableMap<Integer, PeriodSketch> periods = new TreeMap<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
+    public SketchAggregate(ReservationRepository reservationRepository,
+                           PaymentRepository paymentRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public String getName() {
+        return "sketches";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case RESERVATION_CREATED -> {
+                int month = monthOf(event.getOccurredAt());
+                Long customerId = event.getCustomerId();
+                long cents = toCents(event.getTotalPrice());
+                synchronized (this) {
+                    periods.computeIfAbsent(month, m -> new PeriodSketch()).recordBooking(customerId, cents);
+                }
+            }
+            case PAYMENT_COMPLETED -> {
+                int month = monthOf(event.getOccurredAt());
+                long cents = toCents(event.getAmount());
+                synchronized (this) {
+                    periods.computeIfAbsent(month, m -> new PeriodSketch()).paymentAmounts.record(cents);
+                }
+            }
+            default -> {
+                // Otros eventos no cambian los sketches
+                return;
+            }
+        }
+        touch();
+    }
+
+    /**
+     * Carga inicial, después de que la aplicación (y sus datos iniciales) está lista
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Reconstrucción periódica desde la base de datos
+     */
+    @Scheduled(fixedDelayString = "${app.reports.sketches.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.reports.sketches.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Construye los sketches recorriendo reservas y pagos en streaming y los reemplaza de una vez.
+     * Los eventos que lleguen durante la reconstrucción se pierden; la siguiente los incorpora.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            NavigableMap<Integer, PeriodSketch> built = readOnlyTransaction.execute(status -> {
+                NavigableMap<Integer, PeriodSketch> fresh = new TreeMap<>();
+                try (Stream<BookingSample> bookings = reservationRepository.streamBookingSamples()) {
+                    Iterator<BookingSample> iterator = bookings.iterator();
+                    while (iterator.hasNext()) {
+                        BookingSample booking = iterator.next();
+                        if (booking.createdAt() != null) {
+                            fresh.computeIfAbsent(monthOf(booking.createdAt()), m -> new PeriodSketch())
+                                    .recordBooking(booking.customerId(), toCents(booking.totalPrice()));
+                        }
+                    }
+                }
+                try (Stream<PaymentSample> payments = paymentRepository.streamCompletedPaymentSamples()) {
+                    Iterator<PaymentSample> iterator = payments.iterator();
+                    while (iterator.hasNext()) {
+                        PaymentSample payment = iterator.next();
+                        if (payment.paymentDate() != null) {
+                            fresh.computeIfAbsent(monthOf(payment.paymentDate()), m -> new PeriodSketch())
+                                    .paymentAmounts.record(toCents(payment.amount()));
+                        }
+                    }
+                }
+                return fresh;
+            });
+            if (built == null) {
+                return;
+            }
+
+            synchronized (this) {
+                periods = built;
+            }
+            touch();
+            log.info("📐 Sketches de analítica construidos: {} meses en {} ms",
+                    built.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("❌ Error construyendo los sketches de analítica: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Métricas por mes del rango [from, to] y del rango completo (límites nulos = sin límite)
+     */
+    public SketchReportDTO getReport(YearMonth from, YearMonth to) {
+        validateRange(from, to);
+        NavigableMap<Integer, PeriodSketch> range;
+        HyperLogLog before = new HyperLogLog();
+        synchronized (this) {
+            range = copy(subMap(periods, from, to));
+            // Clientes de los meses anteriores al rango, para contar a los que regresan
+            if (from != null) {
+                periods.headMap(epochMonth(from), false).values().forEach(period -> before.merge(period.customers));
+            }
+        }
+        return summarize(range, before, from, to);
+    }
+
+    /**
+     * Sketches serializados de los meses del rango
+     */
+    public List<SketchExportDTO> export(YearMonth from, YearMonth to) {
+        validateRange(from, to);
+        NavigableMap<Integer, PeriodSketch> range;
+        synchronized (this) {
+            range = copy(subMap(periods, from, to));
+        }
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        List<SketchExportDTO> exported = new ArrayList<>(range.size());
+        range.forEach((month, period) -> exported.add(SketchExportDTO.builder()
+                .month(yearMonth(month))
+                .bookings(period.bookings)
+                .customers(encoder.encodeToString(period.customers.toBytes()))
+                .bookingValues(encoder.encodeToString(period.bookingValues.toBytes()))
+                .paymentAmounts(encoder.encodeToString(period.paymentAmounts.toBytes()))
+                .build()));
+        return exported;
+    }
+
+    /**
+     * Combina sketches exportados (p. ej. de varios nodos); los del mismo mes se suman
+     */
+    public SketchReportDTO merge(List<SketchExportDTO> sketches) {
+        if (sketches == null || sketches.isEmpty()) {
+            throw new IllegalArgumentException("No se recibieron sketches");
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        NavigableMap<Integer, PeriodSketch> merged = new TreeMap<>();
+        for (SketchExportDTO sketch : sketches) {
+            if (sketch.getMonth() == null) {
+                throw new IllegalArgumentException("Cada sketch debe indicar su mes");
+            }
+            PeriodSketch period = new PeriodSketch(
+                    sketch.getBookings() != null ? sketch.getBookings() : 0,
+                    HyperLogLog.fromBytes(decode(decoder, sketch.getCustomers())),
+                    ValueHistogram.fromBytes(decode(decoder, sketch.getBookingValues())),
+                    ValueHistogram.fromBytes(decode(decoder, sketch.getPaymentAmounts())));
+            merged.merge(epochMonth(sketch.getMonth()), period, PeriodSketch::merge);
+        }
+        return summarize(merged, new HyperLogLog(), yearMonth(merged.firstKey()), yearMonth(merged.lastKey()));
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private void touch() {
+        lastModified = Instant.now();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Resumen de cada mes y del total; "before" trae los clientes de los meses anteriores al rango
+     */
+    private SketchReportDTO summarize(NavigableMap<Integer, PeriodSketch> range, HyperLogLog before,
+                                      YearMonth from, YearMonth to) {
+        List<PeriodSketchDTO> months = new ArrayList<>(range.size());
+        PeriodSketch total = new PeriodSketch();
+        HyperLogLog seen = before.copy();
+        for (Map.Entry<Integer, PeriodSketch> entry : range.entrySet()) {
+            PeriodSketch period = entry.getValue();
+            months.add(toDTO(yearMonth(entry.getKey()), period, seen));
+            seen.merge(period.customers);
+            total.merge(period);
+        }
+
+        return SketchReportDTO.builder()
+                .from(from)
+                .to(to)
+                .months(months)
+                .total(toDTO(null, total, before))
+                .build();
+    }
+
+    private PeriodSketchDTO toDTO(YearMonth month, PeriodSketch period, HyperLogLog before) {
+        long distinct = period.customers.estimate();
+        HyperLogLog union = before.copy();
+        union.merge(period.customers);
+        // |A ∩ B| = |A| + |B| - |A ∪ B|, acotado a [0, |A|]
+        long returning = Math.max(0, Math.min(distinct, distinct + before.estimate() - union.estimate()));
+
+        return PeriodSketchDTO.builder()
+                .month(month)
+                .bookings(period.bookings)
+                .distinctCustomers(distinct)
+                .returningCustomers(returning)
+                .bookingValue(distribution(period.bookingValues))
+                .paymentAmount(distribution(period.paymentAmounts))
+                .build();
+    }
+
+    private DistributionDTO distribution(ValueHistogram histogram) {
+        long count = histogram.getCount();
+        return DistributionDTO.builder()
+                .count(count)
+                .min(fromCents(histogram.getMin()))
+                .max(fromCents(histogram.getMax()))
+                .mean(count > 0
+                        ? fromCents(histogram.getSum()).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
+                        : fromCents(0))
+                .p50(fromCents(histogram.percentile(50)))
+                .p90(fromCents(histogram.percentile(90)))
+                .p95(fromCents(histogram.percentile(95)))
+                .p99(fromCents(histogram.percentile(99)))
+                .build();
+    }
+
+    private static NavigableMap<Integer, PeriodSketch> subMap(NavigableMap<Integer, PeriodSketch> periods,
+                                                              YearMonth from, YearMonth to) {
+        NavigableMap<Integer, PeriodSketch> range = periods;
+        if (from != null) {
+            range = range.tailMap(epochMonth(from), true);
+        }
+        if (to != null) {
+            range = range.headMap(epochMonth(to), true);
+        }
+        return range;
+    }
+
+    private static NavigableMap<Integer, PeriodSketch> copy(NavigableMap<Integer, PeriodSketch> periods) {
+        NavigableMap<Integer, PeriodSketch> copy = new TreeMap<>();
+        periods.forEach((month, period) -> copy.put(month, period.copy()));
+        return copy;
+    }
+
+    private static void validateRange(YearMonth from, YearMonth to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("El mes inicial no puede ser posterior al final");
+        }
+    }
+
+    private static byte[] decode(Base64.Decoder decoder, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Sketch vacío");
+        }
+        try {
+            return decoder.decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sketch con Base64 inválido");
+        }
+    }
+
+    private static int monthOf(long epochMillis) {
+        return epochMonth(YearMonth.from(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault())));
+    }
+
+    private static int monthOf(LocalDateTime dateTime) {
+        return epochMonth(YearMonth.from(dateTime));
+    }
+
+    private static int epochMonth(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth yearMonth(int epochMonth) {
+        return YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Sketches de un mes
+     */
+    private static class PeriodSketch {
+        long bookings;
+        final HyperLogLog customers;
+        final ValueHistogram bookingValues;
+        final ValueHistogram paymentAmounts;
+
+        PeriodSketch() {
+            this(0, new HyperLogLog(), new ValueHistogram(), new ValueHistogram());
+        }
+
+        PeriodSketch(long bookings, HyperLogLog customers, ValueHistogram bookingValues,
+                     ValueHistogram paymentAmounts) {
+            this.bookings = bookings;
+            this.customers = customers;
+            this.bookingValues = bookingValues;
+            this.paymentAmounts = paymentAmounts;
+        }
+
+        void recordBooking(Long customerId, long cents) {
+            bookings++;
+            if (customerId != null) {
+                customers.add(customerId);
+            }
+            bookingValues.record(cents);
+        }
+
+        PeriodSketch merge(PeriodSketch other) {
+            bookings += other.bookings;
+            customers.merge(other.customers);
+            bookingValues.merge(other.bookingValues);
+            paymentAmounts.merge(other.paymentAmounts);
+            return this;
+        }
+
+        PeriodSketch copy() {
+            return new PeriodSketch(bookings, customers.copy(), bookingValues.copy(), paymentAmounts.copy());
+        }
+    }
+}
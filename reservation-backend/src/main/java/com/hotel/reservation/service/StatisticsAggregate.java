@@ -0,0 +1,382 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.LoyaltyLevelCount;
+import com.hotel.reservation.dto.PaymentMethodTotals;
+import com.hotel.reservation.dto.ReservationStatusTotals;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.models.LoyaltyLevel;
+import com.hotel.reservation.models.PaymentMethod;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.patterns.creational.singleton.ConfigurationManager;
+import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas materializadas (contadores y sumas) para /api/reports/statistics y /dashboard.
+ *
+ * Se mantienen de forma incremental con los eventos del bus, así leerlas cuesta lo mismo
+ * sin importar el tamaño de las tablas. Los contadores son LongAdder (acumuladores
+ * repartidos por celdas) y los montos se acumulan en centavos.
+ *
+ * Una reconciliación periódica con consultas GROUP BY corrige la deriva: cambios hechos
+ * sin pasar por los servicios (scripts, sentencias masivas, datos iniciales) o eventos
+ * que se cruzan con la propia reconciliación. Al iniciar la aplicación se cargan desde la
+ * base de datos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatisticsAggregate implements EventSubscriber {
+
+    private final RoomRepository roomRepository;
+    private final CustomerRepository customerRepository;
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+
+    private final LongAdder totalRooms = new LongAdder();
+    private final LongAdder availableRooms = new LongAdder();
+    private final Map<LoyaltyLevel, LongAdder> customersByLoyalty = adders(LoyaltyLevel.class);
+    private final Map<ReservationStatus, LongAdder> reservationsByStatus = adders(ReservationStatus.class);
+    private final LongAdder reservationValueCents = new LongAdder();
+    private final Map<PaymentMethod, LongAdder> paymentsByMethod = adders(PaymentMethod.class);
+    private final Map<PaymentMethod, LongAdder> paymentCentsByMethod = adders(PaymentMethod.class);
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile long lastDrift;
+
+    // Versión de las estadísticas: cambia con cada evento aplicado y cada reconciliación
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
+    @Override
+    public String getName() {
+        return "statistics";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case RESERVATION_CREATED -> {
+                increment(reservationsByStatus, event.getStatus());
+                reservationValueCents.add(toCents(event.getTotalPrice()));
+            }
+            case RESERVATION_CONFIRMED, RESERVATION_CANCELLED, RESERVATION_UPDATED -> {
+                move(reservationsByStatus, event.getPreviousStatus(), event.getStatus());
+                if (event.getPreviousTotalPrice() != null) {
+                    reservationValueCents.add(toCents(event.getTotalPrice()) - toCents(event.getPreviousTotalPrice()));
+                }
+            }
+            case RESERVATION_DELETED -> {
+                decrement(reservationsByStatus, event.getStatus());
+                reservationValueCents.add(-toCents(event.getTotalPrice()));
+            }
+            case PAYMENT_CREATED -> {
+                // Un reintento sobre un pago fallido reemplaza su método y monto
+                if (event.getPreviousPaymentMethod() != null) {
+                    decrement(paymentsByMethod, event.getPreviousPaymentMethod());
+                    add(paymentCentsByMethod, event.getPreviousPaymentMethod(), -toCents(event.getPreviousAmount()));
+                }
+                increment(paymentsByMethod, event.getPaymentMethod());
+                add(paymentCentsByMethod, event.getPaymentMethod(), toCents(event.getAmount()));
+            }
+            case PAYMENT_COMPLETED -> move(reservationsByStatus, event.getPreviousStatus(), event.getStatus());
+            case CUSTOMER_CREATED -> increment(customersByLoyalty, event.getLoyaltyLevel());
+            case CUSTOMER_UPDATED -> move(customersByLoyalty, event.getPreviousLoyaltyLevel(), event.getLoyaltyLevel());
+            case CUSTOMER_DELETED -> decrement(customersByLoyalty, event.getLoyaltyLevel());
+            case ROOM_CREATED -> {
+                totalRooms.increment();
+                if (Boolean.TRUE.equals(event.getRoomAvailable())) {
+                    availableRooms.increment();
+                }
+            }
+            case ROOM_UPDATED -> {
+                boolean wasAvailable = Boolean.TRUE.equals(event.getPreviousRoomAvailable());
+                boolean isAvailable = Boolean.TRUE.equals(event.getRoomAvailable());
+                if (wasAvailable != isAvailable) {
+                    availableRooms.add(isAvailable ? 1 : -1);
+                }
+            }
+            case ROOM_DELETED -> {
+                totalRooms.decrement();
+                if (Boolean.TRUE.equals(event.getRoomAvailable())) {
+                    availableRooms.decrement();
+                }
+            }
+            default -> {
+                // Otros eventos no cambian las estadísticas
+                return;
+            }
+        }
+        touch();
+    }
+
+    /**
+     * Carga inicial, después de que la aplicación (y sus datos iniciales) está lista
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Reconciliación periódica con la base de datos
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.statistics.reconcile-interval-ms:300000}")
+    public void scheduledReconciliation() {
+        reconcile();
+    }
+
+    /**
+     * Ajusta cada contador al valor de la base de datos sumándole la diferencia,
+     * así las lecturas concurrentes nunca ven contadores en cero
+     */
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long drift = 0;
+
+            drift += adjust(totalRooms, roomRepository.count());
+            drift += adjust(availableRooms, roomRepository.countByAvailableTrue());
+
+            Map<LoyaltyLevel, Long> loyaltyCounts = new EnumMap<>(LoyaltyLevel.class);
+            for (LoyaltyLevelCount row : customerRepository.countGroupedByLoyaltyLevel()) {
+                if (row.loyaltyLevel() != null) {
+                    loyaltyCounts.put(row.loyaltyLevel(), row.count());
+                }
+            }
+            drift += adjustAll(customersByLoyalty, loyaltyCounts);
+
+            Map<ReservationStatus, Long> statusCounts = new EnumMap<>(ReservationStatus.class);
+            long reservationCents = 0;
+            for (ReservationStatusTotals row : reservationRepository.sumGroupedByStatus()) {
+                if (row.status() != null) {
+                    statusCounts.put(row.status(), row.count());
+                }
+                reservationCents += toCents(row.totalPrice());
+            }
+            drift += adjustAll(reservationsByStatus, statusCounts);
+            adjust(reservationValueCents, reservationCents);
+
+            Map<PaymentMethod, Long> methodCounts = new EnumMap<>(PaymentMethod.class);
+            Map<PaymentMethod, Long> methodCents = new EnumMap<>(PaymentMethod.class);
+            for (PaymentMethodTotals row : paymentRepository.sumGroupedByPaymentMethod()) {
+                if (row.paymentMethod() != null) {
+                    methodCounts.put(row.paymentMethod(), row.count());
+                    methodCents.put(row.paymentMethod(), toCents(row.amount()));
+                }
+            }
+            drift += adjustAll(paymentsByMethod, methodCounts);
+            adjustAll(paymentCentsByMethod, methodCents);
+
+            if (lastReconciledAt == null) {
+                log.info("📊 Estadísticas cargadas en {} ms", System.currentTimeMillis() - start);
+            } else if (drift != 0) {
+                log.warn("⚠️ Estadísticas reconciliadas: {} conteos corregidos", drift);
+            }
+            lastDrift = drift;
+            lastReconciledAt = LocalDateTime.now();
+            touch();
+        } catch (Exception e) {
+            log.error("❌ Error reconciliando las estadísticas: {}", e.getMessage(), e);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    public long getTotalRooms() {
+        return totalRooms.sum();
+    }
+
+    public long getAvailableRooms() {
+        return availableRooms.sum();
+    }
+
+    public long getTotalCustomers() {
+        return total(customersByLoyalty);
+    }
+
+    public Map<String, Long> getCustomersByLoyalty() {
+        return snapshot(customersByLoyalty);
+    }
+
+    public long getTotalReservations() {
+        return total(reservationsByStatus);
+    }
+
+    public Map<String, Long> getReservationsByStatus() {
+        return snapshot(reservationsByStatus);
+    }
+
+    public BigDecimal getTotalReservationValue() {
+        return fromCents(reservationValueCents.sum());
+    }
+
+    public long getTotalPayments() {
+        return total(paymentsByMethod);
+    }
+
+    public BigDecimal getTotalPaymentAmount() {
+        return fromCents(total(paymentCentsByMethod));
+    }
+
+    public Map<String, BigDecimal> getPaymentsByMethod() {
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        paymentsByMethod.forEach((method, count) -> {
+            if (count.sum() != 0) {
+                amounts.put(method.name(), fromCents(paymentCentsByMethod.get(method).sum()));
+            }
+        });
+        return amounts;
+    }
+
+    public LocalDateTime getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+
+    public long getLastDrift() {
+        return lastDrift;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private void touch() {
+        lastModified = Instant.now();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Resumen en texto (mismo formato que StatisticsVisitor)
+     */
+    public String generateReport() {
+        String currency = ConfigurationManager.INSTANCE.getCurrency();
+        long rooms = getTotalRooms();
+        long available = getAvailableRooms();
+
+        StringBuilder report = new StringBuilder();
+        report.append("=== ESTADÍSTICAS GENERALES ===\n\n");
+
+        report.append(String.format("Habitaciones: %d total | %d disponibles | %d ocupadas\n",
+            rooms, available, rooms - available));
+
+        report.append(String.format("Clientes: %d total\n", getTotalCustomers()));
+        getCustomersByLoyalty().forEach((level, count) ->
+            report.append(String.format("  - %s: %d\n", level, count)));
+
+        report.append(String.format("\nReservas: %d total | Valor: $%.2f %s\n",
+            getTotalReservations(), getTotalReservationValue(), currency));
+        getReservationsByStatus().forEach((status, count) ->
+            report.append(String.format("  - %s: %d\n", status, count)));
+
+        report.append(String.format("\nPagos: %d total | Monto: $%.2f %s\n",
+            getTotalPayments(), getTotalPaymentAmount(), currency));
+        getPaymentsByMethod().forEach((method, amount) ->
+            report.append(String.format("  - %s: $%.2f %s\n", method, amount, currency)));
+
+        return report.toString();
+    }
+
+    private static <K extends Enum<K>> Map<K, LongAdder> adders(Class<K> keyType) {
+        // Mapa de solo lectura después de construirse: los hilos solo modifican los LongAdder
+        Map<K, LongAdder> adders = new EnumMap<>(keyType);
+        for (K key : keyType.getEnumConstants()) {
+            adders.put(key, new LongAdder());
+        }
+        return adders;
+    }
+
+    private static <K> void increment(Map<K, LongAdder> adders, K key) {
+        add(adders, key, 1);
+    }
+
+    private static <K> void decrement(Map<K, LongAdder> adders, K key) {
+        add(adders, key, -1);
+    }
+
+    private static <K> void add(Map<K, LongAdder> adders, K key, long delta) {
+        if (key != null) {
+            adders.get(key).add(delta);
+        }
+    }
+
+    private static <K> void move(Map<K, LongAdder> adders, K from, K to) {
+        if (from == null || to == null || from == to) {
+            return;
+        }
+        decrement(adders, from);
+        increment(adders, to);
+    }
+
+    private static long total(Map<?, LongAdder> adders) {
+        long total = 0;
+        for (LongAdder adder : adders.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    private static <K extends Enum<K>> Map<String, Long> snapshot(Map<K, LongAdder> adders) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        adders.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                values.put(key.name(), value);
+            }
+        });
+        return values;
+    }
+
+    private static long adjust(LongAdder adder, long target) {
+        long drift = target - adder.sum();
+        if (drift != 0) {
+            adder.add(drift);
+        }
+        return Math.abs(drift);
+    }
+
+    private static <K> long adjustAll(Map<K, LongAdder> adders, Map<K, Long> targets) {
+        long drift = 0;
+        for (Map.Entry<K, LongAdder> entry : adders.entrySet()) {
+            drift += adjust(entry.getValue(), targets.getOrDefault(entry.getKey(), 0L));
+        }
+        return drift;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.cache.DataTable;
+import com.hotel.reservation.cache.DataVersions;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Migración de arranque: asigna updatedAt a las habitaciones y pagos creados antes de agregar
+ * la columna (quedaban en NULL y nunca entraban en un rango de exportación incremental).
+ *
+ * - Reciben el momento del arranque, para que la siguiente exportación incremental los incluya
+ * - Corre al terminar de crear los beans, antes de que el servidor web acepte peticiones:
+ *   ninguna exportación ni reporte en caché ve las filas todavía en NULL
+ * - Solo actualiza las filas que siguen en NULL: en los siguientes arranques no cambia nada
+ * - El UPDATE masivo no pasa por las entidades: se incrementan las versiones de ROOMS y PAYMENTS
+ *   a mano para invalidar los reportes en caché y las ETags que las incluyan
+ */
+@Slf4j
+@Component
+public class UpdatedAtBackfill implements SmartInitializingSingleton {
+
+    private final RoomRepository roomRepository;
+    private final PaymentRepository paymentRepository;
+    private final DataVersions dataVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    public UpdatedAtBackfill(RoomRepository roomRepository,
+                             PaymentRepository paymentRepository,
+                             DataVersions dataVersions,
+                             PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.paymentRepository = paymentRepository;
+        this.dataVersions = dataVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime now = LocalDateTime.now();
+        int[] updated = transactionTemplate.execute(status -> {
+            int rooms = roomRepository.backfillUpdatedAt(now);
+            int payments = paymentRepository.backfillUpdatedAt(now);
+            // Se aplican al confirmar, solo para las tablas que cambiaron
+            if (rooms > 0) {
+                dataVersions.changed(DataTable.ROOMS);
+            }
+            if (payments > 0) {
+                dataVersions.changed(DataTable.PAYMENTS);
+            }
+            return new int[] {rooms, payments};
+        });
+        if (updated != null && updated[0] + updated[1] > 0) {
+            log.info("🕒 updatedAt asignado a {} habitaciones y {} pagos anteriores a la columna", updated[0], updated[1]);
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.DataViolationDTO;
+import com.hotel.reservation.dto.ReservationInterval;
+import com.hotel.reservation.dto.ViolationRuleCount;
+import com.hotel.reservation.events.DomainEvent;
+import com.hotel.reservation.events.EventSubscriber;
+import com.hotel.reservation.models.DataViolation;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.ReservationStatus;
+import com.hotel.reservation.models.ViolationEntityType;
+import com.hotel.reservation.models.ViolationRule;
+import com.hotel.reservation.patterns.behavioral.visitor.ValidationVisitor;
+import com.hotel.reservation.repositories.CustomerRepository;
+import com.hotel.reservation.repositories.DataViolationRepository;
+import com.hotel.reservation.repositories.PaymentRepository;
+import com.hotel.reservation.repositories.ReservationRepository;
+import com.hotel.reservation.repositories.RoomRepository;
+import com.hotel.reservation.validation.ValidationRules;
+import com.hotel.reservation.validation.Violation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Motor de validación de datos: mantiene en la tabla data_violations las violaciones abiertas.
+ *
+ * - Incremental: como suscriptor del bus junta los IDs que cambiaron y los valida de nuevo al
+ *   final de cada lote de eventos, en una sola transacción. Un cambio de habitación revalida sus
+ *   reservas; un cambio de reserva revalida su pago y los cruces con otras reservas (las que se
+ *   cruzaban antes y las que se cruzan ahora). Si la entidad ya no existe, se borran sus filas.
+ * - Completa: recorre cada tabla por bloques de IDs en paralelo. ParallelReportLoader carga cada
+ *   bloque en su transacción de solo lectura y lo valida con ValidationVisitor (los bloques grandes
+ *   se dividen con fork-join y se combinan con merge); después el bloque reemplaza las filas de su
+ *   rango en su propia transacción. Los cruces se detectan con un barrido de las reservas activas
+ *   ordenadas por habitación y check-in, y reemplazan todas las filas de esa regla.
+ *
+ * Un cambio confirmado mientras corre la validación completa puede quedar pisado por el bloque
+ * de su rango; el siguiente evento de esa entidad o la siguiente validación completa lo corrige.
+ */
+@Slf4j
+@Service
+public class ValidationEngine implements EventSubscriber {
+
+    // Máximo de IDs pendientes antes de validar aunque el lote no haya terminado
+    private static final int MAX_PENDING = 500;
+
+    // Tamaño máximo de página al consultar violaciones
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final List<ViolationRule> OVERLAP_RULE = List.of(ViolationRule.RESERVATION_OVERLAP);
+    private static final Set<ReservationStatus> ACTIVE_STATUSES = Set.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED);
+
+    private final DataViolationRepository violationRepository;
+    private final RoomRepository roomRepository;
+    private final CustomerRepository customerRepository;
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final ParallelReportLoader reportLoader;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean fullOnStartup;
+    private final ExecutorService chunkExecutor;
+    private final ExecutorService runExecutor;
+
+    // Reglas de cada tipo que se evalúan fila por fila (todas menos los cruces)
+    private final Map<ViolationEntityType, List<ViolationRule>> rowRules = new EnumMap<>(ViolationEntityType.class);
+
+    // IDs pendientes de validar; solo los toca el hilo del suscriptor
+    private final Set<Long> dirtyRooms = new HashSet<>();
+    private final Set<Long> dirtyCustomers = new HashSet<>();
+    private final Set<Long> dirtyReservations = new HashSet<>();
+    private final Set<Long> dirtyPayments = new HashSet<>();
+
+    private final AtomicLong eventsProcessed = new AtomicLong();
+    private final AtomicLong incrementalFlushes = new AtomicLong();
+    private final AtomicLong entitiesRevalidated = new AtomicLong();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger chunksTotal = new AtomicInteger();
+    private final AtomicInteger chunksDone = new AtomicInteger();
+    private volatile RunSummary lastRun;
+
+    public ValidationEngine(DataViolationRepository violationRepository,
+                            RoomRepository roomRepository,
+                            CustomerRepository customerRepository,
+                            ReservationRepository reservationRepository,
+                            PaymentRepository paymentRepository,
+                            ParallelReportLoader reportLoader,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.validation.chunk-size:1000}") int chunkSize,
+                            @Value("${app.validation.full.threads:4}") int fullThreads,
+                            @Value("${app.validation.full-on-startup:true}") boolean fullOnStartup) {
+        this.violationRepository = violationRepository;
+        this.roomRepository = roomRepository;
+        this.customerRepository = customerRepository;
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.reportLoader = reportLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.fullOnStartup = fullOnStartup;
+
+        for (ViolationEntityType type : ViolationEntityType.values()) {
+            rowRules.put(type, ViolationRule.forEntity(type).stream()
+                    .filter(rule -> rule != ViolationRule.RESERVATION_OVERLAP)
+                    .toList());
+        }
+
+        CustomizableThreadFactory chunkFactory = new CustomizableThreadFactory("validation-");
+        chunkFactory.setDaemon(true);
+        this.chunkExecutor = Executors.newFixedThreadPool(fullThreads, chunkFactory);
+
+        CustomizableThreadFactory runFactory = new CustomizableThreadFactory("validation-run-");
+        runFactory.setDaemon(true);
+        this.runExecutor = Executors.newSingleThreadExecutor(runFactory);
+    }
+
+    @Override
+    public String getName() {
+        return "validation";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case ROOM_CREATED, ROOM_UPDATED, ROOM_DELETED -> dirtyRooms.add(event.getRoomId());
+            case CUSTOMER_CREATED, CUSTOMER_UPDATED, CUSTOMER_DELETED -> dirtyCustomers.add(event.getCustomerId());
+            // Una reserva eliminada se revalida igual: replace y revalidateOverlaps quitan sus violaciones y cruces
+            case RESERVATION_CREATED, RESERVATION_CONFIRMED, RESERVATION_UPDATED, RESERVATION_CANCELLED,
+                 RESERVATION_DELETED -> dirtyReservations.add(event.getReservationId());
+            case PAYMENT_CREATED, PAYMENT_COMPLETED, PAYMENT_REFUNDED -> dirtyPayments.add(event.getPaymentId());
+            default -> {
+                // Otros eventos no cambian datos validados
+            }
+        }
+        eventsProcessed.incrementAndGet();
+
+        if (endOfBatch || pendingCount() >= MAX_PENDING) {
+            flush();
+        }
+    }
+
+    /**
+     * Validación completa al iniciar (la tabla de violaciones arranca vacía en memoria)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void validateOnStartup() {
+        if (fullOnStartup) {
+            triggerFullValidation();
+        }
+    }
+
+    /**
+     * Lanza una validación completa en segundo plano
+     * @return false si ya hay una en curso
+     */
+    public boolean triggerFullValidation() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runExecutor.execute(this::runFull);
+        return true;
+    }
+
+    /**
+     * Página de violaciones abiertas, con los conteos por regla y el estado del motor
+     * @param entityType filtro por tipo de entidad (null para todos)
+     * @param rule filtro por regla (null para todas)
+     */
+    public Map<String, Object> getViolations(int page, int size, ViolationEntityType entityType, ViolationRule rule) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("page debe ser >= 0 y size mayor a 0");
+        }
+        Page<DataViolation> result = violationRepository.findPage(entityType, rule,
+                PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE)));
+
+        Map<ViolationRule, Long> countsByRule = new EnumMap<>(ViolationRule.class);
+        long total = 0;
+        for (ViolationRuleCount count : violationRepository.countGroupedByRule()) {
+            countsByRule.put(count.rule(), count.count());
+            total += count.count();
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("hasErrors", total > 0);
+        response.put("errorCount", total);
+        response.put("matching", result.getTotalElements());
+        response.put("page", result.getNumber());
+        response.put("size", result.getSize());
+        response.put("totalPages", result.getTotalPages());
+        response.put("errors", result.getContent().stream().map(this::toDTO).toList());
+        response.put("countsByRule", countsByRule);
+        response.put("status", getStatus());
+        return response;
+    }
+
+    /**
+     * Progreso de la validación completa, resultado de la última y contadores del modo incremental
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("chunksTotal", chunksTotal.get());
+        status.put("chunksDone", chunksDone.get());
+        status.put("eventsProcessed", eventsProcessed.get());
+        status.put("incrementalFlushes", incrementalFlushes.get());
+        status.put("entitiesRevalidated", entitiesRevalidated.get());
+
+        RunSummary summary = lastRun;
+        if (summary != null) {
+            Map<String, Object> last = new LinkedHashMap<>();
+            last.put("startedAt", summary.startedAt().toString());
+            last.put("durationMs", summary.durationMillis());
+            last.put("entities", summary.entities());
+            last.put("violations", summary.violations());
+            last.put("error", summary.error());
+            status.put("lastRun", last);
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    // ========== Modo incremental ==========
+
+    private int pendingCount() {
+        return dirtyRooms.size() + dirtyCustomers.size() + dirtyReservations.size() + dirtyPayments.size();
+    }
+
+    private void flush() {
+        if (pendingCount() == 0) {
+            return;
+        }
+        Set<Long> rooms = new HashSet<>(dirtyRooms);
+        Set<Long> customers = new HashSet<>(dirtyCustomers);
+        Set<Long> reservations = new HashSet<>(dirtyReservations);
+        Set<Long> payments = new HashSet<>(dirtyPayments);
+        dirtyRooms.clear();
+        dirtyCustomers.clear();
+        dirtyReservations.clear();
+        dirtyPayments.clear();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> revalidate(rooms, customers, reservations, payments));
+            incrementalFlushes.incrementAndGet();
+        } catch (Exception e) {
+            // Se pierde este lote; la siguiente validación completa lo corrige
+            log.error("❌ Error en la validación incremental: {}", e.getMessage(), e);
+        }
+    }
+
+    private void revalidate(Set<Long> rooms, Set<Long> customers, Set<Long> reservations, Set<Long> payments) {
+        rooms.remove(null);
+        customers.remove(null);
+        reservations.remove(null);
+        payments.remove(null);
+
+        // La capacidad de la habitación afecta a sus reservas, y el total de la reserva a su pago
+        if (!rooms.isEmpty()) {
+            reservations.addAll(reservationRepository.findIdsByRoomIdIn(rooms));
+        }
+        if (!reservations.isEmpty()) {
+            payments.addAll(paymentRepository.findIdsByReservationIdIn(reservations));
+        }
+
+        long count = 0;
+        if (!rooms.isEmpty()) {
+            count += replace(ViolationEntityType.ROOM, rooms, roomRepository.findAllById(rooms), ValidationRules::validate);
+        }
+        if (!customers.isEmpty()) {
+            count += replace(ViolationEntityType.CUSTOMER, customers, customerRepository.findAllById(customers),
+                    ValidationRules::validate);
+        }
+        if (!reservations.isEmpty()) {
+            count += replace(ViolationEntityType.RESERVATION, reservations,
+                    reservationRepository.findAllByIdWithRoom(reservations), ValidationRules::validate);
+        }
+        if (!payments.isEmpty()) {
+            count += replace(ViolationEntityType.PAYMENT, payments,
+                    paymentRepository.findAllByIdWithReservation(payments), ValidationRules::validate);
+        }
+        if (!reservations.isEmpty()) {
+            count += revalidateOverlaps(reservations);
+        }
+        entitiesRevalidated.addAndGet(count);
+    }
+
+    /**
+     * Reemplaza las filas de las entidades indicadas por las violaciones de las que siguen existiendo
+     * @return cantidad de entidades revisadas
+     */
+    private <T> int replace(ViolationEntityType type, Set<Long> ids, List<T> existing,
+                            Function<T, List<Violation>> rules) {
+        violationRepository.deleteForEntities(type, ids, rowRules.get(type));
+        List<DataViolation> rows = new ArrayList<>();
+        for (T entity : existing) {
+            rules.apply(entity).forEach(violation -> rows.add(toEntity(type, violation)));
+        }
+        violationRepository.saveAll(rows);
+        return ids.size();
+    }
+
+    /**
+     * Recalcula los cruces de las reservas que cambiaron y de las que se cruzaban o se cruzan con ellas
+     * @return cantidad de reservas revisadas
+     */
+    private int revalidateOverlaps(Set<Long> changed) {
+        Set<Long> affected = new HashSet<>(changed);
+        affected.addAll(violationRepository.findEntityIdsByRuleAndRelatedIn(ViolationRule.RESERVATION_OVERLAP, changed));
+
+        Map<Long, Reservation> loaded = new HashMap<>();
+        reservationRepository.findAllByIdWithRoom(changed).forEach(reservation -> loaded.put(reservation.getId(), reservation));
+        for (Reservation reservation : loaded.values()) {
+            overlapsOf(reservation).forEach(other -> affected.add(other.id()));
+        }
+
+        violationRepository.deleteForEntities(ViolationEntityType.RESERVATION, affected, OVERLAP_RULE);
+        List<Long> missing = affected.stream().filter(id -> !loaded.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            reservationRepository.findAllByIdWithRoom(missing).forEach(reservation -> loaded.put(reservation.getId(), reservation));
+        }
+
+        List<DataViolation> rows = new ArrayList<>();
+        for (Long id : affected) {
+            Reservation reservation = loaded.get(id);
+            if (reservation == null) {
+                continue;
+            }
+            for (ReservationInterval other : overlapsOf(reservation)) {
+                rows.add(toEntity(ViolationEntityType.RESERVATION,
+                        ValidationRules.overlap(reservation.getId(), other.id(), other.roomId())));
+            }
+        }
+        violationRepository.saveAll(rows);
+        return affected.size();
+    }
+
+    private List<ReservationInterval> overlapsOf(Reservation reservation) {
+        if (!ACTIVE_STATUSES.contains(reservation.getStatus())
+                || !reservation.getCheckOutDate().isAfter(reservation.getCheckInDate())) {
+            return List.of();
+        }
+        return reservationRepository.findActiveOverlapping(reservation.getRoom().getId(), reservation.getId(),
+                reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+
+    // ========== Modo completo ==========
+
+    /**
+     * Valida todas las tablas por bloques en paralelo, más el barrido de cruces
+     */
+    private void runFull() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        chunksTotal.set(0);
+        chunksDone.set(0);
+
+        try {
+            List<CompletableFuture<long[]>> chunks = new ArrayList<>();
+            addChunks(chunks, ViolationEntityType.ROOM, roomRepository.findMaxId(),
+                    roomRepository::findInIdRange, ValidationVisitor::visit);
+            addChunks(chunks, ViolationEntityType.CUSTOMER, customerRepository.findMaxId(),
+                    customerRepository::findInIdRange, ValidationVisitor::visit);
+            addChunks(chunks, ViolationEntityType.RESERVATION, reservationRepository.findMaxId(),
+                    reservationRepository::findWithRoomInIdRange, ValidationVisitor::visit);
+            addChunks(chunks, ViolationEntityType.PAYMENT, paymentRepository.findMaxId(),
+                    paymentRepository::findWithReservationInIdRange, ValidationVisitor::visit);
+            chunks.add(CompletableFuture.supplyAsync(this::sweepOverlaps, chunkExecutor));
+            chunksTotal.set(chunks.size());
+
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+            long entities = 0;
+            long violations = 0;
+            for (CompletableFuture<long[]> chunk : chunks) {
+                long[] result = chunk.join();
+                entities += result[0];
+                violations += result[1];
+            }
+
+            long duration = System.currentTimeMillis() - start;
+            lastRun = new RunSummary(startedAt, duration, entities, violations, null);
+            log.info("🔍 Validación completa: {} entidades, {} violaciones, {} bloques en {} ms",
+                    entities, violations, chunksTotal.get(), duration);
+        } catch (Exception e) {
+            log.error("❌ Error en la validación completa: {}", e.getMessage(), e);
+            lastRun = new RunSummary(startedAt, System.currentTimeMillis() - start, 0, 0, e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Un bloque [fromId, toId) por tarea: se carga y valida con ParallelReportLoader y después
+     * reemplaza las filas del rango en su transacción
+     */
+    private <T> void addChunks(List<CompletableFuture<long[]>> chunks, ViolationEntityType type, Long maxId,
+                               BiFunction<Long, Long, List<T>> query, BiConsumer<ValidationVisitor, T> visit) {
+        // Desde 0 para que el primer bloque también limpie filas de IDs que ya no existen
+        long upper = maxId == null ? 0 : maxId;
+        for (long fromId = 0; fromId <= upper; fromId += chunkSize) {
+            long chunkFrom = fromId;
+            long chunkTo = fromId + chunkSize;
+            chunks.add(reportLoader.loadAndVisit(() -> query.apply(chunkFrom, chunkTo), ValidationVisitor::new, visit)
+                    .thenApplyAsync(visitor -> replaceRange(type, chunkFrom, chunkTo, visitor), chunkExecutor));
+        }
+    }
+
+    private long[] replaceRange(ViolationEntityType type, long fromId, long toId, ValidationVisitor visitor) {
+        long[] result = transactionTemplate.execute(status -> {
+            violationRepository.deleteForIdRange(type, fromId, toId, rowRules.get(type));
+            List<DataViolation> rows = visitor.getViolations().stream().map(v -> toEntity(type, v)).toList();
+            violationRepository.saveAll(rows);
+            return new long[]{visitor.getEntityCount(), rows.size()};
+        });
+        chunksDone.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Barrido de las reservas activas por habitación y check-in: cada estancia se compara solo
+     * con las abiertas (check-out posterior a su check-in), sin comparar todas contra todas
+     */
+    private long[] sweepOverlaps() {
+        List<Violation> violations = new ArrayList<>();
+        long[] scanned = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            Deque<ReservationInterval> open = new ArrayDeque<>();
+            Long currentRoom = null;
+            try (Stream<ReservationInterval> intervals = reservationRepository.streamActiveIntervals()) {
+                Iterator<ReservationInterval> iterator = intervals.iterator();
+                while (iterator.hasNext()) {
+                    ReservationInterval interval = iterator.next();
+                    scanned[0]++;
+                    if (!interval.checkOutDate().isAfter(interval.checkInDate())) {
+                        continue;
+                    }
+                    if (!interval.roomId().equals(currentRoom)) {
+                        open.clear();
+                        currentRoom = interval.roomId();
+                    }
+                    LocalDate checkIn = interval.checkInDate();
+                    open.removeIf(other -> !other.checkOutDate().isAfter(checkIn));
+                    for (ReservationInterval other : open) {
+                        violations.add(ValidationRules.overlap(interval.id(), other.id(), interval.roomId()));
+                        violations.add(ValidationRules.overlap(other.id(), interval.id(), interval.roomId()));
+                    }
+                    open.add(interval);
+                }
+            }
+
+            violationRepository.deleteByRule(ViolationRule.RESERVATION_OVERLAP);
+            violationRepository.saveAll(violations.stream()
+                    .map(v -> toEntity(ViolationEntityType.RESERVATION, v))
+                    .toList());
+        });
+        chunksDone.incrementAndGet();
+        // Las reservas ya se cuentan en sus bloques
+        return new long[]{0, violations.size()};
+    }
+
+    private DataViolation toEntity(ViolationEntityType type, Violation violation) {
+        return DataViolation.builder()
+                .entityType(type)
+                .entityId(violation.entityId())
+                .rule(violation.rule())
+                .relatedEntityId(violation.relatedEntityId())
+                .message(violation.message())
+                .build();
+    }
+
+    private DataViolationDTO toDTO(DataViolation violation) {
+        return DataViolationDTO.builder()
+                .id(violation.getId())
+                .entityType(violation.getEntityType())
+                .entityId(violation.getEntityId())
+                .rule(violation.getRule())
+                .relatedEntityId(violation.getRelatedEntityId())
+                .message(violation.getMessage())
+                .detectedAt(violation.getDetectedAt())
+                .build();
+    }
+
+    private record RunSummary(LocalDateTime startedAt, long durationMillis, long entities, long violations, String error) {
+    }
+}
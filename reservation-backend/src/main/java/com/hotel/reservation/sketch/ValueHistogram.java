@@ -0,0 +1,175 @@
+package com.hotel.reservation.sketch;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Histograma log-lineal (estilo HDR) de valores enteros no negativos, p. ej. montos en centavos.
+ *
+ * Los valores menores a 64 se cuentan exactos; los demás caen en cubetas de 64 subdivisiones
+ * por potencia de 2, así cualquier percentil tiene un error relativo menor a 1/64 (~1.6 %).
+ * Cubre hasta 2^40 con ~2,240 contadores (17 KB), sin importar cuántos valores se registren.
+ * Mínimo, máximo y suma (para el promedio) son exactos. Dos histogramas se combinan sumando
+ * sus contadores. No es seguro para varios hilos: sincroniza quien lo usa.
+ */
+public class ValueHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Registra un valor (los negativos cuentan como 0 y los mayores a 2^40 caen en la última cubeta)
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[index(Math.min(clamped, MAX_VALUE))]++;
+        count++;
+        sum += clamped;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * Suma los contadores de otro histograma a este
+     */
+    public void merge(ValueHistogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Valor aproximado del percentil
+     * @param percentile entre 0 y 100
+     * @return 0 si no hay valores
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Punto medio de la cubeta, acotado por los extremos exactos
+                long value = lowerBound(i) + (width(i) - 1) / 2;
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public ValueHistogram copy() {
+        ValueHistogram copy = new ValueHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Forma serializada: totales seguidos solo de las cubetas con valores (índice, contador)
+     */
+    public byte[] toBytes() {
+        int used = 0;
+        for (long bucketCount : counts) {
+            if (bucketCount != 0) {
+                used++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 4 + Integer.BYTES + used * (Short.BYTES + Long.BYTES));
+        buffer.putLong(count).putLong(sum).putLong(getMin()).putLong(max).putInt(used);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                buffer.putShort((short) i).putLong(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static ValueHistogram fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Histograma inválido");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            ValueHistogram histogram = new ValueHistogram();
+            histogram.count = buffer.getLong();
+            histogram.sum = buffer.getLong();
+            long min = buffer.getLong();
+            histogram.min = histogram.count == 0 ? Long.MAX_VALUE : min;
+            histogram.max = buffer.getLong();
+            int used = buffer.getInt();
+            long total = 0;
+            for (int i = 0; i < used; i++) {
+                int index = buffer.getShort();
+                long bucketCount = buffer.getLong();
+                if (index < 0 || index >= BUCKETS || bucketCount < 0) {
+                    throw new IllegalArgumentException("Histograma inválido: cubeta " + index);
+                }
+                histogram.counts[index] += bucketCount;
+                total += bucketCount;
+            }
+            if (total != histogram.count || buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Histograma inválido: los contadores no coinciden");
+            }
+            return histogram;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Histograma inválido: datos incompletos");
+        }
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    private static long width(int index) {
+        return index < SUB_BUCKETS ? 1 : 1L << ((index - SUB_BUCKETS) / SUB_BUCKETS);
+    }
+}
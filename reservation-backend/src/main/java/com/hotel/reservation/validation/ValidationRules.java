@@ -0,0 +1,133 @@
+package com.hotel.reservation.validation;
+
+import com.hotel.reservation.models.Customer;
+import com.hotel.reservation.models.Payment;
+import com.hotel.reservation.models.PaymentStatus;
+import com.hotel.reservation.models.Reservation;
+import com.hotel.reservation.models.Room;
+import com.hotel.reservation.models.ViolationRule;
+import com.hotel.reservation.patterns.creational.singleton.ConfigurationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reglas de validación por entidad, sin estado: las usan el ValidationVisitor y el ValidationEngine.
+ * Cada método evalúa solo la entidad recibida (y lo que ya trae cargado); los cruces entre
+ * reservas se detectan aparte porque dependen de otras filas.
+ */
+public final class ValidationRules {
+
+    // Diferencia tolerada al comparar montos (redondeo a centavos)
+    private static final BigDecimal AMOUNT_TOLERANCE = new BigDecimal("0.01");
+
+    private ValidationRules() {
+    }
+
+    public static List<Violation> validate(Room room) {
+        List<Violation> violations = new ArrayList<>();
+        if (room.getPrice().doubleValue() <= 0) {
+            violations.add(new Violation(ViolationRule.ROOM_INVALID_PRICE, room.getId(),
+                    String.format("Habitación %s tiene precio inválido: %.2f", room.getRoomNumber(), room.getPrice())));
+        }
+        if (room.getCapacity() <= 0) {
+            violations.add(new Violation(ViolationRule.ROOM_INVALID_CAPACITY, room.getId(),
+                    String.format("Habitación %s tiene capacidad inválida: %d", room.getRoomNumber(), room.getCapacity())));
+        }
+        if (room.getFloor() < 0) {
+            violations.add(new Violation(ViolationRule.ROOM_INVALID_FLOOR, room.getId(),
+                    String.format("Habitación %s tiene piso inválido: %d", room.getRoomNumber(), room.getFloor())));
+        }
+        return violations;
+    }
+
+    public static List<Violation> validate(Customer customer) {
+        List<Violation> violations = new ArrayList<>();
+        if (customer.getEmail() == null || !customer.getEmail().contains("@")) {
+            violations.add(new Violation(ViolationRule.CUSTOMER_INVALID_EMAIL, customer.getId(),
+                    String.format("Cliente %d tiene email inválido: %s", customer.getId(), customer.getEmail())));
+        }
+        if (customer.getFirstName() == null || customer.getFirstName().trim().isEmpty()) {
+            violations.add(new Violation(ViolationRule.CUSTOMER_MISSING_FIRST_NAME, customer.getId(),
+                    String.format("Cliente %d no tiene nombre", customer.getId())));
+        }
+        if (customer.getLastName() == null || customer.getLastName().trim().isEmpty()) {
+            violations.add(new Violation(ViolationRule.CUSTOMER_MISSING_LAST_NAME, customer.getId(),
+                    String.format("Cliente %d no tiene apellido", customer.getId())));
+        }
+        return violations;
+    }
+
+    /**
+     * Reglas propias de la reserva (la habitación debe venir cargada)
+     */
+    public static List<Violation> validate(Reservation reservation) {
+        List<Violation> violations = new ArrayList<>();
+        if (!reservation.getCheckOutDate().isAfter(reservation.getCheckInDate())) {
+            violations.add(new Violation(ViolationRule.RESERVATION_INVALID_DATES, reservation.getId(),
+                    String.format("Reserva %d tiene fechas inválidas: %s - %s",
+                            reservation.getId(), reservation.getCheckInDate(), reservation.getCheckOutDate())));
+        }
+        if (reservation.getNumberOfGuests() <= 0) {
+            violations.add(new Violation(ViolationRule.RESERVATION_INVALID_GUESTS, reservation.getId(),
+                    String.format("Reserva %d tiene número de huéspedes inválido: %d",
+                            reservation.getId(), reservation.getNumberOfGuests())));
+        }
+        if (reservation.getNumberOfGuests() > reservation.getRoom().getCapacity()) {
+            violations.add(new Violation(ViolationRule.RESERVATION_OVER_CAPACITY, reservation.getId(),
+                    reservation.getRoom().getId(),
+                    String.format("Reserva %d excede capacidad de habitación: %d > %d",
+                            reservation.getId(), reservation.getNumberOfGuests(), reservation.getRoom().getCapacity())));
+        }
+        if (reservation.getTotalPrice().doubleValue() <= 0) {
+            violations.add(new Violation(ViolationRule.RESERVATION_INVALID_TOTAL, reservation.getId(),
+                    String.format("Reserva %d tiene precio total inválido: %.2f",
+                            reservation.getId(), reservation.getTotalPrice())));
+        }
+        return violations;
+    }
+
+    /**
+     * Reglas del pago (la reserva debe venir cargada)
+     */
+    public static List<Violation> validate(Payment payment) {
+        List<Violation> violations = new ArrayList<>();
+        if (payment.getAmount().doubleValue() <= 0) {
+            violations.add(new Violation(ViolationRule.PAYMENT_INVALID_AMOUNT, payment.getId(),
+                    String.format("Pago %d tiene monto inválido: %.2f", payment.getId(), payment.getAmount())));
+        }
+        // Un pago pendiente o fallido todavía no tiene transacción del procesador
+        boolean settled = payment.getPaymentStatus() == PaymentStatus.COMPLETED
+                || payment.getPaymentStatus() == PaymentStatus.REFUNDED;
+        if (settled && (payment.getTransactionId() == null || payment.getTransactionId().trim().isEmpty())) {
+            violations.add(new Violation(ViolationRule.PAYMENT_MISSING_TRANSACTION, payment.getId(),
+                    String.format("Pago %d no tiene ID de transacción", payment.getId())));
+        }
+        Reservation reservation = payment.getReservation();
+        if (reservation != null && !matchesReservationTotal(payment.getAmount(), reservation.getTotalPrice())) {
+            violations.add(new Violation(ViolationRule.PAYMENT_AMOUNT_MISMATCH, payment.getId(), reservation.getId(),
+                    String.format("Pago %d tiene monto %.2f distinto al total de la reserva %d: %.2f",
+                            payment.getId(), payment.getAmount(), reservation.getId(), reservation.getTotalPrice())));
+        }
+        return violations;
+    }
+
+    /**
+     * Cruce entre dos reservas activas de la misma habitación
+     */
+    public static Violation overlap(Long reservationId, Long otherReservationId, Long roomId) {
+        return new Violation(ViolationRule.RESERVATION_OVERLAP, reservationId, otherReservationId,
+                String.format("Reserva %d se cruza con la reserva %d en la habitación %d",
+                        reservationId, otherReservationId, roomId));
+    }
+
+    /**
+     * El monto cobrado es el total de la reserva, con o sin impuestos (según cuándo se registró)
+     */
+    private static boolean matchesReservationTotal(BigDecimal amount, BigDecimal totalPrice) {
+        BigDecimal withTax = totalPrice.add(totalPrice.multiply(BigDecimal.valueOf(ConfigurationManager.INSTANCE.getTaxRate())));
+        return amount.subtract(totalPrice).abs().compareTo(AMOUNT_TOLERANCE) <= 0
+                || amount.subtract(withTax).abs().compareTo(AMOUNT_TOLERANCE) <= 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hotel.reservation.validation;
+
+import com.hotel.reservation.models.ViolationRule;
+
+/**
+ * Resultado de evaluar una regla sobre una entidad
+ * @param rule regla incumplida
+ * @param entityId ID de la entidad que la incumple
+ * @param relatedEntityId otra entidad involucrada (null si no aplica)
+ * @param message descripción legible
+ */
+public record Violation(ViolationRule rule, Long entityId, Long relatedEntityId, String message) {
+
+    public Violation(ViolationRule rule, Long entityId, String message) {
+        this(rule, entityId, null, message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.hotel.reservation.export;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteRangeTest {
+
+    private static final long SIZE = 1000;
+
+    @Test
+    void returnsNullWithoutHeaderOrWithOtherUnit() {
+        assertThat(ByteRange.parse(null, SIZE)).isNull();
+        assertThat(ByteRange.parse("items=0-10", SIZE)).isNull();
+    }
+
+    @Test
+    void parsesClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=0-99", SIZE);
+
+        assertThat(range).isEqualTo(new ByteRange(0, 99));
+        assertThat(range.length()).isEqualTo(100);
+        assertThat(range.contentRange(SIZE)).isEqualTo("bytes 0-99/1000");
+    }
+
+    @Test
+    void parsesOpenEndedRange() {
+        assertThat(ByteRange.parse("bytes=500-", SIZE)).isEqualTo(new ByteRange(500, 999));
+        assertThat(ByteRange.parse("bytes= 999 - ", SIZE)).isEqualTo(new ByteRange(999, 999));
+    }
+
+    @Test
+    void clampsEndToFileSize() {
+        assertThat(ByteRange.parse("bytes=900-5000", SIZE)).isEqualTo(new ByteRange(900, 999));
+    }
+
+    @Test
+    void parsesSuffixRange() {
+        assertThat(ByteRange.parse("bytes=-100", SIZE)).isEqualTo(new ByteRange(900, 999));
+        // Un sufijo mayor al archivo devuelve el archivo completo
+        assertThat(ByteRange.parse("bytes=-5000", SIZE)).isEqualTo(new ByteRange(0, 999));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() {
+        assertThatThrownBy(() -> ByteRange.parse("bytes=1000-", SIZE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=2000-3000", SIZE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=-0", SIZE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=-10", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ByteRange.parse("bytes=0-", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ignoresInvalidOrMultipleRanges() {
+        assertThat(ByteRange.parse("bytes=0-10,20-30", SIZE)).isNull();
+        assertThat(ByteRange.parse("bytes=abc-", SIZE)).isNull();
+        assertThat(ByteRange.parse("bytes=10", SIZE)).isNull();
+        assertThat(ByteRange.parse("bytes=-", SIZE)).isNull();
+        assertThat(ByteRange.parse("bytes=50-10", SIZE)).isNull();
+    }
+}
@@ -0,0 +1,152 @@
+package com.hotel.reservation.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    @Test
+    void writesPlainFieldsWithoutQuotes() throws IOException {
+        assertThat(write(csv -> csv.field("Ana").field(7L).field(3).endRow())).isEqualTo("Ana,7,3\n");
+    }
+
+    @Test
+    void quotesFieldsWithCommaQuoteOrLineBreaks() throws IOException {
+        String out = write(csv -> csv
+                .field("a,b")
+                .field("dice \"hola\"")
+                .field("línea\nnueva")
+                .field("retorno\rcarro")
+                .endRow());
+
+        assertThat(out).isEqualTo("\"a,b\",\"dice \"\"hola\"\"\",\"línea\nnueva\",\"retorno\rcarro\"\n");
+    }
+
+    @Test
+    void writesDecimalsWithTwoPlacesRoundingHalfUp() throws IOException {
+        String out = write(csv -> csv
+                .field(new BigDecimal("2.5"))
+                .field(new BigDecimal("1.005"))
+                .field(new BigDecimal("-1.005"))
+                .field(new BigDecimal("-0.05"))
+                .field(new BigDecimal("0.004"))
+                .field(new BigDecimal("1234567.891"))
+                .endRow());
+
+        assertThat(out).isEqualTo("2.50,1.01,-1.01,-0.05,0.00,1234567.89\n");
+    }
+
+    @Test
+    void writesLongExtremes() throws IOException {
+        String out = write(csv -> csv.field(Long.MIN_VALUE).field(Long.MAX_VALUE).field(0L).field(-42L).endRow());
+
+        assertThat(out).isEqualTo("-9223372036854775808,9223372036854775807,0,-42\n");
+    }
+
+    @Test
+    void writesNullFieldsAsEmpty() throws IOException {
+        String out = write(csv -> csv
+                .field((CharSequence) null)
+                .field((Long) null)
+                .field((Integer) null)
+                .field((BigDecimal) null)
+                .field((LocalDate) null)
+                .field((LocalDateTime) null)
+                .field((Enum<?>) null)
+                .endRow());
+
+        assertThat(out).isEqualTo(",,,,,,\n");
+    }
+
+    @Test
+    void writesDatesAndEnums() throws IOException {
+        String out = write(csv -> csv
+                .field(LocalDate.of(2024, 3, 5))
+                .field(LocalDateTime.of(2024, 12, 31, 7, 8, 59))
+                .field(Thread.State.NEW)
+                .endRow());
+
+        assertThat(out).isEqualTo("05/03/2024,31/12/2024 07:08,NEW\n");
+    }
+
+    @Test
+    void keepsOrderWhenValuesExceedTheBuffer() throws IOException {
+        String longValue = "x".repeat(BUFFER_SIZE + 10);
+        String longQuoted = "y,".repeat(BUFFER_SIZE);
+
+        String out = write(csv -> csv
+                .field("inicio")
+                .field(longValue)
+                .field(longQuoted)
+                .field("fin")
+                .endRow());
+
+        assertThat(out).isEqualTo("inicio," + longValue + ",\"" + longQuoted + "\",fin\n");
+    }
+
+    @Test
+    void keepsOrderAcrossManyBufferFlushes() throws IOException {
+        StringBuilder expected = new StringBuilder("ID,Nombre\n");
+        StringWriter target = new StringWriter();
+        CsvWriter csv = new CsvWriter(target);
+        csv.header("ID", "Nombre");
+        for (long i = 0; i < 5_000; i++) {
+            csv.field(i).field("cliente " + i).endRow();
+            expected.append(i).append(",cliente ").append(i).append('\n');
+        }
+        csv.close();
+
+        assertThat(target.toString()).isEqualTo(expected.toString());
+        assertThat(csv.getRows()).isEqualTo(5_000);
+    }
+
+    @Test
+    void headerIsNotCountedAsRow() throws IOException {
+        StringWriter target = new StringWriter();
+        CsvWriter csv = new CsvWriter(target);
+        csv.header("A", "B");
+        csv.field("1").field("2").endRow();
+        csv.close();
+
+        assertThat(csv.getRows()).isEqualTo(1);
+        assertThat(target.toString()).isEqualTo("A,B\n1,2\n");
+    }
+
+    @Test
+    void compressesWithGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CsvWriter csv = CsvWriter.open(bytes, true)) {
+            csv.header("ID").field(1L).endRow();
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("ID\n1\n");
+        }
+    }
+
+    private static String write(CsvRow row) throws IOException {
+        StringWriter target = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(target)) {
+            row.write(csv);
+        }
+        return target.toString();
+    }
+
+    @FunctionalInterface
+    private interface CsvRow {
+        void write(CsvWriter csv);
+    }
+}
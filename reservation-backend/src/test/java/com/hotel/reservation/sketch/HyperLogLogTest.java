@@ -0,0 +1,122 @@
+package com.hotel.reservation.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    // ~3 veces el error típico de 2^12 registros (1.6 %)
+    private static final double MAX_ERROR = 0.05;
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void estimatesSmallCardinalitiesExactlyOrClose() {
+        assertThat(sketchOf(0, 1).estimate()).isEqualTo(1);
+        assertThat(sketchOf(0, 10).estimate()).isEqualTo(10);
+        assertThat((double) sketchOf(0, 100).estimate()).isCloseTo(100, within(2.0));
+    }
+
+    @Test
+    void estimatesKnownCardinalitiesWithinErrorBound() {
+        for (int cardinality : new int[] {1_000, 10_000, 100_000, 1_000_000}) {
+            long estimate = sketchOf(0, cardinality).estimate();
+            assertThat(relativeError(estimate, cardinality))
+                    .as("cardinalidad %d, estimado %d", cardinality, estimate)
+                    .isLessThan(MAX_ERROR);
+        }
+    }
+
+    @Test
+    void ignoresDuplicates() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long estimate = sketch.estimate();
+        for (int round = 0; round < 3; round++) {
+            for (long value = 0; value < 5_000; value++) {
+                sketch.add(value);
+            }
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void mergeEstimatesUnion() {
+        HyperLogLog first = sketchOf(0, 60_000);
+        HyperLogLog second = sketchOf(40_000, 100_000);
+
+        first.merge(second);
+
+        assertThat(relativeError(first.estimate(), 100_000)).isLessThan(MAX_ERROR);
+        // La unión con todos los valores da los mismos registros que un solo sketch
+        assertThat(first.toBytes()).isEqualTo(sketchOf(0, 100_000).toBytes());
+    }
+
+    @Test
+    void mergeDoesNotModifyArgument() {
+        HyperLogLog first = sketchOf(0, 1_000);
+        HyperLogLog second = sketchOf(1_000, 2_000);
+        byte[] before = second.toBytes();
+
+        first.merge(second);
+
+        assertThat(second.toBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        HyperLogLog original = sketchOf(0, 1_000);
+        HyperLogLog copy = original.copy();
+
+        copy.merge(sketchOf(1_000, 50_000));
+
+        assertThat(original.toBytes()).isEqualTo(sketchOf(0, 1_000).toBytes());
+        assertThat(copy.estimate()).isGreaterThan(original.estimate());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        HyperLogLog sketch = sketchOf(0, 25_000);
+        byte[] bytes = sketch.toBytes();
+
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+        assertThat(restored.toBytes()).isEqualTo(bytes);
+
+        // El sketch restaurado no comparte el arreglo de entrada
+        bytes[1] = 60;
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void rejectsInvalidBytes() {
+        byte[] valid = new HyperLogLog().toBytes();
+        byte[] wrongPrecision = valid.clone();
+        wrongPrecision[0] = 14;
+
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[valid.length - 1])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[valid.length + 1])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(wrongPrecision)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HyperLogLog sketchOf(long fromInclusive, long toExclusive) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = fromInclusive; value < toExclusive; value++) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static double relativeError(long estimate, long actual) {
+        return Math.abs(estimate - actual) / (double) actual;
+    }
+}
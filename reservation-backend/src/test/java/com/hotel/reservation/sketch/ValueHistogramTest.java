@@ -0,0 +1,198 @@
+package com.hotel.reservation.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ValueHistogramTest {
+
+    // Error relativo máximo de una cubeta (1/64)
+    private static final double MAX_ERROR = 1.0 / 64;
+
+    @Test
+    void emptyHistogramReturnsZeros() {
+        ValueHistogram histogram = new ValueHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMin()).isZero();
+        assertThat(histogram.getMax()).isZero();
+        assertThat(histogram.percentile(50)).isZero();
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        ValueHistogram histogram = new ValueHistogram();
+        for (long value = 0; value < 64; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.percentile(0)).isEqualTo(0);
+        assertThat(histogram.percentile(50)).isEqualTo(31);
+        assertThat(histogram.percentile(75)).isEqualTo(47);
+        assertThat(histogram.percentile(100)).isEqualTo(63);
+    }
+
+    @Test
+    void percentilesOfUniformDistributionWithinErrorBound() {
+        ValueHistogram histogram = histogramOf(1, 100_000);
+
+        assertPercentile(histogram, 50, 50_000);
+        assertPercentile(histogram, 90, 90_000);
+        assertPercentile(histogram, 99, 99_000);
+        assertPercentile(histogram, 99.9, 99_900);
+        assertPercentile(histogram, 100, 100_000);
+        assertThat(histogram.percentile(0)).isEqualTo(1);
+        assertThat(histogram.percentile(100)).isLessThanOrEqualTo(histogram.getMax());
+    }
+
+    @Test
+    void percentilesOfSkewedDistributionWithinErrorBound() {
+        // 90 % de montos pequeños y 10 % grandes
+        Random random = new Random(42);
+        long[] values = new long[50_000];
+        ValueHistogram histogram = new ValueHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 10 == 0 ? 1_000_000 + random.nextInt(9_000_000) : 100 + random.nextInt(900);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {10, 50, 89, 95, 99}) {
+            long expected = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            assertPercentile(histogram, percentile, expected);
+        }
+    }
+
+    @Test
+    void tracksExactTotals() {
+        ValueHistogram histogram = new ValueHistogram();
+        histogram.record(150_000);
+        histogram.record(2_500);
+        histogram.record(-10);
+
+        assertThat(histogram.getCount()).isEqualTo(3);
+        assertThat(histogram.getSum()).isEqualTo(152_500);
+        assertThat(histogram.getMin()).isZero();
+        assertThat(histogram.getMax()).isEqualTo(150_000);
+    }
+
+    @Test
+    void clampsValuesAboveRangeToLastBucket() {
+        ValueHistogram histogram = new ValueHistogram();
+        histogram.record(1L << 50);
+
+        assertThat(histogram.getMax()).isEqualTo(1L << 50);
+        assertThat(histogram.percentile(100)).isLessThanOrEqualTo(1L << 50);
+        assertThat(ValueHistogram.fromBytes(histogram.toBytes()).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void mergeEqualsSingleHistogram() {
+        ValueHistogram first = histogramOf(1, 40_000);
+        ValueHistogram second = histogramOf(40_001, 100_000);
+
+        first.merge(second);
+
+        ValueHistogram all = histogramOf(1, 100_000);
+        assertThat(first.toBytes()).isEqualTo(all.toBytes());
+        assertThat(first.percentile(50)).isEqualTo(all.percentile(50));
+    }
+
+    @Test
+    void mergeWithEmptyKeepsMinimum() {
+        ValueHistogram histogram = histogramOf(500, 1_000);
+
+        histogram.merge(new ValueHistogram());
+        ValueHistogram empty = new ValueHistogram();
+        empty.merge(histogramOf(500, 1_000));
+
+        assertThat(histogram.getMin()).isEqualTo(500);
+        assertThat(empty.getMin()).isEqualTo(500);
+        assertThat(empty.toBytes()).isEqualTo(histogram.toBytes());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        ValueHistogram original = histogramOf(1, 1_000);
+        ValueHistogram copy = original.copy();
+
+        copy.record(5_000_000);
+
+        assertThat(original.getCount()).isEqualTo(1_000);
+        assertThat(original.getMax()).isEqualTo(1_000);
+        assertThat(copy.getCount()).isEqualTo(1_001);
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        ValueHistogram histogram = histogramOf(1, 100_000);
+        histogram.record(0);
+
+        ValueHistogram restored = ValueHistogram.fromBytes(histogram.toBytes());
+
+        assertThat(restored.getCount()).isEqualTo(histogram.getCount());
+        assertThat(restored.getSum()).isEqualTo(histogram.getSum());
+        assertThat(restored.getMin()).isEqualTo(histogram.getMin());
+        assertThat(restored.getMax()).isEqualTo(histogram.getMax());
+        assertThat(restored.percentile(99)).isEqualTo(histogram.percentile(99));
+        assertThat(restored.toBytes()).isEqualTo(histogram.toBytes());
+    }
+
+    @Test
+    void roundTripsEmptyHistogram() {
+        ValueHistogram restored = ValueHistogram.fromBytes(new ValueHistogram().toBytes());
+        restored.record(7);
+
+        assertThat(restored.getMin()).isEqualTo(7);
+        assertThat(restored.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidBytes() {
+        byte[] valid = histogramOf(1, 1_000).toBytes();
+
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(Arrays.copyOf(valid, valid.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(Arrays.copyOf(valid, valid.length + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCountsThatDoNotMatchBuckets() {
+        byte[] bytes = histogramOf(1, 1_000).toBytes();
+        ByteBuffer.wrap(bytes).putLong(0, 999);
+
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsBucketIndexOutOfRange() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 4 + Integer.BYTES + Short.BYTES + Long.BYTES);
+        buffer.putLong(1).putLong(5).putLong(5).putLong(5).putInt(1);
+        buffer.putShort(Short.MAX_VALUE).putLong(1);
+
+        assertThatThrownBy(() -> ValueHistogram.fromBytes(buffer.array())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ValueHistogram histogramOf(long fromInclusive, long toInclusive) {
+        ValueHistogram histogram = new ValueHistogram();
+        for (long value = fromInclusive; value <= toInclusive; value++) {
+            histogram.record(value);
+        }
+        return histogram;
+    }
+
+    private static void assertPercentile(ValueHistogram histogram, double percentile, long expected) {
+        assertThat((double) histogram.percentile(percentile))
+                .as("percentil %s", percentile)
+                .isCloseTo(expected, within(expected * MAX_ERROR));
+    }
+}